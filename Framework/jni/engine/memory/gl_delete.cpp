@@ -16,10 +16,34 @@
 //#include "util/gvr_log.h"
 #include "gl_delete.h"
 
+#include <algorithm>
+#include <climits>
+
+#include "util/gvr_gl.h"
+#include "util/gvr_time.h"
+
 namespace gvr {
 
 GlDelete gl_delete;
 
+/*
+ * Delete in chunks of this size, so that a long queue of one type can't blow
+ * the time budget by much
+ */
+static const int DELETE_CHUNK_SIZE = 32;
+
+static void deletePrograms(GLsizei n, const GLuint* programs) {
+    for (int index = 0; index < n; ++index) {
+        glDeleteProgram(programs[index]);
+    }
+}
+
+static void deleteShaders(GLsizei n, const GLuint* shaders) {
+    for (int index = 0; index < n; ++index) {
+        glDeleteShader(shaders[index]);
+    }
+}
+
 void GlDelete::queueBuffer(GLuint buffer) {
     lock();
     buffers_.push_back(buffer);
@@ -79,6 +103,65 @@ void GlDelete::queueVertexArray(GLuint vertex_array) {
     unlock();
 }
 
+void GlDelete::queueQuery(GLuint query) {
+    lock();
+    queries_.push_back(query);
+    dirty = true;
+    unlock();
+}
+
+std::vector<GLuint>& GlDelete::queue(ResourceType type) {
+    switch (type) {
+    case BUFFER:
+        return buffers_;
+    case FRAME_BUFFER:
+        return frame_buffers_;
+    case PROGRAM:
+        return programs_;
+    case RENDER_BUFFER:
+        return render_buffers_;
+    case SHADER:
+        return shaders_;
+    case TEXTURE:
+        return textures_;
+    case QUERY:
+        return queries_;
+    case VERTEX_ARRAY:
+    default:
+        return vertex_arrays_;
+    }
+}
+
+int GlDelete::getPendingCount(ResourceType type) {
+    lock();
+    int count = queue(type).size();
+    unlock();
+    return count;
+}
+
+/*
+ * Deletes up to max_objects names from the tail of the queue, in chunks,
+ * checking the deadline (if any) between chunks. Returns the number deleted.
+ */
+int GlDelete::deleteFromQueue(ResourceType type, Deleter deleter,
+        int max_objects, long long deadline) {
+    std::vector<GLuint>& names = queue(type);
+    int deleted = 0;
+    while (names.size() > 0 && deleted < max_objects) {
+        if (deadline > 0 && getCurrentTime() >= deadline) {
+            break;
+        }
+        int size = names.size();
+        int count = std::min(std::min(size, max_objects - deleted),
+                DELETE_CHUNK_SIZE);
+        deleter(count, names.data() + size - count);
+        names.resize(size - count);
+        deleted += count;
+    }
+    reclaimed_[type] += deleted;
+    return deleted;
+}
+
 void GlDelete::processQueues() {
     /*
      * Do an unsynchronized check of the dirty flag, so that we don't have to
@@ -87,43 +170,45 @@ void GlDelete::processQueues() {
      * minimal, but locking every frame is not free.
      */
     if (dirty) {
+        long long deadline =
+                max_microseconds_per_frame_ > 0 ?
+                        getCurrentTime()
+                                + max_microseconds_per_frame_ * 1000LL :
+                        0;
+        int budget =
+                max_objects_per_frame_ > 0 ?
+                        max_objects_per_frame_ : INT_MAX;
+
         lock();
 //    LOGD("GlDelete::processQueues()");
-        if (buffers_.size() > 0) {
-            glDeleteBuffers(buffers_.size(), buffers_.data());
-            buffers_.clear();
-        }
-        if (frame_buffers_.size() > 0) {
-            glDeleteFramebuffers(frame_buffers_.size(), frame_buffers_.data());
-            frame_buffers_.clear();
-        }
-        if (programs_.size() > 0) {
-            for (int index = 0, size = programs_.size(); index < size;
-                    ++index) {
-                glDeleteProgram(programs_[index]);
-            }
-            programs_.clear();
-        }
-        if (render_buffers_.size() > 0) {
-            glDeleteRenderbuffers(render_buffers_.size(),
-                    render_buffers_.data());
-            render_buffers_.clear();
-        }
-        if (shaders_.size() > 0) {
-            for (int index = 0, size = shaders_.size(); index < size; ++index) {
-                glDeleteShader(shaders_[index]);
+        /*
+         * Containers (VAOs, programs, frame buffers) go before the objects
+         * they reference, so the referenced objects can be freed immediately
+         * when their turn comes.
+         */
+        budget -= deleteFromQueue(VERTEX_ARRAY, glDeleteVertexArrays, budget,
+                deadline);
+        budget -= deleteFromQueue(BUFFER, glDeleteBuffers, budget, deadline);
+        budget -= deleteFromQueue(TEXTURE, glDeleteTextures, budget,
+                deadline);
+        budget -= deleteFromQueue(FRAME_BUFFER, glDeleteFramebuffers, budget,
+                deadline);
+        budget -= deleteFromQueue(RENDER_BUFFER, glDeleteRenderbuffers,
+                budget, deadline);
+        budget -= deleteFromQueue(PROGRAM, deletePrograms, budget, deadline);
+        budget -= deleteFromQueue(SHADER, deleteShaders, budget, deadline);
+        budget -= deleteFromQueue(QUERY, glDeleteQueries, budget, deadline);
+
+        // A deleted name may be reused, while still in the state cache
+        GLState::invalidate();
+
+        dirty = false;
+        for (int type = 0; type < RESOURCE_TYPE_COUNT; ++type) {
+            if (queue(static_cast<ResourceType>(type)).size() > 0) {
+                dirty = true;
+                break;
             }
-            shaders_.clear();
-        }
-        if (textures_.size() > 0) {
-            glDeleteTextures(textures_.size(), textures_.data());
-            textures_.clear();
         }
-        if (vertex_arrays_.size() > 0) {
-            glDeleteVertexArrays(vertex_arrays_.size(), vertex_arrays_.data());
-            vertex_arrays_.clear();
-        }
-        dirty = false;
         unlock();
     }
 }
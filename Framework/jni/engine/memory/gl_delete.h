@@ -24,8 +24,31 @@ namespace gvr {
 class GlDelete {
 
 public:
-    GlDelete() {
+    /*
+     * Keep in sync with org.gearvrf.GVRGLDelete.ResourceType
+     */
+    enum ResourceType {
+        BUFFER = 0,
+        FRAME_BUFFER,
+        PROGRAM,
+        RENDER_BUFFER,
+        SHADER,
+        TEXTURE,
+        VERTEX_ARRAY,
+        QUERY,
+        RESOURCE_TYPE_COUNT
+    };
+
+    static const int DEFAULT_MAX_OBJECTS_PER_FRAME = 256;
+    static const int DEFAULT_MAX_MICROSECONDS_PER_FRAME = 1000;
+
+    GlDelete() :
+            max_objects_per_frame_(DEFAULT_MAX_OBJECTS_PER_FRAME), max_microseconds_per_frame_(
+                    DEFAULT_MAX_MICROSECONDS_PER_FRAME) {
         pthread_mutex_init(&mutex, 0);
+        for (int type = 0; type < RESOURCE_TYPE_COUNT; ++type) {
+            reclaimed_[type] = 0;
+        }
     }
 
     ~GlDelete() {
@@ -39,10 +62,39 @@ public:
     void queueShader(GLuint shader);
     void queueTexture(GLuint texture);
     void queueVertexArray(GLuint vertex_array);
+    void queueQuery(GLuint query);
 
+    /*
+     * Deletes at most max_objects_per_frame_ objects, and stops starting new
+     * deletions once max_microseconds_per_frame_ have passed. Anything left
+     * over stays queued for the next frame.
+     */
     void processQueues();
 
+    /*
+     * A limit of 0 (or less) means 'no limit'
+     */
+    void setFrameBudget(int max_objects, int max_microseconds) {
+        max_objects_per_frame_ = max_objects;
+        max_microseconds_per_frame_ = max_microseconds;
+    }
+
+    int getPendingCount(ResourceType type);
+
+    long long getReclaimedCount(ResourceType type) {
+        return reclaimed_[type];
+    }
+
 private:
+    typedef void (*Deleter)(GLsizei n, const GLuint* names);
+
+    int deleteFromQueue(ResourceType type, Deleter deleter,
+            int max_objects, long long deadline);
+    std::vector<GLuint>& queue(ResourceType type);
+
+    int max_objects_per_frame_;
+    int max_microseconds_per_frame_;
+    long long reclaimed_[RESOURCE_TYPE_COUNT];
 
     pthread_mutex_t mutex;
     bool dirty = false;
@@ -61,6 +113,7 @@ private:
     std::vector<GLuint> shaders_;
     std::vector<GLuint> textures_;
     std::vector<GLuint> vertex_arrays_;
+    std::vector<GLuint> queries_;
 };
 
 extern GlDelete gl_delete;
@@ -21,6 +21,15 @@ namespace gvr {
 extern "C" {
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeGLDelete_processQueues(JNIEnv * env, jobject obj);
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeGLDelete_setFrameBudget(JNIEnv * env, jobject obj,
+        jint max_objects, jint max_microseconds);
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativeGLDelete_getPendingCount(JNIEnv * env, jobject obj,
+        jint type);
+JNIEXPORT jlong JNICALL
+Java_org_gearvrf_NativeGLDelete_getReclaimedCount(JNIEnv * env, jobject obj,
+        jint type);
 }
 
 JNIEXPORT void JNICALL
@@ -28,5 +37,24 @@ Java_org_gearvrf_NativeGLDelete_processQueues(JNIEnv * env, jobject obj) {
     gl_delete.processQueues();
 }
 
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeGLDelete_setFrameBudget(JNIEnv * env, jobject obj,
+        jint max_objects, jint max_microseconds) {
+    gl_delete.setFrameBudget(max_objects, max_microseconds);
+}
+
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativeGLDelete_getPendingCount(JNIEnv * env, jobject obj,
+        jint type) {
+    return gl_delete.getPendingCount(static_cast<GlDelete::ResourceType>(type));
+}
+
+JNIEXPORT jlong JNICALL
+Java_org_gearvrf_NativeGLDelete_getReclaimedCount(JNIEnv * env, jobject obj,
+        jint type) {
+    return gl_delete.getReclaimedCount(
+            static_cast<GlDelete::ResourceType>(type));
+}
+
 
 }
@@ -41,6 +41,7 @@ Picker::~Picker() {
 
 std::vector<EyePointeeHolder*> Picker::pickScene(Scene* scene, float ox,
         float oy, float oz, float dx, float dy, float dz) {
+    // Not the scene's cached list: picking can run on any thread
     std::vector<SceneObject*> scene_objects = scene->getWholeSceneObjects();
     std::vector<EyePointeeHolder*> eye_pointee_holders;
     for (auto it = scene_objects.begin(); it != scene_objects.end(); ++it) {
@@ -0,0 +1,404 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * A bounding volume hierarchy over scene objects, for frustum and occlusion
+ * culling.
+ ***************************************************************************/
+
+#include "bounding_volume_hierarchy.h"
+
+#include <algorithm>
+#include <limits>
+
+#include "engine/memory/gl_delete.h"
+#include "objects/mesh.h"
+#include "objects/scene_object.h"
+#include "objects/components/render_data.h"
+#include "shaders/material/bounding_box_shader.h"
+#include "util/gvr_gl.h"
+#include "util/gvr_worker_pool.h"
+
+namespace gvr {
+
+namespace {
+// Objects with no mesh bounds (yet) get an inverted, empty box
+bool emptyBounds(const glm::vec3& min, const glm::vec3& max) {
+    return min.x > max.x;
+}
+
+// Orders objects by the centre of their bounds, along one axis; objects
+// with empty bounds, whose centre is not a number, go last
+struct CentroidLess {
+    CentroidLess(const std::vector<glm::vec3>& min,
+            const std::vector<glm::vec3>& max, int axis) :
+            min_(min), max_(max), axis_(axis) {
+    }
+
+    bool operator()(int lhs, int rhs) const {
+        return centroid(lhs) < centroid(rhs);
+    }
+
+    float centroid(int index) const {
+        if (emptyBounds(min_[index], max_[index])) {
+            return std::numeric_limits<float>::infinity();
+        }
+        return min_[index][axis_] + max_[index][axis_];
+    }
+
+    const std::vector<glm::vec3>& min_;
+    const std::vector<glm::vec3>& max_;
+    int axis_;
+};
+
+// Object order during a build
+std::vector<int> build_order;
+
+class ObjectBoundsTask: public ParallelTask {
+public:
+    ObjectBoundsTask(const std::vector<SceneObject*>& objects,
+            std::vector<glm::vec3>& object_min,
+            std::vector<glm::vec3>& object_max) :
+            objects_(objects), object_min_(object_min), object_max_(object_max) {
+    }
+
+    void run(int chunk, int begin, int end) {
+        float box[6];
+        for (int i = begin; i < end; ++i) {
+            SceneObject* scene_object = objects_[i];
+            scene_object->set_in_frustum(false);
+
+            RenderData* render_data = scene_object->render_data();
+            Mesh* mesh = render_data == 0 ? 0 : render_data->mesh();
+            if (mesh == 0 || mesh->getBoundingBoxInfo() == 0) {
+                // An empty box: never intersects anything
+                object_min_[i] = glm::vec3(
+                        std::numeric_limits<float>::infinity());
+                object_max_[i] = glm::vec3(
+                        -std::numeric_limits<float>::infinity());
+                continue;
+            }
+
+            glm::mat4 model_matrix(
+                    scene_object->transform()->computedModelMatrix());
+            mesh->getTransformedBoundingBoxInfo(&model_matrix, box);
+            object_min_[i] = glm::vec3(box[0], box[1], box[2]);
+            object_max_[i] = glm::vec3(box[3], box[4], box[5]);
+        }
+    }
+
+private:
+    const std::vector<SceneObject*>& objects_;
+    std::vector<glm::vec3>& object_min_;
+    std::vector<glm::vec3>& object_max_;
+};
+}
+
+BoundingVolumeHierarchy::BoundingVolumeHierarchy() :
+        nodes_(), objects_(), object_min_(), object_max_(), spare_queries_() {
+}
+
+BoundingVolumeHierarchy::~BoundingVolumeHierarchy() {
+    // May not be on the GL thread
+    for (auto it = nodes_.begin(); it != nodes_.end(); ++it) {
+        if (it->query != 0) {
+            gl_delete.queueQuery(it->query);
+        }
+    }
+    for (auto it = spare_queries_.begin(); it != spare_queries_.end(); ++it) {
+        gl_delete.queueQuery(*it);
+    }
+}
+
+void BoundingVolumeHierarchy::build(
+        const std::vector<SceneObject*>& scene_objects) {
+    objects_.clear();
+    for (auto it = scene_objects.begin(); it != scene_objects.end(); ++it) {
+        if ((*it)->render_data() != 0) {
+            objects_.push_back(*it);
+        }
+    }
+    updateObjectBounds(0);
+
+    for (auto it = nodes_.begin(); it != nodes_.end(); ++it) {
+        if (it->query != 0) {
+            spare_queries_.push_back(it->query);
+        }
+    }
+    nodes_.clear();
+    if (objects_.empty()) {
+        return;
+    }
+
+    build_order.resize(objects_.size());
+    for (int i = 0; i < build_order.size(); ++i) {
+        build_order[i] = i;
+    }
+    buildNode(0, objects_.size());
+
+    // Put the objects (and their bounds) in leaf order
+    std::vector<SceneObject*> objects(objects_.size());
+    std::vector<glm::vec3> object_min(objects_.size());
+    std::vector<glm::vec3> object_max(objects_.size());
+    for (int i = 0; i < build_order.size(); ++i) {
+        objects[i] = objects_[build_order[i]];
+        object_min[i] = object_min_[build_order[i]];
+        object_max[i] = object_max_[build_order[i]];
+    }
+    objects_.swap(objects);
+    object_min_.swap(object_min);
+    object_max_.swap(object_max);
+
+    refit();
+}
+
+int BoundingVolumeHierarchy::buildNode(int first, int count) {
+    int index = nodes_.size();
+    nodes_.push_back(Node());
+    Node& node = nodes_.back();
+    node.first_child = node.second_child = -1;
+    node.first_object = first;
+    node.object_count = count;
+    node.occluded = false;
+    node.query = 0;
+    node.query_issued = false;
+
+    if (count <= MAX_LEAF_SIZE) {
+        return index;
+    }
+
+    // Split at the median centroid, along the longest axis of the centroids
+    glm::vec3 centroid_min(std::numeric_limits<float>::infinity());
+    glm::vec3 centroid_max(-std::numeric_limits<float>::infinity());
+    for (int i = first; i < first + count; ++i) {
+        if (emptyBounds(object_min_[build_order[i]],
+                object_max_[build_order[i]])) {
+            continue;
+        }
+        glm::vec3 centroid = object_min_[build_order[i]]
+                + object_max_[build_order[i]];
+        centroid_min = glm::min(centroid_min, centroid);
+        centroid_max = glm::max(centroid_max, centroid);
+    }
+    glm::vec3 extent = centroid_max - centroid_min;
+    int axis = 0;
+    if (extent.y > extent[axis]) {
+        axis = 1;
+    }
+    if (extent.z > extent[axis]) {
+        axis = 2;
+    }
+
+    int half = count / 2;
+    std::nth_element(build_order.begin() + first,
+            build_order.begin() + first + half,
+            build_order.begin() + first + count,
+            CentroidLess(object_min_, object_max_, axis));
+
+    // node may dangle once we push children
+    nodes_[index].object_count = 0;
+    int first_child = buildNode(first, half);
+    int second_child = buildNode(first + half, count - half);
+    nodes_[index].first_child = first_child;
+    nodes_[index].second_child = second_child;
+    return index;
+}
+
+void BoundingVolumeHierarchy::updateObjectBounds(int threads) {
+    object_min_.resize(objects_.size());
+    object_max_.resize(objects_.size());
+
+    // Fill the lazy caches here, so that worker threads (here, and in later
+    // stages of the frame) only ever read them
+    for (auto it = objects_.begin(); it != objects_.end(); ++it) {
+        RenderData* render_data = (*it)->render_data();
+        Mesh* mesh = render_data == 0 ? 0 : render_data->mesh();
+        if (mesh != 0) {
+            (*it)->transform()->getModelMatrix();
+            mesh->getBoundingSphereInfo();
+        }
+    }
+
+    ObjectBoundsTask task(objects_, object_min_, object_max_);
+    WorkerPool::parallelFor(objects_.size(), threads, MIN_REFIT_CHUNK_SIZE,
+            task);
+}
+
+void BoundingVolumeHierarchy::refit(int threads) {
+    updateObjectBounds(threads);
+
+    // Children always come after their parent
+    for (int index = nodes_.size() - 1; index >= 0; --index) {
+        Node& node = nodes_[index];
+        if (node.object_count > 0) {
+            node.min = object_min_[node.first_object];
+            node.max = object_max_[node.first_object];
+            for (int i = node.first_object + 1;
+                    i < node.first_object + node.object_count; ++i) {
+                node.min = glm::min(node.min, object_min_[i]);
+                node.max = glm::max(node.max, object_max_[i]);
+            }
+        } else {
+            const Node& first = nodes_[node.first_child];
+            const Node& second = nodes_[node.second_child];
+            node.min = glm::min(first.min, second.min);
+            node.max = glm::max(first.max, second.max);
+        }
+    }
+}
+
+void BoundingVolumeHierarchy::cull(const Frustum& frustum,
+        std::vector<int>& visible_objects,
+        std::vector<int>* occluded_nodes) const {
+    if (!nodes_.empty()) {
+        cullNode(0, frustum, visible_objects, occluded_nodes);
+    }
+}
+
+void BoundingVolumeHierarchy::cullNode(int index, const Frustum& frustum,
+        std::vector<int>& visible_objects,
+        std::vector<int>* occluded_nodes) const {
+    const Node& node = nodes_[index];
+    Frustum::Containment containment = frustum.classify(node.min, node.max);
+    if (containment == Frustum::OUTSIDE) {
+        return;
+    }
+
+    if (occluded_nodes != 0 && node.occluded) {
+        occluded_nodes->push_back(index);
+        return;
+    }
+
+    if (containment == Frustum::INSIDE) {
+        acceptNode(index, visible_objects, occluded_nodes);
+    } else if (node.object_count > 0) {
+        for (int i = node.first_object;
+                i < node.first_object + node.object_count; ++i) {
+            if (frustum.classify(object_min_[i], object_max_[i])
+                    != Frustum::OUTSIDE) {
+                visible_objects.push_back(i);
+            }
+        }
+    } else {
+        cullNode(node.first_child, frustum, visible_objects, occluded_nodes);
+        cullNode(node.second_child, frustum, visible_objects, occluded_nodes);
+    }
+}
+
+void BoundingVolumeHierarchy::acceptNode(int index,
+        std::vector<int>& visible_objects,
+        std::vector<int>* occluded_nodes) const {
+    const Node& node = nodes_[index];
+    if (occluded_nodes != 0 && node.occluded) {
+        occluded_nodes->push_back(index);
+    } else if (node.object_count > 0) {
+        for (int i = node.first_object;
+                i < node.first_object + node.object_count; ++i) {
+            visible_objects.push_back(i);
+        }
+    } else {
+        acceptNode(node.first_child, visible_objects, occluded_nodes);
+        acceptNode(node.second_child, visible_objects, occluded_nodes);
+    }
+}
+
+void BoundingVolumeHierarchy::updateOcclusion() {
+#if _GVRF_USE_GLES3_
+    // Parents first, so that revealing a parent wins over a stale result on
+    // one of its children
+    for (int index = 0; index < nodes_.size(); ++index) {
+        Node& node = nodes_[index];
+        if (!node.query_issued) {
+            continue;
+        }
+
+        GLuint available = GL_FALSE;
+        glGetQueryObjectuiv(node.query, GL_QUERY_RESULT_AVAILABLE, &available);
+        if (!available) {
+            continue;
+        }
+
+        GLuint any_samples_passed = GL_FALSE;
+        glGetQueryObjectuiv(node.query, GL_QUERY_RESULT, &any_samples_passed);
+        node.query_issued = false;
+        if (any_samples_passed) {
+            revealNode(index);
+        }
+    }
+
+    // Then pull occlusion up from the objects, children first
+    for (int index = nodes_.size() - 1; index >= 0; --index) {
+        Node& node = nodes_[index];
+        if (node.occluded) {
+            continue;
+        }
+
+        if (node.object_count > 0) {
+            node.occluded = true;
+            for (int i = node.first_object;
+                    i < node.first_object + node.object_count; ++i) {
+                if (objects_[i]->visible()) {
+                    node.occluded = false;
+                    break;
+                }
+            }
+        } else {
+            node.occluded = nodes_[node.first_child].occluded
+                    && nodes_[node.second_child].occluded;
+        }
+    }
+#endif
+}
+
+void BoundingVolumeHierarchy::issueNodeQuery(int index,
+        BoundingBoxShader* shader) {
+#if _GVRF_USE_GLES3_
+    Node& node = nodes_[index];
+    if (node.query_issued) {
+        return;
+    }
+
+    if (node.query == 0) {
+        if (spare_queries_.empty()) {
+            glGenQueries(1, &node.query);
+        } else {
+            node.query = spare_queries_.back();
+            spare_queries_.pop_back();
+        }
+    }
+
+    glBeginQuery(GL_ANY_SAMPLES_PASSED, node.query);
+    shader->renderProxy(node.min, node.max);
+    glEndQuery(GL_ANY_SAMPLES_PASSED);
+    node.query_issued = true;
+#endif
+}
+
+void BoundingVolumeHierarchy::revealNode(int index) {
+    Node& node = nodes_[index];
+    node.occluded = false;
+    if (node.object_count > 0) {
+        for (int i = node.first_object;
+                i < node.first_object + node.object_count; ++i) {
+            objects_[i]->reset_visibility();
+        }
+    } else {
+        revealNode(node.first_child);
+        revealNode(node.second_child);
+    }
+}
+
+}
@@ -0,0 +1,170 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * A bounding volume hierarchy over scene objects, for frustum and occlusion
+ * culling.
+ ***************************************************************************/
+
+#ifndef BOUNDING_VOLUME_HIERARCHY_H_
+#define BOUNDING_VOLUME_HIERARCHY_H_
+
+#include <vector>
+
+#include "GLES3/gl3.h"
+#include "glm/glm.hpp"
+
+#include "engine/renderer/frustum.h"
+
+namespace gvr {
+class BoundingBoxShader;
+class SceneObject;
+
+/*
+ * The tree's shape is built from the scene's render list, and only rebuilt
+ * when that list changes. Objects move far more often than they are added or
+ * removed, so each frame just refits the boxes: the leaves get fresh
+ * world-space bounds from their current model matrices, and each interior
+ * node's box is the union of its children's.
+ *
+ * The tree is flattened into an array, with children always after their
+ * parent, so refitting is a single backwards pass.
+ *
+ * With occlusion culling, the tree also keeps an occluded flag per node. A
+ * node is occluded when all of its objects (or both of its children) are; an
+ * occluded subtree is skipped by cull(), and a single query on the node's box
+ * stands in for the queries its objects would otherwise need. When that query
+ * passes, the whole subtree is shown again, and its objects' own queries
+ * take over.
+ */
+class BoundingVolumeHierarchy {
+public:
+    BoundingVolumeHierarchy();
+    ~BoundingVolumeHierarchy();
+
+    /*
+     * Rebuilds the tree over the objects that have render data. Those
+     * without a mesh, or whose mesh has no bounding box yet, are kept, with
+     * empty bounds that cull them: a mesh set or filled in later doesn't
+     * rebuild the tree, but the next refit picks up its bounds.
+     */
+    void build(const std::vector<SceneObject*>& scene_objects);
+
+    /*
+     * Recomputes every object's world-space bounds, and every node's.
+     * Also clears each object's in_frustum flag, for cull() to set.
+     *
+     * The objects' bounds are split across up to 'threads' worker threads;
+     * their model matrices and mesh bounds, which are computed lazily, are
+     * validated on the calling thread first, and only read after.
+     */
+    void refit(int threads = 0);
+
+    /*
+     * Appends the indices of the objects whose bounds intersect the frustum.
+     * Subtrees entirely outside are skipped; subtrees entirely inside are
+     * accepted without testing their objects.
+     *
+     * If occluded_nodes is not null, occluded subtrees are skipped too, and
+     * the indices of the ones in the frustum are appended to it, for
+     * issueNodeQuery().
+     */
+    void cull(const Frustum& frustum, std::vector<int>& visible_objects,
+            std::vector<int>* occluded_nodes = 0) const;
+
+    /*
+     * Collects the results of node queries, and marks nodes whose objects
+     * are all hidden as occluded. Call on the GL thread, after the objects'
+     * own query results have been collected.
+     */
+    void updateOcclusion();
+
+    /*
+     * Queries an occluded node's box; does nothing if a query on the node is
+     * still pending. The shader must be between beginProxies() and
+     * endProxies().
+     */
+    void issueNodeQuery(int index, BoundingBoxShader* shader);
+
+    /*
+     * Clears the occluded flag on a node and its subtree, and makes all of
+     * its objects visible.
+     */
+    void revealNode(int index);
+
+    int size() const {
+        return objects_.size();
+    }
+
+    SceneObject* object(int index) const {
+        return objects_[index];
+    }
+
+    const glm::vec3& objectMin(int index) const {
+        return object_min_[index];
+    }
+
+    const glm::vec3& objectMax(int index) const {
+        return object_max_[index];
+    }
+
+    const glm::vec3& nodeMin(int index) const {
+        return nodes_[index].min;
+    }
+
+    const glm::vec3& nodeMax(int index) const {
+        return nodes_[index].max;
+    }
+
+private:
+    struct Node {
+        glm::vec3 min;
+        glm::vec3 max;
+        // Interior: index of the first child; the second is right after
+        // the first child's subtree, at second_child
+        int first_child;
+        int second_child;
+        // Leaf: range of objects_ (count == 0 for interior nodes)
+        int first_object;
+        int object_count;
+        bool occluded;
+        // 0 until the node is first queried
+        GLuint query;
+        bool query_issued;
+    };
+
+    int buildNode(int first, int count);
+    void cullNode(int index, const Frustum& frustum,
+            std::vector<int>& visible_objects,
+            std::vector<int>* occluded_nodes) const;
+    void acceptNode(int index, std::vector<int>& visible_objects,
+            std::vector<int>* occluded_nodes) const;
+    void updateObjectBounds(int threads);
+
+private:
+    static const int MAX_LEAF_SIZE = 4;
+    static const int MIN_REFIT_CHUNK_SIZE = 64;
+
+    std::vector<Node> nodes_;
+    std::vector<SceneObject*> objects_;
+    std::vector<glm::vec3> object_min_;
+    std::vector<glm::vec3> object_max_;
+    // Query names from nodes dropped by a rebuild, for reuse
+    std::vector<GLuint> spare_queries_;
+};
+
+}
+#endif
@@ -0,0 +1,44 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * One entry in the list of things to draw.
+ ***************************************************************************/
+
+#ifndef DRAW_COMMAND_H_
+#define DRAW_COMMAND_H_
+
+#include <stdint.h>
+
+#include "glm/glm.hpp"
+
+namespace gvr {
+class RenderData;
+
+/*
+ * Everything the GL thread needs to draw a render data, worked out
+ * beforehand: commands are built off the GL thread's critical path, and the
+ * draw loop only reads them.
+ */
+struct DrawCommand {
+    // See RenderSorter
+    uint64_t sort_key;
+    RenderData* render_data;
+    glm::mat4 model_matrix;
+};
+
+}
+#endif
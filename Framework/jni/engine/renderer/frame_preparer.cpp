@@ -0,0 +1,159 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Turns culled scene objects into draw commands, across worker threads.
+ ***************************************************************************/
+
+#include "frame_preparer.h"
+
+#include "engine/renderer/bounding_volume_hierarchy.h"
+#include "engine/renderer/render_sorter.h"
+#include "objects/mesh.h"
+#include "objects/scene_object.h"
+#include "objects/components/render_data.h"
+#include "objects/components/transform.h"
+#include "util/gvr_worker_pool.h"
+
+namespace gvr {
+
+namespace {
+struct ChunkOutput {
+    std::vector<DrawCommand> draw_commands;
+    std::vector<int> visible_batches;
+    std::vector<int> query_objects;
+};
+
+class PrepareTask: public ParallelTask {
+public:
+    PrepareTask(const BoundingVolumeHierarchy& bvh,
+            const std::vector<int>& visible_objects,
+            const std::vector<int>& object_batches,
+            const glm::mat4& vp_matrix, const glm::vec3& camera_position,
+            bool occlusion_culling, std::vector<ChunkOutput>& outputs) :
+            bvh_(bvh), visible_objects_(visible_objects), object_batches_(
+                    object_batches), vp_matrix_(
+                    vp_matrix), position_(camera_position, 1.0f), occlusion_culling_(
+                    occlusion_culling), outputs_(outputs) {
+    }
+
+    void run(int chunk, int begin, int end) {
+        ChunkOutput& output = outputs_[chunk];
+        output.draw_commands.clear();
+        output.visible_batches.clear();
+        output.query_objects.clear();
+
+        // Each object is in exactly one chunk, so writing to it is safe
+        for (int i = begin; i < end; ++i) {
+            int index = visible_objects_[i];
+            SceneObject* scene_object = bvh_.object(index);
+            RenderData* render_data = scene_object->render_data();
+            // The mesh may have been taken away since the refit
+            if (render_data == 0 || render_data->mesh() == 0
+                    || render_data->pass(0)->material() == 0) {
+                continue;
+            }
+
+            DrawCommand command;
+            command.render_data = render_data;
+            // Not getModelMatrix(): that may write shared ancestors
+            command.model_matrix =
+                    scene_object->transform()->computedModelMatrix();
+            glm::mat4 mvp_matrix(vp_matrix_ * command.model_matrix);
+
+            // Transform the bounding sphere
+            const float *sphere_info =
+                    render_data->mesh()->getBoundingSphereInfo();
+            glm::vec4 sphere_center(sphere_info[0], sphere_info[1],
+                    sphere_info[2], 1.0f);
+            glm::vec4 transformed_sphere_center = mvp_matrix * sphere_center;
+
+            // Calculate distance from camera
+            glm::vec4 difference = transformed_sphere_center - position_;
+            float distance = glm::dot(difference, difference);
+
+            // this distance will be used when sorting transparent objects
+            render_data->set_camera_distance(distance);
+
+            // Check if this is the correct LOD level
+            if (!scene_object->inLODRange(distance)) {
+                continue;
+            }
+
+            scene_object->set_in_frustum();
+
+            //If visibility flag was set by an earlier occlusion query,
+            //turn visibility on for the object
+            if (scene_object->visible()) {
+                int batch = object_batches_.empty() ? -1 : object_batches_[index];
+                if (batch >= 0) {
+                    output.visible_batches.push_back(batch);
+                } else {
+                    command.sort_key = RenderSorter::sortKey(render_data);
+                    output.draw_commands.push_back(command);
+                }
+            }
+
+            //If a previous query is active, do not issue a new query.
+            //Queries may span multiple frames
+            if (occlusion_culling_ && !scene_object->is_query_issued()) {
+                output.query_objects.push_back(index);
+            }
+        }
+    }
+
+private:
+    const BoundingVolumeHierarchy& bvh_;
+    const std::vector<int>& visible_objects_;
+    const std::vector<int>& object_batches_;
+    const glm::mat4& vp_matrix_;
+    glm::vec4 position_;
+    bool occlusion_culling_;
+    std::vector<ChunkOutput>& outputs_;
+};
+
+// Only ever used on the GL thread; kept to reuse the buffers' capacity
+std::vector<ChunkOutput> chunk_outputs;
+}
+
+void FramePreparer::prepare(const BoundingVolumeHierarchy& bvh,
+        const std::vector<int>& visible_objects,
+        const std::vector<int>& object_batches, const glm::mat4& vp_matrix,
+        const glm::vec3& camera_position, bool occlusion_culling, int threads,
+        std::vector<DrawCommand>& draw_commands,
+        std::vector<int>& visible_batches, std::vector<int>& query_objects) {
+    int count = visible_objects.size();
+    int chunks = WorkerPool::chunkCount(count, threads, MIN_CHUNK_SIZE);
+    if (chunk_outputs.size() < chunks) {
+        chunk_outputs.resize(chunks);
+    }
+
+    PrepareTask task(bvh, visible_objects, object_batches, vp_matrix,
+            camera_position, occlusion_culling, chunk_outputs);
+    WorkerPool::parallelFor(count, threads, MIN_CHUNK_SIZE, task);
+
+    for (int chunk = 0; chunk < chunks && count > 0; ++chunk) {
+        const ChunkOutput& output = chunk_outputs[chunk];
+        draw_commands.insert(draw_commands.end(),
+                output.draw_commands.begin(), output.draw_commands.end());
+        visible_batches.insert(visible_batches.end(),
+                output.visible_batches.begin(), output.visible_batches.end());
+        query_objects.insert(query_objects.end(),
+                output.query_objects.begin(), output.query_objects.end());
+    }
+}
+
+}
@@ -0,0 +1,69 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Turns culled scene objects into draw commands, across worker threads.
+ ***************************************************************************/
+
+#ifndef FRAME_PREPARER_H_
+#define FRAME_PREPARER_H_
+
+#include <vector>
+
+#include "glm/glm.hpp"
+
+#include "engine/renderer/draw_command.h"
+
+namespace gvr {
+class BoundingVolumeHierarchy;
+
+/*
+ * The CPU side of a frame, between culling and drawing: LOD selection, camera
+ * distances, model matrices and sort keys. It makes no GL calls, so it runs
+ * on the worker pool while the GL thread helps, and the GL thread is left
+ * with only the draw commands to consume.
+ *
+ * The objects are split into contiguous chunks, and each chunk's results are
+ * appended in order, so the commands come out the same for any thread count.
+ */
+class FramePreparer {
+public:
+    /*
+     * Builds (unsorted) commands for the objects the hierarchy found in the
+     * frustum, and, with occlusion culling, lists the ones due a new query.
+     * Objects drawn by a static batch (object_batches, by object index, if
+     * not empty) list their batch in visible_batches instead of getting a
+     * command. Call after BoundingVolumeHierarchy::refit(), which validates
+     * the lazily computed matrices and bounds that this reads.
+     */
+    static void prepare(const BoundingVolumeHierarchy& bvh,
+            const std::vector<int>& visible_objects,
+            const std::vector<int>& object_batches,
+            const glm::mat4& vp_matrix, const glm::vec3& camera_position,
+            bool occlusion_culling, int threads,
+            std::vector<DrawCommand>& draw_commands,
+            std::vector<int>& visible_batches,
+            std::vector<int>& query_objects);
+
+private:
+    FramePreparer();
+
+    // Below this, waking threads costs more than it saves
+    static const int MIN_CHUNK_SIZE = 64;
+};
+
+}
+#endif
@@ -0,0 +1,121 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * A view frustum, as six world-space planes.
+ ***************************************************************************/
+
+#ifndef FRUSTUM_H_
+#define FRUSTUM_H_
+
+#include "glm/glm.hpp"
+
+namespace gvr {
+
+class Frustum {
+public:
+    enum Containment {
+        OUTSIDE, INTERSECTING, INSIDE
+    };
+
+    Frustum() {
+    }
+
+    /*
+     * Extracts the planes (Gribb/Hartmann) from a view-projection matrix.
+     * The planes are in world space, so one frustum serves every object the
+     * camera sees.
+     */
+    explicit Frustum(const glm::mat4& vp_matrix) {
+        glm::vec4 row0(vp_matrix[0][0], vp_matrix[1][0], vp_matrix[2][0],
+                vp_matrix[3][0]);
+        glm::vec4 row1(vp_matrix[0][1], vp_matrix[1][1], vp_matrix[2][1],
+                vp_matrix[3][1]);
+        glm::vec4 row2(vp_matrix[0][2], vp_matrix[1][2], vp_matrix[2][2],
+                vp_matrix[3][2]);
+        glm::vec4 row3(vp_matrix[0][3], vp_matrix[1][3], vp_matrix[2][3],
+                vp_matrix[3][3]);
+
+        planes_[0] = normalize(row3 - row0); // right
+        planes_[1] = normalize(row3 + row0); // left
+        planes_[2] = normalize(row3 + row1); // bottom
+        planes_[3] = normalize(row3 - row1); // top
+        planes_[4] = normalize(row3 - row2); // far
+        planes_[5] = normalize(row3 + row2); // near
+    }
+
+    /*
+     * A frustum enclosing both eyes of a stereo rig: the left eye's left
+     * plane, the right eye's right plane, and the left eye's other four.
+     * That is exact when the eyes share a projection and differ only by the
+     * lens separation, along their common x axis.
+     */
+    Frustum(const glm::mat4& left_vp_matrix, const glm::mat4& right_vp_matrix) {
+        Frustum left(left_vp_matrix);
+        Frustum right(right_vp_matrix);
+        for (int p = 0; p < 6; ++p) {
+            planes_[p] = left.planes_[p];
+        }
+        planes_[0] = right.planes_[0];
+    }
+
+    /*
+     * Classifies an axis-aligned box. For each plane, only the corner
+     * furthest along the plane normal (the 'positive vertex') needs testing
+     * to reject, and the opposite corner to accept. An empty box (min > max)
+     * is outside.
+     */
+    Containment classify(const glm::vec3& min, const glm::vec3& max) const {
+        // Its infinite corners could give NaN distances, which reject nothing
+        if (min.x > max.x) {
+            return OUTSIDE;
+        }
+        Containment result = INSIDE;
+        for (int p = 0; p < 6; ++p) {
+            const glm::vec4& plane = planes_[p];
+            glm::vec3 positive(plane.x >= 0 ? max.x : min.x,
+                    plane.y >= 0 ? max.y : min.y,
+                    plane.z >= 0 ? max.z : min.z);
+            if (distance(plane, positive) < 0) {
+                return OUTSIDE;
+            }
+            glm::vec3 negative(plane.x >= 0 ? min.x : max.x,
+                    plane.y >= 0 ? min.y : max.y,
+                    plane.z >= 0 ? min.z : max.z);
+            if (distance(plane, negative) < 0) {
+                result = INTERSECTING;
+            }
+        }
+        return result;
+    }
+
+private:
+    static glm::vec4 normalize(const glm::vec4& plane) {
+        float length = glm::length(glm::vec3(plane));
+        return plane / length;
+    }
+
+    static float distance(const glm::vec4& plane, const glm::vec3& point) {
+        return plane.x * point.x + plane.y * point.y + plane.z * point.z
+                + plane.w;
+    }
+
+private:
+    glm::vec4 planes_[6];
+};
+
+}
+#endif
@@ -0,0 +1,145 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Orders draw commands, by packed 64-bit keys.
+ ***************************************************************************/
+
+#include "render_sorter.h"
+
+#include <string.h>
+
+#include "objects/material.h"
+#include "objects/mesh.h"
+#include "objects/components/render_data.h"
+
+namespace gvr {
+
+namespace {
+const int BITS_PER_PASS = 8;
+const int BUCKETS = 1 << BITS_PER_PASS;
+const int PASSES = 64 / BITS_PER_PASS;
+
+/*
+ * Non-negative floats order the same way as their bit patterns, so the bits
+ * are an exact depth key; dropping low bits quantizes it.
+ */
+uint32_t depthBits(float distance) {
+    if (!(distance > 0.0f)) {
+        return 0;
+    }
+    uint32_t bits;
+    memcpy(&bits, &distance, sizeof(bits));
+    return bits;
+}
+}
+
+std::vector<RenderSorter::Item> RenderSorter::items_;
+std::vector<RenderSorter::Item> RenderSorter::scratch_;
+std::vector<DrawCommand> RenderSorter::sorted_;
+
+uint64_t RenderSorter::sortKey(const RenderData* render_data) {
+    int rendering_order = render_data->rendering_order();
+    bool transparent = rendering_order >= RenderData::Transparent
+            && rendering_order < RenderData::Overlay;
+
+    // Offset so that negative orders still come first
+    int order = rendering_order + 0x8000;
+    if (order < 0) {
+        order = 0;
+    } else if (order > 0xFFFF) {
+        order = 0xFFFF;
+    }
+
+    // Equal materials (and meshes) must get equal bits; collisions only cost
+    // grouping
+    const Material* material = render_data->material(0);
+    uint64_t shader = material == 0 ? 0 : material->shader_type() & 0xFF;
+    uint64_t material_bits = (reinterpret_cast<uintptr_t>(material) >> 4)
+            & 0xFFFF;
+    uint64_t mesh_bits = (reinterpret_cast<uintptr_t>(render_data->mesh())
+            >> 4) & 0xFF;
+
+    uint32_t depth = depthBits(render_data->camera_distance());
+
+    uint64_t key = static_cast<uint64_t>(order) << 48;
+    if (transparent) {
+        key |= static_cast<uint64_t>(~depth) << 16;
+        key |= material_bits;
+    } else {
+        key |= shader << 40;
+        key |= material_bits << 24;
+        key |= mesh_bits << 16;
+        key |= depth >> 16;
+    }
+    return key;
+}
+
+void RenderSorter::sort(std::vector<DrawCommand>& draw_commands) {
+    int count = draw_commands.size();
+    if (count < 2) {
+        return;
+    }
+
+    items_.resize(count);
+    scratch_.resize(count);
+    for (int i = 0; i < count; ++i) {
+        items_[i].key = draw_commands[i].sort_key;
+        items_[i].index = i;
+    }
+
+    Item* source = &items_[0];
+    Item* target = &scratch_[0];
+    int histogram[BUCKETS];
+    for (int pass = 0; pass < PASSES; ++pass) {
+        int shift = pass * BITS_PER_PASS;
+
+        memset(histogram, 0, sizeof(histogram));
+        for (int i = 0; i < count; ++i) {
+            ++histogram[(source[i].key >> shift) & (BUCKETS - 1)];
+        }
+
+        // Every key has the same byte here: this pass wouldn't move anything
+        if (histogram[(source[0].key >> shift) & (BUCKETS - 1)] == count) {
+            continue;
+        }
+
+        int offset = 0;
+        for (int bucket = 0; bucket < BUCKETS; ++bucket) {
+            int bucket_count = histogram[bucket];
+            histogram[bucket] = offset;
+            offset += bucket_count;
+        }
+
+        // Stable scatter: earlier bytes' order survives within a bucket
+        for (int i = 0; i < count; ++i) {
+            target[histogram[(source[i].key >> shift) & (BUCKETS - 1)]++] =
+                    source[i];
+        }
+
+        Item* swap = source;
+        source = target;
+        target = swap;
+    }
+
+    sorted_.resize(count);
+    for (int i = 0; i < count; ++i) {
+        sorted_[i] = draw_commands[source[i].index];
+    }
+    draw_commands.swap(sorted_);
+}
+
+}
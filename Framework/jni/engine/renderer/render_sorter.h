@@ -0,0 +1,77 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Orders draw commands, by packed 64-bit keys.
+ ***************************************************************************/
+
+#ifndef RENDER_SORTER_H_
+#define RENDER_SORTER_H_
+
+#include <stdint.h>
+#include <vector>
+
+#include "engine/renderer/draw_command.h"
+
+namespace gvr {
+class RenderData;
+
+/*
+ * Sorts into the same order as compareRenderData(), without calling it.
+ *
+ * Each command carries a key, from sortKey():
+ *
+ *   opaque:      | rendering order:16 | shader:8 | material:16 | mesh:8 | depth:16 |
+ *   transparent: | rendering order:16 | depth:32 | material:16 |
+ *
+ * Opaque depth is quantized, and runs front-to-back. Transparent depth is
+ * exact, runs back-to-front, and comes before the material so that blending
+ * stays correct. Between equal opaque orders (which compareRenderData()
+ * leaves in any order) the key groups by shader and material, to save state
+ * changes, then by mesh, so that copies of one mesh end up next to each other
+ * for instancing, and draws near objects first, to save fill. Rendering orders
+ * outside [-32768, 32767] are clamped.
+ *
+ * The keys are then radix sorted, a byte at a time, skipping bytes that are
+ * the same in every key (a scene with one rendering order skips two).
+ */
+class RenderSorter {
+public:
+    static void sort(std::vector<DrawCommand>& draw_commands);
+
+    /*
+     * Reads the render data's camera distance, so call it after that is
+     * set. Safe to call from any thread.
+     */
+    static uint64_t sortKey(const RenderData* render_data);
+
+private:
+    // Commands are big: sort (key, index) pairs, then move each command once
+    struct Item {
+        uint64_t key;
+        int index;
+    };
+
+    RenderSorter();
+
+    // Only ever used on the GL thread; resize() keeps the capacity
+    static std::vector<Item> items_;
+    static std::vector<Item> scratch_;
+    static std::vector<DrawCommand> sorted_;
+};
+
+}
+#endif
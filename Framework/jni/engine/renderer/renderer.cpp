@@ -22,15 +22,22 @@
 #include "glm/gtc/matrix_inverse.hpp"
 
 #include "eglextension/tiledrendering/tiled_rendering_enhancer.h"
+#include "engine/renderer/bounding_volume_hierarchy.h"
+#include "engine/renderer/frame_preparer.h"
+#include "engine/renderer/frustum.h"
+#include "engine/renderer/render_sorter.h"
+#include "engine/renderer/static_batcher.h"
 #include "objects/material.h"
 #include "objects/post_effect_data.h"
 #include "objects/scene.h"
 #include "objects/scene_object.h"
 #include "objects/components/camera.h"
+#include "objects/components/camera_rig.h"
 #include "objects/components/eye_pointee_holder.h"
 #include "objects/components/render_data.h"
 #include "objects/textures/render_texture.h"
 #include "shaders/shader_manager.h"
+#include "shaders/material/bounding_box_shader.h"
 #include "shaders/post_effect_shader_manager.h"
 #include "util/gvr_gl.h"
 #include "util/gvr_log.h"
@@ -39,6 +46,19 @@ namespace gvr {
 
 static int numberDrawCalls;
 static int numberTriangles;
+
+// Occlusion queries found by frustum_cull(), to be issued once the opaque
+// geometry has been drawn (GL thread only)
+static BoundingVolumeHierarchy* query_hierarchy;
+static std::vector<int> query_nodes;
+static std::vector<int> query_objects;
+static glm::vec3 query_eye_position;
+
+// For error messages; static batches have no owner
+static std::string render_data_name(const RenderData* render_data) {
+    return render_data->owner_object() != 0 ?
+            render_data->owner_object()->name() : "static batch";
+}
 // ---------------------------------------------AR------------------------{
 bool setIsAr, setIsArObj;
 glm::mat4 MVPmatrix;
@@ -84,31 +104,25 @@ void Renderer::renderCamera(Scene* scene, Camera* camera, int framebufferId,
         glm::mat4 projection_matrix = camera->getProjectionMatrix();
         glm::mat4 vp_matrix = glm::mat4(projection_matrix * view_matrix);
 
-        std::vector<SceneObject*> scene_objects = scene->getWholeSceneObjects();
-        std::vector<RenderData*> render_data_vector;
-
-        // do occlusion culling, if enabled
-        occlusion_cull(scene, scene_objects);
-
-        // do frustum culling, if enabled
-        frustum_cull(scene, camera, scene_objects, render_data_vector,
-                vp_matrix, shader_manager);
+        // The VR framework, and anything run between frames, changes GL
+        // state behind the cache's back
+        GLState::invalidate();
 
-        // do sorting based on render order
-        std::sort(render_data_vector.begin(), render_data_vector.end(),
-                compareRenderData);
+        // Only ever used on the GL thread; clear() keeps the capacity
+        static std::vector<DrawCommand> draw_commands;
+        cull(scene, camera, draw_commands, vp_matrix, shader_manager);
 
         std::vector<PostEffectData*> post_effects = camera->post_effect_data();
 
-        glEnable (GL_DEPTH_TEST);
-        glDepthFunc (GL_LEQUAL);
-        glEnable (GL_CULL_FACE);
+        GLState::enable(GL_DEPTH_TEST);
+        GLState::depthFunc(GL_LEQUAL);
+        GLState::enable(GL_CULL_FACE);
         glFrontFace (GL_CCW);
-        glCullFace (GL_BACK);
-        glEnable (GL_BLEND);
+        GLState::cullFace(GL_BACK);
+        GLState::enable(GL_BLEND);
         glBlendEquation (GL_FUNC_ADD);
-        glBlendFunc(GL_ONE, GL_ONE_MINUS_SRC_ALPHA);
-        glDisable (GL_POLYGON_OFFSET_FILL);
+        GLState::blendFunc(GL_ONE, GL_ONE_MINUS_SRC_ALPHA);
+        GLState::disable(GL_POLYGON_OFFSET_FILL);
 
         if (post_effects.size() == 0) {
             glBindFramebuffer(GL_FRAMEBUFFER, framebufferId);
@@ -125,11 +139,8 @@ void Renderer::renderCamera(Scene* scene, Camera* camera, int framebufferId,
                     camera->background_color_a());
             glClear(GL_DEPTH_BUFFER_BIT | GL_COLOR_BUFFER_BIT);
 
-            for (auto it = render_data_vector.begin();
-                    it != render_data_vector.end(); ++it) {
-                renderRenderData(*it, view_matrix, projection_matrix,
-                        camera->render_mask(), shader_manager);
-            }
+            renderDrawCommands(draw_commands, view_matrix,
+                    projection_matrix, camera->render_mask(), shader_manager);
         } else {
             RenderTexture* texture_render_texture = post_effect_render_texture_a;
             RenderTexture* target_render_texture;
@@ -150,14 +161,11 @@ void Renderer::renderCamera(Scene* scene, Camera* camera, int framebufferId,
                     camera->background_color_a());
             glClear(GL_DEPTH_BUFFER_BIT | GL_COLOR_BUFFER_BIT);
 
-            for (auto it = render_data_vector.begin();
-                    it != render_data_vector.end(); ++it) {
-                renderRenderData(*it, view_matrix, projection_matrix,
-                        camera->render_mask(), shader_manager);
-            }
+            renderDrawCommands(draw_commands, view_matrix,
+                    projection_matrix, camera->render_mask(), shader_manager);
 
-            glDisable(GL_DEPTH_TEST);
-            glDisable(GL_CULL_FACE);
+            GLState::disable(GL_DEPTH_TEST);
+            GLState::disable(GL_CULL_FACE);
 
             for (int i = 0; i < post_effects.size() - 1; ++i) {
                 if (i % 2 == 0) {
@@ -202,8 +210,65 @@ void Renderer::renderCamera(Scene* scene, Camera* camera, int framebufferId,
 
 }
 
+void Renderer::cull(Scene* scene, Camera* camera,
+        std::vector<DrawCommand>& draw_commands,
+        const glm::mat4& vp_matrix, ShaderManager* shader_manager) {
+    // With stereo culling, the first eye of the main rig culls and sorts for
+    // both; this is the eye whose render can reuse that list
+    static Camera* stereo_partner = 0;
+
+    const CameraRig* rig = scene->main_camera_rig();
+    Camera* other_eye = 0;
+    if (scene->get_stereo_culling() && rig != 0) {
+        if (camera == rig->left_camera()) {
+            other_eye = rig->right_camera();
+        } else if (camera == rig->right_camera()) {
+            other_eye = rig->left_camera();
+        }
+    }
+
+    if (other_eye != 0 && camera == stereo_partner) {
+        stereo_partner = 0;
+        return;
+    }
+
+    Frustum frustum;
+    if (other_eye != 0) {
+        glm::mat4 other_vp_matrix(
+                other_eye->getProjectionMatrix() * other_eye->getViewMatrix());
+        if (camera == rig->left_camera()) {
+            frustum = Frustum(vp_matrix, other_vp_matrix);
+        } else {
+            frustum = Frustum(other_vp_matrix, vp_matrix);
+        }
+        stereo_partner = other_eye;
+    } else {
+        frustum = Frustum(vp_matrix);
+        stereo_partner = 0;
+    }
+
+    // One linear pass over the whole graph, so that culling only reads
+    // model matrices
+    scene->updateTransforms();
+
+    // The scene keeps this list up to date as the graph changes: no
+    // per-eye flattening or copying
+    const std::vector<SceneObject*>& scene_objects = scene->getRenderList();
+    draw_commands.clear();
+
+    // do occlusion culling, if enabled
+    occlusion_cull(scene, scene_objects);
+
+    // do frustum culling, if enabled
+    frustum_cull(scene, camera, scene_objects, draw_commands, vp_matrix,
+            frustum, shader_manager);
+
+    // do sorting based on render order
+    RenderSorter::sort(draw_commands);
+}
+
 void Renderer::occlusion_cull(Scene* scene,
-        std::vector<SceneObject*> scene_objects) {
+        const std::vector<SceneObject*>& scene_objects) {
 #if _GVRF_USE_GLES3_
     if (!scene->get_occlusion_culling()) {
         return;
@@ -238,266 +303,127 @@ void Renderer::occlusion_cull(Scene* scene,
             (*it)->set_query_issued(false);
         }
     }
+
+    // Then the hierarchy's node queries, and which subtrees are now hidden
+    scene->getBoundingVolumeHierarchy().updateOcclusion();
 #endif
 }
 
 void Renderer::frustum_cull(Scene* scene, Camera *camera,
-        std::vector<SceneObject*> scene_objects,
-        std::vector<RenderData*>& render_data_vector, glm::mat4 vp_matrix,
-        ShaderManager* shader_manager) {
-    for (auto it = scene_objects.begin(); it != scene_objects.end(); ++it) {
-        SceneObject *scene_object = (*it);
-        RenderData* render_data = scene_object->render_data();
-        if (render_data == 0 || render_data->pass(0)->material() == 0) {
-            continue;
-        }
-
-        // Check for frustum culling flag
-        if (!scene->get_frustum_culling()) {
-            //No occlusion or frustum tests enabled
-            render_data_vector.push_back(render_data);
-            continue;
-        }
-
-        // Frustum culling setup
-        Mesh* currentMesh = render_data->mesh();
-        if (currentMesh == NULL) {
-            continue;
-        }
-
-        const float* bounding_box_info = currentMesh->getBoundingBoxInfo();
-        if (bounding_box_info == NULL) {
-            continue;
+        const std::vector<SceneObject*>& scene_objects,
+        std::vector<DrawCommand>& draw_commands, glm::mat4 vp_matrix,
+        const Frustum& frustum, ShaderManager* shader_manager) {
+    // Check for frustum culling flag
+    if (!scene->get_frustum_culling()) {
+        //No occlusion or frustum tests enabled
+        StaticBatcher& static_batcher = scene->getStaticBatcher();
+        for (auto it = scene_objects.begin(); it != scene_objects.end(); ++it) {
+            RenderData* render_data = (*it)->render_data();
+            if (render_data != 0 && render_data->pass(0)->material() != 0
+                    && static_batcher.batchOf(*it) < 0) {
+                DrawCommand command;
+                command.sort_key = RenderSorter::sortKey(render_data);
+                command.render_data = render_data;
+                command.model_matrix = (*it)->transform()->getModelMatrix();
+                draw_commands.push_back(command);
+            }
         }
+        static_batcher.appendAllCommands(draw_commands);
+        return;
+    }
 
-        glm::mat4 model_matrix_tmp(
-                render_data->owner_object()->transform()->getModelMatrix());
-        glm::mat4 mvp_matrix_tmp(vp_matrix * model_matrix_tmp);
+    int threads = scene->get_frame_preparation_threads();
 
-        // Frustum
-        float frustum[6][4];
+    // One world-space frustum for the whole scene; the hierarchy rejects
+    // (or accepts) whole subtrees at a time, and skips occluded ones
+    BoundingVolumeHierarchy& bvh = scene->getBoundingVolumeHierarchy();
+    bvh.refit(threads);
 
-        // Matrix to array
-        float mvp_matrix_array[16] = { 0.0 };
-        const float *mat_to_array = (const float*) glm::value_ptr(
-                mvp_matrix_tmp);
-        memcpy(mvp_matrix_array, mat_to_array, sizeof(float) * 16);
+    bool occlusion_culling = false;
+#if _GVRF_USE_GLES3_
+    occlusion_culling = scene->get_occlusion_culling();
+#endif
 
-        // Build the frustum
-        build_frustum(frustum, mvp_matrix_array);
+    static std::vector<int> visible_objects;
+    visible_objects.clear();
+    query_nodes.clear();
+    query_objects.clear();
+    bvh.cull(frustum, visible_objects, occlusion_culling ? &query_nodes : 0);
+    query_hierarchy = &bvh;
+    query_eye_position = glm::vec3(
+            glm::inverse(camera->getViewMatrix())[3]);
+
+    // Static objects in view show their batch instead
+    const std::vector<int>& object_batches = scene->getHierarchyBatches();
+    static std::vector<int> visible_batches;
+    visible_batches.clear();
+
+    glm::vec3 camera_position = camera->owner_object()->transform()->position();
+    FramePreparer::prepare(bvh, visible_objects, object_batches, vp_matrix,
+            camera_position, occlusion_culling, threads, draw_commands,
+            visible_batches, query_objects);
+    scene->getStaticBatcher().appendCommands(visible_batches, draw_commands);
+}
 
-        // Check for being inside or outside frustum
-        bool is_inside = is_cube_in_frustum(frustum, bounding_box_info);
+void Renderer::issue_occlusion_queries(const glm::mat4& vp_matrix,
+        ShaderManager* shader_manager) {
+#if _GVRF_USE_GLES3_
+    if (query_nodes.empty() && query_objects.empty()) {
+        return;
+    }
 
-        // Only push those scene objects that are inside of the frustum
-        if (!is_inside) {
-            scene_object->set_in_frustum(false);
-            continue;
+    // Every query is a proxy box against the opaque depth: one program, one
+    // vertex array and one set of state for the lot
+    BoundingBoxShader* shader = shader_manager->getBoundingBoxShader();
+    GLState::enable(GL_DEPTH_TEST);
+    GLState::depthFunc(GL_LEQUAL);
+    // We may be inside a box, looking at its back faces
+    GLState::disable(GL_CULL_FACE);
+    glColorMask(GL_FALSE, GL_FALSE, GL_FALSE, GL_FALSE);
+    glDepthMask(GL_FALSE);
+    shader->beginProxies(vp_matrix);
+
+    // An occluded subtree gets a single query; if it passes, its objects
+    // are shown and queried individually again
+    for (auto it = query_nodes.begin(); it != query_nodes.end(); ++it) {
+        if (contains(query_hierarchy->nodeMin(*it),
+                query_hierarchy->nodeMax(*it), query_eye_position)) {
+            query_hierarchy->revealNode(*it);
+        } else {
+            query_hierarchy->issueNodeQuery(*it, shader);
         }
+    }
 
-        // Transform the bounding sphere
-        const float *sphere_info = currentMesh->getBoundingSphereInfo();
-        glm::vec4 sphere_center(sphere_info[0], sphere_info[1], sphere_info[2],
-                1.0f);
-        glm::vec4 transformed_sphere_center = mvp_matrix_tmp * sphere_center;
-
-        // Calculate distance from camera
-        glm::vec3 camera_position =
-                camera->owner_object()->transform()->position();
-        glm::vec4 position(camera_position, 1.0f);
-        glm::vec4 difference = transformed_sphere_center - position;
-        float distance = glm::dot(difference, difference);
-
-        // this distance will be used when sorting transparent objects
-        render_data->set_camera_distance(distance);
-
-        // Check if this is the correct LOD level
-        if (!scene_object->inLODRange(distance)) {
-            // not in range, don't add it to the list
+    for (auto it = query_objects.begin(); it != query_objects.end(); ++it) {
+        SceneObject* scene_object = query_hierarchy->object(*it);
+        const glm::vec3& min = query_hierarchy->objectMin(*it);
+        const glm::vec3& max = query_hierarchy->objectMax(*it);
+        if (contains(min, max, query_eye_position)) {
+            // The near plane would clip the box away
+            scene_object->reset_visibility();
             continue;
         }
 
-        scene_object->set_in_frustum();
-        bool visible = scene_object->visible();
-
-        //If visibility flag was set by an earlier occlusion query,
-        //turn visibility on for the object
-        if (visible) {
-            render_data_vector.push_back(render_data);
-        }
+        GLuint *query = scene_object->get_occlusion_array();
+        glBeginQuery(GL_ANY_SAMPLES_PASSED, query[0]);
+        shader->renderProxy(min, max);
+        glEndQuery(GL_ANY_SAMPLES_PASSED);
+        scene_object->set_query_issued(true);
+    }
 
-        if (render_data->pass(0)->material() == 0
-                || !scene->get_occlusion_culling()) {
-            continue;
-        }
+    shader->endProxies();
+    glDepthMask(GL_TRUE);
+    glColorMask(GL_TRUE, GL_TRUE, GL_TRUE, GL_TRUE);
 
-#if _GVRF_USE_GLES3_
-        //If a previous query is active, do not issue a new query.
-        //This avoids overloading the GPU with too many queries
-        //Queries may span multiple frames
-
-        bool is_query_issued = scene_object->is_query_issued();
-        if (!is_query_issued) {
-            //Setup basic bounding box and material
-            RenderData* bounding_box_render_data(new RenderData());
-            Mesh* bounding_box_mesh = render_data->mesh()->getBoundingBox();
-            bounding_box_render_data->set_mesh(bounding_box_mesh);
-
-            GLuint *query = scene_object->get_occlusion_array();
-
-            glDepthFunc (GL_LEQUAL);
-            glEnable (GL_DEPTH_TEST);
-            glColorMask(GL_FALSE, GL_FALSE, GL_FALSE, GL_FALSE);
-
-            //Issue the query only with a bounding box
-            glBeginQuery(GL_ANY_SAMPLES_PASSED, query[0]);
-            shader_manager->getBoundingBoxShader()->render(mvp_matrix_tmp,
-                    bounding_box_render_data,
-                    bounding_box_render_data->pass(0)->material());
-            glEndQuery (GL_ANY_SAMPLES_PASSED);
-            scene_object->set_query_issued(true);
-
-            glColorMask(GL_TRUE, GL_TRUE, GL_TRUE, GL_TRUE);
-
-            //Delete the generated bounding box mesh
-            bounding_box_mesh->cleanUp();
-        }
+    query_nodes.clear();
+    query_objects.clear();
 #endif
-    }
 }
 
-void Renderer::build_frustum(float frustum[6][4], float mvp_matrix[16]) {
-    float t;
-
-    /* Extract the numbers for the RIGHT plane */
-    frustum[0][0] = mvp_matrix[3] - mvp_matrix[0];
-    frustum[0][1] = mvp_matrix[7] - mvp_matrix[4];
-    frustum[0][2] = mvp_matrix[11] - mvp_matrix[8];
-    frustum[0][3] = mvp_matrix[15] - mvp_matrix[12];
-
-    /* Normalize the result */
-    t = sqrt(
-            frustum[0][0] * frustum[0][0] + frustum[0][1] * frustum[0][1]
-                    + frustum[0][2] * frustum[0][2]);
-    frustum[0][0] /= t;
-    frustum[0][1] /= t;
-    frustum[0][2] /= t;
-    frustum[0][3] /= t;
-
-    /* Extract the numbers for the LEFT plane */
-    frustum[1][0] = mvp_matrix[3] + mvp_matrix[0];
-    frustum[1][1] = mvp_matrix[7] + mvp_matrix[4];
-    frustum[1][2] = mvp_matrix[11] + mvp_matrix[8];
-    frustum[1][3] = mvp_matrix[15] + mvp_matrix[12];
-
-    /* Normalize the result */
-    t = sqrt(
-            frustum[1][0] * frustum[1][0] + frustum[1][1] * frustum[1][1]
-                    + frustum[1][2] * frustum[1][2]);
-    frustum[1][0] /= t;
-    frustum[1][1] /= t;
-    frustum[1][2] /= t;
-    frustum[1][3] /= t;
-
-    /* Extract the BOTTOM plane */
-    frustum[2][0] = mvp_matrix[3] + mvp_matrix[1];
-    frustum[2][1] = mvp_matrix[7] + mvp_matrix[5];
-    frustum[2][2] = mvp_matrix[11] + mvp_matrix[9];
-    frustum[2][3] = mvp_matrix[15] + mvp_matrix[13];
-
-    /* Normalize the result */
-    t = sqrt(
-            frustum[2][0] * frustum[2][0] + frustum[2][1] * frustum[2][1]
-                    + frustum[2][2] * frustum[2][2]);
-    frustum[2][0] /= t;
-    frustum[2][1] /= t;
-    frustum[2][2] /= t;
-    frustum[2][3] /= t;
-
-    /* Extract the TOP plane */
-    frustum[3][0] = mvp_matrix[3] - mvp_matrix[1];
-    frustum[3][1] = mvp_matrix[7] - mvp_matrix[5];
-    frustum[3][2] = mvp_matrix[11] - mvp_matrix[9];
-    frustum[3][3] = mvp_matrix[15] - mvp_matrix[13];
-
-    /* Normalize the result */
-    t = sqrt(
-            frustum[3][0] * frustum[3][0] + frustum[3][1] * frustum[3][1]
-                    + frustum[3][2] * frustum[3][2]);
-    frustum[3][0] /= t;
-    frustum[3][1] /= t;
-    frustum[3][2] /= t;
-    frustum[3][3] /= t;
-
-    /* Extract the FAR plane */
-    frustum[4][0] = mvp_matrix[3] - mvp_matrix[2];
-    frustum[4][1] = mvp_matrix[7] - mvp_matrix[6];
-    frustum[4][2] = mvp_matrix[11] - mvp_matrix[10];
-    frustum[4][3] = mvp_matrix[15] - mvp_matrix[14];
-
-    /* Normalize the result */
-    t = sqrt(
-            frustum[4][0] * frustum[4][0] + frustum[4][1] * frustum[4][1]
-                    + frustum[4][2] * frustum[4][2]);
-    frustum[4][0] /= t;
-    frustum[4][1] /= t;
-    frustum[4][2] /= t;
-    frustum[4][3] /= t;
-
-    /* Extract the NEAR plane */
-    frustum[5][0] = mvp_matrix[3] + mvp_matrix[2];
-    frustum[5][1] = mvp_matrix[7] + mvp_matrix[6];
-    frustum[5][2] = mvp_matrix[11] + mvp_matrix[10];
-    frustum[5][3] = mvp_matrix[15] + mvp_matrix[14];
-
-    /* Normalize the result */
-    t = sqrt(
-            frustum[5][0] * frustum[5][0] + frustum[5][1] * frustum[5][1]
-                    + frustum[5][2] * frustum[5][2]);
-    frustum[5][0] /= t;
-    frustum[5][1] /= t;
-    frustum[5][2] /= t;
-    frustum[5][3] /= t;
-}
-
-bool Renderer::is_cube_in_frustum(float frustum[6][4],
-        const float *vertex_limit) {
-    int p;
-    float Xmin = vertex_limit[0];
-    float Ymin = vertex_limit[1];
-    float Zmin = vertex_limit[2];
-    float Xmax = vertex_limit[3];
-    float Ymax = vertex_limit[4];
-    float Zmax = vertex_limit[5];
-
-    for (p = 0; p < 6; p++) {
-        if (frustum[p][0] * (Xmin) + frustum[p][1] * (Ymin)
-                + frustum[p][2] * (Zmin) + frustum[p][3] > 0)
-            continue;
-        if (frustum[p][0] * (Xmax) + frustum[p][1] * (Ymin)
-                + frustum[p][2] * (Zmin) + frustum[p][3] > 0)
-            continue;
-        if (frustum[p][0] * (Xmin) + frustum[p][1] * (Ymax)
-                + frustum[p][2] * (Zmin) + frustum[p][3] > 0)
-            continue;
-        if (frustum[p][0] * (Xmax) + frustum[p][1] * (Ymax)
-                + frustum[p][2] * (Zmin) + frustum[p][3] > 0)
-            continue;
-        if (frustum[p][0] * (Xmin) + frustum[p][1] * (Ymin)
-                + frustum[p][2] * (Zmax) + frustum[p][3] > 0)
-            continue;
-        if (frustum[p][0] * (Xmax) + frustum[p][1] * (Ymin)
-                + frustum[p][2] * (Zmax) + frustum[p][3] > 0)
-            continue;
-        if (frustum[p][0] * (Xmin) + frustum[p][1] * (Ymax)
-                + frustum[p][2] * (Zmax) + frustum[p][3] > 0)
-            continue;
-        if (frustum[p][0] * (Xmax) + frustum[p][1] * (Ymax)
-                + frustum[p][2] * (Zmax) + frustum[p][3] > 0)
-            continue;
-        return false;
-    }
-    return true;
+bool Renderer::contains(const glm::vec3& min, const glm::vec3& max,
+        const glm::vec3& point) {
+    return glm::all(glm::lessThanEqual(min, point))
+            && glm::all(glm::lessThanEqual(point, max));
 }
 
 void Renderer::renderCamera(Scene* scene, Camera* camera,
@@ -540,9 +466,104 @@ void Renderer::renderCamera(Scene* scene, Camera* camera, int viewportX,
             post_effect_render_texture_a, post_effect_render_texture_b);
 }
 
-void Renderer::renderRenderData(RenderData* render_data,
+void Renderer::renderDrawCommands(
+        const std::vector<DrawCommand>& draw_commands,
         const glm::mat4& view_matrix, const glm::mat4& projection_matrix,
         int render_mask, ShaderManager* shader_manager) {
+    glm::mat4 vp_matrix(projection_matrix * view_matrix);
+
+    // Only ever used on the GL thread; clear() keeps the capacity
+    static std::vector<glm::mat4> instance_matrices;
+
+    for (int first = 0; first < draw_commands.size();) {
+        RenderData* render_data = draw_commands[first].render_data;
+        if (render_data->rendering_order() >= RenderData::Transparent) {
+            issue_occlusion_queries(vp_matrix, shader_manager);
+        }
+
+        // Sorting puts copies of one mesh and material next to each other
+        int end = first + 1;
+#if _GVRF_USE_GLES3_
+        if (instanceable(render_data)) {
+            while (end < draw_commands.size()
+                    && same_instance_batch(render_data,
+                            draw_commands[end].render_data)) {
+                ++end;
+            }
+        }
+#endif
+
+        if (end - first == 1) {
+            renderRenderData(render_data, draw_commands[first].model_matrix,
+                    view_matrix, projection_matrix, render_mask,
+                    shader_manager);
+        } else if (render_mask & render_data->render_mask()) {
+            instance_matrices.clear();
+            for (int i = first; i < end; ++i) {
+                instance_matrices.push_back(draw_commands[i].model_matrix);
+            }
+
+            GLState::setEnabled(GL_POLYGON_OFFSET_FILL, render_data->offset());
+            if (render_data->offset()) {
+                GLState::polygonOffset(render_data->offset_factor(),
+                        render_data->offset_units());
+            }
+            GLState::setEnabled(GL_DEPTH_TEST, render_data->depth_test());
+            GLState::setEnabled(GL_BLEND, render_data->alpha_blend());
+            set_face_culling(render_data->pass(0)->cull_face());
+
+            numberTriangles += render_data->mesh()->getNumTriangles()
+                    * instance_matrices.size();
+            numberDrawCalls++;
+
+            try {
+                shader_manager->getTextureShader()->renderInstanced(vp_matrix,
+                        instance_matrices, render_data,
+                        render_data->pass(0)->material());
+            } catch (std::string error) {
+                LOGE(
+                        "Error detected in Renderer::renderDrawCommands; name : %s, error : %s",
+                        render_data_name(render_data).c_str(),
+                        error.c_str());
+            }
+        }
+        first = end;
+    }
+
+    issue_occlusion_queries(vp_matrix, shader_manager);
+    restore_default_state();
+}
+
+bool Renderer::instanceable(RenderData* render_data) {
+    if (!render_data->instancing() || render_data->pass_count() != 1
+            || render_data->mesh() == 0 || render_data->light_enabled()) {
+        return false;
+    }
+    const Material* material = render_data->pass(0)->material();
+    return material != 0
+            && material->shader_type() == Material::TEXTURE_SHADER
+            && !material->isAR_ && !material->isARobj_;
+}
+
+bool Renderer::same_instance_batch(const RenderData* first,
+        RenderData* other) {
+    return other->mesh() == first->mesh()
+            && other->pass(0)->material() == first->pass(0)->material()
+            && other->instancing() && other->pass_count() == 1
+            && !other->light_enabled()
+            && other->rendering_order() == first->rendering_order()
+            && other->render_mask() == first->render_mask()
+            && other->pass(0)->cull_face() == first->pass(0)->cull_face()
+            && other->offset() == first->offset()
+            && other->offset_factor() == first->offset_factor()
+            && other->offset_units() == first->offset_units()
+            && other->depth_test() == first->depth_test()
+            && other->alpha_blend() == first->alpha_blend();
+}
+
+void Renderer::renderRenderData(RenderData* render_data,
+        const glm::mat4& model_matrix, const glm::mat4& view_matrix, const glm::mat4& projection_matrix,
+        int render_mask, ShaderManager* shader_manager) {
     // ---------------------------------------------AR------------------------{
     if (render_data->pass(0)->material()->isAR_) {
         LOGE("entered renderrenderdata...........");
@@ -561,17 +582,15 @@ void Renderer::renderRenderData(RenderData* render_data,
     // ---------------------------------------------AR------------------------}
     if (render_mask & render_data->render_mask()) {
 
+        // Set (rather than set, then restore) this render data's state: the
+        // state cache skips whatever the previous one already set
+        GLState::setEnabled(GL_POLYGON_OFFSET_FILL, render_data->offset());
         if (render_data->offset()) {
-            glEnable (GL_POLYGON_OFFSET_FILL);
-            glPolygonOffset(render_data->offset_factor(),
+            GLState::polygonOffset(render_data->offset_factor(),
                     render_data->offset_units());
         }
-        if (!render_data->depth_test()) {
-            glDisable (GL_DEPTH_TEST);
-        }
-        if (!render_data->alpha_blend()) {
-            glDisable (GL_BLEND);
-        }
+        GLState::setEnabled(GL_DEPTH_TEST, render_data->depth_test());
+        GLState::setEnabled(GL_BLEND, render_data->alpha_blend());
         if (render_data->mesh() != 0) {
             for (int curr_pass = 0; curr_pass < render_data->pass_count();
                     ++curr_pass) {
@@ -583,8 +602,6 @@ void Renderer::renderRenderData(RenderData* render_data,
                         render_data->pass(curr_pass)->material();
 
                 if (curr_material != nullptr) {
-                    glm::mat4 model_matrix(
-                            render_data->owner_object()->transform()->getModelMatrix());
                     glm::mat4 mv_matrix(view_matrix * model_matrix);
                     glm::mat4 mvp_matrix(projection_matrix * mv_matrix);
                     try {
@@ -650,7 +667,7 @@ void Renderer::renderRenderData(RenderData* render_data,
                     } catch (std::string error) {
                         LOGE(
                                 "Error detected in Renderer::renderRenderData; name : %s, error : %s",
-                                render_data->owner_object()->name().c_str(),
+                                render_data_name(render_data).c_str(),
                                 error.c_str());
                         shader_manager->getErrorShader()->render(mvp_matrix,
                                 render_data);
@@ -658,24 +675,6 @@ void Renderer::renderRenderData(RenderData* render_data,
                 }
             }
         }
-
-        // Restoring to Default.
-        // TODO: There's a lot of redundant state changes. If on every render face culling is being set there's no need to
-        // restore defaults. Possibly later we could add a OpenGL state wrapper to avoid redundant api calls.
-        if (render_data->cull_face() != RenderData::CullBack) {
-            glEnable (GL_CULL_FACE);
-            glCullFace (GL_BACK);
-        }
-
-        if (render_data->offset()) {
-            glDisable (GL_POLYGON_OFFSET_FILL);
-        }
-        if (!render_data->depth_test()) {
-            glEnable (GL_DEPTH_TEST);
-        }
-        if (!render_data->alpha_blend()) {
-            glEnable (GL_BLEND);
-        }
     }
 }
 
@@ -716,20 +715,28 @@ void Renderer::renderPostEffectData(Camera* camera,
 void Renderer::set_face_culling(int cull_face) {
     switch (cull_face) {
     case RenderData::CullFront:
-        glEnable (GL_CULL_FACE);
-        glCullFace (GL_FRONT);
+        GLState::enable(GL_CULL_FACE);
+        GLState::cullFace(GL_FRONT);
         break;
 
     case RenderData::CullNone:
-        glDisable(GL_CULL_FACE);
+        GLState::disable(GL_CULL_FACE);
         break;
 
         // CullBack as Default
     default:
-        glEnable(GL_CULL_FACE);
-        glCullFace (GL_BACK);
+        GLState::enable(GL_CULL_FACE);
+        GLState::cullFace(GL_BACK);
         break;
     }
 }
 
+void Renderer::restore_default_state() {
+    GLState::disable(GL_POLYGON_OFFSET_FILL);
+    GLState::enable(GL_DEPTH_TEST);
+    GLState::enable(GL_BLEND);
+    set_face_culling(RenderData::CullBack);
+    GLState::bindVertexArray(0);
+}
+
 }
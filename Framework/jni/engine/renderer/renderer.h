@@ -33,12 +33,14 @@
 
 #include "glm/glm.hpp"
 
+#include "engine/renderer/draw_command.h"
 #include "objects/eye_type.h"
 #include "objects/mesh.h"
 #include "gl/gl_program.h"
 
 namespace gvr {
 class Camera;
+class Frustum;
 class Scene;
 class SceneObject;
 class PostEffectData;
@@ -92,24 +94,39 @@ public:
     static int getNumberTriangles();
 
 private:
+    static void renderDrawCommands(
+            const std::vector<DrawCommand>& draw_commands,
+            const glm::mat4& view_matrix, const glm::mat4& projection_matrix,
+            int render_mask, ShaderManager* shader_manager);
+    static bool instanceable(RenderData* render_data);
+    static bool same_instance_batch(const RenderData* first,
+            RenderData* other);
     static void renderRenderData(RenderData* render_data,
-    		const glm::mat4& view_matrix, const glm::mat4& projection_matrix, int render_mask,
+            const glm::mat4& model_matrix, const glm::mat4& view_matrix, const glm::mat4& projection_matrix, int render_mask,
             ShaderManager* shader_manager);
     static void renderPostEffectData(Camera* camera,
             RenderTexture* render_texture,
             PostEffectData* post_effect_data,
             PostEffectShaderManager* post_effect_shader_manager);
 
-    static void occlusion_cull(Scene* scene, std::vector <  SceneObject* > scene_objects);
+    static void occlusion_cull(Scene* scene,
+        const std::vector < SceneObject* >& scene_objects);
+    static void cull(Scene* scene, Camera* camera,
+        std::vector < DrawCommand >& draw_commands,
+        const glm::mat4& vp_matrix,
+        ShaderManager* shader_manager);
     static void frustum_cull(Scene* scene, Camera *camera,
-        std::vector < SceneObject* > scene_objects,
-        std::vector < RenderData* >& render_data_vector,
-        glm::mat4 vp_matrix,
+        const std::vector < SceneObject* >& scene_objects,
+        std::vector < DrawCommand >& draw_commands,
+        glm::mat4 vp_matrix, const Frustum& frustum,
+        ShaderManager* shader_manager);
+    static void issue_occlusion_queries(const glm::mat4& vp_matrix,
         ShaderManager* shader_manager);
-    static void build_frustum(float frustum[6][4], float mvp_matrix[16]);
-    static bool is_cube_in_frustum( float frustum[6][4], const float *vertex_limit);
+    static bool contains(const glm::vec3& min, const glm::vec3& max,
+        const glm::vec3& point);
 
     static void set_face_culling(int cull_face);
+    static void restore_default_state();
 
     Renderer(const Renderer& render_engine);
     Renderer(Renderer&& render_engine);
@@ -0,0 +1,360 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Merges the geometry of static scene objects that render alike.
+ ***************************************************************************/
+
+#include "static_batcher.h"
+
+#include <map>
+#include <tuple>
+
+#include "glm/gtc/matrix_inverse.hpp"
+
+#include "engine/renderer/bounding_volume_hierarchy.h"
+#include "engine/renderer/render_sorter.h"
+#include "objects/material.h"
+#include "objects/mesh.h"
+#include "objects/render_pass.h"
+#include "objects/scene_object.h"
+#include "objects/components/render_data.h"
+#include "objects/components/transform.h"
+#include "util/gvr_gl.h"
+
+namespace gvr {
+
+StaticBatcher::BatchKey::BatchKey(RenderData* render_data) :
+        material(render_data->pass(0)->material()), light(
+                render_data->light()), light_enabled(
+                render_data->light_enabled()), cull_face(
+                render_data->pass(0)->cull_face()), render_mask(
+                render_data->render_mask()), rendering_order(
+                render_data->rendering_order()), offset(
+                render_data->offset()), offset_factor(
+                render_data->offset_factor()), offset_units(
+                render_data->offset_units()), depth_test(
+                render_data->depth_test()), alpha_blend(
+                render_data->alpha_blend()), normals(
+                !render_data->mesh()->normals().empty()), tex_coords(
+                !render_data->mesh()->tex_coords().empty()) {
+}
+
+bool StaticBatcher::BatchKey::operator<(const BatchKey& other) const {
+    return std::tie(material, light, light_enabled, cull_face, render_mask,
+            rendering_order, offset, offset_factor, offset_units, depth_test,
+            alpha_blend, normals, tex_coords)
+            < std::tie(other.material, other.light, other.light_enabled,
+                    other.cull_face, other.render_mask, other.rendering_order,
+                    other.offset, other.offset_factor, other.offset_units,
+                    other.depth_test, other.alpha_blend, other.normals,
+                    other.tex_coords);
+}
+
+bool StaticBatcher::BatchKey::operator==(const BatchKey& other) const {
+    return std::tie(material, light, light_enabled, cull_face, render_mask,
+            rendering_order, offset, offset_factor, offset_units, depth_test,
+            alpha_blend, normals, tex_coords)
+            == std::tie(other.material, other.light, other.light_enabled,
+                    other.cull_face, other.render_mask, other.rendering_order,
+                    other.offset, other.offset_factor, other.offset_units,
+                    other.depth_test, other.alpha_blend, other.normals,
+                    other.tex_coords);
+}
+
+// Only for objects that are batchable()
+StaticBatcher::MemberState::MemberState(SceneObject* scene_object) :
+        render_data(scene_object->render_data()), mesh(
+                render_data->mesh()), mesh_version(mesh->version()), shader_type(
+                render_data->pass(0)->material()->shader_type()), key(
+                render_data) {
+}
+
+bool StaticBatcher::MemberState::operator==(const MemberState& other) const {
+    return render_data == other.render_data && mesh == other.mesh
+            && mesh_version == other.mesh_version
+            && shader_type == other.shader_type && key == other.key;
+}
+
+StaticBatcher::StaticBatcher() :
+        batches_(), members_(), member_states_(), member_batches_(), hierarchy_batches_(), hierarchy_generation_(
+                0), hierarchy_mapped_(false), appended_frames_(), frame_(0) {
+}
+
+StaticBatcher::~StaticBatcher() {
+    clear();
+}
+
+void StaticBatcher::update(const std::vector<SceneObject*>& render_list,
+        bool force) {
+    // Only ever used on the GL thread; clear() keeps the capacity
+    static std::vector<SceneObject*> candidates;
+    candidates.clear();
+    for (auto it = render_list.begin(); it != render_list.end(); ++it) {
+        if (batchable(*it)) {
+            candidates.push_back(*it);
+        }
+    }
+
+    if (!force && candidates == members_) {
+        return;
+    }
+
+    clear();
+    members_.swap(candidates);
+    build();
+}
+
+void StaticBatcher::clear() {
+    for (auto it = batches_.begin(); it != batches_.end(); ++it) {
+        delete it->render_data;
+        delete it->render_pass;
+        delete it->mesh;
+    }
+    batches_.clear();
+    members_.clear();
+    member_states_.clear();
+    member_batches_.clear();
+    hierarchy_batches_.clear();
+    hierarchy_mapped_ = false;
+}
+
+bool StaticBatcher::stale() const {
+    for (int i = 0; i < members_.size(); ++i) {
+        if (!batchable(members_[i])
+                || !(MemberState(members_[i]) == member_states_[i])) {
+            return true;
+        }
+    }
+    return false;
+}
+
+int StaticBatcher::batchOf(const SceneObject* scene_object) const {
+    auto it = member_batches_.find(scene_object);
+    return it != member_batches_.end() ? it->second : -1;
+}
+
+const std::vector<int>& StaticBatcher::hierarchyBatches(
+        const BoundingVolumeHierarchy& bvh, unsigned int hierarchy_generation) {
+    if (!hierarchy_mapped_ || hierarchy_generation_ != hierarchy_generation) {
+        // Left empty when there is nothing to look up
+        hierarchy_batches_.clear();
+        if (!batches_.empty()) {
+            hierarchy_batches_.resize(bvh.size());
+            for (int i = 0; i < bvh.size(); ++i) {
+                hierarchy_batches_[i] = batchOf(bvh.object(i));
+            }
+        }
+        hierarchy_generation_ = hierarchy_generation;
+        hierarchy_mapped_ = true;
+    }
+    return hierarchy_batches_;
+}
+
+void StaticBatcher::appendCommands(const std::vector<int>& visible_batches,
+        std::vector<DrawCommand>& draw_commands) {
+    ++frame_;
+    for (auto it = visible_batches.begin(); it != visible_batches.end();
+            ++it) {
+        if (appended_frames_[*it] != frame_) {
+            appended_frames_[*it] = frame_;
+            appendCommand(*it, draw_commands);
+        }
+    }
+}
+
+void StaticBatcher::appendAllCommands(std::vector<DrawCommand>& draw_commands) {
+    for (int i = 0; i < batches_.size(); ++i) {
+        appendCommand(i, draw_commands);
+    }
+}
+
+void StaticBatcher::appendCommand(int batch,
+        std::vector<DrawCommand>& draw_commands) {
+    DrawCommand command;
+    command.render_data = batches_[batch].render_data;
+    // The merged vertices are already in world space
+    command.model_matrix = glm::mat4();
+    command.sort_key = RenderSorter::sortKey(command.render_data);
+    draw_commands.push_back(command);
+}
+
+bool StaticBatcher::batchable(SceneObject* scene_object) {
+    if (!scene_object->in_static_subtree() || scene_object->using_lod()) {
+        return false;
+    }
+
+    RenderData* render_data = scene_object->render_data();
+    if (render_data == 0 || render_data->pass_count() != 1
+            || render_data->draw_mode() != GL_TRIANGLES) {
+        return false;
+    }
+
+    // Merged, these could no longer be sorted back to front
+    if (render_data->rendering_order() >= RenderData::Transparent
+            && render_data->rendering_order() < RenderData::Overlay) {
+        return false;
+    }
+
+    const Mesh* mesh = render_data->mesh();
+    if (mesh == 0 || mesh->vertices().empty() || mesh->triangles().empty()
+            || mesh->vertices().size() > MAX_BATCH_VERTICES) {
+        return false;
+    }
+    if ((!mesh->normals().empty()
+            && mesh->normals().size() != mesh->vertices().size())
+            || (!mesh->tex_coords().empty()
+                    && mesh->tex_coords().size() != mesh->vertices().size())) {
+        return false;
+    }
+
+    const Material* material = render_data->pass(0)->material();
+    if (material == 0 || material->isAR_ || material->isARobj_) {
+        return false;
+    }
+
+    // Only the built-in shaders that don't need the model matrix beyond
+    // placing the vertices; custom shaders may use it for anything
+    switch (material->shader_type()) {
+    case Material::UNLIT_HORIZONTAL_STEREO_SHADER:
+    case Material::UNLIT_VERTICAL_STEREO_SHADER:
+    case Material::OES_SHADER:
+    case Material::OES_HORIZONTAL_STEREO_SHADER:
+    case Material::OES_VERTICAL_STEREO_SHADER:
+    case Material::TEXTURE_SHADER:
+        return true;
+    default:
+        return false;
+    }
+}
+
+void StaticBatcher::build() {
+    std::map<BatchKey, std::vector<SceneObject*> > groups;
+    for (auto it = members_.begin(); it != members_.end(); ++it) {
+        groups[BatchKey((*it)->render_data())].push_back(*it);
+        member_states_.push_back(MemberState(*it));
+    }
+
+    for (auto it = groups.begin(); it != groups.end(); ++it) {
+        const std::vector<SceneObject*>& group = it->second;
+        int begin = 0;
+        while (begin < group.size()) {
+            int vertex_count = 0;
+            int end = begin;
+            while (end < group.size()) {
+                int count = group[end]->render_data()->mesh()->vertices().size();
+                if (vertex_count + count > MAX_BATCH_VERTICES) {
+                    break;
+                }
+                vertex_count += count;
+                ++end;
+            }
+
+            // One object alone gains nothing from a copy of its mesh
+            if (end - begin > 1) {
+                addBatch(group, begin, end);
+            }
+            begin = end;
+        }
+    }
+
+    appended_frames_.assign(batches_.size(), frame_);
+}
+
+void StaticBatcher::addBatch(const std::vector<SceneObject*>& members,
+        int begin, int end) {
+    RenderData* first = members[begin]->render_data();
+    bool normals = !first->mesh()->normals().empty();
+    bool tex_coords = !first->mesh()->tex_coords().empty();
+
+    std::vector<glm::vec3> batch_vertices;
+    std::vector<glm::vec3> batch_normals;
+    std::vector<glm::vec2> batch_tex_coords;
+    std::vector<unsigned short> batch_triangles;
+
+    int batch = batches_.size();
+    for (int i = begin; i < end; ++i) {
+        SceneObject* scene_object = members[i];
+        const Mesh* mesh = scene_object->render_data()->mesh();
+        glm::mat4 model_matrix = scene_object->transform()->getModelMatrix();
+        unsigned short base = batch_vertices.size();
+
+        const std::vector<glm::vec3>& vertices = mesh->vertices();
+        for (auto it = vertices.begin(); it != vertices.end(); ++it) {
+            batch_vertices.push_back(
+                    glm::vec3(model_matrix * glm::vec4(*it, 1.0f)));
+        }
+
+        if (normals) {
+            glm::mat3 normal_matrix = glm::inverseTranspose(
+                    glm::mat3(model_matrix));
+            const std::vector<glm::vec3>& mesh_normals = mesh->normals();
+            for (auto it = mesh_normals.begin(); it != mesh_normals.end();
+                    ++it) {
+                batch_normals.push_back(glm::normalize(normal_matrix * *it));
+            }
+        }
+
+        if (tex_coords) {
+            batch_tex_coords.insert(batch_tex_coords.end(),
+                    mesh->tex_coords().begin(), mesh->tex_coords().end());
+        }
+
+        const std::vector<unsigned short>& triangles = mesh->triangles();
+        for (auto it = triangles.begin(); it != triangles.end(); ++it) {
+            batch_triangles.push_back(base + *it);
+        }
+
+        member_batches_[scene_object] = batch;
+    }
+
+    Batch entry;
+    entry.mesh = new Mesh();
+    entry.mesh->set_vertices(std::move(batch_vertices));
+    entry.mesh->set_normals(std::move(batch_normals));
+    entry.mesh->set_tex_coords(std::move(batch_tex_coords));
+    entry.mesh->set_triangles(std::move(batch_triangles));
+
+    entry.render_pass = new RenderPass();
+    entry.render_pass->set_material(first->pass(0)->material());
+    entry.render_pass->set_cull_face(first->pass(0)->cull_face());
+
+    // Not attached, and no owner: the batch shouldn't show up in the scene
+    // graph, and would outlive a member it pointed to
+    entry.render_data = new RenderData();
+    entry.render_data->set_mesh(entry.mesh);
+    entry.render_data->add_pass(entry.render_pass);
+    if (first->light() != 0) {
+        entry.render_data->set_light(first->light());
+    }
+    if (first->light_enabled()) {
+        entry.render_data->enable_light();
+    } else {
+        entry.render_data->disable_light();
+    }
+    entry.render_data->set_render_mask(first->render_mask());
+    entry.render_data->set_rendering_order(first->rendering_order());
+    entry.render_data->set_offset(first->offset());
+    entry.render_data->set_offset_factor(first->offset_factor());
+    entry.render_data->set_offset_units(first->offset_units());
+    entry.render_data->set_depth_test(first->depth_test());
+    entry.render_data->set_alpha_blend(first->alpha_blend());
+    entry.render_data->set_instancing(false);
+
+    batches_.push_back(entry);
+}
+
+}
@@ -0,0 +1,172 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Merges the geometry of static scene objects that render alike.
+ ***************************************************************************/
+
+#ifndef STATIC_BATCHER_H_
+#define STATIC_BATCHER_H_
+
+#include <unordered_map>
+#include <vector>
+
+#include "engine/renderer/draw_command.h"
+
+namespace gvr {
+class BoundingVolumeHierarchy;
+class Light;
+class Material;
+class Mesh;
+class RenderData;
+class RenderPass;
+class SceneObject;
+
+/*
+ * Objects in a static subtree (SceneObject::set_static()) that share a
+ * material, a light and render state have their meshes transformed to world
+ * space and merged, up to what 16-bit indices can address, so each group is
+ * one draw call instead of one per object.
+ *
+ * The originals keep their own render data, so they are still culled,
+ * queried and picked one by one; a batch is drawn, whole, when any of its
+ * objects survives culling. Batches are rebuilt when the set of static
+ * objects changes, or when one of them gets different geometry, material or
+ * render state; not when they move: static objects aren't expected to.
+ */
+class StaticBatcher {
+public:
+    StaticBatcher();
+    ~StaticBatcher();
+
+    /*
+     * Regroups the static objects in render_list, if they are not the ones
+     * the current batches were built from, or if forced to (the objects'
+     * static flags have been set again). Call on the GL thread: it frees the
+     * old batches.
+     */
+    void update(const std::vector<SceneObject*>& render_list, bool force);
+
+    // Frees every batch
+    void clear();
+
+    /*
+     * Has any object the batches were built from changed its mesh (or the
+     * mesh's geometry), material or render state since? A batch would go on
+     * drawing the old ones - including a material that may since have been
+     * deleted - so update() needs forcing. Reads every object the batches
+     * were built from: only call once update() has been given the current
+     * render list, when none of them can have been deleted.
+     */
+    bool stale() const;
+
+    // The batch this object is drawn by, or -1 if it is drawn on its own
+    int batchOf(const SceneObject* scene_object) const;
+
+    /*
+     * batchOf() for each of the hierarchy's objects, by object index, for
+     * lookups from the frame preparation threads. Remapped when either the
+     * hierarchy (by its generation) or the batches have been rebuilt.
+     */
+    const std::vector<int>& hierarchyBatches(const BoundingVolumeHierarchy& bvh,
+            unsigned int hierarchy_generation);
+
+    int batchCount() const {
+        return batches_.size();
+    }
+
+    /*
+     * Appends a command for each batch in visible_batches - which may
+     * repeat - once.
+     */
+    void appendCommands(const std::vector<int>& visible_batches,
+            std::vector<DrawCommand>& draw_commands);
+
+    // Appends a command for every batch
+    void appendAllCommands(std::vector<DrawCommand>& draw_commands);
+
+private:
+    StaticBatcher(const StaticBatcher& static_batcher);
+    StaticBatcher(StaticBatcher&& static_batcher);
+    StaticBatcher& operator=(const StaticBatcher& static_batcher);
+    StaticBatcher& operator=(StaticBatcher&& static_batcher);
+
+    struct Batch {
+        Mesh* mesh;
+        RenderPass* render_pass;
+        RenderData* render_data;
+    };
+
+    // Everything a merged draw call has to share
+    struct BatchKey {
+        explicit BatchKey(RenderData* render_data);
+        bool operator<(const BatchKey& other) const;
+        bool operator==(const BatchKey& other) const;
+
+        Material* material;
+        Light* light;
+        bool light_enabled;
+        int cull_face;
+        int render_mask;
+        int rendering_order;
+        bool offset;
+        float offset_factor;
+        float offset_units;
+        bool depth_test;
+        bool alpha_blend;
+        bool normals;
+        bool tex_coords;
+    };
+
+    // What a batched object looked like when the batches were built
+    struct MemberState {
+        explicit MemberState(SceneObject* scene_object);
+        bool operator==(const MemberState& other) const;
+
+        RenderData* render_data;
+        const Mesh* mesh;
+        unsigned int mesh_version;
+        int shader_type;
+        BatchKey key;
+    };
+
+    static bool batchable(SceneObject* scene_object);
+    void build();
+    void addBatch(const std::vector<SceneObject*>& members, int begin,
+            int end);
+    void appendCommand(int batch, std::vector<DrawCommand>& draw_commands);
+
+private:
+    // Unsigned short indices
+    static const int MAX_BATCH_VERTICES = 65536;
+
+    std::vector<Batch> batches_;
+    // The static objects the batches were built from, in render list order
+    std::vector<SceneObject*> members_;
+    std::vector<MemberState> member_states_;
+    std::unordered_map<const SceneObject*, int> member_batches_;
+
+    std::vector<int> hierarchy_batches_;
+    unsigned int hierarchy_generation_;
+    bool hierarchy_mapped_;
+
+    // Which frame each batch was last appended in
+    std::vector<unsigned int> appended_frames_;
+    unsigned int frame_;
+};
+
+}
+#endif
@@ -20,6 +20,8 @@
 #ifndef GL_PROGRAM_H_
 #define GL_PROGRAM_H_
 
+#include <string.h>
+
 #include "GLES3/gl3.h"
 
 #include "engine/memory/gl_delete.h"
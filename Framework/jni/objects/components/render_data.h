@@ -53,7 +53,8 @@ public:
                     DEFAULT_RENDER_MASK), rendering_order_(
                     DEFAULT_RENDERING_ORDER), offset_(false), offset_factor_(
                     0.0f), offset_units_(0.0f), depth_test_(true), alpha_blend_(
-                    true), draw_mode_(GL_TRIANGLES) {
+                    true), draw_mode_(GL_TRIANGLES), camera_distance_(0.0f), instancing_(
+                    true) {
     }
 
     ~RenderData() {
@@ -140,7 +141,7 @@ public:
             return render_pass_list_[pass]->cull_face();
         }
 
-        return nullptr;
+        return false;
     }
 
     void set_cull_face(int cull_face, int pass) {
@@ -206,6 +207,18 @@ public:
         draw_mode_ = draw_mode;
     }
 
+    /*
+     * Whether the renderer may draw this along with others that share its
+     * mesh, material and state, in a single instanced draw call
+     */
+    bool instancing() const {
+        return instancing_;
+    }
+
+    void set_instancing(bool instancing) {
+        instancing_ = instancing;
+    }
+
 private:
     RenderData(const RenderData& render_data);
     RenderData(RenderData&& render_data);
@@ -228,6 +241,7 @@ private:
     bool alpha_blend_;
     GLenum draw_mode_;
     float camera_distance_;
+    bool instancing_;
 };
 
 inline bool compareRenderData(RenderData* i, RenderData* j) {
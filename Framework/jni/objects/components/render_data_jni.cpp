@@ -109,6 +109,14 @@ Java_org_gearvrf_NativeRenderData_getDrawMode(
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeRenderData_setDrawMode(
         JNIEnv * env, jobject obj, jlong jrender_data, jint draw_mode);
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeRenderData_getInstancing(JNIEnv * env,
+        jobject obj, jlong jrender_data);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeRenderData_setInstancing(JNIEnv * env,
+        jobject obj, jlong jrender_data, jboolean instancing);
 }
 ;
 
@@ -268,4 +276,18 @@ RenderData* render_data = reinterpret_cast<RenderData*>(jrender_data);
 return render_data->draw_mode();
 }
 
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeRenderData_getInstancing(JNIEnv * env,
+    jobject obj, jlong jrender_data) {
+RenderData* render_data = reinterpret_cast<RenderData*>(jrender_data);
+return static_cast<jboolean>(render_data->instancing());
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeRenderData_setInstancing(JNIEnv * env,
+    jobject obj, jlong jrender_data, jboolean instancing) {
+RenderData* render_data = reinterpret_cast<RenderData*>(jrender_data);
+render_data->set_instancing(static_cast<bool>(instancing));
+}
+
 }
@@ -24,57 +24,107 @@
 #include "objects/scene_object.h"
 
 namespace gvr {
+std::atomic<unsigned int> Transform::modification_counts_[2];
+
 Transform::Transform() :
-        Component(), position_(glm::vec3(0.0f, 0.0f, 0.0f)), rotation_(
-                glm::quat(1.0f, 0.0f, 0.0f, 0.0f)), scale_(
-                glm::vec3(1.0f, 1.0f, 1.0f)), model_matrix_(
-                Lazy<glm::mat4>(glm::mat4())) {
+        Component(), data_(), revision_(0), parent_revision_(0) {
+    data_.position = glm::vec3(0.0f, 0.0f, 0.0f);
+    data_.rotation = glm::quat(1.0f, 0.0f, 0.0f, 0.0f);
+    data_.scale = glm::vec3(1.0f, 1.0f, 1.0f);
+    data_.local_dirty = true;
+    data_.checked_count = 0;
+    ++modification_counts_[NATIVE];
 }
 
 Transform::~Transform() {
 }
 
 void Transform::invalidate(bool rotationUpdated) {
-    if (model_matrix_.isValid()) {
-        model_matrix_.invalidate();
-        std::vector<SceneObject*> children(owner_object()->children());
-        for (auto it = children.begin(); it != children.end(); ++it) {
-            (*it)->transform()->invalidate(false);
-        }
-    }
+    // The children find out from our revision, when they are next updated
+    data_.local_dirty = true;
+    ++modification_counts_[NATIVE];
     if (rotationUpdated) {
-        // scale rotation_ if needed to avoid overflow
-        static const float threshold = sqrt(FLT_MAX) / 2.0f;
-        static const float scale_factor = 0.5f / sqrt(FLT_MAX);
-        if (rotation_.w > threshold || rotation_.x > threshold
-                || rotation_.y > threshold || rotation_.z > threshold) {
-            rotation_.w *= scale_factor;
-            rotation_.x *= scale_factor;
-            rotation_.y *= scale_factor;
-            rotation_.z *= scale_factor;
-        }
+        clampRotation(data_.rotation);
+    }
+}
+
+void Transform::markModified() {
+    ++modification_counts_[NATIVE];
+}
+
+void Transform::clampRotation(glm::quat& rotation) {
+    // scale rotation if needed to avoid overflow
+    static const float threshold = sqrt(FLT_MAX) / 2.0f;
+    static const float scale_factor = 0.5f / sqrt(FLT_MAX);
+    if (rotation.w > threshold || rotation.x > threshold
+            || rotation.y > threshold || rotation.z > threshold) {
+        rotation.w *= scale_factor;
+        rotation.x *= scale_factor;
+        rotation.y *= scale_factor;
+        rotation.z *= scale_factor;
     }
 }
 
 glm::mat4 Transform::getModelMatrix() {
-    if (!model_matrix_.isValid()) {
-        glm::mat4 translation_matrix = glm::translate(glm::mat4(), position_);
-        glm::mat4 rotation_matrix = glm::mat4_cast(rotation_);
-        glm::mat4 scale_matrix = glm::scale(glm::mat4(), scale_);
-        glm::mat4 trs_matrix = translation_matrix * rotation_matrix
-                * scale_matrix;
-
-        if (owner_object()->parent() != 0) {
-            glm::mat4 model_matrix =
-                    owner_object()->parent()->transform()->getModelMatrix()
-                            * trs_matrix;
-            model_matrix_.validate(model_matrix);
-        } else {
-            model_matrix_.validate(trs_matrix);
+    unsigned int count = modification_count();
+    if (data_.checked_count != count) {
+        Transform* parent = parentTransform();
+        if (parent != 0) {
+            parent->getModelMatrix();
         }
+        updateModelMatrix(parent);
+        data_.checked_count = count;
     }
 
-    return model_matrix_.element();
+    return data_.model_matrix;
+}
+
+void Transform::updateModelMatrices(const std::vector<SceneObject*>& objects) {
+    updateModelMatrices(objects, 0, objects.size(), modification_count());
+}
+
+void Transform::updateModelMatrices(const std::vector<SceneObject*>& objects,
+        int begin, int end, unsigned int count) {
+    for (int i = begin; i < end; ++i) {
+        Transform* transform = objects[i]->transform();
+        if (transform == 0 || transform->data_.checked_count == count) {
+            continue;
+        }
+
+        // Already current, unless it is outside the list
+        Transform* parent = transform->parentTransform();
+        if (parent != 0 && parent->data_.checked_count != count) {
+            parent->getModelMatrix();
+        }
+        transform->updateModelMatrix(parent);
+        transform->data_.checked_count = count;
+    }
+}
+
+Transform* Transform::parentTransform() const {
+    SceneObject* parent = owner_object() != 0 ? owner_object()->parent() : 0;
+    return parent != 0 ? parent->transform() : 0;
+}
+
+void Transform::updateModelMatrix(const Transform* parent) {
+    if (!data_.local_dirty
+            && (parent == 0 || parent->revision_ == parent_revision_)) {
+        return;
+    }
+
+    glm::mat4 translation_matrix = glm::translate(glm::mat4(), data_.position);
+    glm::mat4 rotation_matrix = glm::mat4_cast(data_.rotation);
+    glm::mat4 scale_matrix = glm::scale(glm::mat4(), data_.scale);
+    glm::mat4 trs_matrix = translation_matrix * rotation_matrix * scale_matrix;
+
+    if (parent != 0) {
+        data_.model_matrix = parent->data_.model_matrix * trs_matrix;
+        parent_revision_ = parent->revision_;
+    } else {
+        data_.model_matrix = trs_matrix;
+    }
+    data_.local_dirty = false;
+    ++revision_;
 }
 
 void Transform::setModelMatrix(glm::mat4 matrix) {
@@ -107,29 +157,29 @@ void Transform::setModelMatrix(glm::mat4 matrix) {
             matrix[1][2] / new_scale.z, matrix[2][0] / new_scale.x,
             matrix[2][1] / new_scale.y, matrix[2][2] / new_scale.z);
 
-    position_ = new_position;
-    scale_ = new_scale;
-    rotation_ = glm::quat_cast(rotation_mat);
+    data_.position = new_position;
+    data_.scale = new_scale;
+    data_.rotation = glm::quat_cast(rotation_mat);
     invalidate(true);
 }
 
 void Transform::translate(float x, float y, float z) {
-    position_ += glm::vec3(x, y, z);
+    data_.position += glm::vec3(x, y, z);
     invalidate(false);
 }
 
 void Transform::setRotationByAxis(float angle, float x, float y, float z) {
-    rotation_ = glm::angleAxis(angle, glm::vec3(x, y, z));
+    data_.rotation = glm::angleAxis(angle, glm::vec3(x, y, z));
     invalidate(true);
 }
 
 void Transform::rotate(float w, float x, float y, float z) {
-    rotation_ = glm::quat(w, x, y, z) * rotation_;
+    data_.rotation = glm::quat(w, x, y, z) * data_.rotation;
     invalidate(true);
 }
 
 void Transform::rotateByAxis(float angle, float x, float y, float z) {
-    rotation_ = glm::angleAxis(angle, glm::vec3(x, y, z)) * rotation_;
+    data_.rotation = glm::angleAxis(angle, glm::vec3(x, y, z)) * data_.rotation;
     invalidate(true);
 }
 
@@ -137,22 +187,22 @@ void Transform::rotateByAxisWithPivot(float angle, float axis_x, float axis_y,
         float axis_z, float pivot_x, float pivot_y, float pivot_z) {
     glm::quat axis_rotation = glm::angleAxis(angle,
             glm::vec3(axis_x, axis_y, axis_z));
-    rotation_ = axis_rotation * rotation_;
+    data_.rotation = axis_rotation * data_.rotation;
     glm::vec3 pivot(pivot_x, pivot_y, pivot_z);
-    glm::vec3 relative_position = position_ - pivot;
+    glm::vec3 relative_position = data_.position - pivot;
     relative_position = glm::rotate(axis_rotation, relative_position);
-    position_ = relative_position + pivot;
+    data_.position = relative_position + pivot;
     invalidate(true);
 }
 
 void Transform::rotateWithPivot(float w, float x, float y, float z,
         float pivot_x, float pivot_y, float pivot_z) {
     glm::quat rotation(w, x, y, z);
-    rotation_ = rotation * rotation_;
+    data_.rotation = rotation * data_.rotation;
     glm::vec3 pivot(pivot_x, pivot_y, pivot_z);
-    glm::vec3 relative_position = position_ - pivot;
+    glm::vec3 relative_position = data_.position - pivot;
     relative_position = glm::rotate(rotation, relative_position);
-    position_ = relative_position + pivot;
+    data_.position = relative_position + pivot;
     invalidate(true);
 }
 
@@ -21,154 +21,244 @@
 #ifndef TRANSFORM_H_
 #define TRANSFORM_H_
 
+#include <atomic>
 #include <memory>
+#include <vector>
 
 #include "glm/glm.hpp"
 #include "glm/gtx/quaternion.hpp"
 #include "glm/gtc/matrix_transform.hpp"
 
-#include "objects/lazy.h"
 #include "objects/components/component.h"
 
 namespace gvr {
+class SceneObject;
+
+/*
+ * A transform's state, laid out for Java: GVRTransform reads it, and sets
+ * its TRS (and local_dirty), through a direct ByteBuffer over it, without a
+ * JNI call. Every field is 4 bytes; GVRTransform has the matching offsets.
+ */
+struct TransformData {
+    glm::vec3 position;
+    // x, y, z, w
+    glm::quat rotation;
+    glm::vec3 scale;
+    // Column major, as of checked_count
+    glm::mat4 model_matrix;
+    // Set when position, rotation or scale changed since model_matrix was
+    // computed
+    int local_dirty;
+    // The modification count model_matrix was last known current at
+    unsigned int checked_count;
+};
+
+static_assert(sizeof(TransformData) == 28 * sizeof(float),
+        "GVRTransform expects a packed TransformData");
+
+/*
+ * The setters only mark a transform dirty. Model (world) matrices are brought
+ * up to date once a frame, parent before child, by updateModelMatrices(); in
+ * between, getModelMatrix() brings just the one it is asked for (and its
+ * ancestors) up to date. Neither allocates.
+ */
 class Transform: public Component {
 public:
     Transform();
     virtual ~Transform();
 
     const glm::vec3& position() const {
-        return position_;
+        return data_.position;
     }
 
     float position_x() const {
-        return position_.x;
+        return data_.position.x;
     }
 
     float position_y() const {
-        return position_.y;
+        return data_.position.y;
     }
 
     float position_z() const {
-        return position_.z;
+        return data_.position.z;
     }
 
     void set_position(const glm::vec3& position) {
-        position_ = position;
+        data_.position = position;
         invalidate(false);
     }
 
     void set_position(float x, float y, float z) {
-        position_.x = x;
-        position_.y = y;
-        position_.z = z;
+        data_.position.x = x;
+        data_.position.y = y;
+        data_.position.z = z;
         invalidate(false);
     }
 
     void set_position_x(float x) {
-        position_.x = x;
+        data_.position.x = x;
         invalidate(false);
     }
 
     void set_position_y(float y) {
-        position_.y = y;
+        data_.position.y = y;
         invalidate(false);
     }
 
     void set_position_z(float z) {
-        position_.z = z;
+        data_.position.z = z;
         invalidate(false);
     }
 
     const glm::quat& rotation() const {
-        return rotation_;
+        return data_.rotation;
     }
 
     float rotation_w() const {
-        return rotation_.w;
+        return data_.rotation.w;
     }
 
     float rotation_x() const {
-        return rotation_.x;
+        return data_.rotation.x;
     }
 
     float rotation_y() const {
-        return rotation_.y;
+        return data_.rotation.y;
     }
 
     float rotation_z() const {
-        return rotation_.z;
+        return data_.rotation.z;
     }
 
     float rotation_yaw() const {
-        return glm::yaw(rotation_);
+        return glm::yaw(data_.rotation);
     }
 
     float rotation_pitch() const {
-        return glm::pitch(rotation_);
+        return glm::pitch(data_.rotation);
     }
 
     float rotation_roll() const {
-        return glm::roll(rotation_);
+        return glm::roll(data_.rotation);
     }
 
     void set_rotation(float w, float x, float y, float z) {
-        rotation_.w = w;
-        rotation_.x = x;
-        rotation_.y = y;
-        rotation_.z = z;
+        data_.rotation.w = w;
+        data_.rotation.x = x;
+        data_.rotation.y = y;
+        data_.rotation.z = z;
         invalidate(true);
     }
 
     void set_rotation(const glm::quat& roation) {
-        rotation_ = roation;
+        data_.rotation = roation;
         invalidate(true);
     }
 
     const glm::vec3& scale() const {
-        return scale_;
+        return data_.scale;
     }
 
     float scale_x() const {
-        return scale_.x;
+        return data_.scale.x;
     }
 
     float scale_y() const {
-        return scale_.y;
+        return data_.scale.y;
     }
 
     float scale_z() const {
-        return scale_.z;
+        return data_.scale.z;
     }
 
     void set_scale(const glm::vec3& scale) {
-        scale_ = scale;
+        data_.scale = scale;
         invalidate(false);
     }
 
     void set_scale(float x, float y, float z) {
-        scale_.x = x;
-        scale_.y = y;
-        scale_.z = z;
+        data_.scale.x = x;
+        data_.scale.y = y;
+        data_.scale.z = z;
         invalidate(false);
     }
 
     void set_scale_x(float x) {
-        scale_.x = x;
+        data_.scale.x = x;
         invalidate(false);
     }
 
     void set_scale_y(float y) {
-        scale_.y = y;
+        data_.scale.y = y;
         invalidate(false);
     }
 
     void set_scale_z(float z) {
-        scale_.z = z;
+        data_.scale.z = z;
         invalidate(false);
     }
 
+    // Marks the local transform changed
     void invalidate(bool rotationUpdated);
     glm::mat4 getModelMatrix();
+
+    /*
+     * The model matrix as last computed - by updateModelMatrices() or
+     * getModelMatrix() - without bringing it up to date. For worker
+     * threads: getModelMatrix() may write this transform and its ancestors,
+     * whenever any transform has changed since.
+     */
+    const glm::mat4& computedModelMatrix() const {
+        return data_.model_matrix;
+    }
+
+    /*
+     * Updates the model matrices of objects, which must list parents before
+     * their children - as Scene::getFlattenedSceneObjects() does - in one
+     * pass. Only transforms that changed, or whose parent's did, are
+     * recomputed.
+     */
+    static void updateModelMatrices(const std::vector<SceneObject*>& objects);
+
+    /*
+     * The same, for objects [begin, end) only, against a modification count
+     * read once for the whole pass. Ranges whose parents have all been
+     * updated may run on different threads at once.
+     */
+    static void updateModelMatrices(const std::vector<SceneObject*>& objects,
+            int begin, int end, unsigned int count);
+
+    /*
+     * For code that writes many transforms' data() directly, setting each
+     * one's local_dirty: one count bump covers them all
+     */
+    static void markModified();
+
+    // Scales a rotation down if it is heading for overflow
+    static void clampRotation(glm::quat& rotation);
+
+    // Changes whenever any transform or the hierarchy changes
+    static unsigned int modification_count() {
+        return modification_counts_[NATIVE].load()
+                + modification_counts_[JAVA].load();
+    }
+
+    /*
+     * The state GVRTransform reads and writes directly, through a direct
+     * buffer, and the counts it checks to know whether model_matrix is
+     * current
+     */
+    TransformData* data() {
+        return &data_;
+    }
+
+    static void* modification_counts() {
+        return modification_counts_;
+    }
+
+    static int modification_counts_size() {
+        return sizeof(modification_counts_);
+    }
     void translate(float x, float y, float z);
     void setRotationByAxis(float angle, float x, float y, float z);
     void rotate(float w, float x, float y, float z);
@@ -185,12 +275,25 @@ private:
     Transform& operator=(const Transform& transform);
     Transform& operator=(Transform&& transform);
 
-private:
-    glm::vec3 position_;
-    glm::quat rotation_;
-    glm::vec3 scale_;
+    Transform* parentTransform() const;
+    void updateModelMatrix(const Transform* parent);
 
-    Lazy<glm::mat4> model_matrix_;
+private:
+    /*
+     * Bumped by every change to any transform or to the hierarchy: [NATIVE]
+     * by native code, [JAVA] by GVRTransform's own writes to TransformData.
+     * Shared with Java, which reads both.
+     */
+    enum {
+        NATIVE = 0, JAVA = 1
+    };
+    static std::atomic<unsigned int> modification_counts_[2];
+
+    TransformData data_;
+    // Bumped each time the model matrix is recomputed, so children follow
+    unsigned int revision_;
+    // The parent's revision the model matrix was computed from
+    unsigned int parent_revision_;
 };
 
 }
@@ -13,7 +13,6 @@
  * limitations under the License.
  */
 
-
 /***************************************************************************
  * JNI
  ***************************************************************************/
@@ -29,93 +28,23 @@ extern "C" {
 JNIEXPORT jlong JNICALL
 Java_org_gearvrf_NativeTransform_ctor(JNIEnv * env,
         jobject obj);
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getPositionX(JNIEnv * env,
-        jobject obj, jlong jtransform);
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getPositionY(JNIEnv * env,
-        jobject obj, jlong jtransform);
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getPositionZ(JNIEnv * env,
-        jobject obj, jlong jtransform);
-
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setPosition(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat x, jfloat y, jfloat z);
-
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setPositionX(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat x);
-
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setPositionY(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat y);
-
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setPositionZ(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat z);
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getRotationW(JNIEnv * env,
-        jobject obj, jlong jtransform);
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getRotationX(JNIEnv * env,
-        jobject obj, jlong jtransform);
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getRotationY(JNIEnv * env,
-        jobject obj, jlong jtransform);
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getRotationZ(JNIEnv * env,
-        jobject obj, jlong jtransform);
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getRotationYaw(JNIEnv * env,
-        jobject obj, jlong jtransform);
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getRotationPitch(JNIEnv * env,
-        jobject obj, jlong jtransform);
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getRotationRoll(JNIEnv * env,
-        jobject obj, jlong jtransform);
 
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setRotation(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat w, jfloat x, jfloat y, jfloat z);
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getScaleX(JNIEnv * env,
-        jobject obj, jlong jtransform);
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getScaleY(JNIEnv * env,
-        jobject obj, jlong jtransform);
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getScaleZ(JNIEnv * env,
+JNIEXPORT jobject JNICALL
+Java_org_gearvrf_NativeTransform_getData(JNIEnv * env,
         jobject obj, jlong jtransform);
 
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setScale(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat x, jfloat y, jfloat z);
-
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setScaleX(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat x);
-
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setScaleY(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat y);
+JNIEXPORT jobject JNICALL
+Java_org_gearvrf_NativeTransform_getModificationCounts(JNIEnv * env,
+        jobject obj);
 
 JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setScaleZ(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat z);
-JNIEXPORT jfloatArray JNICALL
-Java_org_gearvrf_NativeTransform_getModelMatrix(JNIEnv * env,
+Java_org_gearvrf_NativeTransform_updateModelMatrix(JNIEnv * env,
         jobject obj, jlong jtransform);
 
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeTransform_setModelMatrix(JNIEnv * env,
         jobject obj, jlong jtransform, jfloatArray mat);
 
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_translate(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat x, jfloat y, jfloat z);
-
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeTransform_setRotationByAxis(JNIEnv * env,
         jobject obj, jlong jtransform, jfloat angle, jfloat x, jfloat y,
@@ -144,173 +73,26 @@ Java_org_gearvrf_NativeTransform_ctor(JNIEnv * env,
     return reinterpret_cast<jlong>(new Transform());
 }
 
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getPositionX(JNIEnv * env,
-        jobject obj, jlong jtransform) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    return transform->position_x();
-}
-
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getPositionY(JNIEnv * env,
-        jobject obj, jlong jtransform) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    return transform->position_y();
-}
-
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getPositionZ(JNIEnv * env,
-        jobject obj, jlong jtransform) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    return transform->position_z();
-}
-
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setPosition(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat x, jfloat y, jfloat z) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    transform->set_position(x, y, z);
-}
-
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setPositionX(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat x) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    transform->set_position_x(x);
-}
-
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setPositionY(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat y) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    transform->set_position_y(y);
-}
-
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setPositionZ(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat z) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    transform->set_position_z(z);
-}
-
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getRotationW(JNIEnv * env,
+JNIEXPORT jobject JNICALL
+Java_org_gearvrf_NativeTransform_getData(JNIEnv * env,
         jobject obj, jlong jtransform) {
     Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    return transform->rotation_w();
+    return env->NewDirectByteBuffer(transform->data(), sizeof(TransformData));
 }
 
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getRotationX(JNIEnv * env,
-        jobject obj, jlong jtransform) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    return transform->rotation_x();
-}
-
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getRotationY(JNIEnv * env,
-        jobject obj, jlong jtransform) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    return transform->rotation_y();
-}
-
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getRotationZ(JNIEnv * env,
-        jobject obj, jlong jtransform) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    return transform->rotation_z();
-}
-
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getRotationYaw(JNIEnv * env,
-        jobject obj, jlong jtransform) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    return transform->rotation_yaw();
-}
-
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getRotationPitch(JNIEnv * env,
-        jobject obj, jlong jtransform) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    return transform->rotation_pitch();
-}
-
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getRotationRoll(JNIEnv * env,
-        jobject obj, jlong jtransform) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    return transform->rotation_roll();
-}
-
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setRotation(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat w, jfloat x, jfloat y, jfloat z) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    transform->set_rotation(w, x, y, z);
-}
-
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getScaleX(JNIEnv * env,
-        jobject obj, jlong jtransform) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    return transform->scale_x();
-}
-
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getScaleY(JNIEnv * env,
-        jobject obj, jlong jtransform) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    return transform->scale_y();
-}
-
-JNIEXPORT jfloat JNICALL
-Java_org_gearvrf_NativeTransform_getScaleZ(JNIEnv * env,
-        jobject obj, jlong jtransform) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    return transform->scale_z();
-}
-
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setScale(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat x, jfloat y, jfloat z) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    transform->set_scale(x, y, z);
-}
-
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setScaleX(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat x) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    transform->set_scale_x(x);
-}
-
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setScaleY(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat y) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    transform->set_scale_y(y);
+JNIEXPORT jobject JNICALL
+Java_org_gearvrf_NativeTransform_getModificationCounts(JNIEnv * env,
+        jobject obj) {
+    return env->NewDirectByteBuffer(Transform::modification_counts(),
+            Transform::modification_counts_size());
 }
 
 JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_setScaleZ(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat z) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    transform->set_scale_z(z);
-}
-
-JNIEXPORT jfloatArray JNICALL
-Java_org_gearvrf_NativeTransform_getModelMatrix(JNIEnv * env,
+Java_org_gearvrf_NativeTransform_updateModelMatrix(JNIEnv * env,
         jobject obj, jlong jtransform) {
     Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    glm::mat4 matrix = transform->getModelMatrix();
-    jsize size = sizeof(matrix) / sizeof(jfloat);
-    if (size != 16) {
-        LOGE("sizeof(matrix) / sizeof(jfloat) != 16");
-        throw "sizeof(matrix) / sizeof(jfloat) != 16";
-    }
-    jfloatArray jmatrix = env->NewFloatArray(size);
-    env->SetFloatArrayRegion(jmatrix, 0, size, glm::value_ptr(matrix));
-    return jmatrix;
+    // Leaves the result, and the count it is current at, in the data
+    transform->getModelMatrix();
 }
 
 JNIEXPORT void JNICALL
@@ -323,13 +105,6 @@ Java_org_gearvrf_NativeTransform_setModelMatrix(JNIEnv * env,
 	env->ReleaseFloatArrayElements(mat, mat_arr, 0);
 }
 
-JNIEXPORT void JNICALL
-Java_org_gearvrf_NativeTransform_translate(JNIEnv * env,
-        jobject obj, jlong jtransform, jfloat x, jfloat y, jfloat z) {
-    Transform* transform = reinterpret_cast<Transform*>(jtransform);
-    transform->translate(x, y, z);
-}
-
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeTransform_setRotationByAxis(JNIEnv * env,
         jobject obj, jlong jtransform, jfloat angle, jfloat x, jfloat y,
@@ -23,6 +23,9 @@ extern "C" {
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeHybridObject_delete(JNIEnv * env,
         jobject obj, jlong jhybrid_object);
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeHybridObject_deleteBatch(JNIEnv * env,
+        jobject obj, jlongArray jhybrid_objects, jint count);
 }
 
 JNIEXPORT void JNICALL
@@ -30,5 +33,14 @@ Java_org_gearvrf_NativeHybridObject_delete(JNIEnv * env,
         jobject obj, jlong jhybrid_object) {
     delete reinterpret_cast<HybridObject*>(jhybrid_object);
 }
-}
 
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeHybridObject_deleteBatch(JNIEnv * env,
+        jobject obj, jlongArray jhybrid_objects, jint count) {
+    jlong* hybrid_objects = env->GetLongArrayElements(jhybrid_objects, 0);
+    for (int i = 0; i < count; ++i) {
+        delete reinterpret_cast<HybridObject*>(hybrid_objects[i]);
+    }
+    env->ReleaseLongArrayElements(jhybrid_objects, hybrid_objects, JNI_ABORT);
+}
+}
@@ -0,0 +1,63 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Links textures and shaders.
+ ***************************************************************************/
+
+#include "material.h"
+
+#include <map>
+#include <pthread.h>
+
+namespace gvr {
+
+namespace {
+// Keys are interned from any thread: JNI setters, shader setup
+pthread_mutex_t keys_mutex = PTHREAD_MUTEX_INITIALIZER;
+std::map<std::string, int>* key_ids;
+std::vector<std::string>* key_names;
+}
+
+int Material::key(const std::string& name) {
+    pthread_mutex_lock(&keys_mutex);
+    if (key_ids == 0) {
+        key_ids = new std::map<std::string, int>();
+        key_names = new std::vector<std::string>();
+    }
+    int id;
+    auto it = key_ids->find(name);
+    if (it != key_ids->end()) {
+        id = it->second;
+    } else {
+        id = key_names->size();
+        (*key_ids)[name] = id;
+        key_names->push_back(name);
+    }
+    pthread_mutex_unlock(&keys_mutex);
+    return id;
+}
+
+std::string Material::keyName(int key) {
+    std::string name;
+    pthread_mutex_lock(&keys_mutex);
+    if (key_names != 0 && key >= 0 && key < key_names->size()) {
+        name = (*key_names)[key];
+    }
+    pthread_mutex_unlock(&keys_mutex);
+    return name;
+}
+
+}
@@ -20,9 +20,9 @@
 #ifndef MATERIAL_H_
 #define MATERIAL_H_
 
-#include <map>
 #include <memory>
 #include <string>
+#include <vector>
 
 #include "glm/glm.hpp"
 
@@ -43,15 +43,16 @@ public:
         CUBEMAP_SHADER = 5,
         CUBEMAP_REFLECTION_SHADER = 6,
         TEXTURE_SHADER = 7,
-        TEXTURE_SHADER_NOLIGHT = 100
+        TEXTURE_SHADER_NOLIGHT = 100,
+        TEXTURE_SHADER_INSTANCED = 101
     };
 
     explicit Material(ShaderType shader_type) :
-            shader_type_(shader_type), textures_(), floats_(), vec2s_(), vec3s_(), vec4s_() {
+            shader_type_(shader_type), textures_(), floats_(), vec2s_(), vec3s_(), vec4s_(), mat4s_() {
         switch (shader_type) {
         default:
-            vec3s_["color"] = glm::vec3(1.0f, 1.0f, 1.0f);
-            floats_["opacity"] = 1.0f;
+            setVec3("color", glm::vec3(1.0f, 1.0f, 1.0f));
+            setFloat("opacity", 1.0f);
             break;
         }
     }
@@ -67,19 +68,22 @@ public:
         shader_type_ = shader_type;
     }
 
-    Texture* getTexture(std::string key) const {
-        auto it = textures_.find(key);
-        if (it != textures_.end()) {
-            return it->second;
-        } else {
-            std::string error = "Material::getTexture() : " + key
-                    + " not found";
-            throw error;
-        }
-    }
+    /*
+     * Property keys are interned: each distinct name gets a small integer
+     * id, the same for every material, so per-draw code can look up
+     * properties by id (resolved once) instead of by name.
+     */
+    static int key(const std::string& name);
+    static std::string keyName(int key);
 
-    void setTexture(std::string key, Texture* texture) {
-        textures_[key] = texture;
+    Texture* getTexture(const std::string& key) const {
+        return getTexture(Material::key(key));
+    }
+    Texture* getTexture(int key) const {
+        return textures_.get(key, "Material::getTexture() : ");
+    }
+    void setTexture(const std::string& key, Texture* texture) {
+        textures_.set(Material::key(key), texture);
     }
 
     // ---------------------------------------------AR------------------------{
@@ -109,73 +113,54 @@ public:
     }
     // ---------------------------------------------AR------------------------}
 
-    float getFloat(std::string key) {
-        auto it = floats_.find(key);
-        if (it != floats_.end()) {
-            return it->second;
-        } else {
-            std::string error = "Material::getFloat() : " + key + " not found";
-            throw error;
-        }
+    float getFloat(const std::string& key) const {
+        return getFloat(Material::key(key));
     }
-    void setFloat(std::string key, float value) {
-        floats_[key] = value;
+    float getFloat(int key) const {
+        return floats_.get(key, "Material::getFloat() : ");
     }
-
-    glm::vec2 getVec2(std::string key) {
-        auto it = vec2s_.find(key);
-        if (it != vec2s_.end()) {
-            return it->second;
-        } else {
-            std::string error = "Material::getVec2() : " + key + " not found";
-            throw error;
-        }
+    void setFloat(const std::string& key, float value) {
+        floats_.set(Material::key(key), value);
     }
 
-    void setVec2(std::string key, glm::vec2 vector) {
-        vec2s_[key] = vector;
+    glm::vec2 getVec2(const std::string& key) const {
+        return getVec2(Material::key(key));
     }
-
-    glm::vec3 getVec3(std::string key) {
-        auto it = vec3s_.find(key);
-        if (it != vec3s_.end()) {
-            return it->second;
-        } else {
-            std::string error = "Material::getVec3() : " + key + " not found";
-            throw error;
-        }
+    const glm::vec2& getVec2(int key) const {
+        return vec2s_.get(key, "Material::getVec2() : ");
     }
-
-    void setVec3(std::string key, glm::vec3 vector) {
-        vec3s_[key] = vector;
+    void setVec2(const std::string& key, glm::vec2 vector) {
+        vec2s_.set(Material::key(key), vector);
     }
 
-    glm::vec4 getVec4(std::string key) {
-        auto it = vec4s_.find(key);
-        if (it != vec4s_.end()) {
-            return it->second;
-        } else {
-            std::string error = "Material::getVec4() : " + key + " not found";
-            throw error;
-        }
+    glm::vec3 getVec3(const std::string& key) const {
+        return getVec3(Material::key(key));
     }
-
-    void setVec4(std::string key, glm::vec4 vector) {
-        vec4s_[key] = vector;
+    const glm::vec3& getVec3(int key) const {
+        return vec3s_.get(key, "Material::getVec3() : ");
+    }
+    void setVec3(const std::string& key, glm::vec3 vector) {
+        vec3s_.set(Material::key(key), vector);
     }
 
-    glm::mat4 getMat4(std::string key) {
-        auto it = mat4s_.find(key);
-        if (it != mat4s_.end()) {
-            return it->second;
-        } else {
-            std::string error = "Material::getMat4() : " + key + " not found";
-            throw error;
-        }
+    glm::vec4 getVec4(const std::string& key) const {
+        return getVec4(Material::key(key));
+    }
+    const glm::vec4& getVec4(int key) const {
+        return vec4s_.get(key, "Material::getVec4() : ");
+    }
+    void setVec4(const std::string& key, glm::vec4 vector) {
+        vec4s_.set(Material::key(key), vector);
     }
 
-    void setMat4(std::string key, glm::mat4 matrix) {
-        mat4s_[key] = matrix;
+    glm::mat4 getMat4(const std::string& key) const {
+        return getMat4(Material::key(key));
+    }
+    const glm::mat4& getMat4(int key) const {
+        return mat4s_.get(key, "Material::getMat4() : ");
+    }
+    void setMat4(const std::string& key, glm::mat4 matrix) {
+        mat4s_.set(Material::key(key), matrix);
     }
 
     // ---------------------------------------------AR------------------------{
@@ -195,13 +180,41 @@ private:
     Material& operator=(Material&& material);
 
 private:
+    /*
+     * A flat array, indexed by key id. Ids are shared by every material,
+     * but there are only ever a few dozen names, so the arrays stay short.
+     */
+    template<class T> class Properties {
+    public:
+        const T& get(int key, const char* error_prefix) const {
+            if (key >= 0 && key < present_.size() && present_[key]) {
+                return values_[key];
+            }
+            std::string error = error_prefix + keyName(key) + " not found";
+            throw error;
+        }
+
+        void set(int key, const T& value) {
+            if (key >= values_.size()) {
+                values_.resize(key + 1);
+                present_.resize(key + 1, false);
+            }
+            values_[key] = value;
+            present_[key] = true;
+        }
+
+    private:
+        std::vector<T> values_;
+        std::vector<bool> present_;
+    };
+
     ShaderType shader_type_;
-    std::map<std::string, Texture*> textures_;
-    std::map<std::string, float> floats_;
-    std::map<std::string, glm::vec2> vec2s_;
-    std::map<std::string, glm::vec3> vec3s_;
-    std::map<std::string, glm::vec4> vec4s_;
-    std::map<std::string, glm::mat4> mat4s_;
+    Properties<Texture*> textures_;
+    Properties<float> floats_;
+    Properties<glm::vec2> vec2s_;
+    Properties<glm::vec3> vec3s_;
+    Properties<glm::vec4> vec4s_;
+    Properties<glm::mat4> mat4s_;
 };
 }
 #endif
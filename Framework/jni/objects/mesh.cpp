@@ -277,7 +277,7 @@ void Mesh::generateVAO(Material::ShaderType key) {
     GLuint triangle_vboID_, vert_vboID_, norm_vboID_, tex_vboID_;
 
     glGenVertexArrays(1, &vaoID_);
-    glBindVertexArray(vaoID_);
+    GLState::bindVertexArray(vaoID_);
 
     glGenBuffers(1, &triangle_vboID_);
     glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, triangle_vboID_);
@@ -364,7 +364,7 @@ void Mesh::generateVAO(Material::ShaderType key) {
     tex_vboID_map_[key] = tex_vboID_;
 
     // done generation
-    glBindVertexArray(0);
+    GLState::bindVertexArray(0);
     glBindBuffer(GL_ARRAY_BUFFER, 0);
     glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
 
@@ -39,7 +39,7 @@ class Mesh: public HybridObject {
 public:
     Mesh() :
             vertices_(), normals_(), tex_coords_(), triangles_(), float_vectors_(), vec2_vectors_(), vec3_vectors_(), vec4_vectors_(), vertexLoc_(
-                    -1), normalLoc_(-1), texCoordLoc_(-1), have_bounding_box_(false), have_bounding_sphere_(false) {
+                    -1), normalLoc_(-1), texCoordLoc_(-1), have_bounding_box_(false), have_bounding_sphere_(false), version_(0) {
     }
 
     ~Mesh() {
@@ -93,6 +93,14 @@ public:
         have_bounding_sphere_ = false;
     }
 
+    /*
+     * Bumped by every set_vertices(), set_normals(), set_tex_coords() and
+     * set_triangles(), for copies of the geometry to check against
+     */
+    unsigned int version() const {
+        return version_;
+    }
+
     std::vector<glm::vec3>& vertices() {
         return vertices_;
     }
@@ -103,11 +111,13 @@ public:
 
     void set_vertices(const std::vector<glm::vec3>& vertices) {
         vertices_ = vertices;
+        ++version_;
         getBoundingSphereInfo(); // calculate bounding sphere
     }
 
     void set_vertices(std::vector<glm::vec3>&& vertices) {
         vertices_ = std::move(vertices);
+        ++version_;
         getBoundingSphereInfo(); // calculate bounding sphere
     }
 
@@ -121,10 +131,12 @@ public:
 
     void set_normals(const std::vector<glm::vec3>& normals) {
         normals_ = normals;
+        ++version_;
     }
 
     void set_normals(std::vector<glm::vec3>&& normals) {
         normals_ = std::move(normals);
+        ++version_;
     }
 
     std::vector<glm::vec2>& tex_coords() {
@@ -137,11 +149,13 @@ public:
 
     void set_tex_coords(const std::vector<glm::vec2>& tex_coords) {
         tex_coords_ = tex_coords;
+        ++version_;
         vao_dirty_ = true;
     }
 
     void set_tex_coords(std::vector<glm::vec2>&& tex_coords) {
         tex_coords_ = std::move(tex_coords);
+        ++version_;
         vao_dirty_ = true;
     }
 
@@ -155,10 +169,12 @@ public:
 
     void set_triangles(const std::vector<unsigned short>& triangles) {
         triangles_ = triangles;
+        ++version_;
     }
 
     void set_triangles(std::vector<unsigned short>&& triangles) {
         triangles_ = std::move(triangles);
+        ++version_;
     }
 
     std::vector<float>& getFloatVector(std::string key) {
@@ -260,6 +276,27 @@ public:
     }
 
     Mesh* getBoundingBox();
+
+    // Bytes of vertex and index data; a rough guide to the mesh's footprint
+    size_t getEstimatedSize() const {
+        size_t size = vertices_.size() * sizeof(glm::vec3)
+                + normals_.size() * sizeof(glm::vec3)
+                + tex_coords_.size() * sizeof(glm::vec2)
+                + triangles_.size() * sizeof(unsigned short);
+        for (auto it = float_vectors_.begin(); it != float_vectors_.end(); ++it) {
+            size += it->second.size() * sizeof(float);
+        }
+        for (auto it = vec2_vectors_.begin(); it != vec2_vectors_.end(); ++it) {
+            size += it->second.size() * sizeof(glm::vec2);
+        }
+        for (auto it = vec3_vectors_.begin(); it != vec3_vectors_.end(); ++it) {
+            size += it->second.size() * sizeof(glm::vec3);
+        }
+        for (auto it = vec4_vectors_.begin(); it != vec4_vectors_.end(); ++it) {
+            size += it->second.size() * sizeof(glm::vec4);
+        }
+        return size;
+    }
     const float* getBoundingBoxInfo(); // Xmin, Ymin, Zmin and Xmax, Ymax, Zmax
     void getTransformedBoundingBoxInfo(glm::mat4 *M,
             float *transformed_bounding_box); //Get Bounding box info transformed by matrix
@@ -366,6 +403,8 @@ private:
     float bounding_sphere_info_[4]; // [0-2] center x,y,z; [3] radius
 
     bool vao_dirty_;
+
+    unsigned int version_;
 };
 }
 #endif
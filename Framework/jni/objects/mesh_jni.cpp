@@ -87,6 +87,9 @@ Java_org_gearvrf_NativeMesh_setVec4Vector(JNIEnv * env,
 JNIEXPORT jlong JNICALL
 Java_org_gearvrf_NativeMesh_getBoundingBox(JNIEnv * env,
         jobject obj, jlong jmesh);
+JNIEXPORT jlong JNICALL
+Java_org_gearvrf_NativeMesh_getEstimatedSize(JNIEnv * env,
+        jobject obj, jlong jmesh);
 }
 ;
 
@@ -347,4 +350,11 @@ Java_org_gearvrf_NativeMesh_getBoundingBox(JNIEnv * env,
     return reinterpret_cast<jlong>(mesh->getBoundingBox());
 }
 
+JNIEXPORT jlong JNICALL
+Java_org_gearvrf_NativeMesh_getEstimatedSize(JNIEnv * env,
+        jobject obj, jlong jmesh) {
+    Mesh* mesh = reinterpret_cast<Mesh*>(jmesh);
+    return mesh->getEstimatedSize();
+}
+
 }
@@ -20,11 +20,44 @@
 #include "scene.h"
 
 #include "objects/scene_object.h"
+#include "objects/components/transform.h"
+#include "util/gvr_worker_pool.h"
 
 namespace gvr {
+
+namespace {
+// Updates the transforms of one depth of the graph
+class TransformTask: public ParallelTask {
+public:
+    TransformTask(const std::vector<SceneObject*>& objects, int first,
+            unsigned int count) :
+            objects_(objects), first_(first), count_(count) {
+    }
+
+    void run(int chunk, int begin, int end) {
+        Transform::updateModelMatrices(objects_, first_ + begin, first_ + end,
+                count_);
+    }
+
+private:
+    const std::vector<SceneObject*>& objects_;
+    int first_;
+    unsigned int count_;
+};
+}
+
 Scene::Scene() :
         HybridObject(), scene_objects_(), main_camera_rig_(), frustum_flag_(
-                false), dirtyFlag_(0), occlusion_flag_(false) {
+                false), dirtyFlag_(0), occlusion_flag_(false), stereo_flag_(
+                false), frame_preparation_threads_(
+                WorkerPool::defaultThreadCount()), scene_generation_(0), flattened_scene_generation_(0), flattened_graph_generation_(
+                0), flattened_objects_(), depth_ends_(), render_list_(), render_list_generation_(
+                0), transforms_count_(0), transforms_generation_(0), parallel_transforms_(
+                false), bounding_volume_hierarchy_(), hierarchy_generation_(0), static_batcher_(), batch_generation_(
+                0), batch_static_generation_(0), static_batching_(true) {
+    // Force the first build
+    --flattened_scene_generation_;
+    --batch_generation_;
 }
 
 Scene::~Scene() {
@@ -32,24 +65,153 @@ Scene::~Scene() {
 
 void Scene::addSceneObject(SceneObject* scene_object) {
     scene_objects_.push_back(scene_object);
+    ++scene_generation_;
 }
 
 void Scene::removeSceneObject(SceneObject* scene_object) {
     scene_objects_.erase(
             std::remove(scene_objects_.begin(), scene_objects_.end(),
                     scene_object), scene_objects_.end());
+    ++scene_generation_;
 }
 
 std::vector<SceneObject*> Scene::getWholeSceneObjects() {
+    // A copy of its own, breadth-first: the cached lists belong to the GL
+    // thread, and this may be called from any
     std::vector<SceneObject*> scene_objects(scene_objects_);
     for (int i = 0; i < scene_objects.size(); ++i) {
-        std::vector<SceneObject*> children(scene_objects[i]->children());
-        for (auto it = children.begin(); it != children.end(); ++it) {
-            scene_objects.push_back(*it);
-        }
+        const std::vector<SceneObject*>& children =
+                scene_objects[i]->children();
+        scene_objects.insert(scene_objects.end(), children.begin(),
+                children.end());
     }
 
     return scene_objects;
 }
 
+const std::vector<SceneObject*>& Scene::getFlattenedSceneObjects() {
+    updateFlattenedLists();
+    return flattened_objects_;
+}
+
+const std::vector<SceneObject*>& Scene::getRenderList() {
+    updateFlattenedLists();
+    return render_list_;
+}
+
+BoundingVolumeHierarchy& Scene::getBoundingVolumeHierarchy() {
+    updateFlattenedLists();
+    if (hierarchy_generation_ != render_list_generation_) {
+        bounding_volume_hierarchy_.build(render_list_);
+        hierarchy_generation_ = render_list_generation_;
+    }
+    return bounding_volume_hierarchy_;
+}
+
+void Scene::updateTransforms() {
+    updateFlattenedLists();
+    unsigned int count = Transform::modification_count();
+    if (transforms_count_ == count
+            && transforms_generation_ == render_list_generation_) {
+        return;
+    }
+
+    if (!parallel_transforms_ || frame_preparation_threads_ <= 0) {
+        Transform::updateModelMatrices(flattened_objects_, 0,
+                flattened_objects_.size(), count);
+    } else {
+        // The roots may have parents outside the scene, which are brought
+        // up to date on the way: not safe to share out
+        int begin = 0;
+        for (auto it = depth_ends_.begin(); it != depth_ends_.end(); ++it) {
+            int end = *it;
+            if (it == depth_ends_.begin()) {
+                Transform::updateModelMatrices(flattened_objects_, begin, end,
+                        count);
+            } else {
+                // Every parent is one depth up, and already done
+                TransformTask task(flattened_objects_, begin, count);
+                WorkerPool::parallelFor(end - begin,
+                        frame_preparation_threads_, MIN_TRANSFORM_CHUNK_SIZE,
+                        task);
+            }
+            begin = end;
+        }
+    }
+
+    transforms_count_ = count;
+    transforms_generation_ = render_list_generation_;
+}
+
+StaticBatcher& Scene::getStaticBatcher() {
+    updateFlattenedLists();
+    unsigned int static_generation = SceneObject::static_generation();
+    bool regroup = batch_static_generation_ != static_generation;
+    if (batch_generation_ != render_list_generation_ || regroup) {
+        if (static_batching_) {
+            static_batcher_.update(render_list_, regroup);
+        } else {
+            static_batcher_.clear();
+        }
+        batch_generation_ = render_list_generation_;
+        batch_static_generation_ = static_generation;
+    }
+
+    // Nothing bumps a generation when a batched object's mesh, material or
+    // render state changes, so those are checked every frame. Not before
+    // the update: the members may have been deleted since, but by now they
+    // all come from the current render list.
+    if (static_batching_ && static_batcher_.stale()) {
+        static_batcher_.update(render_list_, true);
+    }
+    return static_batcher_;
+}
+
+const std::vector<int>& Scene::getHierarchyBatches() {
+    BoundingVolumeHierarchy& bvh = getBoundingVolumeHierarchy();
+    return getStaticBatcher().hierarchyBatches(bvh, hierarchy_generation_);
+}
+
+void Scene::updateFlattenedLists() {
+    unsigned int graph_generation = SceneObject::graph_generation();
+    if (flattened_scene_generation_ == scene_generation_
+            && flattened_graph_generation_ == graph_generation) {
+        return;
+    }
+
+    // clear() keeps the capacity: after the first few frames, rebuilding
+    // doesn't allocate
+    flattened_objects_.clear();
+    depth_ends_.clear();
+    flattened_objects_.insert(flattened_objects_.end(), scene_objects_.begin(),
+            scene_objects_.end());
+    int depth_end = flattened_objects_.size();
+    for (int i = 0; i < flattened_objects_.size(); ++i) {
+        // Breadth first: each depth follows the whole of the one above
+        if (i == depth_end) {
+            depth_ends_.push_back(depth_end);
+            depth_end = flattened_objects_.size();
+        }
+        const std::vector<SceneObject*>& children =
+                flattened_objects_[i]->children();
+        flattened_objects_.insert(flattened_objects_.end(), children.begin(),
+                children.end());
+    }
+    if (!flattened_objects_.empty()) {
+        depth_ends_.push_back(flattened_objects_.size());
+    }
+
+    render_list_.clear();
+    for (auto it = flattened_objects_.begin(); it != flattened_objects_.end();
+            ++it) {
+        if ((*it)->render_data() != 0) {
+            render_list_.push_back(*it);
+        }
+    }
+
+    flattened_scene_generation_ = scene_generation_;
+    flattened_graph_generation_ = graph_generation;
+    ++render_list_generation_;
+}
+
 }
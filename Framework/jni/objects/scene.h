@@ -27,7 +27,10 @@
 
 #include "objects/hybrid_object.h"
 #include "components/camera_rig.h"
+#include "engine/renderer/bounding_volume_hierarchy.h"
 #include "engine/renderer/renderer.h"
+#include "engine/renderer/static_batcher.h"
+#include "util/gvr_gl.h"
 
 namespace gvr {
 class SceneObject;
@@ -47,8 +50,53 @@ public:
     void set_main_camera_rig(CameraRig* camera_rig) {
         main_camera_rig_ = camera_rig;
     }
+    /*
+     * Every scene object, breadth-first, in a new vector: for callers off
+     * the GL thread, like the picker.
+     */
     std::vector<SceneObject*> getWholeSceneObjects();
 
+    /*
+     * Every scene object, flattened breadth-first. Rebuilt only when the
+     * scene graph has changed, so callers can iterate it every frame without
+     * copying the graph. The reference is valid until the next call. GL
+     * thread only: the rebuild isn't synchronized.
+     */
+    const std::vector<SceneObject*>& getFlattenedSceneObjects();
+
+    /*
+     * The subset of getFlattenedSceneObjects() that has render data: what
+     * the renderer culls and draws.
+     */
+    const std::vector<SceneObject*>& getRenderList();
+
+    /*
+     * A bounding volume hierarchy over getRenderList(), for frustum culling.
+     * Rebuilt only when the render list is; callers refit() it for the
+     * current transforms.
+     */
+    BoundingVolumeHierarchy& getBoundingVolumeHierarchy();
+
+    /*
+     * Brings every model matrix in the scene up to date in one pass over
+     * getFlattenedSceneObjects(), parents first: see Transform. Does nothing
+     * if no transform has changed since the last call.
+     */
+    void updateTransforms();
+
+    /*
+     * The merged geometry of the render list's static objects. Regrouped
+     * only when the render list or the objects' static flags have changed.
+     * GL thread only.
+     */
+    StaticBatcher& getStaticBatcher();
+
+    /*
+     * StaticBatcher::batchOf() for each of getBoundingVolumeHierarchy()'s
+     * objects, by object index; empty if nothing is batched. GL thread only.
+     */
+    const std::vector<int>& getHierarchyBatches();
+
     int getSceneDirtyFlag() { return 1 || dirtyFlag_;  /* force to be true */}
     void setSceneDirtyFlag(int dirtyBits) { dirtyFlag_ |= dirtyBits; }
 
@@ -58,12 +106,56 @@ public:
     void set_occlusion_culling( bool occlusion_flag){ occlusion_flag_ = occlusion_flag; }
     bool get_occlusion_culling(){ return occlusion_flag_; }
 
+    /*
+     * When set, the main camera rig's eyes share one cull and sort per
+     * frame: see Renderer::cull()
+     */
+    void set_stereo_culling( bool stereo_flag){ stereo_flag_ = stereo_flag; }
+    bool get_stereo_culling(){ return stereo_flag_; }
+
+    /*
+     * How many worker threads help the GL thread prepare each frame (0 does
+     * it all on the GL thread): see FramePreparer
+     */
+    void set_frame_preparation_threads(int threads) {
+        frame_preparation_threads_ = threads;
+    }
+    int get_frame_preparation_threads() {
+        return frame_preparation_threads_;
+    }
+
+    /*
+     * When set (the default), static objects that render alike are drawn
+     * merged: see StaticBatcher
+     */
+    void set_static_batching(bool static_batching) {
+        static_batching_ = static_batching;
+        // Regroup, or free the batches, on the next frame
+        --batch_generation_;
+    }
+    bool get_static_batching() {
+        return static_batching_;
+    }
+
+    /*
+     * When set, updateTransforms() goes one depth of the graph at a time,
+     * each split across the frame preparation threads. The matrices are
+     * the same either way; this only pays when many objects move at once.
+     */
+    void set_parallel_transforms(bool parallel_transforms) {
+        parallel_transforms_ = parallel_transforms;
+    }
+    bool get_parallel_transforms() {
+        return parallel_transforms_;
+    }
+
     void resetStats() {
         if (!statsInitialized) {
             Renderer::initializeStats();
             statsInitialized = true;
         }
         Renderer::resetStats();
+        GLState::resetCounts();
     }
     int getNumberDrawCalls() {
         return Renderer::getNumberDrawCalls();
@@ -71,6 +163,12 @@ public:
     int getNumberTriangles() {
         return Renderer::getNumberTriangles();
     }
+    int getNumberIssuedGLCalls() {
+        return GLState::getIssuedCount();
+    }
+    int getNumberElidedGLCalls() {
+        return GLState::getElidedCount();
+    }
 
 private:
     Scene(const Scene& scene);
@@ -78,15 +176,49 @@ private:
     Scene& operator=(const Scene& scene);
     Scene& operator=(Scene&& scene);
 
+    void updateFlattenedLists();
+
 private:
     std::vector<SceneObject*> scene_objects_;
     CameraRig* main_camera_rig_;
 
+    // Bumped by addSceneObject() and removeSceneObject()
+    unsigned int scene_generation_;
+    // The generations the flattened lists were built from
+    unsigned int flattened_scene_generation_;
+    unsigned int flattened_graph_generation_;
+    std::vector<SceneObject*> flattened_objects_;
+    // Where each depth of the graph ends in flattened_objects_
+    std::vector<int> depth_ends_;
+    std::vector<SceneObject*> render_list_;
+    // Bumped whenever the flattened lists are rebuilt
+    unsigned int render_list_generation_;
+
+    // The modification count and render list the transforms were last
+    // updated for
+    unsigned int transforms_count_;
+    unsigned int transforms_generation_;
+    bool parallel_transforms_;
+
+    BoundingVolumeHierarchy bounding_volume_hierarchy_;
+    unsigned int hierarchy_generation_;
+
+    StaticBatcher static_batcher_;
+    // The render list and static generations the batches were updated for
+    unsigned int batch_generation_;
+    unsigned int batch_static_generation_;
+    bool static_batching_;
+
     int dirtyFlag_;
     bool frustum_flag_;
     bool occlusion_flag_;
+    bool stereo_flag_;
+    int frame_preparation_threads_;
     bool statsInitialized = false;
 
+    // Below this, waking threads costs more than it saves
+    static const int MIN_TRANSFORM_CHUNK_SIZE = 256;
+
 };
 
 }
@@ -0,0 +1,94 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * A scene subtree created, and deleted, as a whole.
+ ***************************************************************************/
+
+#include "scene_graph.h"
+
+#include "objects/render_pass.h"
+#include "objects/scene_object.h"
+#include "objects/components/render_data.h"
+#include "objects/components/transform.h"
+
+namespace gvr {
+
+SceneGraph::SceneGraph(int count, const int* parents, const int* mesh_indices,
+        const int* material_indices, const float* trs,
+        const std::vector<Mesh*>& meshes,
+        const std::vector<Material*>& materials) :
+        HybridObject(), scene_objects_(count), transforms_(count), render_datas_(
+                count), render_passes_(count) {
+    for (int i = 0; i < count; ++i, trs += 10) {
+        SceneObject* scene_object = new SceneObject();
+        Transform* transform = new Transform();
+
+        // Written directly, like a TransformBatch: one modification count
+        // bump for the whole graph
+        TransformData* data = transform->data();
+        data->position = glm::vec3(trs[0], trs[1], trs[2]);
+        data->rotation = glm::quat(trs[3], trs[4], trs[5], trs[6]);
+        Transform::clampRotation(data->rotation);
+        data->scale = glm::vec3(trs[7], trs[8], trs[9]);
+        data->local_dirty = true;
+        scene_object->attachTransform(scene_object, transform);
+
+        RenderData* render_data = 0;
+        RenderPass* render_pass = 0;
+        if (mesh_indices[i] >= 0) {
+            render_pass = new RenderPass();
+            render_pass->set_material(materials[material_indices[i]]);
+            render_data = new RenderData();
+            render_data->set_mesh(meshes[mesh_indices[i]]);
+            render_data->add_pass(render_pass);
+            scene_object->attachRenderData(scene_object, render_data);
+        }
+
+        scene_objects_[i] = scene_object;
+        transforms_[i] = transform;
+        render_datas_[i] = render_data;
+        render_passes_[i] = render_pass;
+
+        if (parents[i] >= 0) {
+            SceneObject* parent = scene_objects_[parents[i]];
+            parent->addChildObject(parent, scene_object);
+        }
+    }
+
+    Transform::markModified();
+}
+
+SceneGraph::~SceneGraph() {
+    if (scene_objects_.empty()) {
+        return;
+    }
+
+    SceneObject* root = scene_objects_[0];
+    if (root->parent() != 0) {
+        root->parent()->removeChildObject(root);
+    }
+
+    // Children before their parents, so no node outlives its parent
+    for (int i = scene_objects_.size() - 1; i >= 0; --i) {
+        delete scene_objects_[i];
+        delete render_datas_[i];
+        delete render_passes_[i];
+        delete transforms_[i];
+    }
+}
+
+}
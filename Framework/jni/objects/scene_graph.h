@@ -0,0 +1,95 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * A scene subtree created, and deleted, as a whole.
+ ***************************************************************************/
+
+#ifndef SCENE_GRAPH_H_
+#define SCENE_GRAPH_H_
+
+#include <vector>
+
+#include "objects/hybrid_object.h"
+
+namespace gvr {
+class Material;
+class Mesh;
+class RenderData;
+class RenderPass;
+class SceneObject;
+class Transform;
+
+/*
+ * Builds a subtree of scene objects - with their transforms and, for the
+ * ones that are drawn, render data - from packed arrays, in one pass, and
+ * owns everything it built: deleting the graph deletes the whole subtree.
+ *
+ * Node 0 is the root; every other node's parent comes before it. Meshes and
+ * materials are shared, not owned: the Java graph keeps them alive.
+ */
+class SceneGraph: public HybridObject {
+public:
+    /*
+     * parents, mesh_indices and material_indices hold count ints; an index
+     * of -1 means no render data. trs holds count * 10 floats: position
+     * x, y, z; rotation w, x, y, z; scale x, y, z.
+     */
+    SceneGraph(int count, const int* parents, const int* mesh_indices,
+            const int* material_indices, const float* trs,
+            const std::vector<Mesh*>& meshes,
+            const std::vector<Material*>& materials);
+
+    // Detaches the root from its parent, if any, then deletes every node
+    ~SceneGraph();
+
+    int size() const {
+        return scene_objects_.size();
+    }
+
+    SceneObject* scene_object(int index) const {
+        return scene_objects_[index];
+    }
+
+    Transform* transform(int index) const {
+        return transforms_[index];
+    }
+
+    // The node's render data, or null
+    RenderData* render_data(int index) const {
+        return render_datas_[index];
+    }
+
+    // The node's render data's one pass, or null
+    RenderPass* render_pass(int index) const {
+        return render_passes_[index];
+    }
+
+private:
+    SceneGraph(const SceneGraph& scene_graph);
+    SceneGraph(SceneGraph&& scene_graph);
+    SceneGraph& operator=(const SceneGraph& scene_graph);
+    SceneGraph& operator=(SceneGraph&& scene_graph);
+
+private:
+    std::vector<SceneObject*> scene_objects_;
+    std::vector<Transform*> transforms_;
+    std::vector<RenderData*> render_datas_;
+    std::vector<RenderPass*> render_passes_;
+};
+
+}
+#endif
@@ -0,0 +1,98 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * JNI
+ ***************************************************************************/
+
+#include "scene_graph.h"
+
+#include "objects/material.h"
+#include "objects/mesh.h"
+#include "objects/components/render_data.h"
+#include "objects/components/transform.h"
+#include "util/gvr_jni.h"
+
+namespace gvr {
+extern "C" {
+JNIEXPORT jlong JNICALL
+Java_org_gearvrf_NativeSceneGraph_ctor(JNIEnv * env,
+        jobject obj, jintArray jparents, jintArray jmesh_indices,
+        jintArray jmaterial_indices, jfloatArray jtrs, jlongArray jmeshes,
+        jlongArray jmaterials, jlongArray jscene_objects,
+        jlongArray jtransforms, jlongArray jrender_datas,
+        jlongArray jrender_passes);
+}
+;
+
+JNIEXPORT jlong JNICALL
+Java_org_gearvrf_NativeSceneGraph_ctor(JNIEnv * env,
+        jobject obj, jintArray jparents, jintArray jmesh_indices,
+        jintArray jmaterial_indices, jfloatArray jtrs, jlongArray jmeshes,
+        jlongArray jmaterials, jlongArray jscene_objects,
+        jlongArray jtransforms, jlongArray jrender_datas,
+        jlongArray jrender_passes) {
+    jsize mesh_count = env->GetArrayLength(jmeshes);
+    std::vector<Mesh*> meshes(mesh_count);
+    jlong* mesh_ptrs = env->GetLongArrayElements(jmeshes, 0);
+    for (int i = 0; i < mesh_count; ++i) {
+        meshes[i] = reinterpret_cast<Mesh*>(mesh_ptrs[i]);
+    }
+    env->ReleaseLongArrayElements(jmeshes, mesh_ptrs, JNI_ABORT);
+
+    jsize material_count = env->GetArrayLength(jmaterials);
+    std::vector<Material*> materials(material_count);
+    jlong* material_ptrs = env->GetLongArrayElements(jmaterials, 0);
+    for (int i = 0; i < material_count; ++i) {
+        materials[i] = reinterpret_cast<Material*>(material_ptrs[i]);
+    }
+    env->ReleaseLongArrayElements(jmaterials, material_ptrs, JNI_ABORT);
+
+    jsize count = env->GetArrayLength(jparents);
+    jint* parents = env->GetIntArrayElements(jparents, 0);
+    jint* mesh_indices = env->GetIntArrayElements(jmesh_indices, 0);
+    jint* material_indices = env->GetIntArrayElements(jmaterial_indices, 0);
+    jfloat* trs = env->GetFloatArrayElements(jtrs, 0);
+    SceneGraph* scene_graph = new SceneGraph(count, parents, mesh_indices,
+            material_indices, trs, meshes, materials);
+    env->ReleaseFloatArrayElements(jtrs, trs, JNI_ABORT);
+    env->ReleaseIntArrayElements(jmaterial_indices, material_indices,
+            JNI_ABORT);
+    env->ReleaseIntArrayElements(jmesh_indices, mesh_indices, JNI_ABORT);
+    env->ReleaseIntArrayElements(jparents, parents, JNI_ABORT);
+
+    // Handed back so the Java wrappers can be made later, without a JNI
+    // call per node
+    jlong* scene_objects = env->GetLongArrayElements(jscene_objects, 0);
+    jlong* transforms = env->GetLongArrayElements(jtransforms, 0);
+    jlong* render_datas = env->GetLongArrayElements(jrender_datas, 0);
+    jlong* render_passes = env->GetLongArrayElements(jrender_passes, 0);
+    for (int i = 0; i < count; ++i) {
+        scene_objects[i] = reinterpret_cast<jlong>(scene_graph->scene_object(
+                i));
+        transforms[i] = reinterpret_cast<jlong>(scene_graph->transform(i));
+        render_datas[i] = reinterpret_cast<jlong>(scene_graph->render_data(i));
+        render_passes[i] = reinterpret_cast<jlong>(scene_graph->render_pass(i));
+    }
+    env->ReleaseLongArrayElements(jrender_passes, render_passes, 0);
+    env->ReleaseLongArrayElements(jrender_datas, render_datas, 0);
+    env->ReleaseLongArrayElements(jtransforms, transforms, 0);
+    env->ReleaseLongArrayElements(jscene_objects, scene_objects, 0);
+
+    return reinterpret_cast<jlong>(scene_graph);
+}
+
+}
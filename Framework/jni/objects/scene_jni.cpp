@@ -43,6 +43,18 @@ Java_org_gearvrf_NativeScene_setFrustumCulling(JNIEnv * env,
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeScene_setOcclusionQuery(JNIEnv * env,
         jobject obj, jlong jscene, jboolean flag);
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeScene_setStereoCulling(JNIEnv * env,
+        jobject obj, jlong jscene, jboolean flag);
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeScene_setFramePreparationThreads(JNIEnv * env,
+        jobject obj, jlong jscene, jint threads);
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeScene_setStaticBatching(JNIEnv * env,
+        jobject obj, jlong jscene, jboolean flag);
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeScene_setParallelTransformUpdate(JNIEnv * env,
+        jobject obj, jlong jscene, jboolean flag);
 
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeScene_resetStats(JNIEnv * env,
@@ -55,6 +67,14 @@ Java_org_gearvrf_NativeScene_getNumberDrawCalls(JNIEnv * env,
 JNIEXPORT int JNICALL
 Java_org_gearvrf_NativeScene_getNumberTriangles(JNIEnv * env,
         jobject obj, jlong jscene);
+
+JNIEXPORT int JNICALL
+Java_org_gearvrf_NativeScene_getNumberIssuedGLCalls(JNIEnv * env,
+        jobject obj, jlong jscene);
+
+JNIEXPORT int JNICALL
+Java_org_gearvrf_NativeScene_getNumberElidedGLCalls(JNIEnv * env,
+        jobject obj, jlong jscene);
 }
 ;
 
@@ -101,6 +121,34 @@ Java_org_gearvrf_NativeScene_setOcclusionQuery(JNIEnv * env,
     scene->set_occlusion_culling(static_cast<bool>(flag));
 }
 
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeScene_setStereoCulling(JNIEnv * env,
+        jobject obj, jlong jscene, jboolean flag) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    scene->set_stereo_culling(static_cast<bool>(flag));
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeScene_setFramePreparationThreads(JNIEnv * env,
+        jobject obj, jlong jscene, jint threads) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    scene->set_frame_preparation_threads(threads);
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeScene_setStaticBatching(JNIEnv * env,
+        jobject obj, jlong jscene, jboolean flag) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    scene->set_static_batching(static_cast<bool>(flag));
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeScene_setParallelTransformUpdate(JNIEnv * env,
+        jobject obj, jlong jscene, jboolean flag) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    scene->set_parallel_transforms(static_cast<bool>(flag));
+}
+
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeScene_resetStats(JNIEnv * env,
         jobject obj, jlong jscene) {
@@ -124,5 +172,19 @@ Java_org_gearvrf_NativeScene_getNumberTriangles(JNIEnv * env,
     return scene->getNumberTriangles();
 }
 
+JNIEXPORT int JNICALL
+Java_org_gearvrf_NativeScene_getNumberIssuedGLCalls(JNIEnv * env,
+        jobject obj, jlong jscene) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    return scene->getNumberIssuedGLCalls();
+}
+
+JNIEXPORT int JNICALL
+Java_org_gearvrf_NativeScene_getNumberElidedGLCalls(JNIEnv * env,
+        jobject obj, jlong jscene) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    return scene->getNumberElidedGLCalls();
+}
+
 
 }
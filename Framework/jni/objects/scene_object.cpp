@@ -19,6 +19,7 @@
 
 #include "scene_object.h"
 
+#include "engine/memory/gl_delete.h"
 #include "objects/components/camera.h"
 #include "objects/components/camera_rig.h"
 #include "objects/components/eye_pointee_holder.h"
@@ -27,9 +28,12 @@
 #include "mesh.h"
 
 namespace gvr {
+std::atomic<unsigned int> SceneObject::graph_generation_(0);
+std::atomic<unsigned int> SceneObject::static_generation_(0);
+
 SceneObject::SceneObject() :
         HybridObject(), name_(""), transform_(), render_data_(), camera_(), camera_rig_(), eye_pointee_holder_(), parent_(), children_(), visible_(
-                true), in_frustum_(false), query_currently_issued_(false), vis_count_(0), lod_min_range_(0), lod_max_range_(MAXFLOAT), using_lod_(false) {
+                true), in_frustum_(false), query_currently_issued_(false), vis_count_(0), lod_min_range_(0), lod_max_range_(MAXFLOAT), using_lod_(false), static_(false) {
 
     // Occlusion query setup
 #if _GVRF_USE_GLES3_
@@ -39,8 +43,10 @@ SceneObject::SceneObject() :
 }
 
 SceneObject::~SceneObject() {
+    invalidate_graph();
 #if _GVRF_USE_GLES3_
-    delete queries_;
+    gl_delete.queueQuery(queries_[0]);
+    delete[] queries_;
 #endif
 }
 
@@ -54,6 +60,13 @@ void SceneObject::attachTransform(SceneObject* self, Transform* transform) {
     }
     transform_ = transform;
     transform_->set_owner_object(self);
+    // A new parent transform, for the children
+    transform_->invalidate(false);
+    for (auto it = children_.begin(); it != children_.end(); ++it) {
+        if ((*it)->transform() != 0) {
+            (*it)->transform()->invalidate(false);
+        }
+    }
 }
 
 void SceneObject::detachTransform() {
@@ -73,12 +86,14 @@ void SceneObject::attachRenderData(SceneObject* self, RenderData* render_data) {
     }
     render_data_ = render_data;
     render_data->set_owner_object(self);
+    invalidate_graph();
 }
 
 void SceneObject::detachRenderData() {
     if (render_data_) {
         render_data_->removeOwnerObject();
         render_data_ = NULL;
+        invalidate_graph();
     }
 }
 
@@ -153,6 +168,7 @@ void SceneObject::addChildObject(SceneObject* self, SceneObject* child) {
     children_.push_back(child);
     child->parent_ = self;
     child->transform()->invalidate(false);
+    invalidate_graph();
 }
 
 void SceneObject::removeChildObject(SceneObject* child) {
@@ -160,6 +176,10 @@ void SceneObject::removeChildObject(SceneObject* child) {
         children_.erase(std::remove(children_.begin(), children_.end(), child),
                 children_.end());
         child->parent_ = NULL;
+        if (child->transform() != 0) {
+            child->transform()->invalidate(false);
+        }
+        invalidate_graph();
     }
 }
 
@@ -199,6 +219,16 @@ void SceneObject::set_visible(bool visibility = true) {
     }
 }
 
+bool SceneObject::in_static_subtree() const {
+    for (const SceneObject* object = this; object != 0;
+            object = object->parent()) {
+        if (object->is_static()) {
+            return true;
+        }
+    }
+    return false;
+}
+
 bool SceneObject::isColliding(SceneObject *scene_object) {
 
     //Get the transformed bounding boxes in world coordinates and check if they intersect
@@ -21,8 +21,10 @@
 #define SCENE_OBJECT_H_
 
 #include <algorithm>
+#include <atomic>
 #include <vector>
 #include <memory>
+#include <string>
 
 #include "objects/hybrid_object.h"
 #include "objects/components/transform.h"
@@ -56,6 +58,11 @@ public:
     }
 
     void set_visible(bool visibility);
+    // Visible now, without waiting for consistent query results
+    void reset_visibility() {
+        visible_ = true;
+        vis_count_ = 0;
+    }
     bool visible() const {
         return visible_;
     }
@@ -135,6 +142,44 @@ public:
         return lod_max_range_;
     }
 
+    /*
+     * Scene objects don't know which scene(s) they are in, so any change that
+     * can change a scene's render list - adding or removing a child,
+     * attaching or detaching render data - bumps one global generation.
+     * Scenes rebuild their flattened lists when it changes.
+     */
+    static unsigned int graph_generation() {
+        return graph_generation_.load();
+    }
+
+    bool using_lod() const {
+        return using_lod_;
+    }
+
+    /*
+     * Marks this object and its descendants as never moving, so the renderer
+     * may merge their geometry: see StaticBatcher
+     */
+    void set_static(bool is_static) {
+        static_ = is_static;
+        ++static_generation_;
+    }
+
+    bool is_static() const {
+        return static_;
+    }
+
+    // Whether this object or any of its ancestors is marked static
+    bool in_static_subtree() const;
+
+    /*
+     * Bumped by every set_static(), so scenes know to regroup their static
+     * objects even when their render lists haven't changed
+     */
+    static unsigned int static_generation() {
+        return static_generation_.load();
+    }
+
     bool inLODRange(float distance_from_camera) {
         if(!using_lod_) {
             return true;
@@ -152,7 +197,14 @@ private:
     SceneObject& operator=(const SceneObject& scene_object);
     SceneObject& operator=(SceneObject&& scene_object);
 
+    static void invalidate_graph() {
+        ++graph_generation_;
+    }
+
 private:
+    static std::atomic<unsigned int> graph_generation_;
+    static std::atomic<unsigned int> static_generation_;
+
     std::string name_;
     Transform* transform_;
     RenderData* render_data_;
@@ -164,6 +216,7 @@ private:
     float lod_min_range_;
     float lod_max_range_;
     bool using_lod_;
+    bool static_;
 
     //Flags to check for visibility of a node and
     //whether there are any pending occlusion queries on it
@@ -100,6 +100,14 @@ JNIEXPORT jfloat JNICALL
 Java_org_gearvrf_NativeSceneObject_getLODMaxRange(
         JNIEnv * env, jobject obj, jlong jscene_object);
 
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeSceneObject_setStatic(
+        JNIEnv * env, jobject obj, jlong jscene_object, jboolean is_static);
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeSceneObject_isStatic(
+        JNIEnv * env, jobject obj, jlong jscene_object);
+
 
 
 JNIEXPORT jlong JNICALL
@@ -248,6 +256,20 @@ Java_org_gearvrf_NativeSceneObject_getLODMaxRange(
     return scene_object->getLODMaxRange();
 }
 
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeSceneObject_setStatic(
+        JNIEnv * env, jobject obj, jlong jscene_object, jboolean is_static) {
+    SceneObject* scene_object = reinterpret_cast<SceneObject*>(jscene_object);
+    scene_object->set_static(static_cast<bool>(is_static));
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeSceneObject_isStatic(
+        JNIEnv * env, jobject obj, jlong jscene_object) {
+    SceneObject* scene_object = reinterpret_cast<SceneObject*>(jscene_object);
+    return static_cast<jboolean>(scene_object->is_static());
+}
+
 } // extern "C"
 
 } // namespace gvr
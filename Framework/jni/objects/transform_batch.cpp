@@ -0,0 +1,69 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Sets the local transforms of many scene objects at once.
+ ***************************************************************************/
+
+#include "transform_batch.h"
+
+#include "objects/components/transform.h"
+
+namespace gvr {
+
+int TransformBatch::stride(int layout) {
+    switch (layout) {
+    case POSITIONS:
+    case SCALES:
+        return 3;
+    case ROTATIONS:
+        return 4;
+    case TRS:
+        return 10;
+    default:
+        return 0;
+    }
+}
+
+void TransformBatch::set(int layout, const float* values) {
+    int value_stride = stride(layout);
+    if (value_stride == 0) {
+        return;
+    }
+
+    for (auto it = transforms_.begin(); it != transforms_.end();
+            ++it, values += value_stride) {
+        TransformData* data = (*it)->data();
+        const float* value = values;
+        if (layout == POSITIONS || layout == TRS) {
+            data->position = glm::vec3(value[0], value[1], value[2]);
+            value += 3;
+        }
+        if (layout == ROTATIONS || layout == TRS) {
+            data->rotation = glm::quat(value[0], value[1], value[2], value[3]);
+            Transform::clampRotation(data->rotation);
+            value += 4;
+        }
+        if (layout == SCALES || layout == TRS) {
+            data->scale = glm::vec3(value[0], value[1], value[2]);
+        }
+        data->local_dirty = true;
+    }
+
+    Transform::markModified();
+}
+
+}
@@ -0,0 +1,82 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Sets the local transforms of many scene objects at once.
+ ***************************************************************************/
+
+#ifndef TRANSFORM_BATCH_H_
+#define TRANSFORM_BATCH_H_
+
+#include <vector>
+
+#include "objects/hybrid_object.h"
+
+namespace gvr {
+class Transform;
+
+/*
+ * A fixed list of transforms whose positions, rotations and scales are set
+ * together, from packed floats: one call and one modification count bump
+ * for the lot, instead of one per transform. The matrices themselves are
+ * left to the next update pass, like any other change.
+ */
+class TransformBatch: public HybridObject {
+public:
+    // How the values are packed, per transform; GVRTransformBatch matches
+    enum Layout {
+        // x, y, z
+        POSITIONS = 0,
+        // w, x, y, z
+        ROTATIONS = 1,
+        // x, y, z
+        SCALES = 2,
+        // Position, rotation and scale, as above: 10 floats
+        TRS = 3
+    };
+
+    explicit TransformBatch(const std::vector<Transform*>& transforms) :
+            HybridObject(), transforms_(transforms) {
+    }
+
+    ~TransformBatch() {
+    }
+
+    int size() const {
+        return transforms_.size();
+    }
+
+    // The number of floats each transform takes in the layout, or 0
+    static int stride(int layout);
+
+    /*
+     * Sets every transform from values, which holds size() * stride(layout)
+     * floats
+     */
+    void set(int layout, const float* values);
+
+private:
+    TransformBatch(const TransformBatch& transform_batch);
+    TransformBatch(TransformBatch&& transform_batch);
+    TransformBatch& operator=(const TransformBatch& transform_batch);
+    TransformBatch& operator=(TransformBatch&& transform_batch);
+
+private:
+    std::vector<Transform*> transforms_;
+};
+
+}
+#endif
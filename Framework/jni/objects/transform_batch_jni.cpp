@@ -0,0 +1,80 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * JNI
+ ***************************************************************************/
+
+#include "transform_batch.h"
+
+#include "objects/components/transform.h"
+#include "util/gvr_jni.h"
+
+namespace gvr {
+extern "C" {
+JNIEXPORT jlong JNICALL
+Java_org_gearvrf_NativeTransformBatch_ctor(JNIEnv * env,
+        jobject obj, jlongArray jtransforms);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransformBatch_set(JNIEnv * env,
+        jobject obj, jlong jtransform_batch, jint layout, jfloatArray jvalues,
+        jint offset);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransformBatch_setFromBuffer(JNIEnv * env,
+        jobject obj, jlong jtransform_batch, jint layout, jobject jbuffer,
+        jint offset);
+}
+;
+
+JNIEXPORT jlong JNICALL
+Java_org_gearvrf_NativeTransformBatch_ctor(JNIEnv * env,
+        jobject obj, jlongArray jtransforms) {
+    jsize size = env->GetArrayLength(jtransforms);
+    std::vector<Transform*> transforms(size);
+    jlong* ptrs = env->GetLongArrayElements(jtransforms, 0);
+    for (int i = 0; i < size; ++i) {
+        transforms[i] = reinterpret_cast<Transform*>(ptrs[i]);
+    }
+    env->ReleaseLongArrayElements(jtransforms, ptrs, JNI_ABORT);
+    return reinterpret_cast<jlong>(new TransformBatch(transforms));
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransformBatch_set(JNIEnv * env,
+        jobject obj, jlong jtransform_batch, jint layout, jfloatArray jvalues,
+        jint offset) {
+    TransformBatch* transform_batch =
+            reinterpret_cast<TransformBatch*>(jtransform_batch);
+    // No copy, and no other JNI calls until it is released
+    jfloat* values = static_cast<jfloat*>(env->GetPrimitiveArrayCritical(
+            jvalues, 0));
+    transform_batch->set(layout, values + offset);
+    env->ReleasePrimitiveArrayCritical(jvalues, values, JNI_ABORT);
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransformBatch_setFromBuffer(JNIEnv * env,
+        jobject obj, jlong jtransform_batch, jint layout, jobject jbuffer,
+        jint offset) {
+    TransformBatch* transform_batch =
+            reinterpret_cast<TransformBatch*>(jtransform_batch);
+    jfloat* values = static_cast<jfloat*>(env->GetDirectBufferAddress(jbuffer));
+    transform_batch->set(layout, values + offset);
+}
+
+}
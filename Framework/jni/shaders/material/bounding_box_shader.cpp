@@ -19,6 +19,7 @@
 
 #include "bounding_box_shader.h"
 
+#include "engine/memory/gl_delete.h"
 #include "gl/gl_program.h"
 #include "objects/material.h"
 #include "objects/mesh.h"
@@ -41,8 +42,15 @@ static const char FRAGMENT_SHADER[] = //
                 "gl_FragColor =  vec4(0.0, 1.0, 0.0, 0.0);\n"
                 "}\n";
 
+// The unit cube, wound like Mesh::getBoundingBox()
+static const GLfloat PROXY_VERTICES[] = { 0, 0, 0, 1, 0, 0, 0, 1, 0, 1, 1, 0,
+        0, 0, 1, 1, 0, 1, 0, 1, 1, 1, 1, 1 };
+static const GLushort PROXY_TRIANGLES[] = { 0, 2, 1, 1, 2, 3, 1, 3, 7, 1, 7, 5,
+        4, 5, 6, 5, 7, 6, 0, 6, 2, 0, 4, 6, 0, 1, 5, 0, 5, 4, 2, 7, 3, 2, 6, 7 };
+
 BoundingBoxShader::BoundingBoxShader() :
-        program_(0), a_position_(0), u_mvp_(0) {
+        program_(0), a_position_(0), u_mvp_(0), proxy_vertex_array_(0) {
+    proxy_buffers_[0] = proxy_buffers_[1] = 0;
     program_ = new GLProgram(VERTEX_SHADER, FRAGMENT_SHADER);
     a_position_ = glGetAttribLocation(program_->id(), "a_position");
     u_mvp_ = glGetUniformLocation(program_->id(), "u_mvp");
@@ -57,6 +65,13 @@ BoundingBoxShader::~BoundingBoxShader() {
 void BoundingBoxShader::recycle() {
     delete program_;
     program_ = 0;
+
+    if (proxy_vertex_array_ != 0) {
+        gl_delete.queueVertexArray(proxy_vertex_array_);
+        gl_delete.queueBuffer(proxy_buffers_[0]);
+        gl_delete.queueBuffer(proxy_buffers_[1]);
+        proxy_vertex_array_ = 0;
+    }
 }
 
 void BoundingBoxShader::render(const glm::mat4& mvp_matrix,
@@ -67,16 +82,15 @@ void BoundingBoxShader::render(const glm::mat4& mvp_matrix,
     mesh->setVertexLoc(a_position_);
     mesh->generateVAO(material->shader_type());
 
-    glUseProgram(program_->id());
+    GLState::useProgram(program_->id());
     glUniformMatrix4fv(u_mvp_, 1, GL_FALSE, glm::value_ptr(mvp_matrix));
 
-    glBindVertexArray(mesh->getVAOId(material->shader_type()));
+    GLState::bindVertexArray(mesh->getVAOId(material->shader_type()));
     glDrawElements(GL_TRIANGLES, mesh->triangles().size(), GL_UNSIGNED_SHORT,
             0);
-    glBindVertexArray(0);
 
 #else
-    glUseProgram(program_->id());
+    GLState::useProgram(program_->id());
     glVertexAttribPointer(a_position_, 3, GL_FLOAT, GL_FALSE, 0,
             mesh->vertices().data());
     glEnableVertexAttribArray(a_position_);
@@ -89,5 +103,50 @@ void BoundingBoxShader::render(const glm::mat4& mvp_matrix,
     checkGlError("BoundingBoxShader::render");
 }
 
+void BoundingBoxShader::beginProxies(const glm::mat4& vp_matrix) {
+#if _GVRF_USE_GLES3_
+    if (proxy_vertex_array_ == 0) {
+        glGenVertexArrays(1, &proxy_vertex_array_);
+        glGenBuffers(2, proxy_buffers_);
+
+        GLState::bindVertexArray(proxy_vertex_array_);
+        glBindBuffer(GL_ARRAY_BUFFER, proxy_buffers_[0]);
+        glBufferData(GL_ARRAY_BUFFER, sizeof(PROXY_VERTICES), PROXY_VERTICES,
+                GL_STATIC_DRAW);
+        glEnableVertexAttribArray(a_position_);
+        glVertexAttribPointer(a_position_, 3, GL_FLOAT, GL_FALSE, 0, 0);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, proxy_buffers_[1]);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, sizeof(PROXY_TRIANGLES),
+                PROXY_TRIANGLES, GL_STATIC_DRAW);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+    }
+
+    proxy_vp_matrix_ = vp_matrix;
+    GLState::useProgram(program_->id());
+    GLState::bindVertexArray(proxy_vertex_array_);
+#endif
+}
+
+void BoundingBoxShader::renderProxy(const glm::vec3& min,
+        const glm::vec3& max) {
+#if _GVRF_USE_GLES3_
+    glm::vec3 size = max - min;
+    glm::mat4 model_matrix(size.x, 0.0f, 0.0f, 0.0f, //
+            0.0f, size.y, 0.0f, 0.0f, //
+            0.0f, 0.0f, size.z, 0.0f, //
+            min.x, min.y, min.z, 1.0f);
+    glm::mat4 mvp_matrix(proxy_vp_matrix_ * model_matrix);
+    glUniformMatrix4fv(u_mvp_, 1, GL_FALSE, glm::value_ptr(mvp_matrix));
+    glDrawElements(GL_TRIANGLES,
+            sizeof(PROXY_TRIANGLES) / sizeof(PROXY_TRIANGLES[0]),
+            GL_UNSIGNED_SHORT, 0);
+#endif
+}
+
+void BoundingBoxShader::endProxies() {
+    GLState::bindVertexArray(0);
+    checkGlError("BoundingBoxShader::endProxies");
+}
+
 }
 ;
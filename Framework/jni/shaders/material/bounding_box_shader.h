@@ -40,6 +40,16 @@ public:
     void recycle();
     void render(const glm::mat4& mvp_matrix, RenderData* render_data, Material* material);
 
+    /*
+     * Occlusion query proxies: one shared unit cube, stretched over each
+     * world-space box, so no geometry is built per object. Call
+     * renderProxy() any number of times between beginProxies() and
+     * endProxies().
+     */
+    void beginProxies(const glm::mat4& vp_matrix);
+    void renderProxy(const glm::vec3& min, const glm::vec3& max);
+    void endProxies();
+
 private:
     BoundingBoxShader(const BoundingBoxShader& bounding_box_shader);
     BoundingBoxShader(BoundingBoxShader&& bounding_box_shader);
@@ -50,6 +60,11 @@ private:
     GLProgram* program_;
     GLuint a_position_;
     GLuint u_mvp_;
+
+    // The proxy cube, created on first use
+    GLuint proxy_vertex_array_;
+    GLuint proxy_buffers_[2];
+    glm::mat4 proxy_vp_matrix_;
 };
 
 }
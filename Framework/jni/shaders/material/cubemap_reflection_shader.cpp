@@ -124,9 +124,12 @@ void CubemapReflectionShader::render(const glm::mat4& mv_matrix,
         const glm::mat4& mv_it_matrix, const glm::mat4& view_invers_matrix,
         const glm::mat4& mvp_matrix, RenderData* render_data, Material* material) {
     Mesh* mesh = render_data->mesh();
-    Texture* texture = material->getTexture("main_texture");
-    glm::vec3 color = material->getVec3("color");
-    float opacity = material->getFloat("opacity");
+    static const int main_texture_key = Material::key("main_texture");
+    static const int color_key = Material::key("color");
+    static const int opacity_key = Material::key("opacity");
+    Texture* texture = material->getTexture(main_texture_key);
+    glm::vec3 color = material->getVec3(color_key);
+    float opacity = material->getFloat(opacity_key);
 
     if (texture->getTarget() != GL_TEXTURE_CUBE_MAP) {
         std::string error =
@@ -139,25 +142,24 @@ void CubemapReflectionShader::render(const glm::mat4& mv_matrix,
     mesh->setNormalLoc(a_normal_);
     mesh->generateVAO(Material::CUBEMAP_REFLECTION_SHADER);
 
-    glUseProgram(program_->id());
+    GLState::useProgram(program_->id());
 
     glUniformMatrix4fv(u_mv_, 1, GL_FALSE, glm::value_ptr(mv_matrix));
     glUniformMatrix4fv(u_mv_it_, 1, GL_FALSE, glm::value_ptr(mv_it_matrix));
     glUniformMatrix4fv(u_mvp_, 1, GL_FALSE, glm::value_ptr(mvp_matrix));
     glUniformMatrix4fv(u_view_i_, 1, GL_FALSE,
             glm::value_ptr(view_invers_matrix));
-    glActiveTexture (GL_TEXTURE0);
-    glBindTexture(texture->getTarget(), texture->getId());
+    GLState::activeTexture(GL_TEXTURE0);
+    GLState::bindTexture(texture->getTarget(), texture->getId());
     glUniform1i(u_texture_, 0);
     glUniform3f(u_color_, color.r, color.g, color.b);
     glUniform1f(u_opacity_, opacity);
 
-    glBindVertexArray(mesh->getVAOId(Material::CUBEMAP_REFLECTION_SHADER));
+    GLState::bindVertexArray(mesh->getVAOId(Material::CUBEMAP_REFLECTION_SHADER));
     glDrawElements(GL_TRIANGLES, mesh->triangles().size(), GL_UNSIGNED_SHORT,
             0);
-    glBindVertexArray(0);
 #else
-    glUseProgram(program_->id());
+    GLState::useProgram(program_->id());
 
     glVertexAttribPointer(a_position_, 3, GL_FLOAT, GL_FALSE, 0,
             mesh->vertices().data());
@@ -172,8 +174,8 @@ void CubemapReflectionShader::render(const glm::mat4& mv_matrix,
     glUniformMatrix4fv(u_mvp_, 1, GL_FALSE, glm::value_ptr(mvp_matrix));
     glUniformMatrix4fv(u_view_i_, 1, GL_FALSE, glm::value_ptr(view_invers_matrix));
 
-    glActiveTexture (GL_TEXTURE0);
-    glBindTexture(texture->getTarget(), texture->getId());
+    GLState::activeTexture(GL_TEXTURE0);
+    GLState::bindTexture(texture->getTarget(), texture->getId());
     glUniform1i(u_texture_, 0);
 
     glUniform3f(u_color_, color.r, color.g, color.b);
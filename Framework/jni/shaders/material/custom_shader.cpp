@@ -50,9 +50,23 @@ void CustomShader::recycle() {
     program_ = 0;
 }
 
+void CustomShader::addUniformSlot(UniformSlots& slots, int location,
+        const std::string& key) {
+    // A variable's key is interned here, once, instead of being looked up by
+    // name on every draw
+    UniformSlot slot = { location, Material::key(key) };
+    for (auto it = slots.begin(); it != slots.end(); ++it) {
+        if (it->location == location) {
+            *it = slot;
+            return;
+        }
+    }
+    slots.push_back(slot);
+}
+
 void CustomShader::addTextureKey(std::string variable_name, std::string key) {
     int location = glGetUniformLocation(program_->id(), variable_name.c_str());
-    texture_keys_[location] = key;
+    addUniformSlot(texture_keys_, location, key);
 }
 
 void CustomShader::addAttributeFloatKey(std::string variable_name,
@@ -82,31 +96,31 @@ void CustomShader::addAttributeVec4Key(std::string variable_name,
 void CustomShader::addUniformFloatKey(std::string variable_name,
         std::string key) {
     int location = glGetUniformLocation(program_->id(), variable_name.c_str());
-    uniform_float_keys_[location] = key;
+    addUniformSlot(uniform_float_keys_, location, key);
 }
 
 void CustomShader::addUniformVec2Key(std::string variable_name,
         std::string key) {
     int location = glGetUniformLocation(program_->id(), variable_name.c_str());
-    uniform_vec2_keys_[location] = key;
+    addUniformSlot(uniform_vec2_keys_, location, key);
 }
 
 void CustomShader::addUniformVec3Key(std::string variable_name,
         std::string key) {
     int location = glGetUniformLocation(program_->id(), variable_name.c_str());
-    uniform_vec3_keys_[location] = key;
+    addUniformSlot(uniform_vec3_keys_, location, key);
 }
 
 void CustomShader::addUniformVec4Key(std::string variable_name,
         std::string key) {
     int location = glGetUniformLocation(program_->id(), variable_name.c_str());
-    uniform_vec4_keys_[location] = key;
+    addUniformSlot(uniform_vec4_keys_, location, key);
 }
 
 void CustomShader::addUniformMat4Key(std::string variable_name,
         std::string key) {
     int location = glGetUniformLocation(program_->id(), variable_name.c_str());
-    uniform_mat4_keys_[location] = key;
+    addUniformSlot(uniform_mat4_keys_, location, key);
 }
 
 void CustomShader::render(const glm::mat4& mvp_matrix, RenderData* render_data, Material* material,
@@ -114,7 +128,7 @@ void CustomShader::render(const glm::mat4& mvp_matrix, RenderData* render_data,
     Mesh* mesh = render_data->mesh();
 
 #if _GVRF_USE_GLES3_
-    glUseProgram(program_->id());
+    GLState::useProgram(program_->id());
 
     if (a_position_ != -1) {
         mesh->setVertexLoc(a_position_);
@@ -153,7 +167,7 @@ void CustomShader::render(const glm::mat4& mvp_matrix, RenderData* render_data,
     ///////////// uniform /////////
     for (auto it = uniform_float_keys_.begin(); it != uniform_float_keys_.end();
             ++it) {
-        glUniform1f(it->first, material->getFloat(it->second));
+        glUniform1f(it->location, material->getFloat(it->key));
     }
 
     if (u_mvp_ != -1) {
@@ -165,42 +179,41 @@ void CustomShader::render(const glm::mat4& mvp_matrix, RenderData* render_data,
 
     int texture_index = 0;
     for (auto it = texture_keys_.begin(); it != texture_keys_.end(); ++it) {
-        glActiveTexture(getGLTexture(texture_index));
-        Texture* texture = material->getTexture(it->second);
-        glBindTexture(texture->getTarget(), texture->getId());
-        glUniform1i(it->first, texture_index++);
+        GLState::activeTexture(getGLTexture(texture_index));
+        Texture* texture = material->getTexture(it->key);
+        GLState::bindTexture(texture->getTarget(), texture->getId());
+        glUniform1i(it->location, texture_index++);
     }
 
     for (auto it = uniform_vec2_keys_.begin(); it != uniform_vec2_keys_.end();
             ++it) {
-        glm::vec2 v = material->getVec2(it->second);
-        glUniform2f(it->first, v.x, v.y);
+        glm::vec2 v = material->getVec2(it->key);
+        glUniform2f(it->location, v.x, v.y);
     }
 
     for (auto it = uniform_vec3_keys_.begin(); it != uniform_vec3_keys_.end();
             ++it) {
-        glm::vec3 v = material->getVec3(it->second);
-        glUniform3f(it->first, v.x, v.y, v.z);
+        glm::vec3 v = material->getVec3(it->key);
+        glUniform3f(it->location, v.x, v.y, v.z);
     }
 
     for (auto it = uniform_vec4_keys_.begin(); it != uniform_vec4_keys_.end();
             ++it) {
-        glm::vec4 v = material->getVec4(it->second);
-        glUniform4f(it->first, v.x, v.y, v.z, v.w);
+        glm::vec4 v = material->getVec4(it->key);
+        glUniform4f(it->location, v.x, v.y, v.z, v.w);
     }
 
     for (auto it = uniform_mat4_keys_.begin(); it != uniform_mat4_keys_.end();
             ++it) {
-        glm::mat4 m = material->getMat4(it->second);
-        glUniformMatrix4fv(it->first, 1, GL_FALSE, glm::value_ptr(m));
+        glm::mat4 m = material->getMat4(it->key);
+        glUniformMatrix4fv(it->location, 1, GL_FALSE, glm::value_ptr(m));
     }
 
-    glBindVertexArray(mesh->getVAOId(material->shader_type()));
+    GLState::bindVertexArray(mesh->getVAOId(material->shader_type()));
     glDrawElements(GL_TRIANGLES, mesh->triangles().size(), GL_UNSIGNED_SHORT,
             0);
-    glBindVertexArray(0);
 #else
-    glUseProgram(program_->id());
+    GLState::useProgram(program_->id());
 
     if (a_position_ != -1) {
         glVertexAttribPointer(a_position_, 3, GL_FLOAT, GL_FALSE, 0,
@@ -231,11 +244,11 @@ void CustomShader::render(const glm::mat4& mvp_matrix, RenderData* render_data,
     int texture_index = 0;
 
     for (auto it = texture_keys_.begin(); it != texture_keys_.end(); ++it) {
-        glActiveTexture(getGLTexture(texture_index));
+        GLState::activeTexture(getGLTexture(texture_index));
         Texture* texture = render_data->material()->getTexture(
-                it->second);
-        glBindTexture(texture->getTarget(), texture->getId());
-        glUniform1i(it->first, texture_index++);
+                it->key);
+        GLState::bindTexture(texture->getTarget(), texture->getId());
+        glUniform1i(it->location, texture_index++);
     }
 
     for (auto it = attribute_float_keys_.begin();
@@ -268,31 +281,31 @@ void CustomShader::render(const glm::mat4& mvp_matrix, RenderData* render_data,
 
     for (auto it = uniform_float_keys_.begin(); it != uniform_float_keys_.end();
             ++it) {
-        glUniform1f(it->first, render_data->material()->getFloat(it->second));
+        glUniform1f(it->location, render_data->material()->getFloat(it->key));
     }
 
     for (auto it = uniform_vec2_keys_.begin(); it != uniform_vec2_keys_.end();
             ++it) {
-        glm::vec2 v = render_data->material()->getVec2(it->second);
-        glUniform2f(it->first, v.x, v.y);
+        glm::vec2 v = render_data->material()->getVec2(it->key);
+        glUniform2f(it->location, v.x, v.y);
     }
 
     for (auto it = uniform_vec3_keys_.begin(); it != uniform_vec3_keys_.end();
             ++it) {
-        glm::vec3 v = render_data->material()->getVec3(it->second);
-        glUniform3f(it->first, v.x, v.y, v.z);
+        glm::vec3 v = render_data->material()->getVec3(it->key);
+        glUniform3f(it->location, v.x, v.y, v.z);
     }
 
     for (auto it = uniform_vec4_keys_.begin(); it != uniform_vec4_keys_.end();
             ++it) {
-        glm::vec4 v = render_data->material()->getVec4(it->second);
-        glUniform4f(it->first, v.x, v.y, v.z, v.w);
+        glm::vec4 v = render_data->material()->getVec4(it->key);
+        glUniform4f(it->location, v.x, v.y, v.z, v.w);
     }
 
     for (auto it = uniform_mat4_keys_.begin(); it != uniform_mat4_keys_.end();
             ++it) {
-        glm::mat4 m = render_data->material()->getMat4(it->second);
-        glUniformMatrix4fv(it->first, 1, GL_FALSE, glm::value_ptr(m));
+        glm::mat4 m = render_data->material()->getMat4(it->key);
+        glUniformMatrix4fv(it->location, 1, GL_FALSE, glm::value_ptr(m));
     }
 
     glDrawElements(GL_TRIANGLES, mesh->triangles().size(), GL_UNSIGNED_SHORT,
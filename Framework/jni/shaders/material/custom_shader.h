@@ -24,6 +24,7 @@
 #include <map>
 #include <memory>
 #include <string>
+#include <vector>
 
 #include "GLES3/gl3.h"
 #include "glm/glm.hpp"
@@ -70,16 +71,26 @@ private:
     GLuint a_tex_coord_;
     GLuint u_mvp_;
     GLuint u_right_;
-    std::map<int, std::string> texture_keys_;
+    // A uniform location, and the (interned) material key that feeds it
+    struct UniformSlot {
+        int location;
+        int key;
+    };
+    typedef std::vector<UniformSlot> UniformSlots;
+
+    static void addUniformSlot(UniformSlots& slots, int location,
+            const std::string& key);
+
+    UniformSlots texture_keys_;
     std::map<int, std::string> attribute_float_keys_;
     std::map<int, std::string> attribute_vec2_keys_;
     std::map<int, std::string> attribute_vec3_keys_;
     std::map<int, std::string> attribute_vec4_keys_;
-    std::map<int, std::string> uniform_float_keys_;
-    std::map<int, std::string> uniform_vec2_keys_;
-    std::map<int, std::string> uniform_vec3_keys_;
-    std::map<int, std::string> uniform_vec4_keys_;
-    std::map<int, std::string> uniform_mat4_keys_;
+    UniformSlots uniform_float_keys_;
+    UniformSlots uniform_vec2_keys_;
+    UniformSlots uniform_vec3_keys_;
+    UniformSlots uniform_vec4_keys_;
+    UniformSlots uniform_mat4_keys_;
 };
 
 }
@@ -70,17 +70,16 @@ void ErrorShader::render(const glm::mat4& mvp_matrix, RenderData* render_data) {
     mesh->setVertexLoc(a_position_);
     mesh->generateVAO(material->shader_type());
 
-    glUseProgram(program_->id());
+    GLState::useProgram(program_->id());
 
     glUniformMatrix4fv(u_mvp_, 1, GL_FALSE, glm::value_ptr(mvp_matrix));
     glUniform4f(u_color_, r, g, b, a);
 
-    glBindVertexArray(mesh->getVAOId(material->shader_type()));
+    GLState::bindVertexArray(mesh->getVAOId(material->shader_type()));
     glDrawElements(GL_TRIANGLES, mesh->triangles().size(), GL_UNSIGNED_SHORT,
             0);
-    glBindVertexArray(0);
 #else
-    glUseProgram(program_->id());
+    GLState::useProgram(program_->id());
 
     glVertexAttribPointer(a_position_, 3, GL_FLOAT, GL_FALSE, 0,
             mesh->vertices().data());
@@ -19,6 +19,7 @@
 
 #include "texture_shader.h"
 
+#include "engine/memory/gl_delete.h"
 #include "gl/gl_program.h"
 #include "objects/material.h"
 #include "objects/light.h"
@@ -57,6 +58,18 @@ static const char VERTEX_SHADER[] =
                 "  gl_Position = u_mvp * a_position;\n"
                 "}\n";
 
+static const char INSTANCED_VERTEX_SHADER[] =
+        "attribute vec4 a_position;\n"
+                "attribute vec4 a_tex_coord;\n"
+                "attribute mat4 a_model;\n"
+                "uniform mat4 u_vp;\n"
+                "varying vec2 v_tex_coord;\n"
+                "\n"
+                "void main() {\n"
+                "  v_tex_coord = a_tex_coord.xy;\n"
+                "  gl_Position = u_vp * (a_model * a_position);\n"
+                "}\n";
+
 static const char FRAGMENT_SHADER[] =
         "precision highp float;\n"
                 "uniform sampler2D u_texture;\n"
@@ -105,7 +118,8 @@ static const char FRAGMENT_SHADER[] =
                 "}\n";
 
 TextureShader::TextureShader() :
-        program_light_(0), program_no_light_(0), a_position_(0), a_tex_coord_(
+        program_light_(0), program_no_light_(0), program_instanced_(0), instance_buffer_(
+                0), a_position_(0), a_tex_coord_(
                 0), a_normal_(0), u_mv_(0), u_mv_it_(0), u_mvp_(0), u_light_pos_(
                 0), u_texture_(0), u_color_(0), u_opacity_(0), u_material_ambient_color_(
                 0), u_material_diffuse_color_(0), u_material_specular_color_(0), u_material_specular_exponent_(
@@ -135,6 +149,15 @@ TextureShader::TextureShader() :
             fragment_shader_no_light_strings,
             fragment_shader_no_light_string_lengths);
 
+    const char* vertex_shader_instanced_strings[2] = { NOT_USE_LIGHT,
+            INSTANCED_VERTEX_SHADER };
+    GLint vertex_shader_instanced_string_lengths[2] = { (GLint) strlen(
+            NOT_USE_LIGHT), (GLint) strlen(INSTANCED_VERTEX_SHADER) };
+    program_instanced_ = new GLProgram(vertex_shader_instanced_strings,
+            vertex_shader_instanced_string_lengths,
+            fragment_shader_no_light_strings,
+            fragment_shader_no_light_string_lengths);
+
     a_position_no_light_ = glGetAttribLocation(program_no_light_->id(),
             "a_position");
     a_tex_coord_no_light_ = glGetAttribLocation(program_no_light_->id(),
@@ -147,6 +170,20 @@ TextureShader::TextureShader() :
     u_opacity_no_light_ = glGetUniformLocation(program_no_light_->id(),
             "u_opacity");
 
+    a_position_instanced_ = glGetAttribLocation(program_instanced_->id(),
+            "a_position");
+    a_tex_coord_instanced_ = glGetAttribLocation(program_instanced_->id(),
+            "a_tex_coord");
+    a_model_instanced_ = glGetAttribLocation(program_instanced_->id(),
+            "a_model");
+    u_vp_instanced_ = glGetUniformLocation(program_instanced_->id(), "u_vp");
+    u_texture_instanced_ = glGetUniformLocation(program_instanced_->id(),
+            "u_texture");
+    u_color_instanced_ = glGetUniformLocation(program_instanced_->id(),
+            "u_color");
+    u_opacity_instanced_ = glGetUniformLocation(program_instanced_->id(),
+            "u_opacity");
+
     a_position_ = glGetAttribLocation(program_light_->id(), "a_position");
     a_tex_coord_ = glGetAttribLocation(program_light_->id(), "a_tex_coord");
     u_mvp_ = glGetUniformLocation(program_light_->id(), "u_mvp");
@@ -175,7 +212,8 @@ TextureShader::TextureShader() :
 }
 
 TextureShader::~TextureShader() {
-    if (program_light_ != 0 || program_no_light_ != 0) {
+    if (program_light_ != 0 || program_no_light_ != 0
+            || program_instanced_ != 0) {
         recycle();
     }
 }
@@ -189,19 +227,34 @@ void TextureShader::recycle() {
         delete program_no_light_;
         program_no_light_ = 0;
     }
+    if (program_instanced_ != 0) {
+        delete program_instanced_;
+        program_instanced_ = 0;
+    }
+    if (instance_buffer_ != 0) {
+        gl_delete.queueBuffer(instance_buffer_);
+        instance_buffer_ = 0;
+    }
 }
 
 void TextureShader::render(const glm::mat4& mv_matrix,
         const glm::mat4& mv_it_matrix, const glm::mat4& mvp_matrix,
         RenderData* render_data, Material* material) {
     Mesh* mesh = render_data->mesh();
-    Texture* texture = material->getTexture("main_texture");
-    glm::vec3 color = material->getVec3("color");
-    float opacity = material->getFloat("opacity");
-    glm::vec4 material_ambient_color = material->getVec4("ambient_color");
-    glm::vec4 material_diffuse_color = material->getVec4("diffuse_color");
-    glm::vec4 material_specular_color = material->getVec4("specular_color");
-    float material_specular_exponent = material->getFloat("specular_exponent");
+    static const int main_texture_key = Material::key("main_texture");
+    static const int color_key = Material::key("color");
+    static const int opacity_key = Material::key("opacity");
+    static const int ambient_color_key = Material::key("ambient_color");
+    static const int diffuse_color_key = Material::key("diffuse_color");
+    static const int specular_color_key = Material::key("specular_color");
+    static const int specular_exponent_key = Material::key("specular_exponent");
+    Texture* texture = material->getTexture(main_texture_key);
+    glm::vec3 color = material->getVec3(color_key);
+    float opacity = material->getFloat(opacity_key);
+    glm::vec4 material_ambient_color = material->getVec4(ambient_color_key);
+    glm::vec4 material_diffuse_color = material->getVec4(diffuse_color_key);
+    glm::vec4 material_specular_color = material->getVec4(specular_color_key);
+    float material_specular_exponent = material->getFloat(specular_exponent_key);
 
     if (texture->getTarget() != GL_TEXTURE_2D) {
         std::string error = "TextureShader::render : texture with wrong target.";
@@ -231,13 +284,13 @@ void TextureShader::render(const glm::mat4& mv_matrix,
     }
 
     if (use_light) {
-        glUseProgram(program_light_->id());
+        GLState::useProgram(program_light_->id());
     } else {
-        glUseProgram(program_no_light_->id());
+        GLState::useProgram(program_no_light_->id());
     }
 
-    glActiveTexture (GL_TEXTURE0);
-    glBindTexture(texture->getTarget(), texture->getId());
+    GLState::activeTexture(GL_TEXTURE0);
+    GLState::bindTexture(texture->getTarget(), texture->getId());
 
     if (use_light) {
         glm::vec3 light_position = light->getVec3("position");
@@ -276,7 +329,7 @@ void TextureShader::render(const glm::mat4& mv_matrix,
                 light_specular_intensity.g, light_specular_intensity.b,
                 light_specular_intensity.a);
 
-        glBindVertexArray(mesh->getVAOId(Material::TEXTURE_SHADER));
+        GLState::bindVertexArray(mesh->getVAOId(Material::TEXTURE_SHADER));
     } else {
         glUniformMatrix4fv(u_mvp_no_light_, 1, GL_FALSE,
                 glm::value_ptr(mvp_matrix));
@@ -285,15 +338,14 @@ void TextureShader::render(const glm::mat4& mv_matrix,
         glUniform3f(u_color_no_light_, color.r, color.g, color.b);
         glUniform1f(u_opacity_no_light_, opacity);
 
-        glBindVertexArray(mesh->getVAOId(Material::TEXTURE_SHADER_NOLIGHT));
+        GLState::bindVertexArray(mesh->getVAOId(Material::TEXTURE_SHADER_NOLIGHT));
     }
 
     glDrawElements(GL_TRIANGLES, mesh->triangles().size(), GL_UNSIGNED_SHORT,
             0);
-    glBindVertexArray(0);
 
 #else
-    glUseProgram(program_->id());
+    GLState::useProgram(program_->id());
 
     glVertexAttribPointer(a_position_, 3, GL_FLOAT, GL_FALSE, 0,
             mesh->vertices().data());
@@ -303,8 +355,8 @@ void TextureShader::render(const glm::mat4& mv_matrix,
     glUniformMatrix4fv(u_mv_it_, 1, GL_FALSE, glm::value_ptr(mv_it_matrix));
     glUniformMatrix4fv(u_mvp_, 1, GL_FALSE, glm::value_ptr(mvp_matrix));
 
-    glActiveTexture (GL_TEXTURE0);
-    glBindTexture(texture->getTarget(), texture->getId());
+    GLState::activeTexture(GL_TEXTURE0);
+    GLState::bindTexture(texture->getTarget(), texture->getId());
     glUniform1i(u_texture_, 0);
 
     glUniform3f(u_color_, color.r, color.g, color.b);
@@ -318,5 +370,66 @@ void TextureShader::render(const glm::mat4& mv_matrix,
     checkGlError("TextureShader::render");
 }
 
+void TextureShader::renderInstanced(const glm::mat4& vp_matrix,
+        const std::vector<glm::mat4>& model_matrices, RenderData* render_data,
+        Material* material) {
+#if _GVRF_USE_GLES3_
+    Mesh* mesh = render_data->mesh();
+    static const int main_texture_key = Material::key("main_texture");
+    static const int color_key = Material::key("color");
+    static const int opacity_key = Material::key("opacity");
+    Texture* texture = material->getTexture(main_texture_key);
+    glm::vec3 color = material->getVec3(color_key);
+    float opacity = material->getFloat(opacity_key);
+
+    if (texture->getTarget() != GL_TEXTURE_2D) {
+        std::string error =
+                "TextureShader::renderInstanced : texture with wrong target.";
+        throw error;
+    }
+
+    mesh->setVertexLoc(a_position_instanced_);
+    mesh->setTexCoordLoc(a_tex_coord_instanced_);
+    mesh->setNormalLoc(-1);
+    mesh->generateVAO(Material::TEXTURE_SHADER_INSTANCED);
+
+    GLState::useProgram(program_instanced_->id());
+    GLState::activeTexture(GL_TEXTURE0);
+    GLState::bindTexture(texture->getTarget(), texture->getId());
+
+    glUniformMatrix4fv(u_vp_instanced_, 1, GL_FALSE,
+            glm::value_ptr(vp_matrix));
+    glUniform1i(u_texture_instanced_, 0);
+    glUniform3f(u_color_instanced_, color.r, color.g, color.b);
+    glUniform1f(u_opacity_instanced_, opacity);
+
+    if (instance_buffer_ == 0) {
+        glGenBuffers(1, &instance_buffer_);
+    }
+
+    // This VAO is only ever drawn instanced, so it can keep the instance
+    // attributes; respecifying the buffer's data orphans the old storage
+    GLState::bindVertexArray(
+            mesh->getVAOId(Material::TEXTURE_SHADER_INSTANCED));
+    glBindBuffer(GL_ARRAY_BUFFER, instance_buffer_);
+    glBufferData(GL_ARRAY_BUFFER, sizeof(glm::mat4) * model_matrices.size(),
+            model_matrices.data(), GL_STREAM_DRAW);
+    for (int column = 0; column < 4; ++column) {
+        GLuint location = a_model_instanced_ + column;
+        glEnableVertexAttribArray(location);
+        glVertexAttribPointer(location, 4, GL_FLOAT, GL_FALSE,
+                sizeof(glm::mat4),
+                reinterpret_cast<const GLvoid*>(sizeof(glm::vec4) * column));
+        glVertexAttribDivisor(location, 1);
+    }
+    glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+    glDrawElementsInstanced(GL_TRIANGLES, mesh->triangles().size(),
+            GL_UNSIGNED_SHORT, 0, model_matrices.size());
+#endif
+
+    checkGlError("TextureShader::renderInstanced");
+}
+
 }
 ;
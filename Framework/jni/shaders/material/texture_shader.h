@@ -21,6 +21,7 @@
 #define TEXTURE_SHADER_H_
 
 #include <memory>
+#include <vector>
 
 #include "GLES3/gl3.h"
 #include "glm/glm.hpp"
@@ -41,6 +42,14 @@ public:
     void render(const glm::mat4& model_matrix, const glm::mat4& model_it_matrix,
             const glm::mat4& mvp_matrix, RenderData* render_data, Material* material);
 
+    /*
+     * Draws the render data's mesh once per model matrix, in one instanced
+     * call. Unlit only: the renderer checks before batching.
+     */
+    void renderInstanced(const glm::mat4& vp_matrix,
+            const std::vector<glm::mat4>& model_matrices,
+            RenderData* render_data, Material* material);
+
 private:
     TextureShader(const TextureShader& texture_shader);
     TextureShader(TextureShader&& texture_shader);
@@ -50,6 +59,7 @@ private:
 private:
     GLProgram* program_light_;
     GLProgram* program_no_light_;
+    GLProgram* program_instanced_;
 
     GLuint a_position_no_light_;
     GLuint a_tex_coord_no_light_;
@@ -58,6 +68,17 @@ private:
     GLuint u_color_no_light_;
     GLuint u_opacity_no_light_;
 
+    GLuint a_position_instanced_;
+    GLuint a_tex_coord_instanced_;
+    // A mat4 attribute takes four consecutive locations
+    GLuint a_model_instanced_;
+    GLuint u_vp_instanced_;
+    GLuint u_texture_instanced_;
+    GLuint u_color_instanced_;
+    GLuint u_opacity_instanced_;
+    // Per-instance model matrices; refilled for each instanced draw
+    GLuint instance_buffer_;
+
     GLuint a_position_;
     GLuint a_tex_coord_;
     GLuint a_normal_;
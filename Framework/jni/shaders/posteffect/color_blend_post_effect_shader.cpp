@@ -84,7 +84,7 @@ void ColorBlendPostEffectShader::render(
     float b = post_effect_data->getFloat("b");
     float factor = post_effect_data->getFloat("factor");
 
-    glUseProgram(program_->id());
+    GLState::useProgram(program_->id());
 
 #if _GVRF_USE_GLES3_
     GLuint tmpID;
@@ -92,7 +92,7 @@ void ColorBlendPostEffectShader::render(
     if(vaoID_ == 0)
     {
         glGenVertexArrays(1, &vaoID_);
-        glBindVertexArray(vaoID_);
+        GLState::bindVertexArray(vaoID_);
 
         glGenBuffers(1, &tmpID);
         glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, tmpID);
@@ -117,16 +117,16 @@ void ColorBlendPostEffectShader::render(
         }
     }
 
-    glActiveTexture (GL_TEXTURE0);
-    glBindTexture(GL_TEXTURE_2D, render_texture->getId());
+    GLState::activeTexture(GL_TEXTURE0);
+    GLState::bindTexture(GL_TEXTURE_2D, render_texture->getId());
     glUniform1i(u_texture_, 0);
 
     glUniform3f(u_color_, r, g, b);
     glUniform1f(u_factor_, factor);
 
-    glBindVertexArray(vaoID_);
+    GLState::bindVertexArray(vaoID_);
     glDrawElements(GL_TRIANGLES, triangles.size(), GL_UNSIGNED_SHORT, 0);
-    glBindVertexArray(0);
+    GLState::bindVertexArray(0);
 
 #else
     glVertexAttribPointer(a_position_, 3, GL_FLOAT, GL_FALSE, 0,
@@ -137,8 +137,8 @@ void ColorBlendPostEffectShader::render(
             tex_coords.data());
     glEnableVertexAttribArray(a_tex_coord_);
 
-    glActiveTexture (GL_TEXTURE0);
-    glBindTexture(GL_TEXTURE_2D, render_texture->getId());
+    GLState::activeTexture(GL_TEXTURE0);
+    GLState::bindTexture(GL_TEXTURE_2D, render_texture->getId());
     glUniform1i(u_texture_, 0);
 
     glUniform3f(u_color_, r, g, b);
@@ -104,7 +104,7 @@ void CustomPostEffectShader::render(Camera* camera,
         PostEffectData* post_effect_data,
         std::vector<glm::vec3>& vertices, std::vector<glm::vec2>& tex_coords,
         std::vector<unsigned short>& triangles) {
-    glUseProgram(program_->id());
+    GLState::useProgram(program_->id());
 
 #if _GVRF_USE_GLES3_
     GLuint tmpID;
@@ -112,7 +112,7 @@ void CustomPostEffectShader::render(Camera* camera,
     if(vaoID_ == 0)
     {
         glGenVertexArrays(1, &vaoID_);
-        glBindVertexArray(vaoID_);
+        GLState::bindVertexArray(vaoID_);
 
         glGenBuffers(1, &tmpID);
         glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, tmpID);
@@ -139,8 +139,8 @@ void CustomPostEffectShader::render(Camera* camera,
 
     int texture_index = 0;
     if (u_texture_ != -1) {
-        glActiveTexture(getGLTexture(texture_index));
-        glBindTexture(GL_TEXTURE_2D, render_texture->getId());
+        GLState::activeTexture(getGLTexture(texture_index));
+        GLState::bindTexture(GL_TEXTURE_2D, render_texture->getId());
         glUniform1i(u_texture_, texture_index++);
     }
 
@@ -155,9 +155,9 @@ void CustomPostEffectShader::render(Camera* camera,
     }
 
     for (auto it = texture_keys_.begin(); it != texture_keys_.end(); ++it) {
-        glActiveTexture(getGLTexture(texture_index));
+        GLState::activeTexture(getGLTexture(texture_index));
         Texture* texture = post_effect_data->getTexture(it->second);
-        glBindTexture(texture->getTarget(), texture->getId());
+        GLState::bindTexture(texture->getTarget(), texture->getId());
         glUniform1i(it->first, texture_index++);
     }
 
@@ -185,9 +185,9 @@ void CustomPostEffectShader::render(Camera* camera,
         glUniformMatrix4fv(it->first, 1, GL_FALSE, glm::value_ptr(m));
     }
 
-    glBindVertexArray(vaoID_);
+    GLState::bindVertexArray(vaoID_);
     glDrawElements(GL_TRIANGLES, triangles.size(), GL_UNSIGNED_SHORT, 0);
-    glBindVertexArray(0);
+    GLState::bindVertexArray(0);
 
 #else
 
@@ -206,8 +206,8 @@ void CustomPostEffectShader::render(Camera* camera,
     int texture_index = 0;
 
     if (u_texture_ != -1) {
-        glActiveTexture(getGLTexture(texture_index));
-        glBindTexture(GL_TEXTURE_2D, render_texture->getId());
+        GLState::activeTexture(getGLTexture(texture_index));
+        GLState::bindTexture(GL_TEXTURE_2D, render_texture->getId());
         glUniform1i(u_texture_, texture_index++);
     }
 
@@ -222,9 +222,9 @@ void CustomPostEffectShader::render(Camera* camera,
     }
 
     for (auto it = texture_keys_.begin(); it != texture_keys_.end(); ++it) {
-        glActiveTexture(getGLTexture(texture_index));
+        GLState::activeTexture(getGLTexture(texture_index));
         Texture* texture = post_effect_data->getTexture(it->second);
-        glBindTexture(texture->getTarget(), texture->getId());
+        GLState::bindTexture(texture->getTarget(), texture->getId());
         glUniform1i(it->first, texture_index++);
     }
 
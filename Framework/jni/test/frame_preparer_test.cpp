@@ -0,0 +1,235 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Checks, on a host, that FramePreparer builds the same commands on the
+ * calling thread alone as across the worker pool.
+ *
+ * Usage: frame_preparer_test [objects [frames]]
+ ***************************************************************************/
+
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+#include <vector>
+
+#include "glm/glm.hpp"
+#include "glm/gtc/matrix_transform.hpp"
+
+#include "engine/renderer/bounding_volume_hierarchy.h"
+#include "engine/renderer/draw_command.h"
+#include "engine/renderer/frame_preparer.h"
+#include "engine/renderer/frustum.h"
+#include "objects/material.h"
+#include "objects/mesh.h"
+#include "objects/render_pass.h"
+#include "objects/scene.h"
+#include "objects/scene_object.h"
+#include "objects/components/render_data.h"
+#include "objects/components/transform.h"
+
+using namespace gvr;
+
+namespace {
+const int PARALLEL_THREADS = 8;
+const int MESHES = 4;
+const int MATERIALS = 3;
+
+// Deterministic, so that a failure can be run again
+unsigned int seed = 1;
+
+float random(float min, float max) {
+    seed = seed * 1103515245 + 12345;
+    return min + (max - min) * ((seed >> 8) & 0xffff) / 65535.0f;
+}
+
+Mesh* createBox(float size) {
+    std::vector<glm::vec3> vertices;
+    for (int i = 0; i < 8; ++i) {
+        vertices.push_back(glm::vec3((i & 1) ? size : -size,
+                (i & 2) ? size : -size, (i & 4) ? size : -size));
+    }
+    Mesh* mesh = new Mesh();
+    mesh->set_vertices(std::move(vertices));
+    return mesh;
+}
+
+void randomize(Transform* transform, float spread) {
+    transform->set_position(random(-spread, spread), random(-spread, spread),
+            random(-spread, spread));
+    glm::vec3 axis(random(-1.0f, 1.0f), random(-1.0f, 1.0f), 1.0f);
+    transform->set_rotation(
+            glm::angleAxis(random(0.0f, 3.0f), glm::normalize(axis)));
+    float scale = random(0.5f, 1.5f);
+    transform->set_scale(scale, scale, scale);
+}
+
+/*
+ * Groups of objects under moving parents, so that objects' matrices depend
+ * on ancestors that change between frames
+ */
+void buildScene(Scene* scene, int count, const std::vector<Mesh*>& meshes,
+        const std::vector<Material*>& materials,
+        std::vector<SceneObject*>& objects) {
+    SceneObject* parent = 0;
+    for (int i = 0; i < count; ++i) {
+        SceneObject* object = new SceneObject();
+        object->attachTransform(object, new Transform());
+        objects.push_back(object);
+
+        if (i % 50 == 0) {
+            // Every group's parent is drawn too, and some are nested
+            if (parent != 0 && i % 200 != 0) {
+                parent->addChildObject(parent, object);
+            } else {
+                scene->addSceneObject(object);
+            }
+            parent = object;
+        } else {
+            parent->addChildObject(parent, object);
+        }
+        randomize(object->transform(), object->parent() != 0 ? 2.0f : 20.0f);
+
+        RenderData* render_data = new RenderData();
+        render_data->add_pass(new RenderPass());
+        render_data->set_mesh(meshes[i % meshes.size()]);
+        render_data->set_material(materials[i % materials.size()], 0);
+        render_data->set_rendering_order(i % 7 == 0 ? 3000 : 2000);
+        object->attachRenderData(object, render_data);
+        if (i % 11 == 0) {
+            object->setLODRange(0.0f, 30.0f);
+        }
+    }
+}
+
+struct Output {
+    std::vector<DrawCommand> draw_commands;
+    std::vector<int> visible_batches;
+    std::vector<int> query_objects;
+    std::vector<float> camera_distances;
+};
+
+void prepare(Scene* scene, const std::vector<SceneObject*>& objects,
+        const glm::mat4& vp_matrix, const glm::vec3& camera_position,
+        bool occlusion_culling, int threads, Output& output) {
+    BoundingVolumeHierarchy& bvh = scene->getBoundingVolumeHierarchy();
+    bvh.refit(threads);
+
+    std::vector<int> visible_objects;
+    bvh.cull(Frustum(vp_matrix), visible_objects);
+    FramePreparer::prepare(bvh, visible_objects, std::vector<int>(),
+            vp_matrix, camera_position, occlusion_culling, threads,
+            output.draw_commands, output.visible_batches,
+            output.query_objects);
+
+    for (auto it = objects.begin(); it != objects.end(); ++it) {
+        output.camera_distances.push_back(
+                (*it)->render_data()->camera_distance());
+    }
+}
+
+bool same(const Output& serial, const Output& parallel) {
+    if (serial.draw_commands.size() != parallel.draw_commands.size()) {
+        fprintf(stderr, "%zu commands serially, %zu in parallel\n",
+                serial.draw_commands.size(), parallel.draw_commands.size());
+        return false;
+    }
+    for (int i = 0; i < serial.draw_commands.size(); ++i) {
+        const DrawCommand& a = serial.draw_commands[i];
+        const DrawCommand& b = parallel.draw_commands[i];
+        if (a.sort_key != b.sort_key || a.render_data != b.render_data
+                || memcmp(&a.model_matrix, &b.model_matrix,
+                        sizeof(a.model_matrix)) != 0) {
+            fprintf(stderr, "command %d differs\n", i);
+            return false;
+        }
+    }
+    if (serial.visible_batches != parallel.visible_batches
+            || serial.query_objects != parallel.query_objects) {
+        fprintf(stderr, "batches or queries differ\n");
+        return false;
+    }
+    if (memcmp(serial.camera_distances.data(),
+            parallel.camera_distances.data(),
+            serial.camera_distances.size() * sizeof(float)) != 0) {
+        fprintf(stderr, "camera distances differ\n");
+        return false;
+    }
+    return true;
+}
+}
+
+int main(int argc, char** argv) {
+    int count = argc > 1 ? atoi(argv[1]) : 10000;
+    int frames = argc > 2 ? atoi(argv[2]) : 10;
+
+    std::vector<Mesh*> meshes;
+    for (int i = 0; i < MESHES; ++i) {
+        meshes.push_back(createBox(0.25f * (i + 1)));
+    }
+    std::vector<Material*> materials;
+    for (int i = 0; i < MATERIALS; ++i) {
+        materials.push_back(new Material(
+                i == 0 ? Material::TEXTURE_SHADER : Material::OES_SHADER));
+    }
+
+    Scene* scene = new Scene();
+    std::vector<SceneObject*> objects;
+    buildScene(scene, count, meshes, materials, objects);
+
+    glm::mat4 projection(
+            glm::perspective(90.0f, 1.0f, 0.1f, 100.0f));
+    int drawn = 0;
+    for (int frame = 0; frame < frames; ++frame) {
+        glm::vec3 camera_position(random(-5.0f, 5.0f), 0.0f, 30.0f);
+        glm::mat4 vp_matrix(projection
+                * glm::lookAt(camera_position, glm::vec3(0.0f, 0.0f, 0.0f),
+                        glm::vec3(0.0f, 1.0f, 0.0f)));
+        bool occlusion_culling = frame % 2 == 1;
+
+        // Leave the matrices to the lazy paths on some frames
+        if (frame % 3 != 2) {
+            scene->updateTransforms();
+        }
+
+        Output serial;
+        prepare(scene, objects, vp_matrix, camera_position, occlusion_culling,
+                0, serial);
+        Output parallel;
+        prepare(scene, objects, vp_matrix, camera_position, occlusion_culling,
+                PARALLEL_THREADS, parallel);
+        if (!same(serial, parallel)) {
+            fprintf(stderr, "FAILED on frame %d\n", frame);
+            return 1;
+        }
+        drawn += serial.draw_commands.size();
+
+        // Move a tenth of the objects, parents among them
+        for (int i = 0; i < count / 10; ++i) {
+            SceneObject* object = objects[(int) random(0.0f, count - 1.0f)];
+            randomize(object->transform(),
+                    object->parent() != 0 ? 2.0f : 20.0f);
+        }
+    }
+
+    if (drawn == 0) {
+        fprintf(stderr, "FAILED: nothing was in view\n");
+        return 1;
+    }
+    printf("OK: %d objects, %d frames, %d commands, %d threads\n", count,
+            frames, drawn, PARALLEL_THREADS);
+    return 0;
+}
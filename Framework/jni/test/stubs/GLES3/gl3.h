@@ -0,0 +1,192 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * A GL that does nothing, so the CPU side of the engine builds on a host.
+ * Every entry point takes anything and returns 0.
+ ***************************************************************************/
+
+#ifndef HOST_STUB_GL3_H_
+#define HOST_STUB_GL3_H_
+
+typedef unsigned int GLenum;
+typedef unsigned char GLboolean;
+typedef unsigned int GLbitfield;
+typedef void GLvoid;
+typedef signed char GLbyte;
+typedef short GLshort;
+typedef int GLint;
+typedef int GLsizei;
+typedef unsigned char GLubyte;
+typedef unsigned short GLushort;
+typedef unsigned int GLuint;
+typedef float GLfloat;
+typedef float GLclampf;
+typedef char GLchar;
+typedef long GLintptr;
+typedef long GLsizeiptr;
+
+#define GL_NO_ERROR 0
+#define GL_FALSE 0
+#define GL_TRUE 1
+#define GL_ONE 1
+#define GL_TRIANGLES 0x0004
+#define GL_DEPTH_BUFFER_BIT 0x0100
+#define GL_COLOR_BUFFER_BIT 0x4000
+#define GL_LEQUAL 0x0203
+#define GL_ONE_MINUS_SRC_ALPHA 0x0303
+#define GL_FRONT 0x0404
+#define GL_BACK 0x0405
+#define GL_CCW 0x0901
+#define GL_CULL_FACE 0x0B44
+#define GL_DEPTH_TEST 0x0B71
+#define GL_VIEWPORT 0x0BA2
+#define GL_BLEND 0x0BE2
+#define GL_TEXTURE_2D 0x0DE1
+#define GL_UNSIGNED_BYTE 0x1401
+#define GL_UNSIGNED_SHORT 0x1403
+#define GL_FLOAT 0x1406
+#define GL_RGBA 0x1908
+#define GL_LUMINANCE 0x1909
+#define GL_NEAREST 0x2600
+#define GL_LINEAR 0x2601
+#define GL_TEXTURE_MAG_FILTER 0x2800
+#define GL_TEXTURE_MIN_FILTER 0x2801
+#define GL_TEXTURE_WRAP_S 0x2802
+#define GL_TEXTURE_WRAP_T 0x2803
+#define GL_FUNC_ADD 0x8006
+#define GL_POLYGON_OFFSET_FILL 0x8037
+#define GL_CLAMP_TO_EDGE 0x812F
+#define GL_DEPTH_COMPONENT16 0x81A5
+#define GL_RG 0x8227
+#define GL_RG32F 0x8230
+#define GL_TEXTURE0 0x84C0
+#define GL_TEXTURE1 0x84C1
+#define GL_TEXTURE2 0x84C2
+#define GL_TEXTURE3 0x84C3
+#define GL_TEXTURE4 0x84C4
+#define GL_TEXTURE5 0x84C5
+#define GL_TEXTURE6 0x84C6
+#define GL_TEXTURE7 0x84C7
+#define GL_TEXTURE8 0x84C8
+#define GL_TEXTURE9 0x84C9
+#define GL_TEXTURE10 0x84CA
+#define GL_TEXTURE_CUBE_MAP 0x8513
+#define GL_TEXTURE_CUBE_MAP_POSITIVE_X 0x8515
+#define GL_QUERY_RESULT 0x8866
+#define GL_QUERY_RESULT_AVAILABLE 0x8867
+#define GL_ARRAY_BUFFER 0x8892
+#define GL_ELEMENT_ARRAY_BUFFER 0x8893
+#define GL_STREAM_DRAW 0x88E0
+#define GL_STATIC_DRAW 0x88E4
+#define GL_FRAGMENT_SHADER 0x8B30
+#define GL_VERTEX_SHADER 0x8B31
+#define GL_COMPILE_STATUS 0x8B81
+#define GL_LINK_STATUS 0x8B82
+#define GL_INFO_LOG_LENGTH 0x8B84
+#define GL_ANY_SAMPLES_PASSED 0x8C2F
+#define GL_FRAMEBUFFER_BINDING 0x8CA6
+#define GL_DRAW_FRAMEBUFFER_BINDING 0x8CA6
+#define GL_READ_FRAMEBUFFER 0x8CA8
+#define GL_DRAW_FRAMEBUFFER 0x8CA9
+#define GL_READ_FRAMEBUFFER_BINDING 0x8CAA
+#define GL_COLOR_ATTACHMENT0 0x8CE0
+#define GL_DEPTH_ATTACHMENT 0x8D00
+#define GL_FRAMEBUFFER 0x8D40
+#define GL_RENDERBUFFER 0x8D41
+
+#define HOST_STUB_GL_FUNCTION(name) \
+    template<typename... Args> inline GLuint name(Args...) { return 0; }
+
+// These have their addresses taken: see GlDelete
+#define HOST_STUB_GL_DELETER(name) \
+    inline void name(GLsizei, const GLuint*) {}
+
+HOST_STUB_GL_FUNCTION(glActiveTexture)
+HOST_STUB_GL_FUNCTION(glAttachShader)
+HOST_STUB_GL_FUNCTION(glBeginQuery)
+HOST_STUB_GL_FUNCTION(glBindBuffer)
+HOST_STUB_GL_FUNCTION(glBindFramebuffer)
+HOST_STUB_GL_FUNCTION(glBindRenderbuffer)
+HOST_STUB_GL_FUNCTION(glBindTexture)
+HOST_STUB_GL_FUNCTION(glBindVertexArray)
+HOST_STUB_GL_FUNCTION(glBlendEquation)
+HOST_STUB_GL_FUNCTION(glBlendFunc)
+HOST_STUB_GL_FUNCTION(glBlitFramebuffer)
+HOST_STUB_GL_FUNCTION(glBufferData)
+HOST_STUB_GL_FUNCTION(glClear)
+HOST_STUB_GL_FUNCTION(glClearColor)
+HOST_STUB_GL_FUNCTION(glColorMask)
+HOST_STUB_GL_FUNCTION(glCompileShader)
+HOST_STUB_GL_FUNCTION(glCompressedTexImage2D)
+HOST_STUB_GL_FUNCTION(glCreateProgram)
+HOST_STUB_GL_FUNCTION(glCreateShader)
+HOST_STUB_GL_FUNCTION(glCullFace)
+HOST_STUB_GL_DELETER(glDeleteBuffers)
+HOST_STUB_GL_DELETER(glDeleteFramebuffers)
+HOST_STUB_GL_FUNCTION(glDeleteProgram)
+HOST_STUB_GL_DELETER(glDeleteQueries)
+HOST_STUB_GL_DELETER(glDeleteRenderbuffers)
+HOST_STUB_GL_FUNCTION(glDeleteShader)
+HOST_STUB_GL_DELETER(glDeleteTextures)
+HOST_STUB_GL_DELETER(glDeleteVertexArrays)
+HOST_STUB_GL_FUNCTION(glDepthFunc)
+HOST_STUB_GL_FUNCTION(glDepthMask)
+HOST_STUB_GL_FUNCTION(glDisable)
+HOST_STUB_GL_FUNCTION(glDrawElements)
+HOST_STUB_GL_FUNCTION(glDrawElementsInstanced)
+HOST_STUB_GL_FUNCTION(glEnable)
+HOST_STUB_GL_FUNCTION(glEnableVertexAttribArray)
+HOST_STUB_GL_FUNCTION(glEndQuery)
+HOST_STUB_GL_FUNCTION(glFinish)
+HOST_STUB_GL_FUNCTION(glFramebufferRenderbuffer)
+HOST_STUB_GL_FUNCTION(glFramebufferTexture2D)
+HOST_STUB_GL_FUNCTION(glFrontFace)
+HOST_STUB_GL_FUNCTION(glGenBuffers)
+HOST_STUB_GL_FUNCTION(glGenFramebuffers)
+HOST_STUB_GL_FUNCTION(glGenQueries)
+HOST_STUB_GL_FUNCTION(glGenRenderbuffers)
+HOST_STUB_GL_FUNCTION(glGenTextures)
+HOST_STUB_GL_FUNCTION(glGenVertexArrays)
+HOST_STUB_GL_FUNCTION(glGenerateMipmap)
+HOST_STUB_GL_FUNCTION(glGetAttribLocation)
+HOST_STUB_GL_FUNCTION(glGetError)
+HOST_STUB_GL_FUNCTION(glGetIntegerv)
+HOST_STUB_GL_FUNCTION(glGetProgramInfoLog)
+HOST_STUB_GL_FUNCTION(glGetProgramiv)
+HOST_STUB_GL_FUNCTION(glGetQueryObjectuiv)
+HOST_STUB_GL_FUNCTION(glGetShaderInfoLog)
+HOST_STUB_GL_FUNCTION(glGetShaderiv)
+HOST_STUB_GL_FUNCTION(glGetUniformLocation)
+HOST_STUB_GL_FUNCTION(glLinkProgram)
+HOST_STUB_GL_FUNCTION(glPolygonOffset)
+HOST_STUB_GL_FUNCTION(glReadPixels)
+HOST_STUB_GL_FUNCTION(glRenderbufferStorage)
+HOST_STUB_GL_FUNCTION(glRenderbufferStorageMultisample)
+HOST_STUB_GL_FUNCTION(glShaderSource)
+HOST_STUB_GL_FUNCTION(glTexImage2D)
+HOST_STUB_GL_FUNCTION(glTexParameteri)
+HOST_STUB_GL_FUNCTION(glUniform1f)
+HOST_STUB_GL_FUNCTION(glUniform1i)
+HOST_STUB_GL_FUNCTION(glUniform2f)
+HOST_STUB_GL_FUNCTION(glUniform3f)
+HOST_STUB_GL_FUNCTION(glUniform4f)
+HOST_STUB_GL_FUNCTION(glUniformMatrix4fv)
+HOST_STUB_GL_FUNCTION(glUseProgram)
+HOST_STUB_GL_FUNCTION(glVertexAttribDivisor)
+HOST_STUB_GL_FUNCTION(glVertexAttribPointer)
+HOST_STUB_GL_FUNCTION(glViewport)
+
+#endif
@@ -0,0 +1,183 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Times Scene::updateTransforms() on a host, over deep and wide
+ * hierarchies, on the calling thread alone and split one depth at a time
+ * across the worker pool, and checks that every way gives the same
+ * matrices.
+ *
+ * Each frame moves the root, as an AR anchor re-pose would, so every world
+ * matrix in the hierarchy is recomputed.
+ *
+ * Usage: transform_benchmark [objects [frames]]
+ ***************************************************************************/
+
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+#include <vector>
+
+#include "glm/glm.hpp"
+
+#include "objects/scene.h"
+#include "objects/scene_object.h"
+#include "objects/components/transform.h"
+#include "util/gvr_time.h"
+#include "util/gvr_worker_pool.h"
+
+using namespace gvr;
+
+namespace {
+
+// Deterministic, so that every scene built gets the same transforms
+unsigned int seed;
+
+float random(float min, float max) {
+    seed = seed * 1103515245 + 12345;
+    return min + (max - min) * ((seed >> 8) & 0xffff) / 65535.0f;
+}
+
+SceneObject* createObject(SceneObject* parent) {
+    SceneObject* object = new SceneObject();
+    object->attachTransform(object, new Transform());
+    Transform* transform = object->transform();
+    transform->set_position(random(-1.0f, 1.0f), random(-1.0f, 1.0f),
+            random(-1.0f, 1.0f));
+    transform->set_rotation(
+            glm::angleAxis(random(0.0f, 0.5f), glm::vec3(0.0f, 0.0f, 1.0f)));
+    if (parent != 0) {
+        parent->addChildObject(parent, object);
+    }
+    return object;
+}
+
+/*
+ * One root with 'width' chains of 'depth' objects under it: each depth of
+ * the graph has 'width' objects
+ */
+SceneObject* buildHierarchy(Scene* scene, int width, int depth,
+        std::vector<SceneObject*>& objects) {
+    seed = 1;
+    SceneObject* root = createObject(0);
+    scene->addSceneObject(root);
+    objects.push_back(root);
+    for (int i = 0; i < width; ++i) {
+        SceneObject* parent = root;
+        for (int j = 0; j < depth; ++j) {
+            parent = createObject(parent);
+            objects.push_back(parent);
+        }
+    }
+    return root;
+}
+
+// Nothing else owns them: the Java side does, in the app
+void destroy(Scene* scene, std::vector<SceneObject*>& objects) {
+    for (auto it = objects.begin(); it != objects.end(); ++it) {
+        delete (*it)->transform();
+        delete *it;
+    }
+    delete scene;
+}
+
+void moveRoot(SceneObject* root, int frame) {
+    root->transform()->set_position(0.01f * frame, 0.0f, 0.0f);
+}
+
+struct Shape {
+    const char* name;
+    int width;
+    int depth;
+};
+
+bool run(const Shape& shape, int frames) {
+    printf("%s: %d chains of %d\n", shape.name, shape.width, shape.depth);
+
+    // The reference: the serial pass
+    Scene* serial_scene = new Scene();
+    std::vector<SceneObject*> serial_objects;
+    SceneObject* serial_root = buildHierarchy(serial_scene, shape.width,
+            shape.depth, serial_objects);
+    serial_scene->set_parallel_transforms(false);
+
+    double serial_time = 0.0;
+    for (int threads = 0; threads <= WorkerPool::MAX_THREADS;
+            threads = threads == 0 ? 1 : threads * 2) {
+        Scene* scene = new Scene();
+        std::vector<SceneObject*> objects;
+        SceneObject* root = buildHierarchy(scene, shape.width, shape.depth,
+                objects);
+        scene->set_parallel_transforms(threads > 0);
+        scene->set_frame_preparation_threads(threads);
+        scene->updateTransforms();
+
+        long long time = 0;
+        for (int frame = 1; frame <= frames; ++frame) {
+            moveRoot(root, frame);
+            long long start = getCurrentTime();
+            scene->updateTransforms();
+            time += getCurrentTime() - start;
+        }
+
+        // Compare the last frame's matrices
+        moveRoot(serial_root, frames);
+        serial_scene->updateTransforms();
+        for (int i = 0; i < objects.size(); ++i) {
+            glm::mat4 expected(
+                    serial_objects[i]->transform()->computedModelMatrix());
+            glm::mat4 actual(objects[i]->transform()->computedModelMatrix());
+            if (memcmp(&expected, &actual, sizeof(expected)) != 0) {
+                fprintf(stderr, "FAILED: object %d differs with %d threads\n",
+                        i, threads);
+                return false;
+            }
+        }
+
+        double milliseconds = time / 1000000.0 / frames;
+        if (threads == 0) {
+            serial_time = milliseconds;
+            printf("  serial          %8.3f ms/frame\n", milliseconds);
+        } else {
+            printf("  %d threads + 1   %8.3f ms/frame  %5.2fx\n", threads,
+                    milliseconds, serial_time / milliseconds);
+        }
+
+        destroy(scene, objects);
+    }
+
+    destroy(serial_scene, serial_objects);
+    return true;
+}
+}
+
+int main(int argc, char** argv) {
+    int count = argc > 1 ? atoi(argv[1]) : 100000;
+    int frames = argc > 2 ? atoi(argv[2]) : 20;
+
+    printf("%d objects, %d frames, %d cores\n", count, frames,
+            WorkerPool::defaultThreadCount() + 1);
+    Shape shapes[] = {
+            { "deep", 64, count / 64 },
+            { "wide", count / 4, 4 },
+            { "flat", count, 1 } };
+    for (int i = 0; i < sizeof(shapes) / sizeof(shapes[0]); ++i) {
+        if (!run(shapes[i], frames)) {
+            return 1;
+        }
+    }
+    return 0;
+}
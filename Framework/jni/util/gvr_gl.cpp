@@ -0,0 +1,212 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * A cache of OpenGL state, to skip redundant calls.
+ ***************************************************************************/
+
+#include "gvr_gl.h"
+
+#include <GLES2/gl2ext.h>
+
+namespace gvr {
+
+namespace {
+// Not a name GL ever hands out
+const GLuint UNKNOWN = ~0u;
+const GLenum UNKNOWN_ENUM = ~0u;
+}
+
+GLuint GLState::program_ = UNKNOWN;
+GLenum GLState::active_texture_ = UNKNOWN_ENUM;
+GLuint GLState::textures_[MAX_TEXTURE_UNITS][TEXTURE_TARGETS];
+GLuint GLState::vertex_array_ = UNKNOWN;
+int GLState::capabilities_[CAPABILITIES] = { -1, -1, -1, -1 };
+GLenum GLState::cull_face_ = UNKNOWN_ENUM;
+GLenum GLState::depth_function_ = UNKNOWN_ENUM;
+GLenum GLState::blend_source_ = UNKNOWN_ENUM;
+GLenum GLState::blend_destination_ = UNKNOWN_ENUM;
+bool GLState::polygon_offset_known_ = false;
+GLfloat GLState::polygon_offset_factor_ = 0.0f;
+GLfloat GLState::polygon_offset_units_ = 0.0f;
+long long GLState::issued_ = 0;
+long long GLState::elided_ = 0;
+
+void GLState::invalidate() {
+    program_ = UNKNOWN;
+    active_texture_ = UNKNOWN_ENUM;
+    for (int unit = 0; unit < MAX_TEXTURE_UNITS; ++unit) {
+        for (int target = 0; target < TEXTURE_TARGETS; ++target) {
+            textures_[unit][target] = UNKNOWN;
+        }
+    }
+    vertex_array_ = UNKNOWN;
+    for (int capability = 0; capability < CAPABILITIES; ++capability) {
+        capabilities_[capability] = -1;
+    }
+    cull_face_ = UNKNOWN_ENUM;
+    depth_function_ = UNKNOWN_ENUM;
+    blend_source_ = blend_destination_ = UNKNOWN_ENUM;
+    polygon_offset_known_ = false;
+}
+
+void GLState::useProgram(GLuint program) {
+    if (program == program_) {
+        ++elided_;
+        return;
+    }
+    glUseProgram(program);
+    program_ = program;
+    ++issued_;
+}
+
+void GLState::activeTexture(GLenum unit) {
+    if (unit == active_texture_) {
+        ++elided_;
+        return;
+    }
+    glActiveTexture(unit);
+    active_texture_ = unit;
+    ++issued_;
+}
+
+int GLState::textureTargetIndex(GLenum target) {
+    switch (target) {
+    case GL_TEXTURE_2D:
+        return 0;
+    case GL_TEXTURE_CUBE_MAP:
+        return 1;
+    case GL_TEXTURE_EXTERNAL_OES:
+        return 2;
+    default:
+        return -1;
+    }
+}
+
+void GLState::bindTexture(GLenum target, GLuint texture) {
+    int unit = active_texture_ - GL_TEXTURE0;
+    int index = textureTargetIndex(target);
+    if (active_texture_ == UNKNOWN_ENUM || unit >= MAX_TEXTURE_UNITS
+            || index < 0) {
+        glBindTexture(target, texture);
+        ++issued_;
+        return;
+    }
+    if (textures_[unit][index] == texture) {
+        ++elided_;
+        return;
+    }
+    glBindTexture(target, texture);
+    textures_[unit][index] = texture;
+    ++issued_;
+}
+
+void GLState::bindVertexArray(GLuint vertex_array) {
+    if (vertex_array == vertex_array_) {
+        ++elided_;
+        return;
+    }
+    glBindVertexArray(vertex_array);
+    vertex_array_ = vertex_array;
+    ++issued_;
+}
+
+int GLState::capabilityIndex(GLenum capability) {
+    switch (capability) {
+    case GL_BLEND:
+        return BLEND;
+    case GL_CULL_FACE:
+        return CULL_FACE;
+    case GL_DEPTH_TEST:
+        return DEPTH_TEST;
+    case GL_POLYGON_OFFSET_FILL:
+        return POLYGON_OFFSET_FILL;
+    default:
+        return -1;
+    }
+}
+
+void GLState::setCapability(GLenum capability, bool enabled) {
+    int index = capabilityIndex(capability);
+    if (index >= 0 && capabilities_[index] == (enabled ? 1 : 0)) {
+        ++elided_;
+        return;
+    }
+    if (enabled) {
+        glEnable(capability);
+    } else {
+        glDisable(capability);
+    }
+    if (index >= 0) {
+        capabilities_[index] = enabled ? 1 : 0;
+    }
+    ++issued_;
+}
+
+void GLState::enable(GLenum capability) {
+    setCapability(capability, true);
+}
+
+void GLState::disable(GLenum capability) {
+    setCapability(capability, false);
+}
+
+void GLState::cullFace(GLenum mode) {
+    if (mode == cull_face_) {
+        ++elided_;
+        return;
+    }
+    glCullFace(mode);
+    cull_face_ = mode;
+    ++issued_;
+}
+
+void GLState::depthFunc(GLenum function) {
+    if (function == depth_function_) {
+        ++elided_;
+        return;
+    }
+    glDepthFunc(function);
+    depth_function_ = function;
+    ++issued_;
+}
+
+void GLState::blendFunc(GLenum source_factor, GLenum destination_factor) {
+    if (source_factor == blend_source_
+            && destination_factor == blend_destination_) {
+        ++elided_;
+        return;
+    }
+    glBlendFunc(source_factor, destination_factor);
+    blend_source_ = source_factor;
+    blend_destination_ = destination_factor;
+    ++issued_;
+}
+
+void GLState::polygonOffset(GLfloat factor, GLfloat units) {
+    if (polygon_offset_known_ && factor == polygon_offset_factor_
+            && units == polygon_offset_units_) {
+        ++elided_;
+        return;
+    }
+    glPolygonOffset(factor, units);
+    polygon_offset_known_ = true;
+    polygon_offset_factor_ = factor;
+    polygon_offset_units_ = units;
+    ++issued_;
+}
+
+}
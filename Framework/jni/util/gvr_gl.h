@@ -42,5 +42,90 @@ static void checkGlError(const char* op) {
     }
 }
 
+/*
+ * A shadow of the GL state the renderer changes most: the program, the
+ * active texture unit and each unit's 2D, cube map and external textures,
+ * the vertex array, and the blend, depth test, face culling and polygon
+ * offset state. Each call goes to GL only if it changes something.
+ *
+ * The shadow is only as good as the discipline around it: GL thread only,
+ * and code that changes this state directly must call invalidate() before
+ * the cache is used again. The renderer invalidates at the start of each
+ * camera, because the VR framework (and resource loading between frames)
+ * doesn't go through the cache; GlDelete invalidates after deleting
+ * anything, so that a recycled name is bound again.
+ */
+class GLState {
+public:
+    static void useProgram(GLuint program);
+    static void activeTexture(GLenum unit);
+    static void bindTexture(GLenum target, GLuint texture);
+    static void bindVertexArray(GLuint vertex_array);
+
+    /*
+     * GL_BLEND, GL_CULL_FACE, GL_DEPTH_TEST and GL_POLYGON_OFFSET_FILL are
+     * cached; other capabilities go straight through
+     */
+    static void enable(GLenum capability);
+    static void disable(GLenum capability);
+    static void setEnabled(GLenum capability, bool enabled) {
+        if (enabled) {
+            enable(capability);
+        } else {
+            disable(capability);
+        }
+    }
+
+    static void cullFace(GLenum mode);
+    static void depthFunc(GLenum function);
+    static void blendFunc(GLenum source_factor, GLenum destination_factor);
+    static void polygonOffset(GLfloat factor, GLfloat units);
+
+    /*
+     * Forget everything: the next call of each kind goes to GL
+     */
+    static void invalidate();
+
+    static long long getIssuedCount() {
+        return issued_;
+    }
+    static long long getElidedCount() {
+        return elided_;
+    }
+    static void resetCounts() {
+        issued_ = elided_ = 0;
+    }
+
+private:
+    GLState();
+
+    static const int MAX_TEXTURE_UNITS = 32;
+    static const int TEXTURE_TARGETS = 3;
+    enum Capability {
+        BLEND, CULL_FACE, DEPTH_TEST, POLYGON_OFFSET_FILL, CAPABILITIES
+    };
+
+    static int textureTargetIndex(GLenum target);
+    static int capabilityIndex(GLenum capability);
+    static void setCapability(GLenum capability, bool enabled);
+
+    static GLuint program_;
+    static GLenum active_texture_;
+    static GLuint textures_[MAX_TEXTURE_UNITS][TEXTURE_TARGETS];
+    static GLuint vertex_array_;
+    // -1 is unknown
+    static int capabilities_[CAPABILITIES];
+    static GLenum cull_face_;
+    static GLenum depth_function_;
+    static GLenum blend_source_;
+    static GLenum blend_destination_;
+    static bool polygon_offset_known_;
+    static GLfloat polygon_offset_factor_;
+    static GLfloat polygon_offset_units_;
+
+    static long long issued_;
+    static long long elided_;
+};
+
 }
 #endif
@@ -0,0 +1,137 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * A pool of native worker threads, for splitting CPU work across cores.
+ ***************************************************************************/
+
+#include "gvr_worker_pool.h"
+
+#include <algorithm>
+#include <unistd.h>
+
+#include "util/gvr_log.h"
+
+namespace gvr {
+
+pthread_mutex_t WorkerPool::caller_mutex_ = PTHREAD_MUTEX_INITIALIZER;
+pthread_mutex_t WorkerPool::mutex_ = PTHREAD_MUTEX_INITIALIZER;
+pthread_cond_t WorkerPool::work_available_ = PTHREAD_COND_INITIALIZER;
+pthread_cond_t WorkerPool::work_done_ = PTHREAD_COND_INITIALIZER;
+int WorkerPool::started_threads_ = 0;
+int WorkerPool::busy_threads_ = 0;
+unsigned int WorkerPool::generation_ = 0;
+ParallelTask* WorkerPool::task_ = 0;
+int WorkerPool::count_ = 0;
+int WorkerPool::chunks_ = 0;
+std::atomic<int> WorkerPool::next_chunk_(0);
+
+int WorkerPool::defaultThreadCount() {
+    long cores = sysconf(_SC_NPROCESSORS_CONF);
+    return std::max(0L, std::min(cores - 1, static_cast<long>(MAX_THREADS)));
+}
+
+int WorkerPool::chunkCount(int count, int threads, int min_chunk_size) {
+    threads = std::max(0, std::min(threads, static_cast<int>(MAX_THREADS)));
+    min_chunk_size = std::max(1, min_chunk_size);
+    int chunks = std::min(threads + 1,
+            (count + min_chunk_size - 1) / min_chunk_size);
+    return std::max(1, chunks);
+}
+
+void WorkerPool::parallelFor(int count, int threads, int min_chunk_size,
+        ParallelTask& task) {
+    if (count <= 0) {
+        return;
+    }
+
+    int chunks = chunkCount(count, threads, min_chunk_size);
+    if (chunks == 1) {
+        task.run(0, 0, count);
+        return;
+    }
+
+    pthread_mutex_lock(&caller_mutex_);
+    startThreads(chunks - 1);
+
+    pthread_mutex_lock(&mutex_);
+    task_ = &task;
+    count_ = count;
+    chunks_ = chunks;
+    next_chunk_ = 0;
+    ++generation_;
+    pthread_cond_broadcast(&work_available_);
+    pthread_mutex_unlock(&mutex_);
+
+    runChunks();
+
+    // Every chunk has been taken; wait for the threads still running one
+    pthread_mutex_lock(&mutex_);
+    while (busy_threads_ > 0) {
+        pthread_cond_wait(&work_done_, &mutex_);
+    }
+    task_ = 0;
+    pthread_mutex_unlock(&mutex_);
+
+    pthread_mutex_unlock(&caller_mutex_);
+}
+
+void WorkerPool::startThreads(int threads) {
+    while (started_threads_ < threads) {
+        pthread_t thread;
+        if (pthread_create(&thread, 0, threadMain, 0) != 0) {
+            LOGE("WorkerPool::startThreads() : pthread_create failed");
+            return;
+        }
+        pthread_detach(thread);
+        ++started_threads_;
+    }
+}
+
+void* WorkerPool::threadMain(void* unused) {
+    unsigned int seen_generation = 0;
+    pthread_mutex_lock(&mutex_);
+    for (;;) {
+        while (task_ == 0 || generation_ == seen_generation) {
+            pthread_cond_wait(&work_available_, &mutex_);
+        }
+        seen_generation = generation_;
+        ++busy_threads_;
+        pthread_mutex_unlock(&mutex_);
+
+        runChunks();
+
+        pthread_mutex_lock(&mutex_);
+        if (--busy_threads_ == 0) {
+            pthread_cond_signal(&work_done_);
+        }
+    }
+    return 0;
+}
+
+void WorkerPool::runChunks() {
+    for (;;) {
+        int chunk = next_chunk_++;
+        if (chunk >= chunks_) {
+            return;
+        }
+        int begin = static_cast<long long>(count_) * chunk / chunks_;
+        int end = static_cast<long long>(count_) * (chunk + 1) / chunks_;
+        task_->run(chunk, begin, end);
+    }
+}
+
+}
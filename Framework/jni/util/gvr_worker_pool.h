@@ -0,0 +1,104 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * A pool of native worker threads, for splitting CPU work across cores.
+ ***************************************************************************/
+
+#ifndef GVR_WORKER_POOL_H_
+#define GVR_WORKER_POOL_H_
+
+#include <atomic>
+#include <pthread.h>
+
+namespace gvr {
+
+/*
+ * A piece of work that can be split into chunks of items.
+ */
+class ParallelTask {
+public:
+    virtual ~ParallelTask() {
+    }
+
+    /*
+     * Handles items [begin, end), which make up chunk number 'chunk'. Chunks
+     * may run at the same time, on any thread (the caller's included), in
+     * any order.
+     */
+    virtual void run(int chunk, int begin, int end) = 0;
+};
+
+/*
+ * The threads are started as they are first needed, and then live as long as
+ * the process, waiting for work.
+ *
+ * How items are split into chunks depends only on the item count, the thread
+ * count and the minimum chunk size, so a task that writes each chunk's
+ * results to a separate buffer, and joins the buffers in chunk order,
+ * produces the same output whatever the thread count (including 0).
+ */
+class WorkerPool {
+public:
+    static const int MAX_THREADS = 8;
+
+    /*
+     * One thread per core, besides the caller's
+     */
+    static int defaultThreadCount();
+
+    /*
+     * The number of chunks parallelFor() will split 'count' items into
+     */
+    static int chunkCount(int count, int threads, int min_chunk_size);
+
+    /*
+     * Runs the task over [0, count), with up to 'threads' worker threads
+     * helping the calling thread, and returns when every chunk is done.
+     * Chunks have at least min_chunk_size items (unless there are fewer
+     * items than that), so small jobs don't pay for waking threads.
+     */
+    static void parallelFor(int count, int threads, int min_chunk_size,
+            ParallelTask& task);
+
+private:
+    WorkerPool();
+
+    static void startThreads(int threads);
+    static void* threadMain(void* unused);
+    static void runChunks();
+
+private:
+    // One parallelFor() at a time
+    static pthread_mutex_t caller_mutex_;
+
+    // Guards everything below, except next_chunk_
+    static pthread_mutex_t mutex_;
+    static pthread_cond_t work_available_;
+    static pthread_cond_t work_done_;
+    static int started_threads_;
+    static int busy_threads_;
+    static unsigned int generation_;
+
+    // The current job
+    static ParallelTask* task_;
+    static int count_;
+    static int chunks_;
+    static std::atomic<int> next_chunk_;
+};
+
+}
+#endif
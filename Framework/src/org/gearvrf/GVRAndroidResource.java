@@ -264,6 +264,38 @@ public class GVRAndroidResource {
         return null;
     }
 
+    /**
+     * A string that identifies the resource (not its stream) and that is
+     * stable across runs, for use as a persistent cache key.
+     * 
+     * <p>
+     * This is an internal method, public only so it can be called across
+     * package boundaries. Note that {@code R} ids can change from build to
+     * build: persistent caches should also check the app's install time.
+     * 
+     * @return A key like {@code "file:/sdcard/foo.png"},
+     *         {@code "res:7f020000"} or {@code "asset:foo/bar.png"}
+     */
+    public String getResourceKey() {
+        if (filePath != null) {
+            return "file:" + filePath;
+        } else if (resourceId != 0) {
+            return "res:" + Integer.toHexString(resourceId);
+        } else {
+            return "asset:" + assetPath;
+        }
+    }
+
+    /**
+     * The Linux file path, for resources opened with
+     * {@link #GVRAndroidResource(String)} or {@link #GVRAndroidResource(File)}
+     * 
+     * @return File path, or {@code null} for assets and {@code res} resources
+     */
+    public String getFilePath() {
+        return filePath;
+    }
+
     /*
      * Auto-generated hashCode() and equals(), for container support &c.
      * 
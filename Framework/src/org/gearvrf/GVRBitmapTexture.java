@@ -119,6 +119,7 @@ public class GVRBitmapTexture extends GVRTexture {
                 || grayscaleData.length < height * width) {
             throw new IllegalArgumentException();
         }
+        setEstimatedSize(width * height);
         return NativeBaseTexture.update(getNative(), width, height,
                 grayscaleData);
     }
@@ -145,6 +146,7 @@ public class GVRBitmapTexture extends GVRTexture {
      * @since 1.6.3
      */
     public boolean update(Bitmap bitmap) {
+        setEstimatedSize(bitmap.getByteCount());
         glBindTexture(GL_TEXTURE_2D, getId());
         GLUtils.texImage2D(GL_TEXTURE_2D, 0, bitmap, 0);
         return (glGetError() == GL_NO_ERROR);
@@ -65,6 +65,21 @@ class GVRComponent extends GVRHybridObject {
         super(gvrContext, nativePointer, cleanupHandlers);
     }
 
+    /**
+     * Constructor for a wrapper that does not own its native object.
+     * 
+     * @param gvrContext
+     *            The current GVRF context
+     * @param nativePointer
+     *            The native pointer
+     * @param owner
+     *            The object that owns the native object
+     */
+    GVRComponent(GVRContext gvrContext, long nativePointer,
+            GVRHybridObject owner) {
+        super(gvrContext, nativePointer, owner);
+    }
+
     protected GVRSceneObject owner;
 
     /**
@@ -15,6 +15,7 @@
 
 package org.gearvrf;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
@@ -194,7 +195,29 @@ public abstract class GVRContext {
         return mesh;
     }
 
-    private final static ResourceCache<GVRMesh> sMeshCache = new ResourceCache<GVRMesh>();
+    private final static ResourceCache<GVRMesh> sMeshCache = new ResourceCache<GVRMesh>(
+            new ResourceCache.SizeEstimator<GVRMesh>() {
+                @Override
+                public long estimateSize(GVRMesh mesh) {
+                    return mesh.getEstimatedSize();
+                }
+            });
+
+    /**
+     * The cache that {@link #loadMesh(GVRAndroidResource)} and the other
+     * mesh-loading methods share.
+     * 
+     * <p>
+     * By default, this only remembers meshes that are still in use: call
+     * {@link ResourceCache#setMaxBytes(long) setMaxBytes()} to keep recently
+     * used meshes alive. The cache's hit, miss and eviction counts can be
+     * useful in tuning that budget.
+     * 
+     * @return The global mesh cache
+     */
+    public ResourceCache<GVRMesh> getMeshCache() {
+        return sMeshCache;
+    }
 
     /**
      * Loads a mesh file, asynchronously, at a default priority.
@@ -886,7 +909,53 @@ public abstract class GVRContext {
         return texture;
     }
 
-    private final static ResourceCache<GVRTexture> sTextureCache = new ResourceCache<GVRTexture>();
+    private final static ResourceCache<GVRTexture> sTextureCache = new ResourceCache<GVRTexture>(
+            new ResourceCache.SizeEstimator<GVRTexture>() {
+                @Override
+                public long estimateSize(GVRTexture texture) {
+                    return texture.getEstimatedSize();
+                }
+            });
+
+    /**
+     * The cache that {@link #loadTexture(GVRAndroidResource)} and the other
+     * texture-loading methods share.
+     * 
+     * <p>
+     * By default, this only remembers textures that are still in use: call
+     * {@link ResourceCache#setMaxBytes(long) setMaxBytes()} to keep recently
+     * used textures alive, so that looking back at content doesn't mean
+     * decoding and uploading it again. The cache's hit, miss and eviction
+     * counts can be useful in tuning that budget.
+     * 
+     * @return The global texture cache
+     */
+    public ResourceCache<GVRTexture> getTextureCache() {
+        return sTextureCache;
+    }
+
+    /**
+     * Enable or disable the persistent cache of decoded bitmap textures.
+     * 
+     * <p>
+     * When enabled, the asynchronous bitmap texture loaders (like
+     * {@link #loadTexture(TextureCallback, GVRAndroidResource)}) save the
+     * decoded pixels of each texture in the app's cache directory, so that
+     * later loads - including loads in later runs - can skip decoding.
+     * Compressed textures are not affected.
+     * 
+     * @param maxBytes
+     *            Maximum size of the cache, in bytes; 0 disables the cache,
+     *            which is the default. The least recently used textures are
+     *            deleted when the cache grows past this size.
+     */
+    public void setTextureDiskCacheSize(long maxBytes) {
+        GVRAsynchronousResourceLoader.setTextureDiskCache(this, new File(
+                getContext().getCacheDir(), TEXTURE_DISK_CACHE_DIRECTORY),
+                maxBytes);
+    }
+
+    private static final String TEXTURE_DISK_CACHE_DIRECTORY = "gvrf-textures";
 
     /**
      * Loads a cube map texture synchronously.
@@ -1224,6 +1293,54 @@ public abstract class GVRContext {
                 sTextureCache, callback, resource, quality);
     }
 
+    /**
+     * Load a compressed texture, asynchronously, streaming its mipmap levels.
+     * 
+     * Formats with a mipmap chain (currently, KTX) upload their smallest
+     * levels first: {@code callback} gets a usable (but blurry) texture
+     * immediately, and the finer levels are uploaded one per frame after
+     * that. Single-level formats behave exactly like
+     * {@link #loadCompressedTexture(GVRAndroidResource.CompressedTextureCallback, GVRAndroidResource, int)}
+     * .
+     * 
+     * <p>
+     * Note that textures are cached by resource: if you load the same
+     * resource with different {@code maxSize} values, you may get the texture
+     * from the first load.
+     * 
+     * @param callback
+     *            Successful loads will call
+     *            {@link GVRAndroidResource.Callback#loaded(GVRHybridObject, GVRAndroidResource)}
+     *            on the GL thread; any errors will call
+     *            {@link GVRAndroidResource.CompressedTextureCallback#failed(Throwable, GVRAndroidResource)}
+     *            , with no promises about threading.
+     * @param resource
+     *            Basically, a stream containing a compressed texture. The
+     *            {@link GVRAndroidResource} class has six constructors to
+     *            handle a wide variety of Android resource types. Taking a
+     *            {@code GVRAndroidResource} here eliminates six overloads.
+     * @param quality
+     *            Speed/quality tradeoff: should be one of
+     *            {@link GVRCompressedTexture#SPEED},
+     *            {@link GVRCompressedTexture#BALANCED}, or
+     *            {@link GVRCompressedTexture#QUALITY}, but other values are
+     *            'clamped' to one of the recognized values.
+     * @param maxSize
+     *            Quality cap: mipmap levels wider or taller than this many
+     *            pixels are never uploaded, so distant objects don't pay for
+     *            detail they can't show. {@code 0} means 'no limit.'
+     * 
+     * @throws IllegalArgumentException
+     *             If {@code maxSize} is negative, or if you 'abuse' request
+     *             consolidation; see
+     *             {@link #loadCompressedTexture(GVRAndroidResource.CompressedTextureCallback, GVRAndroidResource, int)}
+     */
+    public void loadCompressedTexture(CompressedTextureCallback callback,
+            GVRAndroidResource resource, int quality, int maxSize) {
+        GVRAsynchronousResourceLoader.loadCompressedTexture(this,
+                sTextureCache, callback, resource, quality, maxSize);
+    }
+
     /**
      * A simplified, low-level method that loads a texture asynchronously,
      * without making you specify
@@ -38,6 +38,12 @@ public class GVRCubemapTexture extends GVRTexture {
     public GVRCubemapTexture(GVRContext gvrContext, Bitmap[] bitmapArray) {
         super(gvrContext, NativeCubemapTexture
                 .bitmapArrayConstructor(bitmapArray));
+
+        long bytes = 0;
+        for (Bitmap bitmap : bitmapArray) {
+            bytes += bitmap.getByteCount();
+        }
+        setEstimatedSize(bytes);
     }
 
     /**
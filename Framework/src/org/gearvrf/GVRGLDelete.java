@@ -0,0 +1,76 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+/**
+ * Control and monitor GL resource reclamation.
+ * 
+ * When a native object that owns GL resources (buffers, textures, vertex
+ * arrays, ...) is deleted, its GL names are queued and deleted on the GL
+ * thread, once per frame. Deletion is frame-budgeted: each frame deletes at
+ * most a fixed number of objects, and stops once a fixed amount of time has
+ * been spent, leaving the rest for later frames.
+ */
+public final class GVRGLDelete {
+    private GVRGLDelete() {
+    }
+
+    /** Default for {@link #setFrameBudget(int, int)} */
+    public static final int DEFAULT_MAX_OBJECTS_PER_FRAME = 256;
+    /** Default for {@link #setFrameBudget(int, int)} */
+    public static final int DEFAULT_MAX_MICROSECONDS_PER_FRAME = 1000;
+
+    /** The kinds of GL objects that get queued for deletion */
+    public enum ResourceType {
+        BUFFER, FRAME_BUFFER, PROGRAM, RENDER_BUFFER, SHADER, TEXTURE, VERTEX_ARRAY, QUERY
+    }
+
+    /**
+     * Set the per-frame deletion budget.
+     * 
+     * @param maxObjects
+     *            The most GL objects deleted in any one frame; 0 means no
+     *            limit.
+     * @param maxMicroseconds
+     *            After this much time, no more deletions are started until the
+     *            next frame; 0 means no limit.
+     */
+    public static void setFrameBudget(int maxObjects, int maxMicroseconds) {
+        NativeGLDelete.setFrameBudget(maxObjects, maxMicroseconds);
+    }
+
+    /**
+     * How many GL objects of a given type are waiting to be deleted?
+     * 
+     * @param type
+     *            Resource type
+     * @return Current queue length
+     */
+    public static int getPendingCount(ResourceType type) {
+        return NativeGLDelete.getPendingCount(type.ordinal());
+    }
+
+    /**
+     * How many GL objects of a given type have been deleted so far?
+     * 
+     * @param type
+     *            Resource type
+     * @return Running total
+     */
+    public static long getReclaimedCount(ResourceType type) {
+        return NativeGLDelete.getReclaimedCount(type.ordinal());
+    }
+}
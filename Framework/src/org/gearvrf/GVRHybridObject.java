@@ -21,10 +21,12 @@ import java.lang.ref.PhantomReference;
 import java.lang.ref.ReferenceQueue;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.gearvrf.utility.Log;
 
@@ -49,6 +51,11 @@ public abstract class GVRHybridObject implements Closeable {
      * called multiple times.
      */
     private long mNativePointer;
+    /**
+     * The object that owns the native object, for a wrapper that doesn't: a
+     * hard reference, so the owner lives at least as long as the wrapper.
+     */
+    private final GVRHybridObject mOwner;
 
     /*
      * Constructors
@@ -63,7 +70,7 @@ public abstract class GVRHybridObject implements Closeable {
      *            The native pointer, returned by the native constructor
      */
     protected GVRHybridObject(GVRContext gvrContext, long nativePointer) {
-        this(gvrContext, nativePointer, null);
+        this(gvrContext, nativePointer, (List<NativeCleanupHandler>) null);
     }
 
     /**
@@ -92,9 +99,30 @@ public abstract class GVRHybridObject implements Closeable {
             List<NativeCleanupHandler> cleanupHandlers) {
         mGVRContext = gvrContext;
         mNativePointer = nativePointer;
+        mOwner = null;
 
-        sReferenceSet
-                .add(new GVRReference(this, nativePointer, cleanupHandlers));
+        register(new GVRReference(this, nativePointer, cleanupHandlers));
+    }
+
+    /**
+     * Constructor for a wrapper that does not own its native object, like the
+     * nodes of a {@link GVRSceneGraph}: the owner deletes it. The wrapper is
+     * not registered, so it is never finalized and {@link #close()} does
+     * nothing.
+     * 
+     * @param gvrContext
+     *            The current GVRF context
+     * @param nativePointer
+     *            The native pointer
+     * @param owner
+     *            The object that owns the native object. The wrapper keeps
+     *            it alive.
+     */
+    GVRHybridObject(GVRContext gvrContext, long nativePointer,
+            GVRHybridObject owner) {
+        mGVRContext = gvrContext;
+        mNativePointer = nativePointer;
+        mOwner = owner;
     }
 
     /*
@@ -209,12 +237,16 @@ public abstract class GVRHybridObject implements Closeable {
      * We need hard references to {@linkplain GVRReference our references} -
      * otherwise, the references get garbage collected (usually before their
      * objects) and never get enqueued.
+     * 
+     * <p>
+     * Keyed by native pointer, so that {@link #close()} can find its
+     * reference without a scan. The constructor thread(s), the finalize
+     * thread and {@link #close()} all modify this map, so it has to be
+     * concurrent.
      */
-    private static final Set<GVRReference> sReferenceSet = new HashSet<GVRReference>();
-
-    static {
-        new GVRFinalizeThread();
-    }
+    private static final ConcurrentMap<Long, NativeShare> sReferenceMap = new ConcurrentHashMap<Long, NativeShare>();
+    /** Live wrapper count, per concrete wrapper class */
+    private static final ConcurrentMap<Class<?>, AtomicInteger> sLiveCounts = new ConcurrentHashMap<Class<?>, AtomicInteger>();
 
     /** Optional after-finalization callback to 'deregister' native pointers. */
     protected interface NativeCleanupHandler {
@@ -288,12 +320,68 @@ public abstract class GVRHybridObject implements Closeable {
         }
     }
 
+    /**
+     * The references to one native object. There should be a 1:1
+     * relationship between wrappers and native objects, but when there are
+     * more wrappers, they share ownership: the native object is deleted with
+     * the last of them, never under a wrapper that is still alive.
+     */
+    private static class NativeShare {
+        /** Usually the only reference */
+        private GVRReference mFirst;
+        /** Any references registered later, for the same native object */
+        private List<GVRReference> mOthers;
+        private int mCount;
+
+        private NativeShare(GVRReference first) {
+            mFirst = first;
+            mCount = 1;
+        }
+
+        /**
+         * @return {@code false} if the last reference has already been
+         *         removed: the native object is being deleted.
+         */
+        private synchronized boolean add(GVRReference reference) {
+            if (mCount == 0) {
+                return false;
+            }
+            if (mOthers == null) {
+                mOthers = new ArrayList<GVRReference>(1);
+            }
+            mOthers.add(reference);
+            ++mCount;
+            return true;
+        }
+
+        /** @return {@code true} if that was the last reference */
+        private synchronized boolean remove(GVRReference reference) {
+            if (mFirst == reference) {
+                mFirst = null;
+            } else {
+                mOthers.remove(reference);
+            }
+            return --mCount == 0;
+        }
+
+        /** @return The only reference, or {@code null} if it is shared */
+        private synchronized GVRReference getSole() {
+            if (mCount != 1) {
+                return null;
+            }
+            return mFirst != null ? mFirst : mOthers.get(0);
+        }
+    }
+
     private static class GVRReference extends PhantomReference<GVRHybridObject> {
 
         // private static final String TAG = Log.tag(GVRReference.class);
 
-        private long mNativePointer;
+        private final long mNativePointer;
         private final List<NativeCleanupHandler> mCleanupHandlers;
+        private final AtomicInteger mLiveCount;
+        /** Null until registered, and once released */
+        private NativeShare mShare;
 
         private GVRReference(GVRHybridObject object, long nativePointer,
                 List<NativeCleanupHandler> cleanupHandlers) {
@@ -301,26 +389,80 @@ public abstract class GVRHybridObject implements Closeable {
 
             mNativePointer = nativePointer;
             mCleanupHandlers = cleanupHandlers;
+            mLiveCount = getLiveCount(object.getClass());
         }
 
         private void close() {
-            if (mNativePointer != 0) {
-                if (mCleanupHandlers != null) {
-                    for (NativeCleanupHandler handler : mCleanupHandlers) {
-                        handler.nativeCleanup(mNativePointer);
-                    }
-                }
-                NativeHybridObject.delete(mNativePointer);
+            long nativePointer = release();
+            if (nativePointer != 0) {
+                NativeHybridObject.delete(nativePointer);
+                sNativeDeletes.incrementAndGet();
+            }
+        }
+
+        /**
+         * Unregister and, if this was the last reference to the native
+         * object, run the cleanup handlers; but leave deleting the native
+         * object to the caller.
+         * 
+         * @return The native pointer to delete, or 0 if there is nothing left
+         *         to delete.
+         */
+        private long release() {
+            NativeShare share = mShare;
+            if (share == null) {
+                return 0;
             }
+            mShare = null;
+            mLiveCount.decrementAndGet();
+            if (!share.remove(this)) {
+                // Other wrappers still use it
+                return 0;
+            }
+            sReferenceMap.remove(mNativePointer, share);
 
-            sReferenceSet.remove(this);
+            if (mCleanupHandlers != null) {
+                for (NativeCleanupHandler handler : mCleanupHandlers) {
+                    handler.nativeCleanup(mNativePointer);
+                }
+            }
+            return mNativePointer;
         }
     }
 
+    /** Default for {@link #setFinalizeBatchSize(int)} */
+    public static final int DEFAULT_FINALIZE_BATCH_SIZE = 256;
+    /** Default for {@link #setFinalizeFlushInterval(long)} */
+    public static final long DEFAULT_FINALIZE_FLUSH_INTERVAL = 100;
+
+    private static volatile int sFinalizeBatchSize = DEFAULT_FINALIZE_BATCH_SIZE;
+    private static volatile long sFinalizeFlushInterval = DEFAULT_FINALIZE_FLUSH_INTERVAL;
+
+    /** Native deletes so far, both batched and from {@link #close()} */
+    private static final AtomicLong sNativeDeletes = new AtomicLong();
+    /** Reclaimed native pointers waiting for the next batch delete */
+    private static final AtomicInteger sPendingDeletes = new AtomicInteger();
+    private static volatile float sNativeDeleteRate;
+    private static volatile long sNativeDeleteRateTime;
+
+    /** Rate samples are taken over (at least) this many nanoseconds */
+    private static final long RATE_WINDOW = 1000L * 1000L * 1000L;
+
+    static {
+        new GVRFinalizeThread();
+    }
+
     private static class GVRFinalizeThread extends Thread {
 
         // private static final String TAG = Log.tag(GVRFinalizeThread.class);
 
+        private long[] mBatch = new long[sFinalizeBatchSize];
+        private int mBatchCount = 0;
+        private long mFlushDeadline;
+
+        private long mRateWindowStart = System.nanoTime();
+        private long mRateWindowDeletes = 0;
+
         private GVRFinalizeThread() {
             setName("GVRF Finalize Thread");
             setPriority(MAX_PRIORITY);
@@ -331,14 +473,159 @@ public abstract class GVRHybridObject implements Closeable {
         public void run() {
             try {
                 while (true) {
-                    GVRReference reference = (GVRReference) sReferenceQueue
-                            .remove();
-                    reference.close();
+                    GVRReference reference;
+                    if (mBatchCount == 0) {
+                        reference = (GVRReference) sReferenceQueue.remove();
+                    } else {
+                        long timeout = (mFlushDeadline - System.nanoTime()) / 1000000L;
+                        reference = timeout > 0 ? (GVRReference) sReferenceQueue
+                                .remove(timeout) : null;
+                    }
+
+                    if (reference != null) {
+                        add(reference.release());
+                    }
+
+                    if (mBatchCount > 0
+                            && (mBatchCount >= sFinalizeBatchSize || System
+                                    .nanoTime() >= mFlushDeadline)) {
+                        flush();
+                    }
                 }
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
         }
+
+        private void add(long nativePointer) {
+            if (nativePointer == 0) {
+                return;
+            }
+            if (mBatchCount == 0) {
+                mFlushDeadline = System.nanoTime() + sFinalizeFlushInterval
+                        * 1000000L;
+            }
+            if (mBatchCount == mBatch.length) {
+                long[] batch = new long[Math.max(1, mBatch.length * 2)];
+                System.arraycopy(mBatch, 0, batch, 0, mBatchCount);
+                mBatch = batch;
+            }
+            mBatch[mBatchCount++] = nativePointer;
+            sPendingDeletes.incrementAndGet();
+        }
+
+        private void flush() {
+            NativeHybridObject.deleteBatch(mBatch, mBatchCount);
+            sPendingDeletes.addAndGet(-mBatchCount);
+            long deletes = sNativeDeletes.addAndGet(mBatchCount);
+            mBatchCount = 0;
+
+            int batchSize = sFinalizeBatchSize;
+            if (mBatch.length != batchSize) {
+                mBatch = new long[batchSize];
+            }
+
+            long now = System.nanoTime();
+            long elapsed = now - mRateWindowStart;
+            if (elapsed >= RATE_WINDOW) {
+                sNativeDeleteRate = (deletes - mRateWindowDeletes) * 1e9f
+                        / elapsed;
+                sNativeDeleteRateTime = now;
+                mRateWindowStart = now;
+                mRateWindowDeletes = deletes;
+            }
+        }
+    }
+
+    /**
+     * Set the number of reclaimed native objects the finalize thread collects
+     * before deleting them all in a single JNI call.
+     * 
+     * <p>
+     * Larger batches mean fewer JNI transitions, at the cost of holding on to
+     * native memory a little longer.
+     * 
+     * @param batchSize
+     *            Maximum batch size; must be positive. The default is
+     *            {@link #DEFAULT_FINALIZE_BATCH_SIZE}.
+     */
+    public static void setFinalizeBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        sFinalizeBatchSize = batchSize;
+    }
+
+    /**
+     * Get the current finalize batch size.
+     * 
+     * @return The value set by {@link #setFinalizeBatchSize(int)}
+     */
+    public static int getFinalizeBatchSize() {
+        return sFinalizeBatchSize;
+    }
+
+    /**
+     * Set the longest time a reclaimed native object waits for its batch to
+     * fill up, before the (partial) batch is deleted anyway.
+     * 
+     * @param milliseconds
+     *            Flush interval; must not be negative. The default is
+     *            {@link #DEFAULT_FINALIZE_FLUSH_INTERVAL}.
+     */
+    public static void setFinalizeFlushInterval(long milliseconds) {
+        if (milliseconds < 0) {
+            throw new IllegalArgumentException(
+                    "milliseconds must not be negative");
+        }
+        sFinalizeFlushInterval = milliseconds;
+    }
+
+    /**
+     * Get the current finalize flush interval.
+     * 
+     * @return The value set by {@link #setFinalizeFlushInterval(long)}, in
+     *         milliseconds
+     */
+    public static long getFinalizeFlushInterval() {
+        return sFinalizeFlushInterval;
+    }
+
+    /**
+     * How many reclaimed native objects are waiting for their batch delete?
+     * 
+     * <p>
+     * This is an internal method that may be useful in diagnostic code.
+     */
+    public static int getPendingNativeDeletes() {
+        return sPendingDeletes.get();
+    }
+
+    /**
+     * How many native objects have been deleted so far?
+     * 
+     * <p>
+     * This is an internal method that may be useful in diagnostic code.
+     */
+    public static long getNativeDeleteCount() {
+        return sNativeDeletes.get();
+    }
+
+    /**
+     * The finalize thread's recent native delete rate.
+     * 
+     * <p>
+     * This is an internal method that may be useful in diagnostic code.
+     * 
+     * @return Deletes per second, measured over the most recent window of
+     *         about a second; 0 if there have been no batch deletes for a
+     *         couple of windows.
+     */
+    public static float getNativeDeletesPerSecond() {
+        if (System.nanoTime() - sNativeDeleteRateTime > 2 * RATE_WINDOW) {
+            return 0f;
+        }
+        return sNativeDeleteRate;
     }
 
     /**
@@ -351,36 +638,139 @@ public abstract class GVRHybridObject implements Closeable {
      * those that use lots of memory, like large textures) that you
      * <em>know</em> are no longer being used.
      * 
+     * <p>
+     * If (unusually) other wrappers share the native object, this wrapper
+     * lets go of it, but it is only deleted along with the last of them.
+     * 
      * @since 2.0.0
      */
     @Override
     public final void close() throws IOException {
-        if (mNativePointer != 0L) {
-            GVRReference reference = findReference(mNativePointer);
-            if (reference != null) {
-                reference.close();
+        if (mNativePointer != 0L && mOwner == null) {
+            NativeShare share = findShare(mNativePointer);
+            if (share != null) {
+                GVRReference reference = share.getSole();
+                if (reference != null) {
+                    beforeClose();
+                    reference.close();
+                }
                 mNativePointer = 0L;
+                afterClose();
             }
         }
     }
 
+    /**
+     * Called by {@link #close()} just before the native object is deleted,
+     * for objects that have to let go of it first.
+     */
+    void beforeClose() {
+    }
+
+    /**
+     * Called by {@link #close()} once this wrapper's native pointer has been
+     * zeroed, whether or not the native object was deleted, for objects that
+     * hold more of it than the pointer.
+     */
+    void afterClose() {
+    }
+
+    /**
+     * Tells a wrapper that does not own its native object that {@code owner}
+     * has been closed. If that is this wrapper's owner, the native object is
+     * gone: the wrapper's native pointer is zeroed.
+     */
+    void ownerClosed(GVRHybridObject owner) {
+        if (mOwner != null && mOwner == owner) {
+            mNativePointer = 0L;
+        }
+    }
+
     /**
      * Explicitly close()ing an object is going to be relatively rare - most
      * native memory will be freed when the owner-objects are garbage collected.
      * Doing a lookup in these rare cases means that we can avoid giving every @link
      * {@link GVRHybridObject} a hard reference to its {@link GVRReference}.
      */
-    private static GVRReference findReference(long nativePointer) {
-        for (GVRReference reference : sReferenceSet) {
-            if (reference.mNativePointer == nativePointer) {
-                return reference;
+    private static NativeShare findShare(long nativePointer) {
+        return sReferenceMap.get(nativePointer);
+    }
+
+    private static void register(GVRReference reference) {
+        reference.mLiveCount.incrementAndGet();
+        NativeShare share = new NativeShare(reference);
+        while (true) {
+            NativeShare previous = sReferenceMap.putIfAbsent(
+                    reference.mNativePointer, share);
+            if (previous == null) {
+                reference.mShare = share;
+                return;
+            }
+            if (previous.add(reference)) {
+                // Share ownership, rather than delete the native object twice
+                // or under the older wrapper
+                Log.w(TAG, "Native pointer 0x%x registered twice",
+                        reference.mNativePointer);
+                reference.mShare = previous;
+                return;
+            }
+            // A deleted object's address, reused: its last reference is on
+            // the way out of the map
+            sReferenceMap.remove(reference.mNativePointer, previous);
+        }
+    }
+
+    private static AtomicInteger getLiveCount(Class<?> wrapperClass) {
+        AtomicInteger count = sLiveCounts.get(wrapperClass);
+        if (count == null) {
+            AtomicInteger newCount = new AtomicInteger();
+            count = sLiveCounts.putIfAbsent(wrapperClass, newCount);
+            if (count == null) {
+                count = newCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * How many wrappers (and thus native objects) are currently alive?
+     * 
+     * <p>
+     * This is an internal method that may be useful in diagnostic code.
+     * 
+     * @return The number of native objects with a registered wrapper that
+     *         has been neither garbage collected nor {@linkplain #close()
+     *         closed}.
+     */
+    public static int getLiveObjectCount() {
+        return sReferenceMap.size();
+    }
+
+    /**
+     * How many wrappers of each class are currently alive?
+     * 
+     * <p>
+     * This is an internal method that may be useful in diagnostic code, like
+     * watching native heap growth.
+     * 
+     * @return A snapshot map from concrete wrapper class to live instance
+     *         count. Classes with no live instances are omitted.
+     */
+    public static Map<Class<?>, Integer> getLiveObjectCounts() {
+        Map<Class<?>, Integer> snapshot = new HashMap<Class<?>, Integer>();
+        for (Map.Entry<Class<?>, AtomicInteger> entry : sLiveCounts
+                .entrySet()) {
+            int count = entry.getValue().get();
+            if (count > 0) {
+                snapshot.put(entry.getKey(), count);
             }
         }
-        // else
-        return null;
+        return snapshot;
     }
 }
 
 class NativeHybridObject {
     static native void delete(long nativePointer);
+
+    static native void deleteBatch(long[] nativePointers, int count);
 }
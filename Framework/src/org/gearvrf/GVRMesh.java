@@ -271,6 +271,19 @@ public class GVRMesh extends GVRHybridObject {
                 NativeMesh.getBoundingBox(getNative()));
     }
 
+    /**
+     * Get an estimate of the mesh's memory footprint.
+     * 
+     * <p>
+     * This is what the {@linkplain GVRContext#getMeshCache() mesh cache} uses
+     * to enforce its byte budget.
+     * 
+     * @return Bytes of vertex, attribute and index data
+     */
+    public long getEstimatedSize() {
+        return NativeMesh.getEstimatedSize(getNative());
+    }
+
     private void checkValidFloatVector(String keyName, String key,
             String vectorName, float[] vector, int expectedComponents) {
         checkStringNotNullOrEmpty(keyName, key);
@@ -334,4 +347,6 @@ class NativeMesh {
     static native void setVec4Vector(long mesh, String key, float[] vec4Vector);
 
     static native long getBoundingBox(long mesh);
+
+    static native long getEstimatedSize(long mesh);
 }
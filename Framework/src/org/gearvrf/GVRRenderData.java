@@ -116,6 +116,17 @@ public class GVRRenderData extends GVRComponent {
         addPass(basePass);
     }
 
+    // A wrapper for render data that owner deletes, already drawing mesh in
+    // basePass
+    GVRRenderData(GVRContext gvrContext, long ptr, GVRHybridObject owner,
+            GVRMesh mesh, GVRRenderPass basePass) {
+        super(gvrContext, ptr, owner);
+        mMesh = mesh;
+        mRenderPassList = new ArrayList<GVRRenderPass>();
+        mRenderPassList.add(basePass);
+        isLightEnabled = false;
+    }
+
     /**
      * @return The {@link GVRMesh mesh} being rendered.
      */
@@ -676,6 +687,32 @@ public class GVRRenderData extends GVRComponent {
         NativeRenderData.setDrawMode(getNative(), drawMode);
     }
 
+    /**
+     * @return {@code true} if this render data may be drawn with others in
+     *         one instanced draw call, {@code false} if not.
+     */
+    public boolean getInstancing() {
+        return NativeRenderData.getInstancing(getNative());
+    }
+
+    /**
+     * Allow or forbid instanced drawing. This is allowed by default.
+     * 
+     * When consecutive render data (after sorting) share a mesh and a
+     * material, and have the same render state, the renderer draws them with
+     * a single {@code glDrawElementsInstanced} call. Each object's model
+     * matrix goes into a per-instance vertex buffer. This currently applies
+     * to single-pass, unlit {@link GVRMaterial.GVRShaderType.Texture}
+     * materials. Other render data are drawn one at a time, as before.
+     * 
+     * @param instancing
+     *            {@code true} to allow instancing, {@code false} to always
+     *            draw this render data on its own.
+     */
+    public void setInstancing(boolean instancing) {
+        NativeRenderData.setInstancing(getNative(), instancing);
+    }
+
     private boolean isLightEnabled;
 }
 
@@ -724,4 +761,8 @@ class NativeRenderData {
 
     public static native void setDrawMode(long renderData, int draw_mode);
 
+    static native boolean getInstancing(long renderData);
+
+    static native void setInstancing(long renderData, boolean instancing);
+
 }
@@ -84,6 +84,14 @@ public class GVRRenderPass extends GVRHybridObject {
         mCullFace = GVRCullFaceEnum.Back;
     }
 
+    // A wrapper for a pass that owner deletes, already using material
+    GVRRenderPass(GVRContext gvrContext, long ptr, GVRHybridObject owner,
+            GVRMaterial material) {
+        super(gvrContext, ptr, owner);
+        mMaterial = material;
+        mCullFace = GVRCullFaceEnum.Back;
+    }
+
     /**
      * Set the {@link GVRMaterial material} for this pass.
      * 
@@ -75,6 +75,7 @@ public class GVRScene extends GVRHybridObject {
      */
     public void addSceneObject(GVRSceneObject sceneObject) {
         mSceneObjects.add(sceneObject);
+        sceneObject.addedToScene(this);
         NativeScene.addSceneObject(getNative(), sceneObject.getNative());
     }
 
@@ -86,6 +87,7 @@ public class GVRScene extends GVRHybridObject {
      */
     public void removeSceneObject(GVRSceneObject sceneObject) {
         mSceneObjects.remove(sceneObject);
+        sceneObject.removedFromScene(this);
         NativeScene.removeSceneObject(getNative(), sceneObject.getNative());
     }
 
@@ -155,6 +157,74 @@ public class GVRScene extends GVRHybridObject {
         NativeScene.setOcclusionQuery(getNative(), flag);
     }
 
+    /**
+     * Sets stereo culling for the {@link GVRScene}.
+     * 
+     * With stereo culling on, the main camera rig's eyes share one culling
+     * and sorting pass per frame: the first eye rendered culls against a
+     * frustum that encloses both eyes, and the second eye draws the same
+     * list. This roughly halves the CPU cost of preparing a frame. It is off
+     * by default, because it assumes the eyes differ only by the lens
+     * separation; LOD distances are measured from the first eye.
+     */
+    public void setStereoCulling(boolean flag) {
+        NativeScene.setStereoCulling(getNative(), flag);
+    }
+
+    /**
+     * Sets how many native worker threads help prepare each frame.
+     * 
+     * Before drawing, each frame refits the culling hierarchy and works out
+     * LOD levels, camera distances, model matrices and draw order for the
+     * visible objects. That work is split across the GL thread and up to
+     * {@code threads} worker threads. With 0, it all runs on the GL thread.
+     * The result is the same either way, and small scenes stay on the GL
+     * thread regardless. The default is one thread per core, besides the GL
+     * thread's.
+     * 
+     * @param threads
+     *            The number of worker threads, at most 8.
+     */
+    public void setFramePreparationThreads(int threads) {
+        NativeScene.setFramePreparationThreads(getNative(), threads);
+    }
+
+    /**
+     * Sets whether static scene objects that render alike are drawn merged.
+     * 
+     * See {@link GVRSceneObject#setStatic(boolean)}. It is on by default, and
+     * has no effect on scenes without static objects. Turning it off frees
+     * the merged meshes, and is a way to compare the draw call counts (see
+     * {@link #setStatsEnabled(boolean)}) with and without merging.
+     * 
+     * @param flag
+     *            {@code true} to merge static objects, {@code false} to draw
+     *            every object on its own.
+     */
+    public void setStaticBatching(boolean flag) {
+        NativeScene.setStaticBatching(getNative(), flag);
+    }
+
+    /**
+     * Sets whether world transforms are updated across several threads.
+     * 
+     * Once a frame, before culling, the world matrices of everything that
+     * moved (and everything under it) are recomputed. Normally that runs on
+     * the GL thread. With this set, it goes one depth of the scene graph at
+     * a time, each split across the frame preparation threads (see
+     * {@link #setFramePreparationThreads(int)}). The matrices are exactly
+     * the same either way. It is off by default: it only pays off when
+     * thousands of objects move in the same frame, for example everything
+     * under a re-posed anchor.
+     * 
+     * @param flag
+     *            {@code true} to update transforms in parallel, {@code false}
+     *            to update them on the GL thread.
+     */
+    public void setParallelTransformUpdate(boolean flag) {
+        NativeScene.setParallelTransformUpdate(getNative(), flag);
+    }
+
     private GVRConsole mStatsConsole = null;
     private boolean mStatsEnabled = false;
     private boolean pendingStats = false;
@@ -211,9 +281,13 @@ public class GVRScene extends GVRHybridObject {
         if (mStatsEnabled) {
             int numberDrawCalls = NativeScene.getNumberDrawCalls(getNative());
             int numberTriangles = NativeScene.getNumberTriangles(getNative());
+            int issuedGLCalls = NativeScene.getNumberIssuedGLCalls(getNative());
+            int elidedGLCalls = NativeScene.getNumberElidedGLCalls(getNative());
 
             mStatsConsole.writeLine("Draw Calls: %d", numberDrawCalls);
             mStatsConsole.writeLine("Triangles: %d", numberTriangles);
+            mStatsConsole.writeLine("GL Calls: %d (%d skipped)",
+                    issuedGLCalls, elidedGLCalls);
 
             if (mStatMessage.length() > 0)
                 mStatsConsole.writeLine("%s", mStatMessage.toString());
@@ -253,6 +327,16 @@ class NativeScene {
 
     public static native void setOcclusionQuery(long scene, boolean flag);
 
+    public static native void setStereoCulling(long scene, boolean flag);
+
+    public static native void setFramePreparationThreads(long scene,
+            int threads);
+
+    public static native void setStaticBatching(long scene, boolean flag);
+
+    public static native void setParallelTransformUpdate(long scene,
+            boolean flag);
+
     static native void setMainCameraRig(long scene, long cameraRig);
 
     public static native void resetStats(long scene);
@@ -260,4 +344,8 @@ class NativeScene {
     public static native int getNumberDrawCalls(long scene);
 
     public static native int getNumberTriangles(long scene);
+
+    public static native int getNumberIssuedGLCalls(long scene);
+
+    public static native int getNumberElidedGLCalls(long scene);
 }
@@ -0,0 +1,215 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A subtree of scene objects made by a {@link GVRSceneGraphBuilder}, in one
+ * native call, and deleted as a whole.
+ * 
+ * The graph owns its nodes' native scene objects, transforms and render
+ * data. Their Java wrappers are only made when asked for: by
+ * {@link #getSceneObject(int)}, or by walking the tree from
+ * {@link #getRoot()}. A large model the app only places and draws costs one
+ * wrapper, the root's.
+ * 
+ * <p>
+ * Add the root to the scene, or to another object, to show the subtree.
+ * {@link #close()} deletes every node at once. It first removes the root from
+ * its parent and from any scene it was added to, and afterwards all of the
+ * graph's scene objects (and their transforms and render data) have a null
+ * native pointer: don't use them. Close a graph on the GL thread, or while
+ * nothing is being rendered. The nodes must stay in the subtree - don't move
+ * them to another parent. A graph that isn't closed is deleted when neither
+ * it nor any of its scene objects is used any more.
+ */
+public class GVRSceneGraph extends GVRHybridObject {
+    private final int[] mParents;
+    // The children of each node, in order, as linked lists
+    private final int[] mFirstChildren;
+    private final int[] mNextSiblings;
+    private final int[] mMeshIndices;
+    private final int[] mMaterialIndices;
+    private final GVRMesh[] mMeshes;
+    private final GVRMaterial[] mMaterials;
+
+    // Filled in by the native constructor
+    private final long[] mSceneObjects;
+    private final long[] mTransforms;
+    private final long[] mRenderDatas;
+    private final long[] mRenderPasses;
+
+    private final GVRSceneObject[] mWrappers;
+    // Every wrapper made, scene objects and their components, to zero
+    private final List<GVRHybridObject> mBorrowed = new ArrayList<GVRHybridObject>();
+
+    GVRSceneGraph(GVRContext gvrContext, int[] parents, int[] meshIndices,
+            int[] materialIndices, float[] trs, GVRMesh[] meshes,
+            GVRMaterial[] materials, long[] sceneObjects, long[] transforms,
+            long[] renderDatas, long[] renderPasses) {
+        super(gvrContext, NativeSceneGraph.ctor(parents, meshIndices,
+                materialIndices, trs, getNatives(meshes),
+                getNatives(materials), sceneObjects, transforms, renderDatas,
+                renderPasses));
+        mParents = parents;
+        mMeshIndices = meshIndices;
+        mMaterialIndices = materialIndices;
+        mMeshes = meshes;
+        mMaterials = materials;
+        mSceneObjects = sceneObjects;
+        mTransforms = transforms;
+        mRenderDatas = renderDatas;
+        mRenderPasses = renderPasses;
+        mWrappers = new GVRSceneObject[parents.length];
+
+        mFirstChildren = new int[parents.length];
+        mNextSiblings = new int[parents.length];
+        Arrays.fill(mFirstChildren, -1);
+        for (int node = parents.length - 1; node > 0; --node) {
+            mNextSiblings[node] = mFirstChildren[parents[node]];
+            mFirstChildren[parents[node]] = node;
+        }
+        mNextSiblings[0] = -1;
+    }
+
+    private static long[] getNatives(GVRHybridObject[] objects) {
+        long[] natives = new long[objects.length];
+        for (int i = 0; i < objects.length; ++i) {
+            natives[i] = objects[i].getNative();
+        }
+        return natives;
+    }
+
+    /**
+     * Get the number of nodes in the graph.
+     * 
+     * @return The number of nodes.
+     */
+    public int getNodeCount() {
+        return mParents.length;
+    }
+
+    /**
+     * Get the root of the subtree: node 0.
+     * 
+     * @return The root scene object.
+     */
+    public GVRSceneObject getRoot() {
+        return getSceneObject(0);
+    }
+
+    /**
+     * Get one of the graph's scene objects.
+     * 
+     * The first call for a node makes its wrapper, and those of any ancestors
+     * that don't have one yet; later calls return the same object.
+     * 
+     * @param node
+     *            The index {@link GVRSceneGraphBuilder#addNode(int)} returned
+     *            for the node.
+     * @return The node's scene object.
+     * @throws IllegalStateException
+     *             if the graph has been closed.
+     */
+    public synchronized GVRSceneObject getSceneObject(int node) {
+        if (getNative() == 0L) {
+            throw new IllegalStateException("Scene graph is closed.");
+        }
+        if (mWrappers[node] != null) {
+            return mWrappers[node];
+        }
+
+        // The closest ancestor with a wrapper, or the root
+        int top = node;
+        while (mParents[top] >= 0 && mWrappers[mParents[top]] == null) {
+            top = mParents[top];
+        }
+
+        // Then wrap from there down, so each parent is made before its child
+        int depth = 0;
+        for (int i = node; i != top; i = mParents[i]) {
+            ++depth;
+        }
+        int[] path = new int[depth + 1];
+        int ancestor = node;
+        for (int i = depth; i >= 0; --i) {
+            path[i] = ancestor;
+            ancestor = mParents[ancestor];
+        }
+        for (int pathNode : path) {
+            mWrappers[pathNode] = wrap(pathNode);
+        }
+        return mWrappers[node];
+    }
+
+    private GVRSceneObject wrap(int node) {
+        GVRContext gvrContext = getGVRContext();
+        GVRSceneObject parent = mParents[node] >= 0 ? mWrappers[mParents[node]]
+                : null;
+        GVRTransform transform = new GVRTransform(gvrContext,
+                mTransforms[node], this);
+        mBorrowed.add(transform);
+        GVRRenderData renderData = null;
+        if (mRenderDatas[node] != 0) {
+            GVRRenderPass renderPass = new GVRRenderPass(gvrContext,
+                    mRenderPasses[node], this,
+                    mMaterials[mMaterialIndices[node]]);
+            renderData = new GVRRenderData(gvrContext, mRenderDatas[node],
+                    this, mMeshes[mMeshIndices[node]], renderPass);
+            mBorrowed.add(renderPass);
+            mBorrowed.add(renderData);
+        }
+        GVRSceneObject sceneObject = new GVRSceneObject(gvrContext,
+                mSceneObjects[node], this, node, parent, transform,
+                renderData);
+        mBorrowed.add(sceneObject);
+        return sceneObject;
+    }
+
+    /*
+     * Detaches the root on the Java side - the native side alone would leave
+     * a parent or scene holding a wrapper for a deleted object - then zeroes
+     * every wrapper's native pointer
+     */
+    @Override
+    synchronized void beforeClose() {
+        if (mWrappers[0] != null) {
+            mWrappers[0].detachFromAll();
+        }
+        for (GVRHybridObject wrapper : mBorrowed) {
+            wrapper.ownerClosed(this);
+        }
+    }
+
+    // For GVRSceneObject, the first time it needs its children
+    synchronized void addChildren(int node, List<GVRSceneObject> children) {
+        int child = mFirstChildren[node];
+        while (child >= 0) {
+            children.add(getSceneObject(child));
+            child = mNextSiblings[child];
+        }
+    }
+}
+
+class NativeSceneGraph {
+    static native long ctor(int[] parents, int[] meshIndices,
+            int[] materialIndices, float[] trs, long[] meshes,
+            long[] materials, long[] sceneObjects, long[] transforms,
+            long[] renderDatas, long[] renderPasses);
+}
@@ -0,0 +1,285 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes a subtree of scene objects, to make it in one native call.
+ * 
+ * Making a large model's scene objects one at a time costs several JNI calls,
+ * and several Java wrappers, per node: to create its scene object, transform
+ * and render data, to set its position, rotation and scale, and to add it to
+ * its parent. A builder keeps the same information packed in a few arrays, so
+ * {@link #build()} can make the whole subtree at once. The resulting
+ * {@link GVRSceneGraph} only makes Java wrappers for the nodes the app asks
+ * for.
+ * 
+ * <pre>
+ * GVRSceneGraphBuilder builder = new GVRSceneGraphBuilder(gvrContext);
+ * int root = builder.addNode(-1);
+ * int wheel = builder.addNode(root, wheelMesh, wheelMaterial);
+ * builder.setPosition(wheel, 1.0f, 0.0f, 0.0f);
+ * GVRSceneGraph car = builder.build();
+ * scene.addSceneObject(car.getRoot());
+ * </pre>
+ * 
+ * <p>
+ * Nodes that are drawn get render data with a single pass; everything else
+ * starts out at its default. A builder can be reused after
+ * {@link #build()}: it then starts a new, empty subtree.
+ */
+public class GVRSceneGraphBuilder {
+    // Floats per node: position x, y, z; rotation w, x, y, z; scale x, y, z
+    private static final int TRS_STRIDE = 10;
+    private static final int POSITION = 0;
+    private static final int ROTATION = 3;
+    private static final int SCALE = 7;
+
+    private final GVRContext mGVRContext;
+
+    private int mNodeCount;
+    private int[] mParents;
+    private int[] mMeshIndices;
+    private int[] mMaterialIndices;
+    private float[] mTRS;
+
+    // Each mesh and material once, in the order nodes first used them
+    private final List<GVRMesh> mMeshes = new ArrayList<GVRMesh>();
+    private final Map<GVRMesh, Integer> mMeshIndex = new HashMap<GVRMesh, Integer>();
+    private final List<GVRMaterial> mMaterials = new ArrayList<GVRMaterial>();
+    private final Map<GVRMaterial, Integer> mMaterialIndex = new HashMap<GVRMaterial, Integer>();
+
+    /**
+     * Constructs an empty builder.
+     * 
+     * @param gvrContext
+     *            Current {@link GVRContext}
+     */
+    public GVRSceneGraphBuilder(GVRContext gvrContext) {
+        this(gvrContext, 16);
+    }
+
+    /**
+     * Constructs an empty builder, with room for a number of nodes.
+     * 
+     * @param gvrContext
+     *            Current {@link GVRContext}
+     * @param capacity
+     *            The number of nodes to make room for. More can be added: it
+     *            just takes a copy.
+     */
+    public GVRSceneGraphBuilder(GVRContext gvrContext, int capacity) {
+        mGVRContext = gvrContext;
+        allocate(Math.max(1, capacity));
+    }
+
+    private void allocate(int capacity) {
+        mNodeCount = 0;
+        mParents = new int[capacity];
+        mMeshIndices = new int[capacity];
+        mMaterialIndices = new int[capacity];
+        mTRS = new float[capacity * TRS_STRIDE];
+    }
+
+    /**
+     * Get the number of nodes added so far.
+     * 
+     * @return The number of nodes.
+     */
+    public int getNodeCount() {
+        return mNodeCount;
+    }
+
+    /**
+     * Adds a node that isn't drawn: a group, or a pivot.
+     * 
+     * @param parent
+     *            The index of the node's parent, which must already have
+     *            been added; or -1 for the root, which must be the first
+     *            node.
+     * @return The node's index: 0 for the root, then 1, 2, ...
+     * @throws IllegalArgumentException
+     *             if {@code parent} isn't a node, or is -1 for a node other
+     *             than the first.
+     */
+    public int addNode(int parent) {
+        return addNode(parent, -1, -1);
+    }
+
+    /**
+     * Adds a node that is drawn.
+     * 
+     * @param parent
+     *            The index of the node's parent, which must already have
+     *            been added; or -1 for the root, which must be the first
+     *            node.
+     * @param mesh
+     *            The mesh to draw.
+     * @param material
+     *            The material to draw it with.
+     * @return The node's index: 0 for the root, then 1, 2, ...
+     * @throws IllegalArgumentException
+     *             if {@code parent} isn't a node, or is -1 for a node other
+     *             than the first.
+     */
+    public int addNode(int parent, GVRMesh mesh, GVRMaterial material) {
+        if (mesh == null || material == null) {
+            throw new IllegalArgumentException(
+                    "A drawn node needs a mesh and a material.");
+        }
+        return addNode(parent, getIndex(mesh, mMeshes, mMeshIndex),
+                getIndex(material, mMaterials, mMaterialIndex));
+    }
+
+    private static <T> int getIndex(T object, List<T> objects,
+            Map<T, Integer> indices) {
+        Integer index = indices.get(object);
+        if (index == null) {
+            index = objects.size();
+            objects.add(object);
+            indices.put(object, index);
+        }
+        return index;
+    }
+
+    private int addNode(int parent, int meshIndex, int materialIndex) {
+        boolean validParent = mNodeCount == 0 ? parent == -1 : parent >= 0
+                && parent < mNodeCount;
+        if (!validParent) {
+            throw new IllegalArgumentException("Node " + mNodeCount
+                    + " can't have parent " + parent);
+        }
+
+        if (mNodeCount == mParents.length) {
+            int capacity = mNodeCount * 2;
+            mParents = Arrays.copyOf(mParents, capacity);
+            mMeshIndices = Arrays.copyOf(mMeshIndices, capacity);
+            mMaterialIndices = Arrays.copyOf(mMaterialIndices, capacity);
+            mTRS = Arrays.copyOf(mTRS, capacity * TRS_STRIDE);
+        }
+
+        int node = mNodeCount++;
+        mParents[node] = parent;
+        mMeshIndices[node] = meshIndex;
+        mMaterialIndices[node] = materialIndex;
+        setPosition(node, 0.0f, 0.0f, 0.0f);
+        setRotation(node, 1.0f, 0.0f, 0.0f, 0.0f);
+        setScale(node, 1.0f, 1.0f, 1.0f);
+        return node;
+    }
+
+    /**
+     * Set a node's initial position, relative to its parent.
+     * 
+     * @param node
+     *            The node's index.
+     * @param x
+     *            'X' component of the position.
+     * @param y
+     *            'Y' component of the position.
+     * @param z
+     *            'Z' component of the position.
+     */
+    public void setPosition(int node, float x, float y, float z) {
+        int offset = getOffset(node) + POSITION;
+        mTRS[offset] = x;
+        mTRS[offset + 1] = y;
+        mTRS[offset + 2] = z;
+    }
+
+    /**
+     * Set a node's initial rotation, relative to its parent.
+     * 
+     * @param node
+     *            The node's index.
+     * @param w
+     *            'W' component of the quaternion.
+     * @param x
+     *            'X' component of the quaternion.
+     * @param y
+     *            'Y' component of the quaternion.
+     * @param z
+     *            'Z' component of the quaternion.
+     */
+    public void setRotation(int node, float w, float x, float y, float z) {
+        int offset = getOffset(node) + ROTATION;
+        mTRS[offset] = w;
+        mTRS[offset + 1] = x;
+        mTRS[offset + 2] = y;
+        mTRS[offset + 3] = z;
+    }
+
+    /**
+     * Set a node's initial scale, relative to its parent.
+     * 
+     * @param node
+     *            The node's index.
+     * @param x
+     *            'X' scale factor.
+     * @param y
+     *            'Y' scale factor.
+     * @param z
+     *            'Z' scale factor.
+     */
+    public void setScale(int node, float x, float y, float z) {
+        int offset = getOffset(node) + SCALE;
+        mTRS[offset] = x;
+        mTRS[offset + 1] = y;
+        mTRS[offset + 2] = z;
+    }
+
+    private int getOffset(int node) {
+        if (node < 0 || node >= mNodeCount) {
+            throw new IllegalArgumentException("No node " + node);
+        }
+        return node * TRS_STRIDE;
+    }
+
+    /**
+     * Makes the subtree, in one native call, and empties the builder.
+     * 
+     * @return The new subtree.
+     * @throws IllegalStateException
+     *             if no nodes have been added.
+     */
+    public GVRSceneGraph build() {
+        if (mNodeCount == 0) {
+            throw new IllegalStateException("No nodes to build.");
+        }
+
+        int count = mNodeCount;
+        GVRSceneGraph graph = new GVRSceneGraph(mGVRContext,
+                Arrays.copyOf(mParents, count), Arrays.copyOf(mMeshIndices,
+                        count), Arrays.copyOf(mMaterialIndices, count),
+                Arrays.copyOf(mTRS, count * TRS_STRIDE),
+                mMeshes.toArray(new GVRMesh[mMeshes.size()]),
+                mMaterials.toArray(new GVRMaterial[mMaterials.size()]),
+                new long[count], new long[count], new long[count],
+                new long[count]);
+
+        allocate(mParents.length);
+        mMeshes.clear();
+        mMeshIndex.clear();
+        mMaterials.clear();
+        mMaterialIndex.clear();
+        return graph;
+    }
+}
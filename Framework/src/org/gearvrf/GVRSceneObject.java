@@ -51,6 +51,14 @@ public class GVRSceneObject extends GVRHybridObject {
     private GVREyePointeeHolder mEyePointeeHolder;
     private GVRSceneObject mParent;
     private final List<GVRSceneObject> mChildren = new ArrayList<GVRSceneObject>();
+    /*
+     * For a node of a scene graph, until its children are first needed: the
+     * graph makes their wrappers then
+     */
+    private GVRSceneGraph mGraph;
+    private int mGraphIndex;
+    // The scenes this is a top-level object of; usually none
+    private List<GVRScene> mScenes;
 
     /**
      * Constructs an empty scene object with a default {@link GVRTransform
@@ -64,6 +72,25 @@ public class GVRSceneObject extends GVRHybridObject {
         attachTransform(new GVRTransform(getGVRContext()));
     }
 
+    /*
+     * A wrapper for a node of graph, which owns the native scene object,
+     * transform and render data (which may be null)
+     */
+    GVRSceneObject(GVRContext gvrContext, long ptr, GVRSceneGraph graph,
+            int graphIndex, GVRSceneObject parent, GVRTransform transform,
+            GVRRenderData renderData) {
+        super(gvrContext, ptr, graph);
+        mGraph = graph;
+        mGraphIndex = graphIndex;
+        mParent = parent;
+        mTransform = transform;
+        transform.setOwnerObject(this);
+        if (renderData != null) {
+            mRenderData = renderData;
+            renderData.setOwnerObject(this);
+        }
+    }
+
     /**
      * Constructs a scene object with an arbitrarily complex mesh.
      * 
@@ -594,6 +621,7 @@ public class GVRSceneObject extends GVRHybridObject {
      *            object.
      */
     public void addChildObject(GVRSceneObject child) {
+        expandGraph();
         mChildren.add(child);
         child.mParent = this;
         NativeSceneObject.addChildObject(getNative(), child.getNative());
@@ -607,6 +635,7 @@ public class GVRSceneObject extends GVRHybridObject {
      *            object.
      */
     public void removeChildObject(GVRSceneObject child) {
+        expandGraph();
         mChildren.remove(child);
         child.mParent = null;
         NativeSceneObject.removeChildObject(getNative(), child.getNative());
@@ -670,6 +699,40 @@ public class GVRSceneObject extends GVRHybridObject {
         return NativeSceneObject.getLODMaxRange(getNative());
     }
 
+    /**
+     * Marks this object, and everything below it, as never moving.
+     * 
+     * Static objects that share a material, a light and render state are
+     * merged into a few large meshes, in world space, and drawn with one
+     * draw call per mesh instead of one per object. They are still culled
+     * and picked one by one. Objects with LOD ranges, several passes,
+     * transparency or custom shaders are never merged.
+     * 
+     * The merged meshes are built from the objects' transforms, meshes and
+     * materials at the time, and are rebuilt only when objects enter or
+     * leave the static set. To move or change a static object, call
+     * {@code setStatic(false)}, change it, then call {@code setStatic(true)}
+     * again.
+     * 
+     * @param isStatic
+     *            {@code true} to allow merging, {@code false} (the default)
+     *            to draw this object on its own, unless an ancestor is static.
+     * @see GVRScene#setStaticBatching(boolean)
+     */
+    public void setStatic(boolean isStatic) {
+        NativeSceneObject.setStatic(getNative(), isStatic);
+    }
+
+    /**
+     * Whether {@link #setStatic(boolean)} has marked this object itself as
+     * static.
+     * 
+     * @return {@code true} if this object is marked static.
+     */
+    public boolean isStatic() {
+        return NativeSceneObject.isStatic(getNative());
+    }
+
     /**
      * Get the number of child objects.
      * 
@@ -677,6 +740,7 @@ public class GVRSceneObject extends GVRHybridObject {
      *         this object.
      */
     public int getChildrenCount() {
+        expandGraph();
         return mChildren.size();
     }
 
@@ -691,6 +755,7 @@ public class GVRSceneObject extends GVRHybridObject {
      *         at that position.
      */
     public GVRSceneObject getChildByIndex(int index) {
+        expandGraph();
         return mChildren.get(index);
     }
 
@@ -726,14 +791,56 @@ public class GVRSceneObject extends GVRHybridObject {
      * @since 2.0.0
      */
     public List<GVRSceneObject> getChildren() {
+        expandGraph();
         return Collections.unmodifiableList(mChildren);
     }
 
     /** The internal list - do not make any changes! */
     List<GVRSceneObject> rawGetChildren() {
+        expandGraph();
         return mChildren;
     }
 
+    // For GVRScene.addSceneObject()
+    void addedToScene(GVRScene scene) {
+        if (mScenes == null) {
+            mScenes = new ArrayList<GVRScene>(1);
+        }
+        mScenes.add(scene);
+    }
+
+    // For GVRScene.removeSceneObject()
+    void removedFromScene(GVRScene scene) {
+        if (mScenes != null) {
+            mScenes.remove(scene);
+        }
+    }
+
+    /*
+     * Removes this object from its parent, and from any scenes it is a
+     * top-level object of
+     */
+    void detachFromAll() {
+        if (mParent != null) {
+            mParent.removeChildObject(this);
+        }
+        while (mScenes != null && !mScenes.isEmpty()) {
+            mScenes.get(mScenes.size() - 1).removeSceneObject(this);
+        }
+    }
+
+    /*
+     * Fills in the children of a scene graph node the first time they are
+     * asked for
+     */
+    private void expandGraph() {
+        if (mGraph != null) {
+            GVRSceneGraph graph = mGraph;
+            mGraph = null;
+            graph.addChildren(mGraphIndex, mChildren);
+        }
+    }
+
     private static class Children implements Iterable<GVRSceneObject>,
             Iterator<GVRSceneObject> {
 
@@ -839,4 +946,8 @@ class NativeSceneObject {
     static native float getLODMinRange(long sceneObject);
 
     static native float getLODMaxRange(long sceneObject);
+
+    static native void setStatic(long sceneObject, boolean isStatic);
+
+    static native boolean isStatic(long sceneObject);
 }
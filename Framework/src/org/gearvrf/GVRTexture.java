@@ -29,6 +29,32 @@ public class GVRTexture extends GVRHybridObject {
     public int getId() {
         return NativeTexture.getId(getNative());
     }
+
+    private volatile long mEstimatedSize = 0;
+
+    /**
+     * Get an estimate of the texture's GL memory footprint.
+     * 
+     * <p>
+     * This is what the {@linkplain GVRContext#getTextureCache() texture cache}
+     * uses to enforce its byte budget.
+     * 
+     * @return Estimated size, in bytes; 0 if the size is not known (as with
+     *         textures loaded directly by native code).
+     */
+    public long getEstimatedSize() {
+        return mEstimatedSize;
+    }
+
+    /**
+     * Record the texture's size, for {@link #getEstimatedSize()}.
+     * 
+     * @param bytes
+     *            Estimated size of the texture data, in bytes
+     */
+    protected void setEstimatedSize(long bytes) {
+        mEstimatedSize = bytes;
+    }
 }
 
 class NativeTexture {
@@ -15,6 +15,11 @@
 
 package org.gearvrf;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
 /**
  * One of the key GVRF classes: Encapsulates a 4x4 matrix that controls how GL
  * draws a mesh.
@@ -24,14 +29,129 @@ package org.gearvrf;
  * translation, rotation and scaling. Rotations can be made in either quaternion
  * or angle/axis terms; rotation values can be retrieved as either quaternion
  * components or as Euler angles.
+ * 
+ * <p>
+ * Position, rotation and scale are read and written directly in the native
+ * transform's memory, and so is the model matrix read when it is current:
+ * none of those cost a JNI call. Like the rest of the scene graph, a
+ * transform should only be changed from one thread at a time. Once the
+ * transform has been closed, or the native transform deleted (by closing
+ * the {@link GVRSceneGraph} it belongs to, say), they throw
+ * {@link IllegalStateException}.
  */
 public class GVRTransform extends GVRComponent {
+    /*
+     * Offsets, in 4-byte units, into the native TransformData, which this
+     * must match
+     */
+    private static final int POSITION = 0;
+    private static final int ROTATION_X = 3;
+    private static final int ROTATION_Y = 4;
+    private static final int ROTATION_Z = 5;
+    private static final int ROTATION_W = 6;
+    private static final int SCALE = 7;
+    private static final int MODEL_MATRIX = 10;
+    private static final int LOCAL_DIRTY = 26;
+    private static final int CHECKED_COUNT = 27;
+
+    /*
+     * The native modification counts: [NATIVE_COUNT] is native's, and
+     * [JAVA_COUNT] is bumped here for every change written from Java. The
+     * model matrix is current when it was checked at their sum.
+     */
+    private static final int NATIVE_COUNT = 0;
+    private static final int JAVA_COUNT = 1;
+    private static final IntBuffer sModificationCounts = NativeTransform
+            .getModificationCounts().order(ByteOrder.nativeOrder())
+            .asIntBuffer();
+
+    // Scale rotations down past this, to avoid overflow
+    private static final float ROTATION_THRESHOLD = (float) Math
+            .sqrt(Float.MAX_VALUE) / 2.0f;
+    private static final float ROTATION_SCALE_FACTOR = 0.5f / (float) Math
+            .sqrt(Float.MAX_VALUE);
+
+    /*
+     * Views of the native TransformData. They are dropped along with the
+     * native pointer, on close() or when the owner is closed: they would
+     * go on reading and writing freed memory.
+     */
+    private FloatBuffer mData;
+    private IntBuffer mFlags;
+
     GVRTransform(GVRContext gvrContext) {
-        super(gvrContext, NativeTransform.ctor());
+        this(gvrContext, NativeTransform.ctor());
     }
 
     private GVRTransform(GVRContext gvrContext, long ptr) {
         super(gvrContext, ptr);
+        ByteBuffer data = getData(ptr);
+        mData = data.asFloatBuffer();
+        mFlags = data.asIntBuffer();
+    }
+
+    // A wrapper for a transform that owner deletes
+    GVRTransform(GVRContext gvrContext, long ptr, GVRHybridObject owner) {
+        super(gvrContext, ptr, owner);
+        ByteBuffer data = getData(ptr);
+        mData = data.asFloatBuffer();
+        mFlags = data.asIntBuffer();
+    }
+
+    private static ByteBuffer getData(long ptr) {
+        return NativeTransform.getData(ptr).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    void afterClose() {
+        dropData();
+    }
+
+    @Override
+    void ownerClosed(GVRHybridObject owner) {
+        super.ownerClosed(owner);
+        if (getNative() == 0L) {
+            dropData();
+        }
+    }
+
+    // The buffers are only valid as long as the native pointer is
+    private void dropData() {
+        mData = null;
+        mFlags = null;
+    }
+
+    private FloatBuffer data() {
+        FloatBuffer data = mData;
+        if (data == null) {
+            throw new IllegalStateException(
+                    "The transform has been closed");
+        }
+        return data;
+    }
+
+    private IntBuffer flags() {
+        IntBuffer flags = mFlags;
+        if (flags == null) {
+            throw new IllegalStateException(
+                    "The transform has been closed");
+        }
+        return flags;
+    }
+
+    /*
+     * Tells native code that this transform's position, rotation or scale
+     * changed
+     */
+    private void changed() {
+        flags().put(LOCAL_DIRTY, 1);
+        sModificationCounts.put(JAVA_COUNT,
+                sModificationCounts.get(JAVA_COUNT) + 1);
+    }
+
+    private static int getModificationCount() {
+        return sModificationCounts.get(NATIVE_COUNT)
+                + sModificationCounts.get(JAVA_COUNT);
     }
 
     /**
@@ -40,7 +160,7 @@ public class GVRTransform extends GVRComponent {
      * @return 'X' component of the transform's position.
      */
     public float getPositionX() {
-        return NativeTransform.getPositionX(getNative());
+        return data().get(POSITION);
     }
 
     /**
@@ -49,7 +169,7 @@ public class GVRTransform extends GVRComponent {
      * @return 'Y' component of the transform's position.
      */
     public float getPositionY() {
-        return NativeTransform.getPositionY(getNative());
+        return data().get(POSITION + 1);
     }
 
     /**
@@ -58,7 +178,7 @@ public class GVRTransform extends GVRComponent {
      * @return 'Z' component of the transform's position.
      */
     public float getPositionZ() {
-        return NativeTransform.getPositionZ(getNative());
+        return data().get(POSITION + 2);
     }
 
     /**
@@ -74,7 +194,11 @@ public class GVRTransform extends GVRComponent {
      *            'Z' component of the absolute position.
      */
     public void setPosition(float x, float y, float z) {
-        NativeTransform.setPosition(getNative(), x, y, z);
+        FloatBuffer data = data();
+        data.put(POSITION, x);
+        data.put(POSITION + 1, y);
+        data.put(POSITION + 2, z);
+        changed();
     }
 
     /**
@@ -86,7 +210,8 @@ public class GVRTransform extends GVRComponent {
      *            New 'X' component of the absolute position.
      */
     public void setPositionX(float x) {
-        NativeTransform.setPositionX(getNative(), x);
+        data().put(POSITION, x);
+        changed();
     }
 
     /**
@@ -98,7 +223,8 @@ public class GVRTransform extends GVRComponent {
      *            New 'Y' component of the absolute position.
      */
     public void setPositionY(float y) {
-        NativeTransform.setPositionY(getNative(), y);
+        data().put(POSITION + 1, y);
+        changed();
     }
 
     /**
@@ -110,7 +236,8 @@ public class GVRTransform extends GVRComponent {
      *            New 'Z' component of the absolute position.
      */
     public void setPositionZ(float z) {
-        NativeTransform.setPositionZ(getNative(), z);
+        data().put(POSITION + 2, z);
+        changed();
     }
 
     /**
@@ -120,7 +247,7 @@ public class GVRTransform extends GVRComponent {
      *         quaternion.
      */
     public float getRotationW() {
-        return NativeTransform.getRotationW(getNative());
+        return data().get(ROTATION_W);
     }
 
     /**
@@ -130,7 +257,7 @@ public class GVRTransform extends GVRComponent {
      *         quaternion.
      */
     public float getRotationX() {
-        return NativeTransform.getRotationX(getNative());
+        return data().get(ROTATION_X);
     }
 
     /**
@@ -140,7 +267,7 @@ public class GVRTransform extends GVRComponent {
      *         quaternion.
      */
     public float getRotationY() {
-        return NativeTransform.getRotationY(getNative());
+        return data().get(ROTATION_Y);
     }
 
     /**
@@ -150,7 +277,7 @@ public class GVRTransform extends GVRComponent {
      *         quaternion.
      */
     public float getRotationZ() {
-        return NativeTransform.getRotationZ(getNative());
+        return data().get(ROTATION_Z);
     }
 
     /**
@@ -159,7 +286,11 @@ public class GVRTransform extends GVRComponent {
      * @return The transform's current rotation around the 'Y' axis, in degrees.
      */
     public float getRotationYaw() {
-        return NativeTransform.getRotationYaw(getNative());
+        float w = getRotationW();
+        float x = getRotationX();
+        float y = getRotationY();
+        float z = getRotationZ();
+        return (float) Math.toDegrees(Math.asin(-2.0f * (x * z - w * y)));
     }
 
     /**
@@ -168,7 +299,12 @@ public class GVRTransform extends GVRComponent {
      * @return The transform's rotation around the 'X' axis, in degrees.
      */
     public float getRotationPitch() {
-        return NativeTransform.getRotationPitch(getNative());
+        float w = getRotationW();
+        float x = getRotationX();
+        float y = getRotationY();
+        float z = getRotationZ();
+        return (float) Math.toDegrees(Math.atan2(2.0f * (y * z + w * x), w
+                * w - x * x - y * y + z * z));
     }
 
     /**
@@ -177,7 +313,12 @@ public class GVRTransform extends GVRComponent {
      * @return The transform's rotation around the 'Z' axis, in degrees.
      */
     public float getRotationRoll() {
-        return NativeTransform.getRotationRoll(getNative());
+        float w = getRotationW();
+        float x = getRotationX();
+        float y = getRotationY();
+        float z = getRotationZ();
+        return (float) Math.toDegrees(Math.atan2(2.0f * (x * y + w * z), w
+                * w + x * x - y * y - z * z));
     }
 
     /**
@@ -200,7 +341,19 @@ public class GVRTransform extends GVRComponent {
      *            'Z' component of the quaternion.
      */
     public void setRotation(float w, float x, float y, float z) {
-        NativeTransform.setRotation(getNative(), w, x, y, z);
+        if (w > ROTATION_THRESHOLD || x > ROTATION_THRESHOLD
+                || y > ROTATION_THRESHOLD || z > ROTATION_THRESHOLD) {
+            w *= ROTATION_SCALE_FACTOR;
+            x *= ROTATION_SCALE_FACTOR;
+            y *= ROTATION_SCALE_FACTOR;
+            z *= ROTATION_SCALE_FACTOR;
+        }
+        FloatBuffer data = data();
+        data.put(ROTATION_W, w);
+        data.put(ROTATION_X, x);
+        data.put(ROTATION_Y, y);
+        data.put(ROTATION_Z, z);
+        changed();
     }
 
     /**
@@ -209,7 +362,7 @@ public class GVRTransform extends GVRComponent {
      * @return The transform's current scaling on the 'X' axis.
      */
     public float getScaleX() {
-        return NativeTransform.getScaleX(getNative());
+        return data().get(SCALE);
     }
 
     /**
@@ -218,7 +371,7 @@ public class GVRTransform extends GVRComponent {
      * @return The transform's current scaling on the 'Y' axis.
      */
     public float getScaleY() {
-        return NativeTransform.getScaleY(getNative());
+        return data().get(SCALE + 1);
     }
 
     /**
@@ -227,7 +380,7 @@ public class GVRTransform extends GVRComponent {
      * @return The transform's current scaling on the 'Z' axis.
      */
     public float getScaleZ() {
-        return NativeTransform.getScaleZ(getNative());
+        return data().get(SCALE + 2);
     }
 
     /**
@@ -241,7 +394,11 @@ public class GVRTransform extends GVRComponent {
      *            Scaling factor on the 'Z' axis.
      */
     public void setScale(float x, float y, float z) {
-        NativeTransform.setScale(getNative(), x, y, z);
+        FloatBuffer data = data();
+        data.put(SCALE, x);
+        data.put(SCALE + 1, y);
+        data.put(SCALE + 2, z);
+        changed();
     }
 
     /**
@@ -251,7 +408,8 @@ public class GVRTransform extends GVRComponent {
      *            Scaling factor on the 'X' axis.
      */
     public void setScaleX(float x) {
-        NativeTransform.setScaleX(getNative(), x);
+        data().put(SCALE, x);
+        changed();
     }
 
     /**
@@ -261,7 +419,8 @@ public class GVRTransform extends GVRComponent {
      *            Scaling factor on the 'Y' axis.
      */
     public void setScaleY(float y) {
-        NativeTransform.setScaleY(getNative(), y);
+        data().put(SCALE + 1, y);
+        changed();
     }
 
     /**
@@ -271,7 +430,8 @@ public class GVRTransform extends GVRComponent {
      *            Scaling factor on the 'Z' axis.
      */
     public void setScaleZ(float z) {
-        NativeTransform.setScaleZ(getNative(), z);
+        data().put(SCALE + 2, z);
+        changed();
     }
 
     /**
@@ -281,7 +441,34 @@ public class GVRTransform extends GVRComponent {
      *         OpenGL-compatible column-major format.
      */
     public float[] getModelMatrix() {
-        return NativeTransform.getModelMatrix(getNative());
+        float[] matrix = new float[16];
+        getModelMatrix(matrix);
+        return matrix;
+    }
+
+    /**
+     * Get the 4x4 single matrix that combines all scaling, rotation, and
+     * translation operations, into an existing array.
+     * 
+     * Unlike {@link #getModelMatrix()}, this doesn't allocate; and unless
+     * this transform or one of its ancestors has changed since the matrix was
+     * last computed, it doesn't call native code either.
+     * 
+     * @param matrix
+     *            An array of 16 {@code float}s, to receive a 4x4 matrix in
+     *            OpenGL-compatible column-major format.
+     */
+    public void getModelMatrix(float[] matrix) {
+        if (matrix.length != 16) {
+            throw new IllegalArgumentException("Size not equal to 16.");
+        }
+        FloatBuffer data = data();
+        if (flags().get(CHECKED_COUNT) != getModificationCount()) {
+            NativeTransform.updateModelMatrix(getNative());
+        }
+        for (int i = 0; i < 16; ++i) {
+            matrix[i] = data.get(MODEL_MATRIX + i);
+        }
     }
 
     /**
@@ -313,7 +500,11 @@ public class GVRTransform extends GVRComponent {
      *            'Z' delta
      */
     public void translate(float x, float y, float z) {
-        NativeTransform.translate(getNative(), x, y, z);
+        FloatBuffer data = data();
+        data.put(POSITION, data.get(POSITION) + x);
+        data.put(POSITION + 1, data.get(POSITION + 1) + y);
+        data.put(POSITION + 2, data.get(POSITION + 2) + z);
+        changed();
     }
 
     /**
@@ -401,57 +592,14 @@ public class GVRTransform extends GVRComponent {
 class NativeTransform {
     static native long ctor();
 
-    static native float getPositionX(long transform);
-
-    static native float getPositionY(long transform);
-
-    static native float getPositionZ(long transform);
-
-    static native void setPosition(long transform, float x, float y, float z);
-
-    static native void setPositionX(long transform, float x);
-
-    static native void setPositionY(long transform, float y);
-
-    static native void setPositionZ(long transform, float z);
+    static native ByteBuffer getData(long transform);
 
-    static native float getRotationW(long transform);
+    static native ByteBuffer getModificationCounts();
 
-    static native float getRotationX(long transform);
-
-    static native float getRotationY(long transform);
-
-    static native float getRotationZ(long transform);
-
-    static native float getRotationYaw(long transform);
-
-    static native float getRotationPitch(long transform);
-
-    static native float getRotationRoll(long transform);
-
-    static native void setRotation(long transform, float w, float x, float y,
-            float z);
-
-    static native float getScaleX(long transform);
-
-    static native float getScaleY(long transform);
-
-    static native float getScaleZ(long transform);
-
-    static native void setScale(long transform, float x, float y, float z);
-
-    static native void setScaleX(long transform, float x);
-
-    static native void setScaleY(long transform, float y);
-
-    static native void setScaleZ(long transform, float z);
-
-    static native float[] getModelMatrix(long transform);
+    static native void updateModelMatrix(long transform);
 
     static native void setModelMatrix(long tranform, float[] mat);
 
-    static native void translate(long transform, float x, float y, float z);
-
     static native void setRotationByAxis(long transform, float angle, float x,
             float y, float z);
 
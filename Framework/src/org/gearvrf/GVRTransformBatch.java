@@ -0,0 +1,174 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Sets the positions, rotations and/or scales of many {@link GVRTransform
+ * transforms} at once.
+ * 
+ * Particle systems, crowds and data visualizations move thousands of objects
+ * every frame. A batch takes their new values packed in a {@code float[]} or
+ * a direct {@link FloatBuffer}, and applies them all in one native call. As
+ * with the individual setters, the model matrices are recomputed once, when
+ * the frame is drawn.
+ * 
+ * <p>
+ * The list of transforms is fixed when the batch is created, so create a
+ * batch once and reuse it every frame. The batch keeps its transforms alive.
+ */
+public class GVRTransformBatch extends GVRHybridObject {
+    /** Per transform: position x, y, z */
+    public static final int POSITIONS = 0;
+    /** Per transform: rotation quaternion w, x, y, z */
+    public static final int ROTATIONS = 1;
+    /** Per transform: scale x, y, z */
+    public static final int SCALES = 2;
+    /**
+     * Per transform: position x, y, z; rotation w, x, y, z; scale x, y, z
+     */
+    public static final int TRS = 3;
+
+    private final GVRTransform[] mTransforms;
+
+    /**
+     * Constructs a batch over a list of transforms.
+     * 
+     * @param gvrContext
+     *            Current {@link GVRContext}
+     * @param transforms
+     *            The transforms, in the order their values will be packed.
+     */
+    public GVRTransformBatch(GVRContext gvrContext, GVRTransform[] transforms) {
+        super(gvrContext, NativeTransformBatch.ctor(getNatives(transforms)));
+        mTransforms = transforms.clone();
+    }
+
+    private static long[] getNatives(GVRTransform[] transforms) {
+        long[] natives = new long[transforms.length];
+        for (int i = 0; i < transforms.length; ++i) {
+            natives[i] = transforms[i].getNative();
+        }
+        return natives;
+    }
+
+    /**
+     * Get the number of transforms in the batch.
+     * 
+     * @return The number of transforms.
+     */
+    public int size() {
+        return mTransforms.length;
+    }
+
+    /**
+     * Get one of the batch's transforms.
+     * 
+     * @param index
+     *            The transform's position in the batch.
+     * @return The transform.
+     */
+    public GVRTransform getTransform(int index) {
+        return mTransforms[index];
+    }
+
+    /**
+     * Sets every transform in the batch.
+     * 
+     * @param layout
+     *            What {@code values} holds for each transform:
+     *            {@link #POSITIONS}, {@link #ROTATIONS}, {@link #SCALES} or
+     *            {@link #TRS}.
+     * @param values
+     *            The values, packed transform after transform, starting at
+     *            index 0.
+     * @throws IllegalArgumentException
+     *             if {@code values} is too short for the layout and size.
+     */
+    public void set(int layout, float[] values) {
+        checkLength(layout, values.length);
+        NativeTransformBatch.set(getNative(), layout, values, 0);
+    }
+
+    /**
+     * Sets every transform in the batch, from a direct buffer.
+     * 
+     * A direct buffer that is refilled every frame avoids even the copy the
+     * VM may make of a {@code float[]}.
+     * 
+     * @param layout
+     *            What {@code values} holds for each transform:
+     *            {@link #POSITIONS}, {@link #ROTATIONS}, {@link #SCALES} or
+     *            {@link #TRS}.
+     * @param values
+     *            A direct buffer in native byte order, holding the packed
+     *            values from its current position. The position is not
+     *            changed. Note that {@code ByteBuffer.allocateDirect()} is
+     *            big-endian until its {@code order()} is set to
+     *            {@link ByteOrder#nativeOrder()}.
+     * @throws IllegalArgumentException
+     *             if {@code values} is not direct, is not in native byte
+     *             order, or has too few values remaining for the layout and
+     *             size.
+     */
+    public void set(int layout, FloatBuffer values) {
+        if (!values.isDirect()) {
+            throw new IllegalArgumentException("Buffer is not direct.");
+        }
+        // Native code reads the floats as they are in memory
+        if (values.order() != ByteOrder.nativeOrder()) {
+            throw new IllegalArgumentException(
+                    "Buffer is not in native byte order.");
+        }
+        checkLength(layout, values.remaining());
+        NativeTransformBatch.setFromBuffer(getNative(), layout, values,
+                values.position());
+    }
+
+    private void checkLength(int layout, int length) {
+        int stride;
+        switch (layout) {
+        case POSITIONS:
+        case SCALES:
+            stride = 3;
+            break;
+        case ROTATIONS:
+            stride = 4;
+            break;
+        case TRS:
+            stride = 10;
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown layout " + layout);
+        }
+        if (length < mTransforms.length * stride) {
+            throw new IllegalArgumentException("Need " + mTransforms.length
+                    * stride + " values, got " + length);
+        }
+    }
+}
+
+class NativeTransformBatch {
+    static native long ctor(long[] transforms);
+
+    static native void set(long transformBatch, int layout, float[] values,
+            int offset);
+
+    static native void setFromBuffer(long transformBatch, int layout,
+            FloatBuffer values, int offset);
+}
@@ -2,4 +2,10 @@ package org.gearvrf;
 
 class NativeGLDelete {
     static native void processQueues();
+
+    static native void setFrameBudget(int maxObjects, int maxMicroseconds);
+
+    static native int getPendingCount(int resourceType);
+
+    static native long getReclaimedCount(int resourceType);
 }
@@ -17,6 +17,8 @@ package org.gearvrf.asynchronous;
 
 import static org.gearvrf.asynchronous.GLESX.*;
 
+import java.nio.ByteBuffer;
+
 import org.gearvrf.utility.RuntimeAssertion;
 
 /** .astc loader */
@@ -40,14 +42,30 @@ class AdaptiveScalableTextureCompression extends GVRCompressedTextureLoader {
         return 16;
     }
 
+    @Override
+    public byte[] signature() {
+        // MAGIC_NUMBER, little-endian
+        return new byte[] { 0x13, (byte) 0xAB, (byte) 0xA1, 0x5C };
+    }
+
     @Override
     public boolean sniff(byte[] data, Reader reader) {
+        return sniff(ByteBuffer.wrap(data), reader);
+    }
+
+    @Override
+    public boolean sniff(ByteBuffer data, Reader reader) {
         int magic = reader.read(4);
         return magic == MAGIC_NUMBER;
     }
 
     @Override
     public CompressedTexture parse(byte[] data, Reader reader) {
+        return parse(ByteBuffer.wrap(data), reader);
+    }
+
+    @Override
+    public CompressedTexture parse(ByteBuffer data, Reader reader) {
         reader.skip(4);
         int blockdim_x = reader.read(1);
         int blockdim_y = reader.read(1);
@@ -60,8 +78,9 @@ class AdaptiveScalableTextureCompression extends GVRCompressedTextureLoader {
         int width = reader.read(3);
         int height = reader.read(3);
 
-        return CompressedTexture(format, width, height, data.length - 16, 1,
-                data, 16, data.length - 16);
+        int imageSize = data.remaining() - 16;
+        return CompressedTexture(format, width, height, imageSize, 1, data,
+                16, imageSize);
     }
 
     /**
@@ -304,14 +304,30 @@ abstract class AsyncBitmapTexture {
         protected AsyncLoadTextureResource(GVRContext gvrContext,
                 GVRAndroidResource request,
                 CancelableCallback<GVRHybridObject> callback, int priority) {
-            super(gvrContext, sConverter, request, callback);
+            super(gvrContext, sConverter, request, callback, priority);
         }
 
         @Override
         protected Bitmap loadResource() {
+            DiskTextureCache diskCache = DiskTextureCache.get();
+            String key = null;
+            if (diskCache != null) {
+                key = diskCache.getKey(resource, glMaxTextureSize,
+                        maxImageSize);
+                Bitmap cached = diskCache.load(key);
+                if (cached != null) {
+                    resource.closeStream();
+                    return cached;
+                }
+            }
+
             Bitmap bitmap = decodeStream(resource.getStream(),
                     glMaxTextureSize, glMaxTextureSize, true, null, false);
             resource.closeStream();
+
+            if (diskCache != null && bitmap != null) {
+                diskCache.save(key, bitmap);
+            }
             return bitmap;
         }
     }
@@ -82,7 +82,7 @@ abstract class AsyncCubemapTexture {
         protected AsyncLoadCubemapTextureResource(GVRContext gvrContext,
                 GVRAndroidResource request,
                 CancelableCallback<GVRHybridObject> callback, int priority) {
-            super(gvrContext, sConverter, request, callback);
+            super(gvrContext, sConverter, request, callback, priority);
         }
 
         @Override
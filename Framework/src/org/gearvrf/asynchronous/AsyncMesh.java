@@ -61,7 +61,7 @@ abstract class AsyncMesh {
 
         AsyncLoadMesh(GVRContext gvrContext, GVRAndroidResource request,
                 CancelableCallback<GVRHybridObject> callback, int priority) {
-            super(gvrContext, sConverter, request, callback);
+            super(gvrContext, sConverter, request, callback, priority);
         }
 
         @Override
@@ -15,11 +15,12 @@
 
 package org.gearvrf.asynchronous;
 
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
-import java.util.List;
 
 import org.gearvrf.GVRContext;
 import org.gearvrf.asynchronous.GVRCompressedTextureLoader.Reader;
@@ -89,13 +90,41 @@ class CompressedTexture {
     }
 
     GVRCompressedTexture toTexture(GVRContext gvrContext, int quality) {
-        return new GVRCompressedTexture(gvrContext, internalformat, width,
-                height, imageSize, data.array(), levels, quality);
+        // Upload straight from data - which may be a mapped file, or a view
+        // of a larger array - instead of copying it into a byte[] for JNI.
+        GVRCompressedTexture result = new GVRCompressedTexture(gvrContext,
+                GVRCompressedTexture.GL_TARGET, levels, quality);
+
+        result.rebind();
+        GLES20.glCompressedTexImage2D(GVRCompressedTexture.GL_TARGET, 0,
+                internalformat, width, height, 0, imageSize, data);
+        result.setDataSize(imageSize);
+        result.unbind();
+
+        return result;
+    }
+
+    /**
+     * Progressive version of {@link #toTexture(GVRContext, int)}.
+     * 
+     * Formats that contain a mipmap chain upload their smallest levels
+     * immediately, so that the texture can be used at once, and then upload
+     * one finer level per frame. Single-level formats just call
+     * {@link #toTexture(GVRContext, int)}.
+     * 
+     * @param maxSize
+     *            Levels wider or taller than this are never uploaded, so
+     *            distant objects don't pay for detail they can't show. Zero
+     *            means 'no limit.' The smallest level is always uploaded.
+     */
+    GVRCompressedTexture toTexture(GVRContext gvrContext, int quality,
+            int maxSize) {
+        return toTexture(gvrContext, quality);
     }
 
     /**
      * Loads a file into memory; detects type, and calls the appropriate
-     * {@link GVRCompressedTextureLoader#parse(byte[], Reader)} method.
+     * {@link GVRCompressedTextureLoader#parse(ByteBuffer, Reader)} method.
      * 
      * @param stream
      *            InputStream containing a compressed texture file
@@ -112,69 +141,57 @@ class CompressedTexture {
      */
     static CompressedTexture load(InputStream stream, boolean closeStream)
             throws IOException {
-        byte[] data;
+        GVRCompressedTextureLoader.Index index = GVRCompressedTextureLoader
+                .getIndex();
         try {
-            data = readBytes(stream);
+            ByteBuffer data = null;
+            if (stream instanceof FileInputStream) {
+                data = map((FileInputStream) stream);
+            }
+
+            GVRCompressedTextureLoader loader;
+            if (data != null) {
+                loader = select(index, data);
+            } else {
+                // Pick the loader from the header, before reading the rest:
+                // files that no loader recognizes fail fast
+                byte[] header = new byte[index.maximumHeaderLength];
+                int headerLength = readBytes(stream, header);
+                loader = select(index, ByteBuffer.wrap(header));
+                data = readBuffer(stream, header, headerLength);
+            }
+            return loader.parse(data, new Reader(data));
         } finally {
             if (closeStream) {
                 stream.close();
             }
         }
+    }
 
-        Reader reader = new Reader(data);
-
-        GVRCompressedTextureLoader valid = null;
-        List<GVRCompressedTextureLoader> loaders = GVRCompressedTextureLoader
-                .getLoaders();
-        synchronized (loaders) {
-            for (GVRCompressedTextureLoader loader : loaders) {
-                if (loader.sniff(data, reader)) {
-                    if (valid != null) {
-                        throw new IllegalArgumentException(
-                                "Multiple loaders think this smells right");
-                    }
-                    valid = loader;
-                }
-                reader.reset();
-            }
-            if (valid == null) {
-                throw new IllegalArgumentException(
-                        "No loader thinks this smells right");
-            }
-            return valid.parse(data, reader);
+    private static GVRCompressedTextureLoader select(
+            GVRCompressedTextureLoader.Index index, ByteBuffer data) {
+        GVRCompressedTextureLoader valid = index.select(data);
+        if (valid == null) {
+            throw new IllegalArgumentException(
+                    "No loader thinks this smells right");
         }
+        return valid;
     }
 
     static GVRCompressedTextureLoader sniff(InputStream stream)
             throws IOException {
-        byte[] data = readBytes(stream,
-                GVRCompressedTextureLoader.maximumHeaderLength);
-
-        Reader reader = new Reader(data);
-
-        GVRCompressedTextureLoader valid = null;
-        List<GVRCompressedTextureLoader> loaders = GVRCompressedTextureLoader
-                .getLoaders();
-        synchronized (loaders) {
-            for (GVRCompressedTextureLoader loader : loaders) {
-                if (loader.sniff(data, reader)) {
-                    if (valid != null) {
-                        throw new IllegalArgumentException(
-                                "Multiple loaders think this smells right");
-                    }
-                    valid = loader;
-                }
-                reader.reset();
-            }
-            return valid;
-        }
+        GVRCompressedTextureLoader.Index index = GVRCompressedTextureLoader
+                .getIndex();
+        byte[] header = new byte[index.maximumHeaderLength];
+        readBytes(stream, header);
+        return index.select(ByteBuffer.wrap(header));
     }
 
     static CompressedTexture parse(InputStream stream, boolean closeStream,
             GVRCompressedTextureLoader loader) throws IOException {
-        byte[] data;
+        ByteBuffer data;
         try {
-            data = readBytes(stream);
+            data = readBuffer(stream);
         } finally {
             if (closeStream) {
                 stream.close();
@@ -184,47 +201,99 @@ class CompressedTexture {
         return loader.parse(data, new Reader(data));
     }
 
-    private static byte[] readBytes(InputStream stream, final int bytes)
+    /**
+     * Fill {@code result}, or read to the end of the stream. Any bytes past
+     * the end of the stream are left zero.
+     * 
+     * @return Number of bytes read
+     */
+    private static int readBytes(InputStream stream, byte[] result)
             throws IOException {
-        byte[] result = new byte[bytes], buffer = new byte[bytes];
         int length = 0;
 
-        for (int read = 0; read >= 0 && length < bytes; read = stream
-                .read(buffer)) {
-            if (read > 0) {
-                for (int index = 0; index < read && length < bytes;) {
-                    result[length++] = buffer[index++];
-                }
+        for (int read = 0; read >= 0 && length < result.length; read = stream
+                .read(result, length, result.length - length)) {
+            length += read;
+        }
+
+        return length;
+    }
+
+    /**
+     * Get the rest of the stream as a {@link ByteBuffer}.
+     * 
+     * <p>
+     * A {@link FileInputStream} (including a stream from
+     * {@link android.content.res.AssetFileDescriptor#createInputStream()} or
+     * {@link android.os.ParcelFileDescriptor}) is memory-mapped: the texture
+     * goes from the page cache to GL without ever being copied onto the Java
+     * heap. Any other stream is read into an array, which is wrapped without
+     * a final trimming copy.
+     */
+    private static ByteBuffer readBuffer(InputStream stream)
+            throws IOException {
+        if (stream instanceof FileInputStream) {
+            ByteBuffer mapped = map((FileInputStream) stream);
+            if (mapped != null) {
+                return mapped;
             }
         }
-        buffer = null;
 
-        return result;
+        return readBuffer(stream, NO_BYTES, 0);
     }
 
-    private static byte[] readBytes(InputStream stream) throws IOException {
-        byte[] result = new byte[INITIAL_CAPACITY];
-        int capacity = result.length, length = 0;
-
-        byte[] buffer = new byte[BUFFER_SIZE];
-
-        for (int read = 0; read >= 0; read = stream.read(buffer)) {
-            if (read > 0) {
-                if (length + read > capacity) {
-                    // copy to new array with double capacity
-                    capacity <<= 1;
-                    result = Arrays.copyOf(result, capacity);
-                }
-                for (int index = 0; index < read; ++index) {
-                    result[length++] = buffer[index];
-                }
+    /**
+     * Read the rest of the stream into an array, after {@code prefixLength}
+     * bytes that have already been read into {@code prefix}.
+     */
+    private static ByteBuffer readBuffer(InputStream stream, byte[] prefix,
+            int prefixLength) throws IOException {
+        byte[] result = new byte[Math.max(INITIAL_CAPACITY, prefixLength
+                + stream.available() + 1)];
+        System.arraycopy(prefix, 0, result, 0, prefixLength);
+        int length = prefixLength;
+
+        for (int read = 0; read >= 0; read = stream.read(result, length,
+                result.length - length)) {
+            length += read;
+            if (length == result.length) {
+                // copy to new array with double capacity
+                result = Arrays.copyOf(result, result.length << 1);
             }
         }
-        buffer = null;
 
-        return capacity == length ? result : Arrays.copyOf(result, length);
+        return ByteBuffer.wrap(result, 0, length).slice();
+    }
+
+    /**
+     * Map the rest of a file stream.
+     * 
+     * @return A read-only buffer, or {@code null} if the stream can't be
+     *         mapped
+     */
+    private static ByteBuffer map(FileInputStream stream) {
+        try {
+            FileChannel channel = stream.getChannel();
+            long position = channel.position();
+            long length = channel.size() - position;
+            // An asset's stream is a window on the (uncompressed) APK: the
+            // channel size is the whole APK, available() is just the asset
+            int available = stream.available();
+            if (available > 0 && available < length) {
+                length = available;
+            }
+            if (length <= 0 || length > Integer.MAX_VALUE) {
+                return null;
+            }
+            // The mapping stays valid after the stream is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    length);
+        } catch (IOException e) {
+            // Some streams (pipes, sockets) can't be mapped: just read them
+            return null;
+        }
     }
 
     private static final int INITIAL_CAPACITY = 4 * 1024;
-    private static final int BUFFER_SIZE = 4 * 1024;
+    private static final byte[] NO_BYTES = {};
 }
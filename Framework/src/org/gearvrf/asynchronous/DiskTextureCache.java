@@ -0,0 +1,316 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.asynchronous;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.gearvrf.GVRAndroidResource;
+import org.gearvrf.utility.Log;
+
+import android.content.Context;
+import android.content.pm.PackageManager.NameNotFoundException;
+import android.graphics.Bitmap;
+import android.graphics.Bitmap.Config;
+
+/**
+ * Persistent cache of decoded bitmap textures.
+ *
+ * Decoding PNG and JPEG files is most of the cost of loading a bitmap texture,
+ * and every launch decodes the same assets again. This cache saves the
+ * decoded (and possibly shrunk) {@code ARGB_8888} pixels in a small file,
+ * keyed by the resource's {@linkplain GVRAndroidResource#getResourceKey()
+ * identity} plus the decode size limits. Later loads map the file and copy the pixels straight into a
+ * {@link Bitmap}, skipping the decoder entirely.
+ *
+ * <p>
+ * Compressed textures are not cached: their files are already in
+ * ready-to-upload form.
+ *
+ * <p>
+ * File format: a header (magic, version, key, width, height, alpha flag)
+ * followed by {@code width * height * 4} bytes of pixels. The full key is
+ * stored in the header, so a hash collision in the file name is just a miss.
+ */
+class DiskTextureCache {
+
+    private static final String TAG = Log.tag(DiskTextureCache.class);
+
+    private static final int MAGIC = 0x47565254; // 'GVRT'
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".tex";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static volatile DiskTextureCache sInstance = null;
+
+    private final File directory;
+    private final long maxBytes;
+    /** Invalidates asset and {@code res} entries when the app is updated */
+    private final long appStamp;
+    private long bytes;
+
+    private DiskTextureCache(File directory, long maxBytes, long appStamp) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.appStamp = appStamp;
+
+        directory.mkdirs();
+        long total = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                total += file.length();
+            }
+        }
+        this.bytes = total;
+    }
+
+    /**
+     * Enable (or, with {@code maxBytes <= 0}, disable) the disk cache.
+     *
+     * @param context
+     *            Android context, used to get the app's install time
+     * @param directory
+     *            Cache directory; the cache assumes it owns every file in it
+     * @param maxBytes
+     *            Size limit, in bytes
+     */
+    static void enable(Context context, File directory, long maxBytes) {
+        if (maxBytes <= 0) {
+            sInstance = null;
+            return;
+        }
+
+        long appStamp = 0;
+        try {
+            appStamp = context.getPackageManager().getPackageInfo(
+                    context.getPackageName(), 0).lastUpdateTime;
+        } catch (NameNotFoundException e) {
+            e.printStackTrace();
+        }
+
+        sInstance = new DiskTextureCache(directory, maxBytes, appStamp);
+    }
+
+    /** @return The current cache, or {@code null} if it is disabled */
+    static DiskTextureCache get() {
+        return sInstance;
+    }
+
+    /**
+     * The cache key: the resource identity, anything that can make the same
+     * identity mean different pixels, and the decode limits.
+     */
+    String getKey(GVRAndroidResource resource, int maxTextureSize,
+            int maxImageSize) {
+        StringBuilder key = new StringBuilder(resource.getResourceKey());
+        String filePath = resource.getFilePath();
+        if (filePath != null) {
+            File file = new File(filePath);
+            key.append('@').append(file.length()).append(':')
+                    .append(file.lastModified());
+        } else {
+            key.append('@').append(appStamp);
+        }
+        key.append('/').append(maxTextureSize).append('/')
+                .append(maxImageSize);
+        return key.toString();
+    }
+
+    private File getFile(String key) {
+        return new File(directory, Integer.toHexString(key.hashCode())
+                + SUFFIX);
+    }
+
+    /**
+     * Load a cached bitmap.
+     *
+     * A file that is damaged, or in an old format, is deleted: it counts as
+     * a miss, so the resource is decoded (and saved) again.
+     *
+     * @return The bitmap, or {@code null} on a miss or any error
+     */
+    Bitmap load(String key) {
+        File file = getFile(key);
+        if (file.exists() == false) {
+            return null;
+        }
+
+        boolean damaged = true;
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "r");
+            FileChannel channel = randomAccessFile.getChannel();
+            MappedByteBuffer mapped = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (mapped.remaining() < 12 || mapped.getInt() != MAGIC
+                    || mapped.getInt() != VERSION) {
+                return null;
+            }
+            int keyLength = mapped.getInt();
+            if (keyLength < 0 || keyLength > mapped.remaining()) {
+                return null;
+            }
+            byte[] keyBytes = new byte[keyLength];
+            mapped.get(keyBytes);
+            if (key.equals(new String(keyBytes, UTF_8)) == false) {
+                // Another key's file, whose name has the same hash
+                damaged = false;
+                return null;
+            }
+            if (mapped.remaining() < 9) {
+                return null;
+            }
+            int width = mapped.getInt();
+            int height = mapped.getInt();
+            boolean hasAlpha = mapped.get() != 0;
+            if (width <= 0 || height <= 0
+                    || mapped.remaining() < (long) width * height * 4) {
+                return null;
+            }
+
+            Bitmap bitmap = Bitmap.createBitmap(width, height,
+                    Config.ARGB_8888);
+            bitmap.copyPixelsFromBuffer(mapped.slice());
+            bitmap.setHasAlpha(hasAlpha);
+
+            // Most-recently-used files survive eviction
+            file.setLastModified(System.currentTimeMillis());
+            damaged = false;
+            return bitmap;
+        } catch (IOException e) {
+            // Not necessarily the file's fault
+            damaged = false;
+            Log.w(TAG, "Error reading %s: %s", file, e);
+            return null;
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Error reading %s: %s", file, e);
+            return null;
+        } finally {
+            close(randomAccessFile);
+            if (damaged) {
+                delete(file);
+            }
+        }
+    }
+
+    /** Delete a file, keeping the byte count in step */
+    private synchronized void delete(File file) {
+        long length = file.length();
+        if (file.delete()) {
+            bytes -= length;
+        }
+    }
+
+    /** Save a decoded bitmap. Errors are logged, and otherwise ignored. */
+    void save(String key, Bitmap bitmap) {
+        if (bitmap.getConfig() != Config.ARGB_8888) {
+            return;
+        }
+
+        byte[] keyBytes = key.getBytes(UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(4 * 5 + keyBytes.length + 1)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(keyBytes.length)
+                .put(keyBytes);
+        header.putInt(bitmap.getWidth()).putInt(bitmap.getHeight())
+                .put((byte) (bitmap.hasAlpha() ? 1 : 0));
+        header.flip();
+
+        long size = header.remaining() + (long) bitmap.getByteCount();
+        if (size > maxBytes) {
+            return;
+        }
+
+        ByteBuffer pixels = ByteBuffer.allocateDirect(bitmap.getByteCount());
+        bitmap.copyPixelsToBuffer(pixels);
+        pixels.flip();
+
+        File file = getFile(key);
+        File temporary = new File(directory, file.getName() + "."
+                + Thread.currentThread().getId());
+        FileOutputStream stream = null;
+        try {
+            stream = new FileOutputStream(temporary);
+            FileChannel channel = stream.getChannel();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (pixels.hasRemaining()) {
+                channel.write(pixels);
+            }
+            stream.close();
+            stream = null;
+
+            synchronized (this) {
+                long previous = file.length();
+                if (temporary.renameTo(file)) {
+                    bytes += size - previous;
+                    trim();
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Error writing %s: %s", file, e);
+        } finally {
+            close(stream);
+            temporary.delete();
+        }
+    }
+
+    /** Delete least-recently-used files until we're within budget */
+    private synchronized void trim() {
+        if (bytes <= maxBytes) {
+            return;
+        }
+
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long left = lhs.lastModified(), right = rhs.lastModified();
+                return left < right ? -1 : (left == right ? 0 : 1);
+            }
+        });
+        for (int index = 0; index < files.length && bytes > maxBytes; ++index) {
+            delete(files[index]);
+        }
+    }
+
+    private static void close(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
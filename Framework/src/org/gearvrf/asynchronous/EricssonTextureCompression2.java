@@ -17,6 +17,8 @@ package org.gearvrf.asynchronous;
 
 import static android.opengl.GLES30.*;
 
+import java.nio.ByteBuffer;
+
 import org.gearvrf.utility.RuntimeAssertion;
 
 import android.util.SparseArray;
@@ -32,8 +34,19 @@ class EricssonTextureCompression2 extends GVRCompressedTextureLoader {
         return 16;
     }
 
+    @Override
+    public byte[] signature() {
+        // PKM_SIGNATURE and VERSION_SIGNATURE, less the varying byte
+        return new byte[] { 'P', 'K', 'M', ' ', '2', '0', 0 };
+    }
+
     @Override
     public boolean sniff(byte[] data, Reader reader) {
+        return sniff(ByteBuffer.wrap(data), reader);
+    }
+
+    @Override
+    public boolean sniff(ByteBuffer data, Reader reader) {
         int firstWord = reader.read(4);
         if (firstWord != PKM_SIGNATURE) {
             return false;
@@ -44,6 +57,11 @@ class EricssonTextureCompression2 extends GVRCompressedTextureLoader {
 
     @Override
     public CompressedTexture parse(byte[] data, Reader reader) {
+        return parse(ByteBuffer.wrap(data), reader);
+    }
+
+    @Override
+    public CompressedTexture parse(ByteBuffer data, Reader reader) {
         // paddedWidthMSB = data[8];
         // paddedWidthLSB = data[9];
         // paddedHeightMSB = data[10];
@@ -84,7 +102,7 @@ class EricssonTextureCompression2 extends GVRCompressedTextureLoader {
         int imageSize = etc2(width) * etc2(height) * multiplier;
 
         return CompressedTexture(internalformat, width, height, imageSize, 1,
-                data, 16, data.length - 16);
+                data, 16, data.remaining() - 16);
     }
 
     private int etc2(int dimension) {
@@ -15,6 +15,7 @@
 
 package org.gearvrf.asynchronous;
 
+import java.io.File;
 import java.io.FileDescriptor;
 import java.io.FileInputStream;
 import java.io.InputStream;
@@ -61,6 +62,103 @@ public class GVRAsynchronousResourceLoader {
         AsyncBitmapTexture.setup(gvrContext);
     }
 
+    /**
+     * Enable or disable the persistent cache of decoded bitmap textures.
+     * 
+     * This is the implementation of
+     * {@link GVRContext#setTextureDiskCacheSize(long)}: it will usually be
+     * more convenient to call that directly.
+     * 
+     * @param gvrContext
+     *            The GVRF context
+     * @param directory
+     *            Cache directory. The cache assumes that it owns every file
+     *            in this directory.
+     * @param maxBytes
+     *            Size limit, in bytes; 0 disables the cache
+     */
+    public static void setTextureDiskCache(GVRContext gvrContext,
+            File directory, long maxBytes) {
+        DiskTextureCache.enable(gvrContext.getContext(), directory, maxBytes);
+    }
+
+    /**
+     * Set the per-frame time budget for the GL-thread half of asynchronous
+     * loads.
+     * 
+     * Each finished background load still needs some GL-thread work (like a
+     * texture upload) before the app's callback can run. Each frame runs
+     * queued GL work, highest priority first, until this much time has been
+     * used; the rest waits for later frames. At least one item runs each
+     * frame. The default is 2 ms.
+     * 
+     * @param nanoseconds
+     *            Per-frame budget, in nanoseconds
+     * @throws IllegalArgumentException
+     *             If {@code nanoseconds} is negative
+     */
+    public static void setGlUploadBudget(long nanoseconds) {
+        GlUploadScheduler.setBudget(nanoseconds);
+    }
+
+    /**
+     * Get the per-frame time budget for the GL-thread half of asynchronous
+     * loads.
+     * 
+     * @return Per-frame budget, in nanoseconds
+     */
+    public static long getGlUploadBudget() {
+        return GlUploadScheduler.getBudget();
+    }
+
+    /**
+     * Get the number of finished background loads waiting for their GL-thread
+     * work.
+     * 
+     * @param gvrContext
+     *            The GVRF context
+     * @return Queue depth
+     */
+    public static int getPendingGlUploadCount(GVRContext gvrContext) {
+        return GlUploadScheduler.get(gvrContext).getQueueDepth();
+    }
+
+    /**
+     * Get the mean time between a background load finishing and its GL-thread
+     * work starting.
+     * 
+     * @param gvrContext
+     *            The GVRF context
+     * @return Mean upload latency, in nanoseconds
+     */
+    public static long getAverageGlUploadLatency(GVRContext gvrContext) {
+        return GlUploadScheduler.get(gvrContext).getAverageLatency();
+    }
+
+    /**
+     * Get the longest time that a finished background load has waited for its
+     * GL-thread work to start.
+     * 
+     * @param gvrContext
+     *            The GVRF context
+     * @return Maximum upload latency, in nanoseconds
+     */
+    public static long getMaxGlUploadLatency(GVRContext gvrContext) {
+        return GlUploadScheduler.get(gvrContext).getMaxLatency();
+    }
+
+    /**
+     * Get a snapshot of the throttler's scheduling statistics: pending
+     * requests by priority, coalesced and canceled requests, decode and
+     * GL-thread time histograms by resource type, and decode thread
+     * occupancy.
+     * 
+     * @return A new snapshot, each call
+     */
+    public static GVRLoaderStatistics getStatistics() {
+        return Throttler.getStatistics();
+    }
+
     /**
      * Load a compressed texture asynchronously.
      * 
@@ -122,7 +220,63 @@ public class GVRAsynchronousResourceLoader {
             final GVRAndroidResource resource, final int quality)
             throws IllegalArgumentException {
         validateCallbackParameters(gvrContext, callback, resource);
+        spawnCompressedTextureLoad(gvrContext, textureCache, callback,
+                resource, quality, ONE_SHOT);
+    }
 
+    /**
+     * Load a compressed texture asynchronously, streaming its mipmap levels.
+     * 
+     * This is the implementation of
+     * {@link GVRContext#loadCompressedTexture(GVRAndroidResource.CompressedTextureCallback, GVRAndroidResource, int, int)}
+     * : it will usually be more convenient (and more efficient) to call that
+     * directly.
+     * 
+     * @param gvrContext
+     *            The GVRF context
+     * @param textureCache
+     *            Texture cache - may be {@code null}
+     * @param callback
+     *            Asynchronous notifications
+     * @param resource
+     *            Basically, a stream containing a compressed texture. Taking a
+     *            {@link GVRAndroidResource} parameter eliminates six overloads.
+     * @param quality
+     *            Speed/quality tradeoff: should be one of
+     *            {@link GVRCompressedTexture#SPEED},
+     *            {@link GVRCompressedTexture#BALANCED}, or
+     *            {@link GVRCompressedTexture#QUALITY}, but other values are
+     *            'clamped' to one of the recognized values.
+     * @param maxSize
+     *            Mipmap levels wider or taller than this are never uploaded;
+     *            {@code 0} means 'no limit.'
+     * @throws IllegalArgumentException
+     *             If {@code gvrContext} or {@code callback} parameters are
+     *             {@code null}, or if {@code maxSize} is negative
+     */
+    public static void loadCompressedTexture(final GVRContext gvrContext,
+            final ResourceCache<GVRTexture> textureCache,
+            final CompressedTextureCallback callback,
+            final GVRAndroidResource resource, final int quality,
+            final int maxSize) throws IllegalArgumentException {
+        validateCallbackParameters(gvrContext, callback, resource);
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize may not be negative");
+        }
+        spawnCompressedTextureLoad(gvrContext, textureCache, callback,
+                resource, quality, maxSize);
+    }
+
+    /** {@code maxSize} value for a one-shot (non-progressive) upload */
+    private static final int ONE_SHOT = -1;
+
+    /** Shared implementation: parameters have already been validated */
+    private static void spawnCompressedTextureLoad(
+            final GVRContext gvrContext,
+            final ResourceCache<GVRTexture> textureCache,
+            final CompressedTextureCallback callback,
+            final GVRAndroidResource resource, final int quality,
+            final int maxSize) {
         final GVRTexture cached = textureCache == null ? null : textureCache
                 .get(resource);
         if (cached != null) {
@@ -144,18 +298,22 @@ public class GVRAsynchronousResourceLoader {
                                 .load(resource.getStream(), false);
                         resource.closeStream();
                         // Create texture on GL thread
-                        gvrContext.runOnGlThread(new Runnable() {
-
-                            @Override
-                            public void run() {
-                                GVRTexture texture = compressedTexture
-                                        .toTexture(gvrContext, quality);
-                                if (textureCache != null) {
-                                    textureCache.put(resource, texture);
-                                }
-                                callback.loaded(texture, resource);
-                            }
-                        });
+                        GlUploadScheduler.schedule(gvrContext,
+                                GVRContext.DEFAULT_PRIORITY, new Runnable() {
+
+                                    @Override
+                                    public void run() {
+                                        GVRTexture texture = maxSize == ONE_SHOT ? compressedTexture
+                                                .toTexture(gvrContext, quality)
+                                                : compressedTexture.toTexture(
+                                                        gvrContext, quality,
+                                                        maxSize);
+                                        if (textureCache != null) {
+                                            textureCache.put(resource, texture);
+                                        }
+                                        callback.loaded(texture, resource);
+                                    }
+                                }, callback, resource);
                     } catch (Exception e) {
                         callback.failed(e, resource);
                     }
@@ -285,16 +443,18 @@ public class GVRAsynchronousResourceLoader {
                             resource.closeStream();
 
                             // Create texture on GL thread
-                            gvrContext.runOnGlThread(new Runnable() {
-
-                                @Override
-                                public void run() {
-                                    GVRTexture texture = compressedTexture
-                                            .toTexture(gvrContext, quality);
-                                    textureCache.put(resource, texture);
-                                    callback.loaded(texture, resource);
-                                }
-                            });
+                            GlUploadScheduler.schedule(gvrContext, priority,
+                                    new Runnable() {
+
+                                        @Override
+                                        public void run() {
+                                            GVRTexture texture = compressedTexture
+                                                    .toTexture(gvrContext,
+                                                            quality);
+                                            textureCache.put(resource, texture);
+                                            callback.loaded(texture, resource);
+                                        }
+                                    }, callback, resource);
                         } else {
                             // We don't have a compressed texture: pass to
                             // AsyncBitmapTexture code
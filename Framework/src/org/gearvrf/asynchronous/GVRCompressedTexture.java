@@ -65,6 +65,7 @@ public class GVRCompressedTexture extends GVRTexture {
                 internalFormat, width, height, imageSize, data));
         mLevels = levels;
         mQuality = GVRCompressedTexture.clamp(quality);
+        setEstimatedSize(imageSize);
 
         updateMinification();
     }
@@ -117,6 +118,14 @@ public class GVRCompressedTexture extends GVRTexture {
         }
     }
 
+    /**
+     * The mipmapped constructor doesn't upload any data: the loader that
+     * uploads the levels reports the total size when it's done.
+     */
+    void setDataSize(long bytes) {
+        setEstimatedSize(bytes);
+    }
+
     protected void rebind() {
         glBindTexture(GL_TARGET, getId());
     }
@@ -18,6 +18,7 @@ package org.gearvrf.asynchronous;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import android.graphics.BitmapFactory;
@@ -38,10 +39,14 @@ import android.opengl.GLES20;
  * <p>
  * The general data flow is
  * <ul>
- * <li>The internal load method loads the file into memory
- * <li>If one and only one {@linkplain #sniff(byte[], Reader) sniff()} method
- * returns {@code true}, the data is passed to the corresponding
- * {@linkplain #parse(byte[], Reader) parse()} method
+ * <li>The internal load method reads the file header, and looks up the
+ * loaders whose {@linkplain #signature() signature} it starts with (plus any
+ * loaders without a signature)
+ * <li>If one and only one of those loaders'
+ * {@linkplain #sniff(ByteBuffer, Reader) sniff()} methods returns
+ * {@code true}, the internal load method loads (or maps) the rest of the file,
+ * and passes it to the corresponding {@linkplain #parse(ByteBuffer, Reader)
+ * parse()} method
  * <li>The {@code parse()} method extracts GL parameters, and uses
  * {@code CompressedTexture()} to return an internal {@code CompressedTexture}
  * instance
@@ -77,6 +82,30 @@ public abstract class GVRCompressedTextureLoader {
      */
     public abstract int headerLength();
 
+    /**
+     * The fixed bytes that every file in 'my' format starts with, if any.
+     * 
+     * <p>
+     * Registered loaders are indexed by their signatures: the
+     * {@link CompressedTexture#load(InputStream) load()} methods only call
+     * {@link #sniff(ByteBuffer, Reader) sniff()} if the header starts with
+     * this loader's signature, so files in other formats never reach it. A
+     * loader that returns {@code null} (the default) has its sniffer called
+     * for every file.
+     * 
+     * <p>
+     * The signature is read once, when the loader is {@linkplain #register()
+     * registered}.
+     * 
+     * @return The signature bytes, or {@code null} if the format has no fixed
+     *         signature. Should not be longer than {@link #headerLength()}.
+     * 
+     * @since 2.0.2
+     */
+    public byte[] signature() {
+        return null;
+    }
+
     /**
      * Does this byte array contain an instance of 'my' compressed texture? The
      * {@link CompressedTexture#load(InputStream) load()} methods will call all
@@ -113,6 +142,64 @@ public abstract class GVRCompressedTextureLoader {
      */
     public abstract CompressedTexture parse(byte[] data, Reader reader);
 
+    /**
+     * Does this buffer contain an instance of 'my' compressed texture?
+     * 
+     * <p>
+     * The internal load methods call this overload, which lets loaders work
+     * on a memory-mapped file without ever copying it onto the Java heap. The
+     * default implementation copies the header into a {@code byte[]} and
+     * calls {@link #sniff(byte[], Reader)}: override this to avoid even that.
+     * 
+     * @param data
+     *            A compressed texture file's contents, from
+     *            {@code data.position()} to {@code data.limit()}. May be a
+     *            direct (mapped) buffer.
+     * @param reader
+     *            A data reader, pointing to the start of {@code data}
+     * @return Whether or not this data is in 'my' format
+     * 
+     * @since 2.0.2
+     */
+    public boolean sniff(ByteBuffer data, Reader reader) {
+        byte[] header = new byte[Math.min(headerLength(), data.remaining())];
+        data.duplicate().get(header);
+        return sniff(header, new Reader(header));
+    }
+
+    /**
+     * Parse the header, and return a {@link CompressedTexture}. This will only
+     * be called if the loader's {@link #sniff(ByteBuffer, Reader)} function
+     * returned {@code true}.
+     * 
+     * <p>
+     * The internal load methods call this overload. The default
+     * implementation copies the data into a {@code byte[]} (unless it already
+     * is an exactly-sized array) and calls {@link #parse(byte[], Reader)}:
+     * override this, and use
+     * {@link #CompressedTexture(int, int, int, int, int, ByteBuffer, int, int)}
+     * , to upload straight from a memory-mapped file.
+     * 
+     * @param data
+     *            A compressed texture file's contents, from
+     *            {@code data.position()} to {@code data.limit()}. May be a
+     *            direct (mapped) buffer.
+     * @param reader
+     *            A data reader, pointing to the start of {@code data}
+     * @return A {@code CompressedTexture}
+     * 
+     * @since 2.0.2
+     */
+    public CompressedTexture parse(ByteBuffer data, Reader reader) {
+        if (data.hasArray() && data.arrayOffset() == 0
+                && data.position() == 0 && data.limit() == data.array().length) {
+            return parse(data.array(), reader);
+        }
+        byte[] bytes = new byte[data.remaining()];
+        data.duplicate().get(bytes);
+        return parse(bytes, new Reader(bytes));
+    }
+
     /**
      * Provides external parsers access to the internal
      * {@code CompressedTexture} constructor.
@@ -159,11 +246,48 @@ public abstract class GVRCompressedTextureLoader {
     protected CompressedTexture CompressedTexture(int internalformat,
             int width, int height, int imageSize, int levels, byte[] data,
             int dataOffset, int dataBytes) {
-        ByteBuffer buffer = ByteBuffer.wrap(data, dataOffset, dataBytes);
+        ByteBuffer buffer = ByteBuffer.wrap(data, dataOffset, dataBytes)
+                .slice();
         return new CompressedTexture(internalformat, width, height, imageSize,
                 levels, buffer);
     }
 
+    /**
+     * Provides external parsers access to the internal
+     * {@code CompressedTexture} constructor, without copying the data.
+     * 
+     * <p>
+     * This is the {@link ByteBuffer} equivalent of
+     * {@link #CompressedTexture(int, int, int, int, int, byte[], int, int)}:
+     * the texture data is a view of {@code data}, so a memory-mapped file
+     * goes straight to GL.
+     * 
+     * @param data
+     *            The {@code ByteBuffer} passed to
+     *            {@link #parse(ByteBuffer, Reader)}
+     * @param dataOffset
+     *            Header length - offset of first byte of texture data,
+     *            relative to {@code data.position()}
+     * @param dataBytes
+     *            Number of bytes of texture data
+     * 
+     * @since 2.0.2
+     */
+    protected CompressedTexture CompressedTexture(int internalformat,
+            int width, int height, int imageSize, int levels, ByteBuffer data,
+            int dataOffset, int dataBytes) {
+        return new CompressedTexture(internalformat, width, height, imageSize,
+                levels, slice(data, dataOffset, dataBytes));
+    }
+
+    /** A view of {@code bytes} bytes of {@code data}, starting at {@code offset} */
+    static ByteBuffer slice(ByteBuffer data, int offset, int bytes) {
+        ByteBuffer view = data.duplicate();
+        view.position(data.position() + offset);
+        view.limit(data.position() + offset + bytes);
+        return view.slice();
+    }
+
     /**
      * Register a loader with the 'sniffer'.
      * 
@@ -180,23 +304,133 @@ public abstract class GVRCompressedTextureLoader {
     public void register() {
         synchronized (loaders) {
             loaders.add(this);
+            index = new Index(loaders);
+        }
+    }
 
-            maximumHeaderLength = 0;
-            for (GVRCompressedTextureLoader loader : loaders) {
-                int headerLength = loader.headerLength();
-                if (headerLength > maximumHeaderLength) {
-                    maximumHeaderLength = headerLength;
+    /**
+     * The current loader index. Registration replaces the index, rather than
+     * changing it, so loads never need to take a lock.
+     */
+    static Index getIndex() {
+        return index;
+    }
+
+    /** Only used (and locked) by {@link #register()} */
+    private static final List<GVRCompressedTextureLoader> loaders = new ArrayList<GVRCompressedTextureLoader>();
+    private static volatile Index index = new Index(loaders);
+
+    /** A loader, and its {@link GVRCompressedTextureLoader#signature()} */
+    private static final class Entry {
+        private final GVRCompressedTextureLoader loader;
+        private final byte[] signature;
+
+        private Entry(GVRCompressedTextureLoader loader, byte[] signature) {
+            this.loader = loader;
+            this.signature = signature;
+        }
+
+        private boolean matches(ByteBuffer data) {
+            if (data.remaining() < signature.length) {
+                return false;
+            }
+            int position = data.position();
+            for (int index = 1; index < signature.length; ++index) {
+                if (data.get(position + index) != signature[index]) {
+                    return false;
                 }
             }
+            return true; // index is keyed by signature[0]
         }
     }
 
-    static List<GVRCompressedTextureLoader> getLoaders() {
-        return loaders;
-    }
+    /**
+     * Immutable snapshot of the registered loaders. Loaders with a signature
+     * are bucketed by its first byte; only loaders without one are sniffed
+     * unconditionally.
+     */
+    static final class Index {
+        /** Bytes of header data needed to select a loader */
+        final int maximumHeaderLength;
 
-    private static final List<GVRCompressedTextureLoader> loaders = new ArrayList<GVRCompressedTextureLoader>();
-    static int maximumHeaderLength = 0;
+        private final Entry[][] bySignature = new Entry[256][];
+        private final GVRCompressedTextureLoader[] unsigned;
+
+        private Index(List<GVRCompressedTextureLoader> loaders) {
+            int maximumHeaderLength = 0;
+            List<GVRCompressedTextureLoader> unsigned = new ArrayList<GVRCompressedTextureLoader>();
+            for (GVRCompressedTextureLoader loader : loaders) {
+                maximumHeaderLength = Math.max(maximumHeaderLength,
+                        loader.headerLength());
+
+                byte[] signature = loader.signature();
+                if (signature == null || signature.length == 0) {
+                    unsigned.add(loader);
+                } else {
+                    signature = signature.clone();
+                    maximumHeaderLength = Math.max(maximumHeaderLength,
+                            signature.length);
+
+                    int bucket = signature[0] & 0xff;
+                    Entry[] entries = bySignature[bucket];
+                    entries = entries == null ? new Entry[1] : Arrays.copyOf(
+                            entries, entries.length + 1);
+                    entries[entries.length - 1] = new Entry(loader, signature);
+                    bySignature[bucket] = entries;
+                }
+            }
+            this.maximumHeaderLength = maximumHeaderLength;
+            this.unsigned = unsigned
+                    .toArray(new GVRCompressedTextureLoader[unsigned.size()]);
+        }
+
+        /**
+         * Find the loader for a file.
+         * 
+         * @param data
+         *            At least the first {@link #maximumHeaderLength} bytes of
+         *            the file, from {@code data.position()}
+         * @return The one loader that recognizes this file, or {@code null}
+         *         if none does
+         * @throws IllegalArgumentException
+         *             If multiple loaders recognize the file
+         */
+        GVRCompressedTextureLoader select(ByteBuffer data) {
+            Reader reader = new Reader(data);
+            GVRCompressedTextureLoader valid = null;
+
+            if (data.hasRemaining()) {
+                Entry[] entries = bySignature[data.get(data.position()) & 0xff];
+                if (entries != null) {
+                    for (Entry entry : entries) {
+                        if (entry.matches(data)) {
+                            valid = sniff(entry.loader, data, reader, valid);
+                        }
+                    }
+                }
+            }
+            for (GVRCompressedTextureLoader loader : unsigned) {
+                valid = sniff(loader, data, reader, valid);
+            }
+
+            return valid;
+        }
+
+        private static GVRCompressedTextureLoader sniff(
+                GVRCompressedTextureLoader loader, ByteBuffer data,
+                Reader reader, GVRCompressedTextureLoader valid) {
+            boolean smellsRight = loader.sniff(data, reader);
+            reader.reset();
+            if (smellsRight) {
+                if (valid != null) {
+                    throw new IllegalArgumentException(
+                            "Multiple loaders think this smells right");
+                }
+                return loader;
+            }
+            return valid;
+        }
+    }
 
     /*
      * We can (and do) expect apps to register any custom loaders before calling
@@ -213,19 +447,30 @@ public abstract class GVRCompressedTextureLoader {
 
     /** Utility class for reading big- and little-endian numbers from a header */
     protected static final class Reader {
-        private final byte[] data;
-        // private final int length;
+        private final ByteBuffer data;
+        /** data.position(), at construction */
+        private final int base;
         private int readPointer;
 
         /** Wrap a Reader around a byte array */
         protected Reader(byte[] data) {
+            this(ByteBuffer.wrap(data));
+        }
+
+        /**
+         * Wrap a Reader around a (possibly direct) buffer. The reader starts
+         * at the buffer's current position, and never changes it.
+         * 
+         * @since 2.0.2
+         */
+        protected Reader(ByteBuffer data) {
             this.data = data;
-            // this.length = data.length;
+            this.base = data.position();
             this.readPointer = 0;
         }
 
         private byte read() {
-            return data[readPointer++];
+            return data.get(base + readPointer++);
         }
 
         protected static final int INTEGER_BYTES = Integer.SIZE / Byte.SIZE;
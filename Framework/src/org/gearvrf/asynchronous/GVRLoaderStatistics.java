@@ -0,0 +1,209 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.asynchronous;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.gearvrf.GVRContext;
+
+/**
+ * A snapshot of the asynchronous loader's scheduling decisions.
+ *
+ * Get one by calling {@link GVRAsynchronousResourceLoader#getStatistics()}.
+ * The numbers are meant for tuning (thread limits, image size policies, load
+ * priorities) on a particular device: they are cheap to collect, and always
+ * on.
+ *
+ * <p>
+ * Counts are cumulative since the process started. Each getter returns data
+ * from the moment the snapshot was taken.
+ */
+public final class GVRLoaderStatistics {
+
+    private final SortedMap<Integer, Integer> pendingByPriority;
+    private final long coalescedRequests;
+    private final long canceledRequests;
+    private final Map<Class<?>, Histogram> decodeTimes;
+    private final Map<Class<?>, Histogram> convertTimes;
+    private final int decodeThreadLimit;
+    private final int busyDecodeThreads;
+
+    GVRLoaderStatistics(SortedMap<Integer, Integer> pendingByPriority,
+            long coalescedRequests, long canceledRequests,
+            Map<Class<?>, Histogram> decodeTimes,
+            Map<Class<?>, Histogram> convertTimes, int decodeThreadLimit,
+            int busyDecodeThreads) {
+        this.pendingByPriority = Collections
+                .unmodifiableSortedMap(pendingByPriority);
+        this.coalescedRequests = coalescedRequests;
+        this.canceledRequests = canceledRequests;
+        this.decodeTimes = Collections.unmodifiableMap(decodeTimes);
+        this.convertTimes = Collections.unmodifiableMap(convertTimes);
+        this.decodeThreadLimit = decodeThreadLimit;
+        this.busyDecodeThreads = busyDecodeThreads;
+    }
+
+    /**
+     * The number of pending (queued or running) requests in each priority
+     * group. A group's priority is the highest priority of any of its
+     * callbacks: see {@link GVRContext#DEFAULT_PRIORITY}.
+     *
+     * @return An unmodifiable map from priority to request count
+     */
+    public SortedMap<Integer, Integer> getPendingByPriority() {
+        return pendingByPriority;
+    }
+
+    /**
+     * @return The number of requests that were satisfied by an
+     *         already-pending request for the same resource
+     */
+    public long getCoalescedRequests() {
+        return coalescedRequests;
+    }
+
+    /**
+     * @return The number of requests that were dropped before they were
+     *         decoded, because none of their callbacks still wanted them
+     */
+    public long getCanceledRequests() {
+        return canceledRequests;
+    }
+
+    /**
+     * Background (decode) times, by resource type.
+     *
+     * @return An unmodifiable map from the requested class (like
+     *         {@code GVRTexture.class} or {@code GVRMesh.class}) to a
+     *         histogram of decode times
+     */
+    public Map<Class<?>, Histogram> getDecodeTimes() {
+        return decodeTimes;
+    }
+
+    /**
+     * GL-thread (conversion and upload) times, by resource type.
+     *
+     * @return An unmodifiable map from the requested class to a histogram of
+     *         GL-thread times
+     */
+    public Map<Class<?>, Histogram> getConvertTimes() {
+        return convertTimes;
+    }
+
+    /** @return The maximum number of decode threads */
+    public int getDecodeThreadLimit() {
+        return decodeThreadLimit;
+    }
+
+    /** @return The number of decode threads busy when the snapshot was taken */
+    public int getBusyDecodeThreads() {
+        return busyDecodeThreads;
+    }
+
+    @Override
+    public String toString() {
+        return String
+                .format("pending = %s, coalesced = %d, canceled = %d, threads = %d/%d, decode = %s, convert = %s",
+                        pendingByPriority, coalescedRequests,
+                        canceledRequests, busyDecodeThreads,
+                        decodeThreadLimit, decodeTimes, convertTimes);
+    }
+
+    /**
+     * A histogram of durations, with power-of-two millisecond buckets.
+     *
+     * Bucket 0 counts durations under 1 ms; bucket {@code n} counts durations
+     * of at least 2<sup>n-1</sup> and under 2<sup>n</sup> ms; the last bucket
+     * counts everything longer.
+     */
+    public static final class Histogram {
+
+        /** Number of buckets */
+        public static final int BUCKETS = 12;
+
+        private static final long NANOSECONDS_PER_MILLISECOND = 1000 * 1000;
+
+        private final long[] buckets = new long[BUCKETS];
+        private long count = 0;
+        private long totalTime = 0;
+        private long maxTime = 0;
+
+        Histogram() {
+        }
+
+        private Histogram(Histogram source) {
+            System.arraycopy(source.buckets, 0, buckets, 0, BUCKETS);
+            count = source.count;
+            totalTime = source.totalTime;
+            maxTime = source.maxTime;
+        }
+
+        /** Live histograms are only changed by their owner, under its lock */
+        void record(long nanoseconds) {
+            long milliseconds = nanoseconds / NANOSECONDS_PER_MILLISECOND;
+            int bucket = milliseconds == 0 ? 0 : 64 - Long
+                    .numberOfLeadingZeros(milliseconds);
+            buckets[Math.min(bucket, BUCKETS - 1)] += 1;
+
+            count += 1;
+            totalTime += nanoseconds;
+            if (nanoseconds > maxTime) {
+                maxTime = nanoseconds;
+            }
+        }
+
+        Histogram copy() {
+            return new Histogram(this);
+        }
+
+        /**
+         * @return The exclusive upper limit of a bucket, in milliseconds, or
+         *         {@link Long#MAX_VALUE} for the last bucket
+         */
+        public static long getBucketLimit(int bucket) {
+            return bucket < BUCKETS - 1 ? 1L << bucket : Long.MAX_VALUE;
+        }
+
+        /** @return A copy of the bucket counts */
+        public long[] getBuckets() {
+            return buckets.clone();
+        }
+
+        /** @return Number of durations recorded */
+        public long getCount() {
+            return count;
+        }
+
+        /** @return Mean duration, in nanoseconds */
+        public long getAverageTime() {
+            return count == 0 ? 0 : totalTime / count;
+        }
+
+        /** @return Longest duration, in nanoseconds */
+        public long getMaxTime() {
+            return maxTime;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("{count = %d, mean = %d ns, max = %d ns}",
+                    count, getAverageTime(), maxTime);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.asynchronous;
+
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.WeakHashMap;
+
+import org.gearvrf.GVRAndroidResource;
+import org.gearvrf.GVRAndroidResource.Callback;
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRDrawFrameListener;
+import org.gearvrf.utility.Log;
+import org.gearvrf.utility.Threads;
+
+/**
+ * Runs the GL-thread half of asynchronous loads within a per-frame time
+ * budget.
+ *
+ * Background decodes finish whenever they finish: a model with dozens of
+ * textures can easily complete several decodes in the same frame. Pushing each
+ * {@link Throttler.GlConverter GlConverter} call straight to
+ * {@link GVRContext#runOnGlThread(Runnable)} runs them all in one frame, and
+ * drops it. The scheduler queues them instead, highest priority first (FIFO
+ * within a priority), and each frame runs as many as fit in the budget. Work
+ * that doesn't fit carries over to the next frame; each frame runs at least
+ * one upload, so the queue always drains.
+ *
+ * <p>
+ * There is one scheduler per {@link GVRContext}. It registers itself as a
+ * {@link GVRDrawFrameListener} on first use, and stays registered: an empty
+ * queue costs one synchronized check per frame, and never re-registering
+ * avoids lock-order problems with the frame listener list.
+ */
+class GlUploadScheduler implements GVRDrawFrameListener {
+
+    private static final String TAG = Log.tag(GlUploadScheduler.class);
+
+    /** Default per-frame budget, in nanoseconds: 2 ms */
+    static final long DEFAULT_BUDGET = 2000000L;
+
+    private static volatile long sBudget = DEFAULT_BUDGET;
+
+    private static final Map<GVRContext, GlUploadScheduler> sSchedulers = new WeakHashMap<GVRContext, GlUploadScheduler>();
+
+    private final PriorityQueue<Upload> queue = new PriorityQueue<Upload>();
+    private long sequence = 0;
+
+    // Statistics: all guarded by this
+    private long uploadCount = 0;
+    private long totalLatency = 0;
+    private long maxLatency = 0;
+    private long lastFrameTime = 0;
+
+    private GlUploadScheduler() {
+    }
+
+    /**
+     * Queue a GL-thread conversion.
+     *
+     * @param gvrContext
+     *            The GVRF context
+     * @param priority
+     *            A value {@literal >=} {@link GVRContext#LOWEST_PRIORITY} and
+     *            {@literal <=} {@link GVRContext#HIGHEST_PRIORITY}
+     * @param upload
+     *            The GL-thread code
+     * @param callback
+     *            Told, through {@link Callback#failed(Throwable,
+     *            GVRAndroidResource) failed()}, if {@code upload} throws
+     * @param resource
+     *            The resource being uploaded
+     */
+    static void schedule(GVRContext gvrContext, int priority, Runnable upload,
+            Callback<?> callback, GVRAndroidResource resource) {
+        get(gvrContext).add(priority, upload, callback, resource);
+    }
+
+    /** Get (and, if necessary, create and register) a context's scheduler */
+    static GlUploadScheduler get(GVRContext gvrContext) {
+        GlUploadScheduler scheduler;
+        boolean created = false;
+        synchronized (sSchedulers) {
+            scheduler = sSchedulers.get(gvrContext);
+            if (scheduler == null) {
+                scheduler = new GlUploadScheduler();
+                sSchedulers.put(gvrContext, scheduler);
+                created = true;
+            }
+        }
+        if (created) {
+            gvrContext.registerDrawFrameListener(scheduler);
+        }
+        return scheduler;
+    }
+
+    /**
+     * Set the per-frame budget.
+     *
+     * @param nanoseconds
+     *            Time budget; {@code 0} means 'one upload per frame'
+     */
+    static void setBudget(long nanoseconds) {
+        if (nanoseconds < 0) {
+            throw new IllegalArgumentException("budget may not be negative");
+        }
+        sBudget = nanoseconds;
+    }
+
+    static long getBudget() {
+        return sBudget;
+    }
+
+    private synchronized void add(int priority, Runnable upload,
+            Callback<?> callback, GVRAndroidResource resource) {
+        queue.add(new Upload(priority, sequence++, upload, callback, resource));
+    }
+
+    private synchronized Upload poll() {
+        return queue.poll();
+    }
+
+    @Override
+    public void onDrawFrame(float frameTime) {
+        long start = System.nanoTime();
+        long deadline = start + sBudget;
+
+        long now = start;
+        int count = 0;
+        for (Upload upload = poll(); upload != null; upload = poll()) {
+            long latency = now - upload.queued;
+            try {
+                upload.runnable.run();
+            } catch (Throwable t) {
+                // Otherwise, nothing waiting on the resource would ever hear
+                upload.failed(t);
+            }
+            now = System.nanoTime();
+            ++count;
+
+            synchronized (this) {
+                uploadCount += 1;
+                totalLatency += latency;
+                if (latency > maxLatency) {
+                    maxLatency = latency;
+                }
+            }
+            if (now >= deadline) {
+                break;
+            }
+        }
+
+        if (count > 0) {
+            synchronized (this) {
+                lastFrameTime = now - start;
+            }
+            if (Threads.VERBOSE_SCHEDULING) {
+                Log.d(TAG, "Ran %d uploads in %d ns; %d still queued", count,
+                        now - start, getQueueDepth());
+            }
+        }
+    }
+
+    /** @return Number of uploads waiting for the GL thread */
+    synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    /** @return Number of uploads run, since the scheduler was created */
+    synchronized long getUploadCount() {
+        return uploadCount;
+    }
+
+    /**
+     * @return Mean time, in nanoseconds, between an upload being queued and
+     *         it starting to run
+     */
+    synchronized long getAverageLatency() {
+        return uploadCount == 0 ? 0 : totalLatency / uploadCount;
+    }
+
+    /** @return Longest time, in nanoseconds, that an upload has waited */
+    synchronized long getMaxLatency() {
+        return maxLatency;
+    }
+
+    /**
+     * @return Time, in nanoseconds, spent on uploads in the last frame that
+     *         had any
+     */
+    synchronized long getLastFrameTime() {
+        return lastFrameTime;
+    }
+
+    private static class Upload implements Comparable<Upload> {
+        private final int priority;
+        private final long sequence;
+        private final long queued = System.nanoTime();
+        private final Runnable runnable;
+        private final Callback<?> callback;
+        private final GVRAndroidResource resource;
+
+        private Upload(int priority, long sequence, Runnable runnable,
+                Callback<?> callback, GVRAndroidResource resource) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.runnable = runnable;
+            this.callback = callback;
+            this.resource = resource;
+        }
+
+        private void failed(Throwable t) {
+            try {
+                callback.failed(t, resource);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+
+        @Override
+        public int compareTo(Upload another) {
+            // Higher priority first; then first-come, first-served
+            if (priority != another.priority) {
+                return priority > another.priority ? -1 : 1;
+            }
+            return sequence < another.sequence ? -1
+                    : (sequence == another.sequence ? 0 : 1);
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
 import org.gearvrf.GVRContext;
+import org.gearvrf.GVRDrawFrameListener;
 import org.gearvrf.utility.Log;
 import org.gearvrf.utility.RuntimeAssertion;
 
@@ -50,13 +51,26 @@ class KTX extends GVRCompressedTextureLoader {
             // '«', 'K', 'T', 'X', ' ', '1', '1', '»', '\r', '\n', '\x1A', '\n'
             0xAB4B5458, 0x203131BB, 0x0D0A1A0A };
 
+    private static final byte[] SIGNATURE_BYTES = { (byte) 0xAB, 'K', 'T',
+            'X', ' ', '1', '1', (byte) 0xBB, '\r', '\n', 0x1A, '\n' };
+
     @Override
     public int headerLength() {
         return (SIGNATURE.length + 13) * Reader.INTEGER_BYTES;
     }
 
+    @Override
+    public byte[] signature() {
+        return SIGNATURE_BYTES;
+    }
+
     @Override
     public boolean sniff(byte[] data, Reader reader) {
+        return sniff(ByteBuffer.wrap(data), reader);
+    }
+
+    @Override
+    public boolean sniff(ByteBuffer data, Reader reader) {
         for (int chunk : SIGNATURE) {
             if (chunk != reader.readBE(Reader.INTEGER_BYTES)) {
                 return false;
@@ -68,6 +82,11 @@ class KTX extends GVRCompressedTextureLoader {
 
     @Override
     public CompressedTexture parse(byte[] data, Reader reader) {
+        return parse(ByteBuffer.wrap(data), reader);
+    }
+
+    @Override
+    public CompressedTexture parse(ByteBuffer data, Reader reader) {
         reader.skip(SIGNATURE.length * Reader.INTEGER_BYTES);
 
         int endianness = reader.readLE(Reader.INTEGER_BYTES);
@@ -128,7 +147,8 @@ class KTX extends GVRCompressedTextureLoader {
         int headerSize = (SIGNATURE.length + 13) * Reader.INTEGER_BYTES
                 + bytesOfKeyValueData;
 
-        ByteBuffer buffer = ByteBuffer.wrap(data, headerSize, data.length
+        // A view, not a copy: data may be a mapped file
+        ByteBuffer buffer = slice(data, headerSize, data.remaining()
                 - headerSize);
         return new KtxCompressedTexture(
         /* glBaseInternalFormat */glInternalFormat, pixelWidth, pixelHeight,
@@ -172,6 +192,7 @@ class KTX extends GVRCompressedTextureLoader {
 
             result.rebind();
 
+            long dataSize = 0;
             for (int fileLevel = 0; fileLevel < levels; ++fileLevel) {
                 data.order(dataOrder);
                 int imageSize = data.getInt();
@@ -191,11 +212,136 @@ class KTX extends GVRCompressedTextureLoader {
                         internalformat, Math.max(1, width >> fileLevel),
                         Math.max(1, height >> fileLevel), 0, imageSize, data);
                 data.position(data.position() + imageSize + imagePadding);
+                dataSize += imageSize;
             }
+            result.setDataSize(dataSize);
 
             result.unbind();
             return result;
         }
 
+        @Override
+        GVRCompressedTexture toTexture(GVRContext gvrContext, int quality,
+                int maxSize) {
+            if (levels <= 1) {
+                return toTexture(gvrContext, quality);
+            }
+
+            GVRCompressedTexture result = new GVRCompressedTexture(gvrContext,
+                    GVRCompressedTexture.GL_TARGET, levels, quality);
+            ProgressiveUpload upload = new ProgressiveUpload(gvrContext,
+                    result, maxSize);
+
+            // The small levels are cheap: upload them all now, so the texture
+            // is usable (at low resolution) as soon as the callback fires
+            result.rebind();
+            glTexParameteri(GL_TEXTURE_2D, GLES30.GL_TEXTURE_MAX_LEVEL,
+                    levels - 1);
+            do {
+                upload.uploadNextLevel();
+            } while (upload.hasMoreLevels()
+                    && upload.getNextLevelSize() <= IMMEDIATE_SIZE);
+            result.unbind();
+
+            if (upload.hasMoreLevels()) {
+                gvrContext.registerDrawFrameListener(upload);
+            }
+            return result;
+        }
+
+        /**
+         * Levels this size or smaller are all uploaded in the first frame;
+         * larger levels are uploaded one per frame
+         */
+        private static final int IMMEDIATE_SIZE = 64;
+
+        /**
+         * Uploads a mipmap chain from the coarsest level to the finest,
+         * keeping GL_TEXTURE_BASE_LEVEL at the finest level uploaded so far so
+         * that the texture is always mipmap-complete.
+         */
+        private class ProgressiveUpload implements GVRDrawFrameListener {
+            private final GVRContext gvrContext;
+            private final GVRCompressedTexture texture;
+            private final int[] offsets = new int[levels];
+            private final int[] imageSizes = new int[levels];
+            /** Finest level we will upload */
+            private final int baseLevel;
+            /** Next level to upload */
+            private int level = levels - 1;
+            private long dataSize = 0;
+
+            ProgressiveUpload(GVRContext gvrContext,
+                    GVRCompressedTexture texture, int maxSize) {
+                this.gvrContext = gvrContext;
+                this.texture = texture;
+
+                // Find the levels without reading (or, for a mapped file,
+                // paging in) any image data
+                ByteBuffer sizes = data.duplicate().order(
+                        littleEndian ? ByteOrder.LITTLE_ENDIAN
+                                : ByteOrder.BIG_ENDIAN);
+                int position = sizes.position();
+                for (int fileLevel = 0; fileLevel < levels; ++fileLevel) {
+                    int imageSize = sizes.getInt(position);
+                    int imagePadding = (4 - (imageSize & 0x03)) & 0x03;
+                    imageSizes[fileLevel] = imageSize;
+                    offsets[fileLevel] = position + Reader.INTEGER_BYTES;
+                    position += Reader.INTEGER_BYTES + imageSize
+                            + imagePadding;
+                }
+
+                int baseLevel = 0;
+                if (maxSize > 0) {
+                    while (baseLevel < levels - 1
+                            && getLevelSize(baseLevel) > maxSize) {
+                        ++baseLevel;
+                    }
+                }
+                this.baseLevel = baseLevel;
+            }
+
+            boolean hasMoreLevels() {
+                return level >= baseLevel;
+            }
+
+            int getNextLevelSize() {
+                return getLevelSize(level);
+            }
+
+            private int getLevelSize(int fileLevel) {
+                return Math.max(width >> fileLevel, height >> fileLevel);
+            }
+
+            /** Texture must be bound */
+            void uploadNextLevel() {
+                ByteBuffer levelData = data.duplicate();
+                levelData.position(offsets[level]);
+
+                GLES30.glCompressedTexImage2D(GL_TEXTURE_2D, level,
+                        internalformat, Math.max(1, width >> level),
+                        Math.max(1, height >> level), 0, imageSizes[level],
+                        levelData);
+                glTexParameteri(GL_TEXTURE_2D, GLES30.GL_TEXTURE_BASE_LEVEL,
+                        level);
+
+                dataSize += imageSizes[level];
+                texture.setDataSize(dataSize);
+                --level;
+            }
+
+            @Override
+            public void onDrawFrame(float frameTime) {
+                texture.rebind();
+                uploadNextLevel();
+                texture.unbind();
+
+                if (hasMoreLevels() == false) {
+                    Log.d(TAG, "Finished progressive upload, base level %d",
+                            baseLevel);
+                    gvrContext.unregisterDrawFrameListener(this);
+                }
+            }
+        }
     }
 }
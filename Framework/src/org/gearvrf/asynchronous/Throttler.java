@@ -22,7 +22,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.gearvrf.GVRAndroidResource;
 import org.gearvrf.GVRContext;
@@ -66,6 +69,10 @@ abstract class Throttler {
                 priority);
     }
 
+    static GVRLoaderStatistics getStatistics() {
+        return requests.getStatistics();
+    }
+
     /*
      * Static constants
      */
@@ -130,7 +137,8 @@ abstract class Throttler {
      * thread. The {@link #run()} method calls {@link #loadResource()} which
      * does the actual work of reading the {@link GVRAndroidResource} stream and
      * converting it to the {@code INTERMEDIATE} type. If the load succeeds,
-     * {@code run()} pushes a {@code Runnable} to the GL thread, which does any
+     * {@code run()} queues a {@code Runnable} on the {@link GlUploadScheduler}
+     * , which runs it on the GL thread (within a per-frame budget) to do any
      * needed conversions (like {@code Bitmap} to {@code GVRTGexture}) and then
      * calls the app's
      * {@link Callback#loaded(GVRHybridObject, GVRAndroidResource) loaded()}
@@ -157,22 +165,42 @@ abstract class Throttler {
         protected final GVRAndroidResource resource;
         protected final GlConverter<OUTPUT, INTERMEDIATE> converter;
         protected final CancelableCallback<GVRHybridObject> callback;
+        /** Priority at creation: see {@link #getPriority()} */
+        private final int priority;
 
         protected AsyncLoader(GVRContext gvrContext,
                 GlConverter<OUTPUT, INTERMEDIATE> converter,
                 GVRAndroidResource request,
-                CancelableCallback<GVRHybridObject> callback) {
+                CancelableCallback<GVRHybridObject> callback, int priority) {
             this.gvrContext = gvrContext;
             this.converter = converter;
             this.resource = request;
             this.callback = callback;
+            this.priority = priority;
+        }
+
+        /**
+         * The request's current priority, which may have been raised by
+         * consolidated requests since this loader was created
+         */
+        private int getPriority() {
+            return callback instanceof PriorityCancelable ? ((PriorityCancelable) callback)
+                    .getPriority() : priority;
+        }
+
+        /** The requested class, for {@link GVRLoaderStatistics} */
+        private Class<?> getResourceType() {
+            return callback instanceof PendingRequests.PendingRequest ? ((PendingRequests.PendingRequest) callback).outClass
+                    : getClass();
         }
 
         @Override
         public void run() {
             INTERMEDIATE async = null;
+            long start = System.nanoTime();
             try {
                 async = loadResource(); // load resource, on background thread
+                recordDecodeTime(getResourceType(), System.nanoTime() - start);
             } catch (Throwable t) {
                 t.printStackTrace();
                 async = null;
@@ -180,15 +208,19 @@ abstract class Throttler {
             } finally {
                 if (async != null) {
                     final INTERMEDIATE loadedResource = async;
-                    gvrContext.runOnGlThread(new Runnable() {
-
-                        @Override
-                        public void run() {
-                            OUTPUT gvrfResource = converter.convert(gvrContext,
-                                    loadedResource);
-                            callback.loaded(gvrfResource, resource);
-                        }
-                    });
+                    GlUploadScheduler.schedule(gvrContext, getPriority(),
+                            new Runnable() {
+
+                                @Override
+                                public void run() {
+                                    long start = System.nanoTime();
+                                    OUTPUT gvrfResource = converter.convert(
+                                            gvrContext, loadedResource);
+                                    recordConvertTime(getResourceType(),
+                                            System.nanoTime() - start);
+                                    callback.loaded(gvrfResource, resource);
+                                }
+                            }, callback, resource);
                 } else {
                     // loadResource() returned null
                     callback.failed(null, resource);
@@ -242,6 +274,46 @@ abstract class Throttler {
                 CancelableCallback<GVRHybridObject> callback, int priority);
     }
 
+    /*
+     * Statistics
+     */
+
+    private static final Map<Class<?>, GVRLoaderStatistics.Histogram> decodeTimes = new HashMap<Class<?>, GVRLoaderStatistics.Histogram>();
+    private static final Map<Class<?>, GVRLoaderStatistics.Histogram> convertTimes = new HashMap<Class<?>, GVRLoaderStatistics.Histogram>();
+
+    private static void recordDecodeTime(Class<?> type, long nanoseconds) {
+        record(decodeTimes, type, nanoseconds);
+    }
+
+    private static void recordConvertTime(Class<?> type, long nanoseconds) {
+        record(convertTimes, type, nanoseconds);
+    }
+
+    private static void record(
+            Map<Class<?>, GVRLoaderStatistics.Histogram> histograms,
+            Class<?> type, long nanoseconds) {
+        synchronized (histograms) {
+            GVRLoaderStatistics.Histogram histogram = histograms.get(type);
+            if (histogram == null) {
+                histogram = new GVRLoaderStatistics.Histogram();
+                histograms.put(type, histogram);
+            }
+            histogram.record(nanoseconds);
+        }
+    }
+
+    private static Map<Class<?>, GVRLoaderStatistics.Histogram> copy(
+            Map<Class<?>, GVRLoaderStatistics.Histogram> histograms) {
+        Map<Class<?>, GVRLoaderStatistics.Histogram> result = new HashMap<Class<?>, GVRLoaderStatistics.Histogram>();
+        synchronized (histograms) {
+            for (Map.Entry<Class<?>, GVRLoaderStatistics.Histogram> entry : histograms
+                    .entrySet()) {
+                result.put(entry.getKey(), entry.getValue().copy());
+            }
+        }
+        return result;
+    }
+
     /*
      * Pending requests
      */
@@ -285,6 +357,24 @@ abstract class Throttler {
                 /* Don't exceed DECODE_THREAD_LIMIT when a download gets wedged */
                 Integer.MAX_VALUE);
 
+        private final AtomicLong coalescedRequests = new AtomicLong();
+        private final AtomicLong canceledRequests = new AtomicLong();
+
+        GVRLoaderStatistics getStatistics() {
+            SortedMap<Integer, Integer> pendingByPriority = new TreeMap<Integer, Integer>();
+            for (PendingRequest pending : pendingRequests.values()) {
+                int priority = pending.getPriority();
+                Integer count = pendingByPriority.get(priority);
+                pendingByPriority.put(priority, count == null ? 1 : count + 1);
+            }
+
+            return new GVRLoaderStatistics(pendingByPriority,
+                    coalescedRequests.get(), canceledRequests.get(),
+                    copy(decodeTimes), copy(convertTimes),
+                    deviceThreadLimiter.getMaxThreads(),
+                    deviceThreadLimiter.getBusyThreads());
+        }
+
         void registerDatatype(Class<? extends GVRHybridObject> targetClass,
                 AsyncLoaderFactory<? extends GVRHybridObject, ?> factory) {
             threadFactories.put(targetClass, factory);
@@ -323,6 +413,7 @@ abstract class Throttler {
                     // callback, and reschedule
 
                     pending.addCallback(callback, priority);
+                    coalescedRequests.incrementAndGet();
                     if (VERBOSE_SCHEDULING) {
                         Log.d(TAG, "Thread %d: rescheduling %s for request %s",
                                 threadId(), pending, request);
@@ -357,6 +448,7 @@ abstract class Throttler {
             private final int EMPTY_LIST = GVRContext.LOWEST_PRIORITY - 1;
 
             private final GVRAndroidResource request;
+            private final Class<? extends GVRHybridObject> outClass;
             private final List<CancelableCallback<? extends GVRHybridObject>> callbacks = new ArrayList<CancelableCallback<? extends GVRHybridObject>>(
                     1);
             private final Cancelable cancelable;
@@ -368,6 +460,7 @@ abstract class Throttler {
                     CancelableCallback<? extends GVRHybridObject> callback,
                     int priority, Class<? extends GVRHybridObject> outClass) {
                 this.request = request;
+                this.outClass = outClass;
                 addCallback(callback, priority);
                 updatePriority();
 
@@ -511,6 +604,7 @@ abstract class Throttler {
                     boolean cancel = callbacks.size() == 0;
 
                     if (cancel) {
+                        canceledRequests.incrementAndGet();
                         if (VERBOSE_SCHEDULING) {
                             Log.d(TAG, "Canceling %s, request %s", this,
                                     request);
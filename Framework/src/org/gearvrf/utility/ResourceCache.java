@@ -15,8 +15,11 @@
 
 package org.gearvrf.utility;
 
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.gearvrf.GVRAndroidResource;
@@ -37,34 +40,139 @@ import org.gearvrf.GVRTexture;
  * Passing the descriptor for a cached mesh to a get-texture call would return
  * the mesh ....
  * 
+ * <p>
+ * By default, the cache only holds weak references, so resources vanish as
+ * soon as nothing else is using them. Calling {@link #setMaxBytes(long)} with
+ * a positive budget adds a strong-reference LRU tier in front of the weak
+ * tier: the most recently used resources are kept alive, up to the budget, as
+ * measured by the cache's {@link SizeEstimator}. Resources evicted from the
+ * LRU tier stay in the weak tier until they are garbage collected.
+ * 
+ * <p>
+ * All methods are thread-safe.
+ * 
  * @since 2.0.2
  */
 public class ResourceCache<T extends GVRHybridObject> {
     // private static final String TAG = Log.tag(ResourceCache.class);
 
-    private final Map<GVRAndroidResource, WeakReference<T>> cache //
-    = new HashMap<GVRAndroidResource, WeakReference<T>>();
+    /** Estimates a resource's (native) memory footprint */
+    public interface SizeEstimator<T> {
+        /**
+         * @param resource
+         *            A resource that is being cached
+         * @return Estimated size, in bytes; 0 or less means 'unknown', and
+         *         keeps the resource out of the LRU tier.
+         */
+        long estimateSize(T resource);
+    }
+
+    private final Map<GVRAndroidResource, KeyedReference<T>> cache //
+    = new HashMap<GVRAndroidResource, KeyedReference<T>>();
+    private final ReferenceQueue<T> collected = new ReferenceQueue<T>();
+
+    private final SizeEstimator<T> estimator;
+    private final LinkedHashMap<GVRAndroidResource, Sized<T>> lru //
+    = new LinkedHashMap<GVRAndroidResource, Sized<T>>(16, 0.75f, true);
+    private long maxBytes = 0;
+    private long bytes = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /** Weak-only cache, that does not support {@link #setMaxBytes(long)} */
+    public ResourceCache() {
+        this(null);
+    }
+
+    /**
+     * Cache that can {@linkplain #setMaxBytes(long) keep} recently-used
+     * resources alive.
+     * 
+     * @param estimator
+     *            Used to measure resources against the LRU tier's budget
+     */
+    public ResourceCache(SizeEstimator<T> estimator) {
+        this.estimator = estimator;
+    }
+
+    /**
+     * Set the LRU tier's budget.
+     * 
+     * @param maxBytes
+     *            The most (estimated) bytes of resources that the cache will
+     *            keep alive; 0 disables the LRU tier, which is the default.
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        if (maxBytes > 0 && estimator == null) {
+            throw new IllegalStateException(
+                    "This cache has no SizeEstimator, so can not be bounded");
+        }
+        this.maxBytes = Math.max(0, maxBytes);
+        trim();
+    }
+
+    /** Get the LRU tier's budget, as set by {@link #setMaxBytes(long)} */
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /** Estimated bytes of resources currently held by the LRU tier */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /** Number of {@link #get(GVRAndroidResource)} calls that found a resource */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /** Number of {@link #get(GVRAndroidResource)} calls that returned null */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /** Number of resources pushed out of the LRU tier, to fit the budget */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
 
     /** Save a weak reference to the resource */
-    public void put(GVRAndroidResource androidResource, T resource) {
+    public synchronized void put(GVRAndroidResource androidResource, T resource) {
         // Log.d(TAG, "put(%s) saving %s", androidResource, resource);
 
-        cache.put(androidResource, new WeakReference<T>(resource));
+        purge();
+        cache.put(androidResource, new KeyedReference<T>(androidResource,
+                resource, collected));
+        retain(androidResource, resource);
     }
 
     /** Get the cached resource, or {@code null} */
-    public T get(GVRAndroidResource androidResource) {
-        WeakReference<T> reference = cache.get(androidResource);
-        if (reference == null) {
-            // Not in map
-            // Log.d(TAG, "get(%s) returning %s", androidResource, null);
-            return null;
-        }
-        T cached = reference.get();
+    public synchronized T get(GVRAndroidResource androidResource) {
+        purge();
+
+        T cached = null;
+        Sized<T> strong = lru.get(androidResource);
+        if (strong != null) {
+            cached = strong.resource;
+        } else {
+            KeyedReference<T> reference = cache.get(androidResource);
+            if (reference != null) {
+                cached = reference.get();
+                if (cached == null) {
+                    // In map, but not in memory
+                    cache.remove(androidResource);
+                } else {
+                    retain(androidResource, cached);
+                }
+            }
+        }
+
         if (cached == null) {
-            // In map, but not in memory
-            cache.remove(androidResource);
+            ++misses;
         } else {
+            ++hits;
             // No one will ever read this stream
             androidResource.closeStream();
         }
@@ -72,6 +180,64 @@ public class ResourceCache<T extends GVRHybridObject> {
         return cached;
     }
 
+    /** Add (or refresh) a resource in the LRU tier, if it's enabled */
+    private void retain(GVRAndroidResource androidResource, T resource) {
+        if (maxBytes <= 0) {
+            return;
+        }
+        long size = estimator.estimateSize(resource);
+        if (size <= 0 || size > maxBytes) {
+            return;
+        }
+        Sized<T> previous = lru.put(androidResource, new Sized<T>(resource,
+                size));
+        if (previous != null) {
+            bytes -= previous.size;
+        }
+        bytes += size;
+        trim();
+    }
+
+    /** Evict least-recently-used resources until we're within budget */
+    private void trim() {
+        Iterator<Sized<T>> iterator = lru.values().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            bytes -= iterator.next().size;
+            iterator.remove();
+            ++evictions;
+        }
+    }
+
+    /** Drop map entries whose resources have been garbage collected */
+    private void purge() {
+        KeyedReference<?> reference;
+        while ((reference = (KeyedReference<?>) collected.poll()) != null) {
+            if (cache.get(reference.key) == reference) {
+                cache.remove(reference.key);
+            }
+        }
+    }
+
+    private static class KeyedReference<T> extends WeakReference<T> {
+        private final GVRAndroidResource key;
+
+        KeyedReference(GVRAndroidResource key, T referent,
+                ReferenceQueue<? super T> queue) {
+            super(referent, queue);
+            this.key = key;
+        }
+    }
+
+    private static class Sized<T> {
+        private final T resource;
+        private final long size;
+
+        Sized(T resource, long size) {
+            this.resource = resource;
+            this.size = size;
+        }
+    }
+
     /**
      * Wrap the callback, to cache the
      * {@link Callback#loaded(GVRHybridObject, GVRAndroidResource) loaded()}
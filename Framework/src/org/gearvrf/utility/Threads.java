@@ -24,6 +24,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** Threading utilities: thread pool, thread limiter, and some miscellany. */
 public abstract class Threads {
@@ -345,6 +346,9 @@ public abstract class Threads {
          */
         private final Map<ThreadManager, ThreadTimeouts> timeoutMap;
 
+        /** Number of ThreadManagers currently running thread procs */
+        private final AtomicInteger busyThreads = new AtomicInteger();
+
         private final static int PUT = 0;
         private final static int RESCHEDULE = 1;
 
@@ -393,6 +397,20 @@ public abstract class Threads {
             timeoutMap = new HashMap<ThreadManager, ThreadTimeouts>(maxThreads);
         }
 
+        /** @return The maximum number of threads that can run at once */
+        public int getMaxThreads() {
+            return maxThreads;
+        }
+
+        /**
+         * @return The number of threads currently running thread procs. This
+         *         may (briefly) exceed {@link #getMaxThreads()} during
+         *         slow-thread recovery.
+         */
+        public int getBusyThreads() {
+            return busyThreads.get();
+        }
+
         /**
          * Run a thread proc, on a thread from the system thread pool.
          * 
@@ -509,6 +527,15 @@ public abstract class Threads {
 
             @Override
             public void run() {
+                busyThreads.incrementAndGet();
+                try {
+                    runThreadProcs();
+                } finally {
+                    busyThreads.decrementAndGet();
+                }
+            }
+
+            private void runThreadProcs() {
                 boolean workToDo = true;
                 while (workToDo) {
                     if (VERBOSE_SCHEDULING) {